@@ -0,0 +1,407 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.session.events.SessionDeletedEvent;
+import org.springframework.session.events.SessionDestroyedEvent;
+import org.springframework.session.events.SessionExpiredEvent;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link FindByIndexNameSessionRepository} that keeps the sessions loaded from a
+ * delegate {@link SessionRepository} in a bounded local cache. This allows subsequent
+ * lookups of the same session, for example the ones performed by
+ * {@link org.springframework.session.web.http.SessionRepositoryFilter} during a single
+ * request or by following requests routed to the same node, to be served without
+ * accessing the backing store.
+ *
+ * <p>
+ * Cached sessions are evicted when:
+ * </p>
+ * <ul>
+ * <li>the cache exceeds its maximum size, in which case the least recently used session
+ * is evicted</li>
+ * <li>the session has been cached for longer than the time to live</li>
+ * <li>the session is deleted using this repository</li>
+ * <li>a {@link SessionDeletedEvent} or {@link SessionExpiredEvent} is received for the
+ * session</li>
+ * </ul>
+ *
+ * <p>
+ * Every invalidation increments a version stamp, and a session loaded from the delegate
+ * is only cached if no invalidation happened while it was being loaded. This prevents a
+ * concurrently deleted session from being cached again.
+ * </p>
+ *
+ * <p>
+ * Each call to {@link #findById(String)} returns its own {@link CachedSession} that
+ * records the changes made through it, so concurrent requests for the same session do
+ * not share any mutable state. Reads of values that were not changed locally and
+ * {@link #save(CachedSession)} access the cached delegate session while holding its
+ * lock, the latter applying the recorded changes before delegating. Changes made by
+ * other nodes become visible only after the session is evicted, so the time to live
+ * bounds the staleness tolerated.
+ * </p>
+ *
+ * @param <S> the {@link Session} type of the delegate
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+public class CachingSessionRepository<S extends Session> implements
+		FindByIndexNameSessionRepository<CachingSessionRepository<S>.CachedSession>,
+		ApplicationListener<SessionDestroyedEvent> {
+
+	/**
+	 * The default maximum number of cached sessions.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	/**
+	 * The default time a session is kept in the cache.
+	 */
+	public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(1);
+
+	private final SessionRepository<S> delegate;
+
+	private final Object monitor = new Object();
+
+	private final Map<String, CacheEntry<S>> cache = new LinkedHashMap<>(16, 0.75f,
+			true);
+
+	private int maxSize = DEFAULT_MAX_SIZE;
+
+	private Duration timeToLive = DEFAULT_TIME_TO_LIVE;
+
+	private long version;
+
+	private Clock clock = Clock.systemUTC();
+
+	/**
+	 * Creates a new instance.
+	 * @param delegate the {@link SessionRepository} to delegate to
+	 */
+	public CachingSessionRepository(SessionRepository<S> delegate) {
+		Assert.notNull(delegate, "delegate cannot be null");
+		this.delegate = delegate;
+	}
+
+	/**
+	 * Sets the maximum number of cached sessions. The default is
+	 * {@link #DEFAULT_MAX_SIZE}.
+	 * @param maxSize the maximum number of cached sessions
+	 */
+	public void setMaxSize(int maxSize) {
+		Assert.isTrue(maxSize > 0, "maxSize must be positive");
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Sets the time a session is kept in the cache after it has been loaded or saved.
+	 * The default is {@link #DEFAULT_TIME_TO_LIVE}.
+	 * @param timeToLive the time to live
+	 */
+	public void setTimeToLive(Duration timeToLive) {
+		Assert.notNull(timeToLive, "timeToLive cannot be null");
+		Assert.isTrue(!timeToLive.isNegative() && !timeToLive.isZero(),
+				"timeToLive must be positive");
+		this.timeToLive = timeToLive;
+	}
+
+	void setClock(Clock clock) {
+		this.clock = clock;
+	}
+
+	@Override
+	public CachedSession createSession() {
+		return new CachedSession(new CacheEntry<>(this.delegate.createSession()));
+	}
+
+	@Override
+	public void save(CachedSession session) {
+		CacheEntry<S> entry = session.entry;
+		String id;
+		synchronized (entry) {
+			session.applyChanges();
+			this.delegate.save(entry.session);
+			id = entry.session.getId();
+		}
+		synchronized (this.monitor) {
+			put(id, entry);
+		}
+	}
+
+	@Override
+	public CachedSession findById(String id) {
+		CacheEntry<S> cached;
+		long loadVersion;
+		synchronized (this.monitor) {
+			cached = this.cache.get(id);
+			if (cached != null && !this.clock.instant().isBefore(cached.expiresAt)) {
+				this.cache.remove(id);
+				cached = null;
+			}
+			loadVersion = this.version;
+		}
+		if (cached != null) {
+			if (cached.isValid(id)) {
+				return new CachedSession(cached);
+			}
+			synchronized (this.monitor) {
+				this.cache.remove(id, cached);
+			}
+		}
+		S session = this.delegate.findById(id);
+		if (session == null) {
+			return null;
+		}
+		CacheEntry<S> loaded = new CacheEntry<>(session);
+		synchronized (this.monitor) {
+			if (this.version == loadVersion) {
+				put(id, loaded);
+			}
+		}
+		return new CachedSession(loaded);
+	}
+
+	@Override
+	public void deleteById(String id) {
+		evict(id);
+		this.delegate.deleteById(id);
+	}
+
+	/**
+	 * Delegates to the underlying repository if it is a
+	 * {@link FindByIndexNameSessionRepository}, otherwise returns an empty {@link Map}.
+	 * The result is never cached since the index can be updated by other nodes.
+	 * @param indexName the name of the index (i.e.
+	 * {@link FindByIndexNameSessionRepository#PRINCIPAL_NAME_INDEX_NAME})
+	 * @param indexValue the value of the index to search for.
+	 * @return the sessions found using the delegate
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public Map<String, CachedSession> findByIndexNameAndIndexValue(String indexName,
+			String indexValue) {
+		if (!(this.delegate instanceof FindByIndexNameSessionRepository)) {
+			return Collections.emptyMap();
+		}
+		Map<String, S> sessions = ((FindByIndexNameSessionRepository<S>) this.delegate)
+				.findByIndexNameAndIndexValue(indexName, indexValue);
+		Map<String, CachedSession> result = new HashMap<>(sessions.size());
+		sessions.forEach((id, session) -> result.put(id,
+				new CachedSession(new CacheEntry<>(session))));
+		return result;
+	}
+
+	@Override
+	public void onApplicationEvent(SessionDestroyedEvent event) {
+		evict(event.getSessionId());
+	}
+
+	private void evict(String id) {
+		synchronized (this.monitor) {
+			this.version++;
+			this.cache.remove(id);
+		}
+	}
+
+	private void put(String id, CacheEntry<S> entry) {
+		entry.expiresAt = this.clock.instant().plus(this.timeToLive);
+		this.cache.put(id, entry);
+		if (this.cache.size() > this.maxSize) {
+			String eldest = this.cache.keySet().iterator().next();
+			this.cache.remove(eldest);
+		}
+	}
+
+	/**
+	 * A {@link Session} returned by a {@link CachingSessionRepository}. Each instance
+	 * records its own changes, which are applied to the delegate session when it is
+	 * saved. Like other {@link Session} implementations, a single instance is not
+	 * thread-safe.
+	 */
+	public final class CachedSession implements Session {
+
+		private final CacheEntry<S> entry;
+
+		private final Map<String, Object> delta = new HashMap<>();
+
+		private Instant lastAccessedTime;
+
+		private Duration maxInactiveInterval;
+
+		private CachedSession(CacheEntry<S> entry) {
+			this.entry = entry;
+		}
+
+		@Override
+		public String getId() {
+			synchronized (this.entry) {
+				return this.entry.session.getId();
+			}
+		}
+
+		@Override
+		public String changeSessionId() {
+			String originalId;
+			String id;
+			synchronized (this.entry) {
+				originalId = this.entry.session.getId();
+				id = this.entry.session.changeSessionId();
+			}
+			evict(originalId);
+			return id;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T getAttribute(String attributeName) {
+			if (this.delta.containsKey(attributeName)) {
+				return (T) this.delta.get(attributeName);
+			}
+			synchronized (this.entry) {
+				return this.entry.session.getAttribute(attributeName);
+			}
+		}
+
+		@Override
+		public Set<String> getAttributeNames() {
+			Set<String> attributeNames;
+			synchronized (this.entry) {
+				attributeNames = new HashSet<>(this.entry.session.getAttributeNames());
+			}
+			this.delta.forEach((name, value) -> {
+				if (value != null) {
+					attributeNames.add(name);
+				}
+				else {
+					attributeNames.remove(name);
+				}
+			});
+			return attributeNames;
+		}
+
+		@Override
+		public void setAttribute(String attributeName, Object attributeValue) {
+			this.delta.put(attributeName, attributeValue);
+		}
+
+		@Override
+		public void removeAttribute(String attributeName) {
+			this.delta.put(attributeName, null);
+		}
+
+		@Override
+		public Instant getCreationTime() {
+			synchronized (this.entry) {
+				return this.entry.session.getCreationTime();
+			}
+		}
+
+		@Override
+		public void setLastAccessedTime(Instant lastAccessedTime) {
+			this.lastAccessedTime = lastAccessedTime;
+		}
+
+		@Override
+		public Instant getLastAccessedTime() {
+			if (this.lastAccessedTime != null) {
+				return this.lastAccessedTime;
+			}
+			synchronized (this.entry) {
+				return this.entry.session.getLastAccessedTime();
+			}
+		}
+
+		@Override
+		public void setMaxInactiveInterval(Duration interval) {
+			this.maxInactiveInterval = interval;
+		}
+
+		@Override
+		public Duration getMaxInactiveInterval() {
+			if (this.maxInactiveInterval != null) {
+				return this.maxInactiveInterval;
+			}
+			synchronized (this.entry) {
+				return this.entry.session.getMaxInactiveInterval();
+			}
+		}
+
+		@Override
+		public boolean isExpired() {
+			Duration maxInactiveInterval = getMaxInactiveInterval();
+			if (maxInactiveInterval.isNegative()) {
+				return false;
+			}
+			return Instant.now().minus(maxInactiveInterval)
+					.compareTo(getLastAccessedTime()) >= 0;
+		}
+
+		/**
+		 * Applies the recorded changes to the delegate session. Must be invoked while
+		 * holding the lock of the cache entry.
+		 */
+		private void applyChanges() {
+			S session = this.entry.session;
+			this.delta.forEach(session::setAttribute);
+			this.delta.clear();
+			if (this.lastAccessedTime != null) {
+				session.setLastAccessedTime(this.lastAccessedTime);
+				this.lastAccessedTime = null;
+			}
+			if (this.maxInactiveInterval != null) {
+				session.setMaxInactiveInterval(this.maxInactiveInterval);
+				this.maxInactiveInterval = null;
+			}
+		}
+
+	}
+
+	/**
+	 * A delegate session shared by all the {@link CachedSession} instances created for
+	 * it. The session is only accessed while holding the lock of its entry, and
+	 * {@link #expiresAt} is guarded by the repository monitor.
+	 */
+	private static final class CacheEntry<S extends Session> {
+
+		private final S session;
+
+		private Instant expiresAt;
+
+		private CacheEntry(S session) {
+			this.session = session;
+		}
+
+		private synchronized boolean isValid(String id) {
+			return id.equals(this.session.getId()) && !this.session.isExpired();
+		}
+
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.util.ClassUtils;
+
+/**
+ * The default {@link PrincipalNameResolver}. The principal name is resolved from the
+ * {@link FindByIndexNameSessionRepository#PRINCIPAL_NAME_INDEX_NAME} session attribute
+ * if present, otherwise from the Spring Security context stored in the
+ * {@code SPRING_SECURITY_CONTEXT} session attribute.
+ * <p>
+ * If Spring Security is on the classpath, the principal name is read directly from the
+ * {@code SecurityContext}. Other security context types are handled by evaluating the
+ * {@code authentication?.name} SpEL expression, which is parsed once and compiled by the
+ * SpEL compiler.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+public class DefaultPrincipalNameResolver implements PrincipalNameResolver {
+
+	private static final String SPRING_SECURITY_CONTEXT = "SPRING_SECURITY_CONTEXT";
+
+	private static final boolean springSecurityPresent = ClassUtils.isPresent(
+			"org.springframework.security.core.context.SecurityContext",
+			DefaultPrincipalNameResolver.class.getClassLoader());
+
+	@Override
+	public String resolvePrincipal(Session session) {
+		String principalName = session
+				.getAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME);
+		if (principalName != null) {
+			return principalName;
+		}
+		Object securityContext = session.getAttribute(SPRING_SECURITY_CONTEXT);
+		if (securityContext == null) {
+			return null;
+		}
+		if (springSecurityPresent
+				&& SecurityContextAccessor.isSecurityContext(securityContext)) {
+			return SecurityContextAccessor.getPrincipalName(securityContext);
+		}
+		return AuthenticationNameExpression.EXPRESSION.getValue(securityContext,
+				String.class);
+	}
+
+	/**
+	 * Reads the principal name from Spring Security's {@link SecurityContext}, isolated
+	 * to avoid a hard dependency on Spring Security.
+	 */
+	private static final class SecurityContextAccessor {
+
+		static boolean isSecurityContext(Object securityContext) {
+			return securityContext instanceof SecurityContext;
+		}
+
+		static String getPrincipalName(Object securityContext) {
+			Authentication authentication = ((SecurityContext) securityContext)
+					.getAuthentication();
+			return (authentication != null) ? authentication.getName() : null;
+		}
+
+	}
+
+	/**
+	 * Holds the expression used for security contexts of other types.
+	 */
+	private static final class AuthenticationNameExpression {
+
+		static final Expression EXPRESSION = new SpelExpressionParser(
+				new SpelParserConfiguration(SpelCompilerMode.MIXED,
+						DefaultPrincipalNameResolver.class.getClassLoader()))
+								.parseExpression("authentication?.name");
+
+	}
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session;
+
+/**
+ * Strategy for resolving the name of the principal a {@link Session} belongs to, which is
+ * used to maintain the {@link FindByIndexNameSessionRepository#PRINCIPAL_NAME_INDEX_NAME}
+ * index.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ * @see DefaultPrincipalNameResolver
+ */
+@FunctionalInterface
+public interface PrincipalNameResolver {
+
+	/**
+	 * Resolve the principal name of the provided session.
+	 * @param session the session
+	 * @return the principal name, or {@code null} if the session does not belong to a
+	 * principal
+	 */
+	String resolvePrincipal(Session session);
+
+}
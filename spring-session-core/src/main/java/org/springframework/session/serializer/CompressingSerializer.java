@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * A {@link Serializer} and {@link Deserializer} of session attribute values, which
+ * compresses the values serialized by a delegate using a {@link ValueCompressor}.
+ *
+ * By default, values are serialized using JDK serialization. To compress the attribute
+ * values stored by {@code JdbcOperationsSessionRepository}, use the serializer with a
+ * {@link org.springframework.core.serializer.support.SerializingConverter} and a
+ * {@link org.springframework.core.serializer.support.DeserializingConverter} in the
+ * {@link org.springframework.core.convert.ConversionService} of the repository.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+public class CompressingSerializer implements Serializer<Object>, Deserializer<Object> {
+
+	private final Serializer<Object> serializer;
+
+	private final Deserializer<Object> deserializer;
+
+	private ValueCompressor valueCompressor = new ValueCompressor();
+
+	/**
+	 * Create a new instance using JDK serialization.
+	 */
+	public CompressingSerializer() {
+		this(new DefaultSerializer(), new DefaultDeserializer());
+	}
+
+	/**
+	 * Create a new instance using JDK serialization.
+	 * @param classLoader the class loader to deserialize values with
+	 */
+	public CompressingSerializer(ClassLoader classLoader) {
+		this(new DefaultSerializer(), new DefaultDeserializer(classLoader));
+		this.valueCompressor = new ValueCompressor(classLoader);
+	}
+
+	/**
+	 * Create a new instance.
+	 * @param serializer the serializer of the values
+	 * @param deserializer the deserializer of the values
+	 */
+	public CompressingSerializer(Serializer<Object> serializer,
+			Deserializer<Object> deserializer) {
+		Assert.notNull(serializer, "serializer cannot be null");
+		Assert.notNull(deserializer, "deserializer cannot be null");
+		this.serializer = serializer;
+		this.deserializer = deserializer;
+	}
+
+	/**
+	 * Sets the {@link ValueCompressor} to use.
+	 * @param valueCompressor the value compressor
+	 */
+	public void setValueCompressor(ValueCompressor valueCompressor) {
+		Assert.notNull(valueCompressor, "valueCompressor cannot be null");
+		this.valueCompressor = valueCompressor;
+	}
+
+	@Override
+	public void serialize(Object object, OutputStream outputStream) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+		this.serializer.serialize(object, out);
+		outputStream.write(this.valueCompressor.compress(out.toByteArray()));
+	}
+
+	@Override
+	public Object deserialize(InputStream inputStream) throws IOException {
+		byte[] bytes = this.valueCompressor
+				.decompress(StreamUtils.copyToByteArray(inputStream));
+		return this.deserializer.deserialize(new ByteArrayInputStream(bytes));
+	}
+
+}
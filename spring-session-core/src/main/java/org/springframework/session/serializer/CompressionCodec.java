@@ -0,0 +1,62 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.serializer;
+
+import java.io.IOException;
+
+/**
+ * A compression algorithm used by {@link ValueCompressor} for serialized session
+ * attribute values.
+ *
+ * Each codec is identified by a byte which is written in front of every value it
+ * compresses, so that a value is always decompressed using the codec that compressed it.
+ * The id must be in the range {@code 0xF5} to {@code 0xFF}, which UTF-8 text, JDK
+ * serialization streams and the other session value encodings never start with. The
+ * id {@code 0xF5} is used by {@link DeflateCompressionCodec}.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ * @see ValueCompressor
+ */
+public interface CompressionCodec {
+
+	/**
+	 * Returns the id written in front of the values compressed using this codec.
+	 *
+	 * @return the codec id
+	 */
+	byte getId();
+
+	/**
+	 * Compresses the provided bytes.
+	 *
+	 * @param bytes the bytes to compress
+	 * @return the compressed bytes
+	 * @throws IOException if the bytes could not be compressed
+	 */
+	byte[] compress(byte[] bytes) throws IOException;
+
+	/**
+	 * Decompresses bytes previously compressed using {@link #compress(byte[])}.
+	 *
+	 * @param bytes the compressed bytes
+	 * @return the decompressed bytes
+	 * @throws IOException if the bytes could not be decompressed
+	 */
+	byte[] decompress(byte[] bytes) throws IOException;
+
+}
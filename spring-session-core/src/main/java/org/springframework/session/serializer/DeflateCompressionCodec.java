@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.util.Assert;
+
+/**
+ * A {@link CompressionCodec} using the Deflate algorithm of {@code java.util.zip},
+ * which is always available and is used by {@link ValueCompressor} by default.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+public class DeflateCompressionCodec implements CompressionCodec {
+
+	/**
+	 * The id of the codec.
+	 */
+	public static final byte ID = (byte) 0xF5;
+
+	private static final int BUFFER_SIZE = 4096;
+
+	private final int level;
+
+	/**
+	 * Create a new instance using {@link Deflater#BEST_SPEED}, which suits values that
+	 * are compressed on every write.
+	 */
+	public DeflateCompressionCodec() {
+		this(Deflater.BEST_SPEED);
+	}
+
+	/**
+	 * Create a new instance.
+	 * @param level the compression level, from {@link Deflater#BEST_SPEED} to
+	 * {@link Deflater#BEST_COMPRESSION}, or {@link Deflater#DEFAULT_COMPRESSION}
+	 */
+	public DeflateCompressionCodec(int level) {
+		Assert.isTrue((level >= Deflater.BEST_SPEED && level <= Deflater.BEST_COMPRESSION)
+				|| level == Deflater.DEFAULT_COMPRESSION, "Invalid compression level");
+		this.level = level;
+	}
+
+	@Override
+	public byte getId() {
+		return ID;
+	}
+
+	@Override
+	public byte[] compress(byte[] bytes) throws IOException {
+		Deflater deflater = new Deflater(this.level);
+		try {
+			deflater.setInput(bytes);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(
+					Math.min(bytes.length, BUFFER_SIZE));
+			byte[] buffer = new byte[BUFFER_SIZE];
+			while (!deflater.finished()) {
+				out.write(buffer, 0, deflater.deflate(buffer));
+			}
+			return out.toByteArray();
+		}
+		finally {
+			deflater.end();
+		}
+	}
+
+	@Override
+	public byte[] decompress(byte[] bytes) throws IOException {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(bytes);
+			ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 4);
+			byte[] buffer = new byte[BUFFER_SIZE];
+			while (!inflater.finished()) {
+				int count = inflater.inflate(buffer);
+				if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IOException("Truncated compressed value");
+				}
+				out.write(buffer, 0, count);
+			}
+			return out.toByteArray();
+		}
+		catch (DataFormatException ex) {
+			throw new IOException("Invalid compressed value", ex);
+		}
+		finally {
+			inflater.end();
+		}
+	}
+
+}
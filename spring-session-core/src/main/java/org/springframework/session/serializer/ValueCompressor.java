@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.serializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.core.io.support.SpringFactoriesLoader;
+import org.springframework.util.Assert;
+
+/**
+ * Compresses serialized session attribute values at or above a size threshold, and
+ * decompresses them again when read.
+ *
+ * A compressed value is written as the id of the {@link CompressionCodec} that
+ * compressed it, followed by the compressed bytes. Values below the threshold, and
+ * values that do not get any smaller, are written unchanged, so values stored before
+ * compression was enabled, or by an application that does not use it, are read as is.
+ * This relies on the serialized values never starting with a codec id, which holds for
+ * JDK serialization, UTF-8 text such as JSON, and the other session value encodings.
+ *
+ * Values are compressed using {@link DeflateCompressionCodec} unless another codec is
+ * {@link #setCodec(CompressionCodec) set}. Additional codecs, such as LZ4 or Zstandard
+ * implementations, can be registered under the {@link CompressionCodec} key in
+ * {@code META-INF/spring.factories}. Those found on the classpath are used to decompress
+ * the values they compressed, so the codec can be switched without rewriting the stored
+ * values.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+public class ValueCompressor {
+
+	/**
+	 * The default minimum size, in bytes, of a serialized value to compress.
+	 */
+	public static final int DEFAULT_THRESHOLD = 1024;
+
+	private final Map<Byte, CompressionCodec> codecs = new HashMap<>();
+
+	private CompressionCodec codec;
+
+	private int threshold = DEFAULT_THRESHOLD;
+
+	/**
+	 * Create a new instance using the codecs registered with the default class loader.
+	 */
+	public ValueCompressor() {
+		this(null);
+	}
+
+	/**
+	 * Create a new instance.
+	 * @param classLoader the class loader to load the registered codecs with, or
+	 * {@code null} to use the default class loader
+	 */
+	public ValueCompressor(ClassLoader classLoader) {
+		for (CompressionCodec registered : SpringFactoriesLoader
+				.loadFactories(CompressionCodec.class, classLoader)) {
+			addCodec(registered);
+		}
+		this.codec = new DeflateCompressionCodec();
+		addCodec(this.codec);
+	}
+
+	/**
+	 * Sets the {@link CompressionCodec} used to compress values, which is used to
+	 * decompress the values it compressed as well. Defaults to
+	 * {@link DeflateCompressionCodec}.
+	 * @param codec the codec
+	 */
+	public void setCodec(CompressionCodec codec) {
+		Assert.notNull(codec, "codec cannot be null");
+		addCodec(codec);
+		this.codec = codec;
+	}
+
+	/**
+	 * Sets the minimum size, in bytes, of a serialized value to compress. Defaults to
+	 * {@link #DEFAULT_THRESHOLD}.
+	 * @param threshold the threshold
+	 */
+	public void setThreshold(int threshold) {
+		Assert.isTrue(threshold >= 0, "threshold cannot be negative");
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Compresses the provided serialized value, if it is at or above the threshold.
+	 * @param bytes the serialized value
+	 * @return the value to store
+	 * @throws IOException if the value could not be compressed
+	 */
+	public byte[] compress(byte[] bytes) throws IOException {
+		if (bytes == null || bytes.length == 0 || bytes.length < this.threshold) {
+			return bytes;
+		}
+		byte[] compressed = this.codec.compress(bytes);
+		if (compressed.length + 1 >= bytes.length) {
+			return bytes;
+		}
+		byte[] value = new byte[compressed.length + 1];
+		value[0] = this.codec.getId();
+		System.arraycopy(compressed, 0, value, 1, compressed.length);
+		return value;
+	}
+
+	/**
+	 * Decompresses the provided stored value, if it was compressed.
+	 * @param bytes the stored value
+	 * @return the serialized value
+	 * @throws IOException if the value could not be decompressed
+	 */
+	public byte[] decompress(byte[] bytes) throws IOException {
+		if (bytes == null || bytes.length == 0 || !isCodecId(bytes[0])) {
+			return bytes;
+		}
+		CompressionCodec codec = this.codecs.get(bytes[0]);
+		if (codec == null) {
+			throw new IOException("Unsupported compression codec "
+					+ Integer.toHexString(bytes[0] & 0xFF));
+		}
+		return codec.decompress(Arrays.copyOfRange(bytes, 1, bytes.length));
+	}
+
+	private void addCodec(CompressionCodec codec) {
+		Assert.isTrue(isCodecId(codec.getId()),
+				"Codec id must be in the range 0xF5 to 0xFF");
+		this.codecs.put(codec.getId(), codec);
+	}
+
+	private static boolean isCodecId(byte id) {
+		return (id & 0xFF) >= 0xF5;
+	}
+
+}
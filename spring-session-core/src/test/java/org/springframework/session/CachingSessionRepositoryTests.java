@@ -0,0 +1,343 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import org.springframework.session.events.SessionDeletedEvent;
+import org.springframework.session.events.SessionExpiredEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+/**
+ * Tests for {@link CachingSessionRepository}.
+ *
+ * @author Vedran Pavic
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CachingSessionRepositoryTests {
+
+	@Mock
+	private FindByIndexNameSessionRepository<MapSession> delegate;
+
+	private CachingSessionRepository<MapSession> repository;
+
+	private MapSession session;
+
+	private Instant now = Instant.now();
+
+	@Before
+	public void setUp() {
+		this.repository = new CachingSessionRepository<>(this.delegate);
+		this.repository.setClock(Clock.fixed(this.now, ZoneOffset.UTC));
+		this.session = new MapSession();
+	}
+
+	@Test
+	public void constructorNullDelegate() {
+		assertThatThrownBy(() -> new CachingSessionRepository<>(null))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("delegate cannot be null");
+	}
+
+	@Test
+	public void setMaxSizeInvalid() {
+		assertThatThrownBy(() -> this.repository.setMaxSize(0))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("maxSize must be positive");
+	}
+
+	@Test
+	public void setTimeToLiveNull() {
+		assertThatThrownBy(() -> this.repository.setTimeToLive(null))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("timeToLive cannot be null");
+	}
+
+	@Test
+	public void findByIdCached() {
+		String id = this.session.getId();
+		given(this.delegate.findById(id)).willReturn(this.session);
+
+		CachingSessionRepository<MapSession>.CachedSession first = this.repository
+				.findById(id);
+		CachingSessionRepository<MapSession>.CachedSession second = this.repository
+				.findById(id);
+
+		assertThat(first.getId()).isEqualTo(id);
+		assertThat(second.getId()).isEqualTo(id);
+		assertThat(second).isNotSameAs(first);
+		verify(this.delegate, times(1)).findById(id);
+	}
+
+	@Test
+	public void findByIdNotFoundNotCached() {
+		String id = this.session.getId();
+
+		assertThat(this.repository.findById(id)).isNull();
+		assertThat(this.repository.findById(id)).isNull();
+		verify(this.delegate, times(2)).findById(id);
+	}
+
+	@Test
+	public void saveCachesSession() {
+		save(this.session);
+
+		assertThat(this.repository.findById(this.session.getId()).getId())
+				.isEqualTo(this.session.getId());
+		verify(this.delegate).save(this.session);
+		verify(this.delegate, times(0)).findById(this.session.getId());
+	}
+
+	@Test
+	public void saveAppliesChanges() {
+		this.session.setAttribute("removed", "value");
+		save(this.session);
+		CachingSessionRepository<MapSession>.CachedSession cached = this.repository
+				.findById(this.session.getId());
+		Instant lastAccessedTime = this.now.plusSeconds(1);
+		cached.setAttribute("name", "value");
+		cached.removeAttribute("removed");
+		cached.setLastAccessedTime(lastAccessedTime);
+		cached.setMaxInactiveInterval(Duration.ofMinutes(5));
+
+		assertThat(this.session.getAttributeNames()).containsOnly("removed");
+
+		this.repository.save(cached);
+
+		assertThat(this.session.getAttributeNames()).containsOnly("name");
+		assertThat(this.session.getLastAccessedTime()).isEqualTo(lastAccessedTime);
+		assertThat(this.session.getMaxInactiveInterval())
+				.isEqualTo(Duration.ofMinutes(5));
+		verify(this.delegate, times(2)).save(this.session);
+	}
+
+	@Test
+	public void findByIdChangesNotShared() {
+		this.session.setAttribute("shared", "value");
+		save(this.session);
+		CachingSessionRepository<MapSession>.CachedSession first = this.repository
+				.findById(this.session.getId());
+		CachingSessionRepository<MapSession>.CachedSession second = this.repository
+				.findById(this.session.getId());
+		first.setAttribute("first", "value");
+		first.removeAttribute("shared");
+
+		assertThat(first.getAttributeNames()).containsOnly("first");
+		assertThat(second.getAttributeNames()).containsOnly("shared");
+		assertThat(second.<String>getAttribute("shared")).isEqualTo("value");
+		assertThat(second.<String>getAttribute("first")).isNull();
+
+		this.repository.save(first);
+
+		assertThat(second.getAttributeNames()).containsOnly("first");
+	}
+
+	@Test
+	public void findByIdConcurrentAccess() throws Exception {
+		int threads = 8;
+		int requests = 200;
+		MapSessionRepository delegate = new MapSessionRepository(new HashMap<>());
+		CachingSessionRepository<MapSession> repository = new CachingSessionRepository<>(
+				delegate);
+		CachingSessionRepository<MapSession>.CachedSession created = repository
+				.createSession();
+		repository.save(created);
+		String id = created.getId();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			String prefix = "thread" + i + "-";
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int j = 0; j < requests; j++) {
+					CachingSessionRepository<MapSession>.CachedSession session = repository
+							.findById(id);
+					session.setAttribute(prefix + j, j);
+					session.getAttributeNames();
+					repository.save(session);
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(30, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		assertThat(repository.findById(id).getAttributeNames())
+				.hasSize(threads * requests);
+		assertThat(delegate.findById(id).getAttributeNames())
+				.hasSize(threads * requests);
+	}
+
+	@Test
+	public void findByIdTimeToLiveElapsed() {
+		this.repository.setTimeToLive(Duration.ofSeconds(10));
+		save(this.session);
+		this.repository.setClock(
+				Clock.fixed(this.now.plusSeconds(10), ZoneOffset.UTC));
+
+		assertThat(this.repository.findById(this.session.getId())).isNull();
+		verify(this.delegate).findById(this.session.getId());
+	}
+
+	@Test
+	public void findByIdExpiredSession() {
+		this.session.setLastAccessedTime(Instant.now().minus(Duration.ofHours(1)));
+		save(this.session);
+
+		assertThat(this.repository.findById(this.session.getId())).isNull();
+		verify(this.delegate).findById(this.session.getId());
+	}
+
+	@Test
+	public void findByIdChangedSessionId() {
+		String originalId = this.session.getId();
+		CachingSessionRepository<MapSession>.CachedSession cached = save(
+				this.session);
+		String changedId = cached.changeSessionId();
+
+		assertThat(changedId).isEqualTo(this.session.getId());
+		assertThat(this.repository.findById(originalId)).isNull();
+		verify(this.delegate).findById(originalId);
+	}
+
+	@Test
+	public void maxSizeEvictsLeastRecentlyUsed() {
+		this.repository.setMaxSize(2);
+		MapSession other = new MapSession();
+		MapSession newest = new MapSession();
+		save(this.session);
+		save(other);
+		this.repository.findById(this.session.getId());
+		save(newest);
+
+		assertThat(this.repository.findById(this.session.getId())).isNotNull();
+		assertThat(this.repository.findById(newest.getId())).isNotNull();
+		assertThat(this.repository.findById(other.getId())).isNull();
+		verify(this.delegate).findById(other.getId());
+	}
+
+	@Test
+	public void deleteByIdEvicts() {
+		save(this.session);
+		this.repository.deleteById(this.session.getId());
+
+		assertThat(this.repository.findById(this.session.getId())).isNull();
+		verify(this.delegate).deleteById(this.session.getId());
+		verify(this.delegate).findById(this.session.getId());
+	}
+
+	@Test
+	public void sessionDeletedEventEvicts() {
+		save(this.session);
+		this.repository.onApplicationEvent(new SessionDeletedEvent(this, this.session));
+
+		assertThat(this.repository.findById(this.session.getId())).isNull();
+		verify(this.delegate).findById(this.session.getId());
+	}
+
+	@Test
+	public void sessionExpiredEventEvicts() {
+		save(this.session);
+		this.repository.onApplicationEvent(new SessionExpiredEvent(this, this.session));
+
+		assertThat(this.repository.findById(this.session.getId())).isNull();
+		verify(this.delegate).findById(this.session.getId());
+	}
+
+	@Test
+	public void findByIdConcurrentlyDeletedNotCached() {
+		String id = this.session.getId();
+		given(this.delegate.findById(id)).willAnswer(invocation -> {
+			this.repository.onApplicationEvent(new SessionDeletedEvent(this, this.session));
+			return this.session;
+		});
+
+		assertThat(this.repository.findById(id).getId()).isEqualTo(id);
+		assertThat(this.repository.findById(id).getId()).isEqualTo(id);
+		verify(this.delegate, times(2)).findById(id);
+	}
+
+	@Test
+	public void findByIndexNameAndIndexValueDelegates() {
+		Map<String, MapSession> sessions = Collections.singletonMap(
+				this.session.getId(), this.session);
+		given(this.delegate.findByIndexNameAndIndexValue(
+				FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "user"))
+						.willReturn(sessions);
+
+		Map<String, CachingSessionRepository<MapSession>.CachedSession> result = this.repository
+				.findByIndexNameAndIndexValue(
+						FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME,
+						"user");
+
+		assertThat(result).containsOnlyKeys(this.session.getId());
+		assertThat(result.get(this.session.getId()).getId())
+				.isEqualTo(this.session.getId());
+	}
+
+	@Test
+	public void findByIndexNameAndIndexValueNotSupported() {
+		SessionRepository<MapSession> delegate = new MapSessionRepository(
+				new HashMap<>());
+		CachingSessionRepository<MapSession> repository = new CachingSessionRepository<>(
+				delegate);
+
+		assertThat(repository.findByIndexNameAndIndexValue(
+				FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "user"))
+						.isEmpty();
+		verifyZeroInteractions(this.delegate);
+	}
+
+	private CachingSessionRepository<MapSession>.CachedSession save(
+			MapSession session) {
+		given(this.delegate.createSession()).willReturn(session);
+		CachingSessionRepository<MapSession>.CachedSession cached = this.repository
+				.createSession();
+		this.repository.save(cached);
+		return cached;
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link DefaultPrincipalNameResolver}.
+ *
+ * @author Vedran Pavic
+ */
+public class DefaultPrincipalNameResolverTests {
+
+	private static final String SPRING_SECURITY_CONTEXT = "SPRING_SECURITY_CONTEXT";
+
+	private final DefaultPrincipalNameResolver resolver = new DefaultPrincipalNameResolver();
+
+	private MapSession session;
+
+	@Before
+	public void setUp() {
+		this.session = new MapSession();
+	}
+
+	@Test
+	public void resolvePrincipalNoAttributes() {
+		assertThat(this.resolver.resolvePrincipal(this.session)).isNull();
+	}
+
+	@Test
+	public void resolvePrincipalIndex() {
+		this.session.setAttribute(
+				FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "username");
+		this.session.setAttribute(SPRING_SECURITY_CONTEXT,
+				new SecurityContextImpl(createAuthentication("other")));
+
+		assertThat(this.resolver.resolvePrincipal(this.session)).isEqualTo("username");
+	}
+
+	@Test
+	public void resolvePrincipalSecurityContext() {
+		this.session.setAttribute(SPRING_SECURITY_CONTEXT,
+				new SecurityContextImpl(createAuthentication("username")));
+
+		assertThat(this.resolver.resolvePrincipal(this.session)).isEqualTo("username");
+	}
+
+	@Test
+	public void resolvePrincipalSecurityContextNoAuthentication() {
+		this.session.setAttribute(SPRING_SECURITY_CONTEXT, new SecurityContextImpl());
+
+		assertThat(this.resolver.resolvePrincipal(this.session)).isNull();
+	}
+
+	@Test
+	public void resolvePrincipalCustomSecurityContext() {
+		for (String name : new String[] { "first", "second", null }) {
+			this.session.setAttribute(SPRING_SECURITY_CONTEXT,
+					new CustomSecurityContext(name));
+
+			assertThat(this.resolver.resolvePrincipal(this.session)).isEqualTo(name);
+		}
+	}
+
+	private static UsernamePasswordAuthenticationToken createAuthentication(
+			String name) {
+		return new UsernamePasswordAuthenticationToken(name, "notused",
+				AuthorityUtils.createAuthorityList("ROLE_USER"));
+	}
+
+	public static class CustomSecurityContext {
+
+		private final CustomAuthentication authentication;
+
+		CustomSecurityContext(String name) {
+			this.authentication = (name != null) ? new CustomAuthentication(name) : null;
+		}
+
+		public CustomAuthentication getAuthentication() {
+			return this.authentication;
+		}
+
+	}
+
+	public static class CustomAuthentication {
+
+		private final String name;
+
+		CustomAuthentication(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+	}
+
+}
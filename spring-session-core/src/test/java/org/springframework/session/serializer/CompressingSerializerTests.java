@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import org.springframework.core.serializer.DefaultSerializer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CompressingSerializer}.
+ *
+ * @author Vedran Pavic
+ */
+public class CompressingSerializerTests {
+
+	private final CompressingSerializer serializer = new CompressingSerializer();
+
+	@Test
+	public void serializeLargeValue() throws IOException {
+		String value = String.join("", Collections.nCopies(1000, "value"));
+
+		byte[] bytes = serialize(value);
+
+		assertThat(bytes[0]).isEqualTo(DeflateCompressionCodec.ID);
+		assertThat(deserialize(bytes)).isEqualTo(value);
+	}
+
+	@Test
+	public void serializeSmallValue() throws IOException {
+		byte[] bytes = serialize("value");
+
+		assertThat(bytes).isEqualTo(jdkSerialize("value"));
+		assertThat(deserialize(bytes)).isEqualTo("value");
+	}
+
+	@Test
+	public void deserializeUncompressedValue() throws IOException {
+		String value = String.join("", Collections.nCopies(1000, "value"));
+
+		assertThat(deserialize(jdkSerialize(value))).isEqualTo(value);
+	}
+
+	@Test
+	public void serializeCustomValueCompressor() throws IOException {
+		ValueCompressor valueCompressor = new ValueCompressor();
+		valueCompressor.setThreshold(Integer.MAX_VALUE);
+		this.serializer.setValueCompressor(valueCompressor);
+		String value = String.join("", Collections.nCopies(1000, "value"));
+
+		assertThat(serialize(value)).isEqualTo(jdkSerialize(value));
+	}
+
+	private byte[] serialize(Object value) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		this.serializer.serialize(value, out);
+		return out.toByteArray();
+	}
+
+	private Object deserialize(byte[] bytes) throws IOException {
+		return this.serializer.deserialize(new ByteArrayInputStream(bytes));
+	}
+
+	private static byte[] jdkSerialize(Object value) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new DefaultSerializer().serialize(value, out);
+		return out.toByteArray();
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.serializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ValueCompressor}.
+ *
+ * @author Vedran Pavic
+ */
+public class ValueCompressorTests {
+
+	private static final byte[] LARGE_VALUE = String
+			.join("", Collections.nCopies(1000, "value"))
+			.getBytes(StandardCharsets.UTF_8);
+
+	@Rule
+	public final ExpectedException thrown = ExpectedException.none();
+
+	private final ValueCompressor compressor = new ValueCompressor();
+
+	@Test
+	public void compressLargeValue() throws IOException {
+		byte[] compressed = this.compressor.compress(LARGE_VALUE);
+
+		assertThat(compressed[0]).isEqualTo(DeflateCompressionCodec.ID);
+		assertThat(compressed.length).isLessThan(LARGE_VALUE.length / 10);
+		assertThat(this.compressor.decompress(compressed)).isEqualTo(LARGE_VALUE);
+	}
+
+	@Test
+	public void compressValueBelowThreshold() throws IOException {
+		byte[] value = "value".getBytes(StandardCharsets.UTF_8);
+
+		assertThat(this.compressor.compress(value)).isSameAs(value);
+		assertThat(this.compressor.decompress(value)).isSameAs(value);
+	}
+
+	@Test
+	public void compressIncompressibleValue() throws IOException {
+		byte[] value = this.compressor.compress(LARGE_VALUE);
+		this.compressor.setThreshold(0);
+
+		assertThat(this.compressor.compress(value)).isSameAs(value);
+	}
+
+	@Test
+	public void compressEmptyValue() throws IOException {
+		this.compressor.setThreshold(0);
+
+		assertThat(this.compressor.compress(new byte[0])).isEmpty();
+		assertThat(this.compressor.decompress(new byte[0])).isEmpty();
+	}
+
+	@Test
+	public void compressCustomCodec() throws IOException {
+		this.compressor.setCodec(new ReversingCodec());
+		byte[] compressed = this.compressor.compress(LARGE_VALUE);
+
+		assertThat(compressed[0]).isEqualTo((byte) 0xF6);
+		assertThat(this.compressor.decompress(compressed)).isEqualTo(LARGE_VALUE);
+	}
+
+	@Test
+	public void decompressAfterCodecChange() throws IOException {
+		byte[] compressed = this.compressor.compress(LARGE_VALUE);
+		this.compressor.setCodec(new ReversingCodec());
+
+		assertThat(this.compressor.decompress(compressed)).isEqualTo(LARGE_VALUE);
+	}
+
+	@Test
+	public void decompressUnknownCodec() throws IOException {
+		this.thrown.expect(IOException.class);
+		this.thrown.expectMessage("Unsupported compression codec f7");
+
+		this.compressor.decompress(new byte[] { (byte) 0xF7, 1 });
+	}
+
+	@Test
+	public void decompressTruncatedValue() throws IOException {
+		byte[] compressed = this.compressor.compress(LARGE_VALUE);
+
+		this.thrown.expect(IOException.class);
+
+		this.compressor.decompress(Arrays.copyOf(compressed, compressed.length / 2));
+	}
+
+	@Test
+	public void setCodecInvalidId() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("Codec id must be in the range 0xF5 to 0xFF");
+
+		this.compressor.setCodec(new ReversingCodec() {
+
+			@Override
+			public byte getId() {
+				return (byte) 0xAC;
+			}
+
+		});
+	}
+
+	@Test
+	public void setThresholdNegative() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("threshold cannot be negative");
+
+		this.compressor.setThreshold(-1);
+	}
+
+	/**
+	 * A codec with its own id, which stores the Deflate output reversed.
+	 */
+	private static class ReversingCodec implements CompressionCodec {
+
+		private final DeflateCompressionCodec deflate = new DeflateCompressionCodec();
+
+		@Override
+		public byte getId() {
+			return (byte) 0xF6;
+		}
+
+		@Override
+		public byte[] compress(byte[] bytes) throws IOException {
+			return reverse(this.deflate.compress(bytes));
+		}
+
+		@Override
+		public byte[] decompress(byte[] bytes) throws IOException {
+			return this.deflate.decompress(reverse(bytes));
+		}
+
+		private static byte[] reverse(byte[] bytes) {
+			byte[] reversed = new byte[bytes.length];
+			for (int i = 0; i < bytes.length; i++) {
+				reversed[i] = bytes[bytes.length - 1 - i];
+			}
+			return reversed;
+		}
+
+	}
+
+}
@@ -66,6 +66,7 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
@@ -1334,6 +1335,47 @@ public class SessionRepositoryFilterTests {
 		verifyZeroInteractions(sessionRepository);
 	}
 
+	@Test
+	public void doFilterRequestedSessionLoadedOnce() throws Exception {
+		MapSession session = this.sessionRepository.createSession();
+		this.sessionRepository.save(session);
+		SessionRepository<MapSession> sessionRepository = spy(this.sessionRepository);
+		setSessionCookie(session.getId());
+
+		this.filter = new SessionRepositoryFilter<>(sessionRepository);
+
+		doFilter(new DoInFilter() {
+			@Override
+			public void doFilter(HttpServletRequest wrappedRequest,
+					HttpServletResponse wrappedResponse) throws IOException {
+				assertThat(wrappedRequest.getRequestedSessionId())
+						.isEqualTo(session.getId());
+				assertThat(wrappedRequest.isRequestedSessionIdValid()).isTrue();
+				assertThat(wrappedRequest.getSession(false).getId())
+						.isEqualTo(session.getId());
+			}
+		});
+
+		verify(sessionRepository, times(1)).findById(session.getId());
+	}
+
+	@Test
+	public void doFilterRequestedSessionInvalidatedNotReused() throws Exception {
+		MapSession session = this.sessionRepository.createSession();
+		this.sessionRepository.save(session);
+		setSessionCookie(session.getId());
+
+		doFilter(new DoInFilter() {
+			@Override
+			public void doFilter(HttpServletRequest wrappedRequest,
+					HttpServletResponse wrappedResponse) throws IOException {
+				wrappedRequest.getSession(false).invalidate();
+				assertThat(wrappedRequest.getRequestedSessionId()).isNull();
+				assertThat(wrappedRequest.getSession(false)).isNull();
+			}
+		});
+	}
+
 	// --- order
 
 	@Test
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.session.data.SessionEventRegistry;
+import org.springframework.session.data.redis.RedisOperationsSessionRepository.RedisSession;
+import org.springframework.session.data.redis.config.annotation.SpringSessionRedisOperations;
+import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisHttpSession;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@link RedisOperationsSessionRepositoryITests} using
+ * {@link RedisStorageMode#BLOB}.
+ *
+ * @author Vedran Pavic
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration
+@WebAppConfiguration
+public class RedisOperationsSessionRepositoryBlobITests
+		extends RedisOperationsSessionRepositoryITests {
+
+	@Autowired
+	private RedisOperationsSessionRepository repository;
+
+	@SpringSessionRedisOperations
+	private RedisOperations<Object, Object> redis;
+
+	@Test
+	public void storesSingleValue() {
+		RedisSession toSave = this.repository.createSession();
+		toSave.setAttribute("a", "b");
+
+		this.repository.save(toSave);
+
+		String sessionKey = this.repository.getSessionKey(toSave.getId());
+		assertThat(this.redis.type(sessionKey)).isEqualTo(DataType.STRING);
+		assertThat(this.redis.getExpire(sessionKey)).isPositive();
+	}
+
+	@Test
+	public void concurrentSavesAreMerged() {
+		RedisSession toSave = this.repository.createSession();
+		toSave.setAttribute("a", "b");
+		toSave.setAttribute("c", "d");
+		this.repository.save(toSave);
+		RedisSession first = this.repository.findById(toSave.getId());
+		RedisSession second = this.repository.findById(toSave.getId());
+
+		first.setAttribute("a", "first");
+		this.repository.save(first);
+		second.setAttribute("e", "second");
+		second.removeAttribute("c");
+		this.repository.save(second);
+
+		RedisSession session = this.repository.findById(toSave.getId());
+		assertThat(session.getAttributeNames()).containsOnly("a", "e");
+		assertThat(session.<String>getAttribute("a")).isEqualTo("first");
+		assertThat(session.<String>getAttribute("e")).isEqualTo("second");
+		assertThat(second.<String>getAttribute("a")).isEqualTo("first");
+	}
+
+	@Test
+	public void savesAgainAfterMerge() {
+		RedisSession toSave = this.repository.createSession();
+		this.repository.save(toSave);
+		RedisSession first = this.repository.findById(toSave.getId());
+		RedisSession second = this.repository.findById(toSave.getId());
+		first.setAttribute("a", "b");
+		this.repository.save(first);
+		second.setAttribute("c", "d");
+		this.repository.save(second);
+
+		first.setAttribute("e", "f");
+		this.repository.save(first);
+
+		assertThat(this.repository.findById(toSave.getId()).getAttributeNames())
+				.containsOnly("a", "c", "e");
+	}
+
+	@Configuration
+	@EnableRedisHttpSession(redisNamespace = "RedisOperationsSessionRepositoryITests", redisStorageMode = RedisStorageMode.BLOB)
+	static class Config extends BaseConfig {
+
+		@Bean
+		public SessionEventRegistry sessionEventRegistry() {
+			return new SessionEventRegistry();
+		}
+
+	}
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.data.SessionEventRegistry;
+import org.springframework.session.data.redis.RedisOperationsSessionRepository.RedisSession;
+import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisHttpSession;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@link RedisOperationsSessionRepositoryITests} dispatching the session events
+ * using an {@link Executor}.
+ *
+ * @author Vedran Pavic
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration
+@WebAppConfiguration
+public class RedisOperationsSessionRepositoryEventExecutorITests
+		extends RedisOperationsSessionRepositoryITests {
+
+	private static final String INDEX_NAME = FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME;
+
+	private static final String SPRING_SECURITY_CONTEXT = "SPRING_SECURITY_CONTEXT";
+
+	@Autowired
+	private RedisOperationsSessionRepository repository;
+
+	@Test
+	@Override
+	public void findByPrincipalNameExpireRemovesIndex() throws Exception {
+		String principalName = "findByPrincipalNameExpireRemovesIndex"
+				+ UUID.randomUUID();
+		RedisSession toSave = this.repository.createSession();
+		toSave.setAttribute(INDEX_NAME, principalName);
+
+		this.repository.save(toSave);
+		expire(toSave);
+
+		assertThat(awaitFindByPrincipalName(principalName)).isEmpty();
+		assertThat(this.repository.getPendingEventCount()).isZero();
+		assertThat(this.repository.getDroppedEventCount()).isZero();
+	}
+
+	@Test
+	@Override
+	public void findBySecurityPrincipalNameExpireRemovesIndex() throws Exception {
+		String principalName = "username-" + UUID.randomUUID();
+		SecurityContext context = SecurityContextHolder.createEmptyContext();
+		context.setAuthentication(new UsernamePasswordAuthenticationToken(principalName,
+				"na", AuthorityUtils.createAuthorityList("ROLE_USER")));
+		RedisSession toSave = this.repository.createSession();
+		toSave.setAttribute(SPRING_SECURITY_CONTEXT, context);
+
+		this.repository.save(toSave);
+		expire(toSave);
+
+		assertThat(awaitFindByPrincipalName(principalName)).isEmpty();
+	}
+
+	private void expire(RedisSession session) throws Exception {
+		String body = "RedisOperationsSessionRepositoryITests:sessions:expires:"
+				+ session.getId();
+		DefaultMessage message = new DefaultMessage(":expired".getBytes("UTF-8"),
+				body.getBytes("UTF-8"));
+		this.repository.onMessage(message, new byte[] {});
+	}
+
+	private Map<String, RedisSession> awaitFindByPrincipalName(String principalName)
+			throws InterruptedException {
+		Map<String, RedisSession> findByPrincipalName = this.repository
+				.findByIndexNameAndIndexValue(INDEX_NAME, principalName);
+		for (int i = 0; i < 50 && !findByPrincipalName.isEmpty(); i++) {
+			Thread.sleep(100);
+			findByPrincipalName = this.repository.findByIndexNameAndIndexValue(INDEX_NAME,
+					principalName);
+		}
+		return findByPrincipalName;
+	}
+
+	@Configuration
+	@EnableRedisHttpSession(redisNamespace = "RedisOperationsSessionRepositoryITests")
+	static class Config extends BaseConfig {
+
+		@Bean
+		public SessionEventRegistry sessionEventRegistry() {
+			return new SessionEventRegistry();
+		}
+
+		@Bean
+		public ThreadPoolTaskExecutor springSessionRedisEventExecutor() {
+			ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+			executor.setCorePoolSize(2);
+			return executor;
+		}
+
+	}
+
+}
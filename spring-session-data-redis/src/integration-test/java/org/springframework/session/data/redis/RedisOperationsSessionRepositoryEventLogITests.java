@@ -0,0 +1,151 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.time.Duration;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.data.SessionEventRegistry;
+import org.springframework.session.data.redis.RedisOperationsSessionRepository.RedisSession;
+import org.springframework.session.data.redis.config.annotation.SpringSessionRedisOperations;
+import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisHttpSession;
+import org.springframework.session.events.SessionCreatedEvent;
+import org.springframework.session.events.SessionDeletedEvent;
+import org.springframework.session.events.SessionExpiredEvent;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link RedisOperationsSessionRepository} using
+ * {@link RedisEventMode#EVENT_LOG}.
+ *
+ * @author Vedran Pavic
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration
+@WebAppConfiguration
+public class RedisOperationsSessionRepositoryEventLogITests extends AbstractRedisITests {
+
+	private static final String INDEX_NAME = FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME;
+
+	@Autowired
+	private RedisOperationsSessionRepository repository;
+
+	@Autowired
+	private SessionEventRegistry registry;
+
+	@SpringSessionRedisOperations
+	private RedisOperations<Object, Object> redis;
+
+	@Before
+	public void setup() {
+		this.registry.clear();
+	}
+
+	@Test
+	public void createdEvent() throws InterruptedException {
+		RedisSession toSave = this.repository.createSession();
+		toSave.setAttribute(INDEX_NAME, "user");
+
+		this.repository.save(toSave);
+
+		SessionCreatedEvent event = this.registry.getEvent(toSave.getId());
+		assertThat(event).isInstanceOf(SessionCreatedEvent.class);
+		assertThat(event.getSession().getCreationTime().toEpochMilli())
+				.isEqualTo(toSave.getCreationTime().toEpochMilli());
+		assertThat(event.getSession().<String>getAttribute(INDEX_NAME))
+				.isEqualTo("user");
+	}
+
+	@Test
+	public void deletedEvent() throws InterruptedException {
+		RedisSession toSave = this.repository.createSession();
+		this.repository.save(toSave);
+		assertThat(this.registry.receivedEvent(toSave.getId())).isTrue();
+		this.registry.clear();
+
+		this.repository.deleteById(toSave.getId());
+
+		assertThat(this.registry.<SessionDeletedEvent>getEvent(toSave.getId()))
+				.isInstanceOf(SessionDeletedEvent.class);
+	}
+
+	@Test
+	public void expiredEvent() throws InterruptedException {
+		RedisSession toSave = this.repository.createSession();
+		toSave.setAttribute(INDEX_NAME, "expired-user");
+		toSave.setMaxInactiveInterval(Duration.ofSeconds(1));
+		this.repository.save(toSave);
+		assertThat(this.registry.receivedEvent(toSave.getId())).isTrue();
+		this.registry.clear();
+		Thread.sleep(1100);
+
+		this.repository.cleanupExpiredSessions();
+
+		SessionExpiredEvent event = this.registry.getEvent(toSave.getId());
+		assertThat(event).isInstanceOf(SessionExpiredEvent.class);
+		assertThat(event.getSession().<String>getAttribute(INDEX_NAME))
+				.isEqualTo("expired-user");
+		assertThat(this.repository.findByIndexNameAndIndexValue(INDEX_NAME,
+				"expired-user")).isEmpty();
+	}
+
+	@Test
+	public void consumerGroupResumesAfterRestart() {
+		String group = "group-" + System.nanoTime();
+		assertThat(createRepository(group).pollEvents()).isZero();
+
+		this.repository.save(this.repository.createSession());
+		this.repository.save(this.repository.createSession());
+
+		RedisOperationsSessionRepository restarted = createRepository(group);
+		assertThat(restarted.pollEvents()).isEqualTo(2);
+		assertThat(restarted.pollEvents()).isZero();
+	}
+
+	private RedisOperationsSessionRepository createRepository(String group) {
+		RedisOperationsSessionRepository repository = new RedisOperationsSessionRepository(
+				this.redis);
+		repository.setRedisKeyNamespace("RedisOperationsSessionRepositoryEventLogITests");
+		repository.setRedisEventMode(RedisEventMode.EVENT_LOG);
+		repository.setEventLogConsumerGroup(group);
+		return repository;
+	}
+
+	@Configuration
+	@EnableRedisHttpSession(redisNamespace = "RedisOperationsSessionRepositoryEventLogITests", redisExpirationMode = RedisExpirationMode.SORTED_SET, redisEventMode = RedisEventMode.EVENT_LOG)
+	static class Config extends BaseConfig {
+
+		@Bean
+		public SessionEventRegistry sessionEventRegistry() {
+			return new SessionEventRegistry();
+		}
+
+	}
+
+}
@@ -18,6 +18,7 @@ package org.springframework.session.data.redis;
 
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -203,6 +204,30 @@ public class RedisOperationsSessionRepositoryITests extends AbstractRedisITests
 		assertThat(findByPrincipalName.keySet()).doesNotContain(toSave.getId());
 	}
 
+	@Test
+	public void findByPrincipalNameRemovesStaleIndexEntries() throws Exception {
+		String principalName = "findByPrincipalNameRemovesStaleIndexEntries"
+				+ UUID.randomUUID();
+		String principalKey = "RedisOperationsSessionRepositoryITests:index:"
+				+ INDEX_NAME + ":" + principalName;
+		RedisSession toSave = this.repository.createSession();
+		toSave.setAttribute(INDEX_NAME, principalName);
+		RedisSession stale = this.repository.createSession();
+		stale.setAttribute(INDEX_NAME, principalName);
+
+		this.repository.save(toSave);
+		this.repository.save(stale);
+		this.redis.delete("RedisOperationsSessionRepositoryITests:sessions:"
+				+ stale.getId());
+
+		Map<String, RedisSession> findByPrincipalName = this.repository
+				.findByIndexNameAndIndexValue(INDEX_NAME, principalName);
+
+		assertThat(findByPrincipalName).containsOnlyKeys(toSave.getId());
+		assertThat(this.redis.boundSetOps(principalKey).members())
+				.containsOnly(toSave.getId());
+	}
+
 	@Test
 	public void findByPrincipalNameNoPrincipalNameChange() throws Exception {
 		String principalName = "findByPrincipalNameNoPrincipalNameChange"
@@ -567,6 +592,53 @@ public class RedisOperationsSessionRepositoryITests extends AbstractRedisITests
 		assertThat(this.repository.findById(originalId)).isNull();
 	}
 
+	@Test
+	public void cleanupExpiredSessions() {
+		String leaseKey = "RedisOperationsSessionRepositoryITests:cleanup:lease";
+		String cleanedKey = "RedisOperationsSessionRepositoryITests:cleanup:cleaned";
+		this.redis.delete(cleanedKey);
+		long lastMin = RedisSessionExpirationPolicy.roundDownBucket(
+				System.currentTimeMillis(), TimeUnit.MINUTES.toMillis(1));
+		String lastExpirationsKey = this.repository.getExpirationsKey(lastMin);
+		String missedExpirationsKey = this.repository
+				.getExpirationsKey(lastMin - TimeUnit.MINUTES.toMillis(3));
+		for (int i = 0; i < 5; i++) {
+			this.redis.boundSetOps(lastExpirationsKey).add("expires:last-" + i);
+		}
+		this.redis.boundSetOps(missedExpirationsKey).add("expires:missed");
+		this.repository.setCleanupChunkSize(2);
+
+		this.repository.cleanupExpiredSessions();
+
+		assertThat(this.redis.hasKey(lastExpirationsKey)).isFalse();
+		assertThat(this.redis.hasKey(missedExpirationsKey)).isFalse();
+		assertThat(this.redis.hasKey(leaseKey)).isFalse();
+		assertThat(this.redis.hasKey(cleanedKey)).isTrue();
+	}
+
+	@Test
+	public void cleanupExpiredSessionsLeaseHeld() {
+		String leaseKey = "RedisOperationsSessionRepositoryITests:cleanup:lease";
+		this.redis.delete("RedisOperationsSessionRepositoryITests:cleanup:cleaned");
+		String expirationsKey = this.repository.getExpirationsKey(
+				RedisSessionExpirationPolicy.roundDownBucket(System.currentTimeMillis(),
+						TimeUnit.MINUTES.toMillis(1)));
+		this.redis.boundSetOps(expirationsKey).add("expires:held");
+		this.redis.boundValueOps(leaseKey).set("other", 1, TimeUnit.MINUTES);
+
+		try {
+			this.repository.cleanupExpiredSessions();
+
+			assertThat(this.redis.boundSetOps(expirationsKey).members())
+					.containsOnly("expires:held");
+			assertThat(this.redis.hasKey(leaseKey)).isTrue();
+		}
+		finally {
+			this.redis.delete(leaseKey);
+			this.redis.delete(expirationsKey);
+		}
+	}
+
 	private String getSecurityName() {
 		return this.context.getAuthentication().getName();
 	}
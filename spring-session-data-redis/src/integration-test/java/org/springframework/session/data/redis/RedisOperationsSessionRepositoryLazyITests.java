@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.util.Collections;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.session.data.SessionEventRegistry;
+import org.springframework.session.data.redis.RedisOperationsSessionRepository.RedisSession;
+import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisHttpSession;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@link RedisOperationsSessionRepositoryITests} using lazy attribute loading.
+ *
+ * @author Vedran Pavic
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration
+@WebAppConfiguration
+public class RedisOperationsSessionRepositoryLazyITests
+		extends RedisOperationsSessionRepositoryITests {
+
+	@Autowired
+	private RedisOperationsSessionRepository repository;
+
+	@Test
+	public void lazyAttributesLoadedOnDemand() {
+		RedisSession toSave = this.repository.createSession();
+		toSave.setAttribute("hot", "hotValue");
+		toSave.setAttribute("cold", "coldValue");
+		toSave.setAttribute("other", "otherValue");
+		this.repository.save(toSave);
+
+		RedisSession session = this.repository.findById(toSave.getId());
+		session.setAttribute("other", "changed");
+		this.repository.save(session);
+
+		assertThat(session.<String>getAttribute("hot")).isEqualTo("hotValue");
+		assertThat(session.<String>getAttribute("cold")).isEqualTo("coldValue");
+		assertThat(session.<String>getAttribute("missing")).isNull();
+		assertThat(session.getAttributeNames()).containsOnly("hot", "cold", "other");
+		assertThat(session.<String>getAttribute("other")).isEqualTo("changed");
+	}
+
+	@Test
+	public void lazyAttributesLoadedAfterChangeSessionId() {
+		RedisSession toSave = this.repository.createSession();
+		toSave.setAttribute("cold", "coldValue");
+		this.repository.save(toSave);
+
+		RedisSession session = this.repository.findById(toSave.getId());
+		session.changeSessionId();
+
+		assertThat(session.<String>getAttribute("cold")).isEqualTo("coldValue");
+	}
+
+	@Configuration
+	@EnableRedisHttpSession(redisNamespace = "RedisOperationsSessionRepositoryITests")
+	static class Config extends BaseConfig {
+
+		@Bean
+		public SessionEventRegistry sessionEventRegistry() {
+			return new SessionEventRegistry();
+		}
+
+		@Autowired
+		public void configureLazyAttributeLoading(
+				RedisOperationsSessionRepository sessionRepository) {
+			sessionRepository.setLazyAttributeLoading(true);
+			sessionRepository.setPrefetchedAttributeNames(Collections.singleton("hot"));
+		}
+
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.session.data.SessionEventRegistry;
+import org.springframework.session.data.redis.RedisOperationsSessionRepository.RedisSession;
+import org.springframework.session.data.redis.config.annotation.SpringSessionRedisOperations;
+import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisHttpSession;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@link RedisOperationsSessionRepositoryITests} using
+ * {@link RedisSaveMode#SCRIPTED}.
+ *
+ * @author Vedran Pavic
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration
+@WebAppConfiguration
+public class RedisOperationsSessionRepositoryScriptedITests
+		extends RedisOperationsSessionRepositoryITests {
+
+	@Autowired
+	private RedisOperationsSessionRepository repository;
+
+	@SpringSessionRedisOperations
+	private RedisOperations<Object, Object> redis;
+
+	@Test
+	public void savesAfterScriptFlush() {
+		RedisSession toSave = this.repository.createSession();
+		toSave.setAttribute("a", "b");
+		this.repository.save(toSave);
+
+		this.redis.execute((RedisCallback<Object>) connection -> {
+			connection.scriptFlush();
+			return null;
+		});
+
+		toSave.setAttribute("a", "c");
+		this.repository.save(toSave);
+
+		assertThat(this.repository.findById(toSave.getId()).<String>getAttribute("a"))
+				.isEqualTo("c");
+	}
+
+	@Configuration
+	@EnableRedisHttpSession(redisNamespace = "RedisOperationsSessionRepositoryITests", redisSaveMode = RedisSaveMode.SCRIPTED)
+	static class Config extends BaseConfig {
+
+		@Bean
+		public SessionEventRegistry sessionEventRegistry() {
+			return new SessionEventRegistry();
+		}
+
+	}
+
+}
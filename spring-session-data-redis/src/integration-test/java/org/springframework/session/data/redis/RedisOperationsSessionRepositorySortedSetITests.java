@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.time.Duration;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.session.data.SessionEventRegistry;
+import org.springframework.session.data.redis.RedisOperationsSessionRepository.RedisSession;
+import org.springframework.session.data.redis.config.annotation.SpringSessionRedisOperations;
+import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisHttpSession;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@link RedisOperationsSessionRepositoryITests} using
+ * {@link RedisExpirationMode#SORTED_SET}.
+ *
+ * @author Vedran Pavic
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration
+@WebAppConfiguration
+public class RedisOperationsSessionRepositorySortedSetITests
+		extends RedisOperationsSessionRepositoryITests {
+
+	private static final String EXPIRATIONS_KEY = "RedisOperationsSessionRepositoryITests:expirations";
+
+	@Autowired
+	private RedisOperationsSessionRepository repository;
+
+	@SpringSessionRedisOperations
+	private RedisOperations<Object, Object> redis;
+
+	@Test
+	public void savesExpiration() {
+		RedisSession toSave = this.repository.createSession();
+		this.repository.save(toSave);
+
+		assertThat(this.redis.boundZSetOps(EXPIRATIONS_KEY)
+				.score("expires:" + toSave.getId())).isEqualTo(
+						(double) RedisSessionExpirationPolicy.expiresInMillis(toSave));
+
+		this.repository.deleteById(toSave.getId());
+
+		// the session is either removed or tracked as already expired
+		Double score = this.redis.boundZSetOps(EXPIRATIONS_KEY)
+				.score("expires:" + toSave.getId());
+		if (score != null) {
+			assertThat(score).isLessThanOrEqualTo(System.currentTimeMillis());
+		}
+	}
+
+	@Test
+	@Override
+	public void cleanupExpiredSessions() {
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < 5; i++) {
+			this.redis.boundZSetOps(EXPIRATIONS_KEY).add("expires:expired-" + i, now - i);
+		}
+		RedisSession toSave = this.repository.createSession();
+		this.repository.save(toSave);
+		this.repository.setCleanupChunkSize(2);
+
+		this.repository.cleanupExpiredSessions();
+
+		assertThat(this.redis.boundZSetOps(EXPIRATIONS_KEY).count(0, now)).isZero();
+		assertThat(this.redis.boundZSetOps(EXPIRATIONS_KEY)
+				.score("expires:" + toSave.getId())).isNotNull();
+		assertThat(this.redis.hasKey(
+				"RedisOperationsSessionRepositoryITests:cleanup:lease")).isFalse();
+	}
+
+	@Test
+	public void countExpiringSessions() {
+		long count = this.repository.countExpiringSessions(Duration.ofMinutes(2));
+		RedisSession toSave = this.repository.createSession();
+		toSave.setMaxInactiveInterval(Duration.ofSeconds(90));
+		this.repository.save(toSave);
+
+		assertThat(this.repository.countExpiringSessions(Duration.ofMinutes(2)))
+				.isEqualTo(count + 1);
+	}
+
+	@Configuration
+	@EnableRedisHttpSession(redisNamespace = "RedisOperationsSessionRepositoryITests", redisExpirationMode = RedisExpirationMode.SORTED_SET)
+	static class Config extends BaseConfig {
+
+		@Bean
+		public SessionEventRegistry sessionEventRegistry() {
+			return new SessionEventRegistry();
+		}
+
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.session.MapSession;
+
+/**
+ * Benchmarks the computation of the expiration buckets performed by
+ * {@link RedisSessionExpirationPolicy#onExpirationUpdated(Long, org.springframework.session.Session)}
+ * on every save, comparing the previous {@link Calendar} based rounding with the epoch
+ * arithmetic. Run using {@code ./gradlew :spring-session-data-redis:jmh}, which reports
+ * the allocation rate of each benchmark using the {@code gc} profiler.
+ *
+ * @author Vedran Pavic
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RedisSessionExpirationPolicyBenchmark {
+
+	private static final long ONE_MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+	private MapSession session;
+
+	private Instant originalLastAccessTime;
+
+	@Setup
+	public void setup() {
+		this.session = new MapSession();
+		this.session.setMaxInactiveInterval(Duration.ofMinutes(30));
+		this.originalLastAccessTime = this.session.getLastAccessedTime()
+				.minusSeconds(90);
+	}
+
+	@Benchmark
+	public long calendar() {
+		long expiration = calendarRoundUpToNextMinute(
+				RedisSessionExpirationPolicy.expiresInMillis(this.session));
+		long originalExpiration = calendarRoundUpToNextMinute(this.originalLastAccessTime
+				.plus(this.session.getMaxInactiveInterval()).toEpochMilli());
+		return expiration ^ originalExpiration;
+	}
+
+	@Benchmark
+	public long epoch() {
+		long expiration = RedisSessionExpirationPolicy.roundUpToNextBucket(
+				RedisSessionExpirationPolicy.expiresInMillis(this.session), ONE_MINUTE);
+		long originalExpiration = RedisSessionExpirationPolicy.roundUpToNextBucket(
+				this.originalLastAccessTime.toEpochMilli()
+						+ this.session.getMaxInactiveInterval().toMillis(),
+				ONE_MINUTE);
+		return expiration ^ originalExpiration;
+	}
+
+	private static long calendarRoundUpToNextMinute(long timeInMs) {
+		Calendar date = Calendar.getInstance();
+		date.setTimeInMillis(timeInMs);
+		date.add(Calendar.MINUTE, 1);
+		date.clear(Calendar.SECOND);
+		date.clear(Calendar.MILLISECOND);
+		return date.getTimeInMillis();
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * A {@link RedisSerializer} for the values of the session hash, which encodes the types
+ * used for the session metadata and the most common attribute types compactly, and falls
+ * back to JDK serialization for any other type.
+ *
+ * Each compactly encoded value starts with a byte identifying its type. {@link Long}
+ * and {@link Integer} values, such as the creation time, last accessed time and maximum
+ * inactive interval of a session, are encoded as ZigZag variable length integers, so a
+ * timestamp takes seven bytes rather than the 82 bytes of its JDK serialization.
+ * {@link String} values are encoded as UTF-8, {@link Boolean} values as their type byte
+ * alone and {@code byte[]} values as is. Any other value is encoded using JDK
+ * serialization, whose stream header never starts with one of the type bytes, so values
+ * written using {@link JdkSerializationRedisSerializer}, including those stored before
+ * this serializer was used, are read as well.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+	private static final byte STRING = 1;
+
+	private static final byte LONG = 2;
+
+	private static final byte INTEGER = 3;
+
+	private static final byte TRUE = 4;
+
+	private static final byte FALSE = 5;
+
+	private static final byte BYTES = 6;
+
+	private static final byte[] EMPTY_ARRAY = new byte[0];
+
+	private final RedisSerializer<Object> fallbackSerializer = new JdkSerializationRedisSerializer();
+
+	@Override
+	public byte[] serialize(Object value) throws SerializationException {
+		if (value == null) {
+			return EMPTY_ARRAY;
+		}
+		if (value instanceof String) {
+			byte[] string = ((String) value).getBytes(StandardCharsets.UTF_8);
+			byte[] bytes = new byte[string.length + 1];
+			bytes[0] = STRING;
+			System.arraycopy(string, 0, bytes, 1, string.length);
+			return bytes;
+		}
+		if (value instanceof Long) {
+			return serializeNumber(LONG, (Long) value);
+		}
+		if (value instanceof Integer) {
+			return serializeNumber(INTEGER, (Integer) value);
+		}
+		if (value instanceof Boolean) {
+			return new byte[] { ((Boolean) value) ? TRUE : FALSE };
+		}
+		if (value instanceof byte[]) {
+			byte[] array = (byte[]) value;
+			byte[] bytes = new byte[array.length + 1];
+			bytes[0] = BYTES;
+			System.arraycopy(array, 0, bytes, 1, array.length);
+			return bytes;
+		}
+		return this.fallbackSerializer.serialize(value);
+	}
+
+	@Override
+	public Object deserialize(byte[] bytes) throws SerializationException {
+		if (bytes == null || bytes.length == 0) {
+			return null;
+		}
+		switch (bytes[0]) {
+		case STRING:
+			return new String(bytes, 1, bytes.length - 1, StandardCharsets.UTF_8);
+		case LONG:
+			return deserializeNumber(bytes);
+		case INTEGER:
+			return (int) deserializeNumber(bytes);
+		case TRUE:
+			return Boolean.TRUE;
+		case FALSE:
+			return Boolean.FALSE;
+		case BYTES:
+			return Arrays.copyOfRange(bytes, 1, bytes.length);
+		default:
+			return this.fallbackSerializer.deserialize(bytes);
+		}
+	}
+
+	private static byte[] serializeNumber(byte type, long value) {
+		byte[] buffer = new byte[11];
+		buffer[0] = type;
+		int length = 1;
+		long zigZag = (value << 1) ^ (value >> 63);
+		while ((zigZag & ~0x7FL) != 0) {
+			buffer[length++] = (byte) ((zigZag & 0x7F) | 0x80);
+			zigZag >>>= 7;
+		}
+		buffer[length++] = (byte) zigZag;
+		return Arrays.copyOf(buffer, length);
+	}
+
+	private static long deserializeNumber(byte[] bytes) {
+		long zigZag = 0;
+		int shift = 0;
+		for (int i = 1; i < bytes.length; i++) {
+			zigZag |= (long) (bytes[i] & 0x7F) << shift;
+			if ((bytes[i] & 0x80) == 0) {
+				return (zigZag >>> 1) ^ -(zigZag & 1);
+			}
+			shift += 7;
+		}
+		throw new SerializationException("Truncated variable length integer");
+	}
+
+}
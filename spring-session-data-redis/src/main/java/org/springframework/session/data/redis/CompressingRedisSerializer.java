@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.io.IOException;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.session.serializer.ValueCompressor;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link RedisSerializer} which compresses the values serialized by a delegate using a
+ * {@link ValueCompressor}, so large session attribute values take fewer bytes on the
+ * network and in Redis.
+ *
+ * Values below the threshold of the {@link ValueCompressor} are stored exactly as the
+ * delegate serialized them, and such values stored before compression was enabled are
+ * read as well. Provide the serializer to
+ * {@link RedisOperationsSessionRepository#setDefaultSerializer(RedisSerializer)} and as
+ * the hash value serializer of the {@link org.springframework.data.redis.core.RedisTemplate}
+ * the repository uses.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+public class CompressingRedisSerializer implements RedisSerializer<Object> {
+
+	private final RedisSerializer<Object> delegate;
+
+	private final ValueCompressor valueCompressor;
+
+	/**
+	 * Create a new instance.
+	 * @param delegate the serializer of the values
+	 * @param valueCompressor the value compressor
+	 */
+	public CompressingRedisSerializer(RedisSerializer<Object> delegate,
+			ValueCompressor valueCompressor) {
+		Assert.notNull(delegate, "delegate cannot be null");
+		Assert.notNull(valueCompressor, "valueCompressor cannot be null");
+		this.delegate = delegate;
+		this.valueCompressor = valueCompressor;
+	}
+
+	@Override
+	public byte[] serialize(Object value) throws SerializationException {
+		byte[] bytes = this.delegate.serialize(value);
+		try {
+			return this.valueCompressor.compress(bytes);
+		}
+		catch (IOException ex) {
+			throw new SerializationException("Cannot compress value", ex);
+		}
+	}
+
+	@Override
+	public Object deserialize(byte[] bytes) throws SerializationException {
+		try {
+			return this.delegate.deserialize(this.valueCompressor.decompress(bytes));
+		}
+		catch (IOException ex) {
+			throw new SerializationException("Cannot decompress value", ex);
+		}
+	}
+
+}
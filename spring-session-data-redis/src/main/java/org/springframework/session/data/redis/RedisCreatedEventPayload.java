@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+/**
+ * Specifies what {@link RedisOperationsSessionRepository} publishes to the session
+ * created channel when a new session is saved using
+ * {@link RedisEventMode#PUBLISH_SUBSCRIBE}. The session id is always part of the channel,
+ * so subscribers that need more than the payload can load the session using
+ * {@link RedisOperationsSessionRepository#findById(String)}.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ * @see RedisOperationsSessionRepository#setCreatedEventPayload(RedisCreatedEventPayload)
+ */
+public enum RedisCreatedEventPayload {
+
+	/**
+	 * Nothing is published, so no session created events are published by any node.
+	 */
+	NONE,
+
+	/**
+	 * An empty message is published, so the sessions of the created events only hold
+	 * their id. Nodes running versions prior to 2.0 deserialize the empty message to
+	 * {@code null} and fail to handle it, so this payload must not be used during a
+	 * rolling upgrade from such a version.
+	 */
+	ID,
+
+	/**
+	 * The creation time, last accessed time and maximum inactive interval of the session
+	 * are published, serialized using the default serializer. This is the default, since
+	 * the message can also be handled by nodes running previous versions.
+	 */
+	METADATA,
+
+	/**
+	 * The metadata and every attribute of the session are published, serialized using
+	 * the default serializer.
+	 */
+	FULL
+
+}
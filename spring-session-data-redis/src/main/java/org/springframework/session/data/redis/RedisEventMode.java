@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+/**
+ * Specifies how {@link RedisOperationsSessionRepository} transports the session created
+ * and destroyed events between the nodes using Redis.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+public enum RedisEventMode {
+
+	/**
+	 * The created events are published to a channel together with the whole session,
+	 * and the destroyed events are derived from the keyspace notifications of Redis. The
+	 * events are received by every subscribed node, but are lost if no node is
+	 * subscribed at the time, or if Redis does not deliver the notifications.
+	 */
+	PUBLISH_SUBSCRIBE,
+
+	/**
+	 * Compact records of the events, holding the session id, principal name, type and
+	 * time, are appended to a log in Redis. The expired events are appended by
+	 * {@link RedisOperationsSessionRepository#cleanupExpiredSessions()}. Each consumer
+	 * group reads the log in order using
+	 * {@link RedisOperationsSessionRepository#pollEvents()}, and acknowledges the records
+	 * in batches once their events are published, so a group resumes from its last
+	 * acknowledged record after a restart.
+	 */
+	EVENT_LOG
+
+}
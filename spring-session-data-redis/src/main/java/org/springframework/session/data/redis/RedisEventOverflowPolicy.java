@@ -0,0 +1,43 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+/**
+ * Specifies what {@link RedisOperationsSessionRepository} does with a message received
+ * from Redis when the queue of session events awaiting asynchronous dispatch is full.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ * @see RedisOperationsSessionRepository#setEventExecutor(java.util.concurrent.Executor)
+ */
+public enum RedisEventOverflowPolicy {
+
+	/**
+	 * The thread receiving the messages waits until there is room in the queue. This
+	 * applies backpressure to the subscription, so Redis buffers the messages that are
+	 * not yet received, up to the configured output buffer limit of pub/sub clients.
+	 */
+	BLOCK,
+
+	/**
+	 * The message is dropped, so no event is published for it. The number of dropped
+	 * messages is available using
+	 * {@link RedisOperationsSessionRepository#getDroppedEventCount()}.
+	 */
+	DROP
+
+}
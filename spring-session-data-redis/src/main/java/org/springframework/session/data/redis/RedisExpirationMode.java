@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+/**
+ * Specifies how {@link RedisOperationsSessionRepository} keeps track of when sessions
+ * expire, so that the expired sessions can be accessed by
+ * {@link RedisOperationsSessionRepository#cleanupExpiredSessions()} in order to make
+ * Redis fire their expired events.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+public enum RedisExpirationMode {
+
+	/**
+	 * Each session is tracked in a set of the sessions expiring in the same bucket, which
+	 * is a minute by default. The session is moved between the sets whenever its
+	 * expiration moves to another bucket, and each set expires five minutes after its
+	 * bucket.
+	 */
+	BUCKETS,
+
+	/**
+	 * All sessions are tracked in a single sorted set, scored by their expiration time.
+	 * Updating the expiration of a session is a single {@code ZADD} command, and sessions
+	 * remain tracked until they are cleaned up, regardless of how long the cleanup has not
+	 * been running for.
+	 * <p>
+	 * The sorted set is a single key, so with Redis Cluster every expiration update is
+	 * sent to the node owning its hash slot. The expired sessions are also removed from
+	 * it using a Lua script, which Redis Cluster connections that do not support
+	 * scripting cannot execute. This mode is therefore not suited to Redis Cluster.
+	 */
+	SORTED_SET
+
+}
@@ -16,29 +16,39 @@
 
 package org.springframework.session.data.redis;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.core.BoundHashOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
-import org.springframework.expression.Expression;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.session.DefaultPrincipalNameResolver;
 import org.springframework.session.FindByIndexNameSessionRepository;
 import org.springframework.session.MapSession;
+import org.springframework.session.PrincipalNameResolver;
 import org.springframework.session.Session;
+import org.springframework.session.data.redis.RedisSessionEventDispatcher.SessionNotification;
 import org.springframework.session.events.SessionCreatedEvent;
 import org.springframework.session.events.SessionDeletedEvent;
 import org.springframework.session.events.SessionDestroyedEvent;
@@ -82,11 +92,11 @@ import org.springframework.util.Assert;
  *
  * <pre>
  * HMSET spring:session:sessions:33fdd1b6-b496-4b33-9f7d-df96679d32fe creationTime 1404360000000 maxInactiveInterval 1800 lastAccessedTime 1404360000000 sessionAttr:attrName someAttrValue sessionAttr2:attrName someAttrValue2
- * EXPIRE spring:session:sessions:33fdd1b6-b496-4b33-9f7d-df96679d32fe 2100
+ * EXPIRE spring:session:sessions:33fdd1b6-b496-4b33-9f7d-df96679d32fe 2160
  * APPEND spring:session:sessions:expires:33fdd1b6-b496-4b33-9f7d-df96679d32fe ""
  * EXPIRE spring:session:sessions:expires:33fdd1b6-b496-4b33-9f7d-df96679d32fe 1800
  * SADD spring:session:expirations:1439245080000 expires:33fdd1b6-b496-4b33-9f7d-df96679d32fe
- * EXPIRE spring:session:expirations1439245080000 2100
+ * EXPIRE spring:session:expirations1439245080000 2160
  * </pre>
  *
  * <h3>Saving a Session</h3>
@@ -131,13 +141,63 @@ import org.springframework.util.Assert;
  * HMSET spring:session:sessions:33fdd1b6-b496-4b33-9f7d-df96679d32fe sessionAttr:attrName2 newValue
  * </pre>
  *
+ * <p>
+ * By default each of the commands needed to save a session is sent to Redis separately.
+ * Using {@link #setRedisSaveMode(RedisSaveMode)} the commands can instead be sent in a
+ * single pipeline or MULTI/EXEC transaction, which reduces the number of network round
+ * trips required to save a session to one. Using {@link RedisSaveMode#SCRIPTED} the
+ * commands are executed by a server-side Lua script, so that they are also applied
+ * atomically with respect to concurrent requests for the same session.
+ * </p>
+ *
+ * <h3>Storing a Session as a Single Value</h3>
+ *
+ * <p>
+ * Using {@link #setRedisStorageMode(RedisStorageMode)} with {@link RedisStorageMode#BLOB},
+ * each session is instead stored as a single compressed binary value, which avoids the
+ * memory overhead of a hash field per attribute. The session is loaded using a single
+ * {@code GET} command, and saved as a whole, together with the expiration of its key,
+ * using a script that is equivalent to:
+ * </p>
+ *
+ * <pre>
+ * SET spring:session:sessions:33fdd1b6-b496-4b33-9f7d-df96679d32fe &lt;version and deflated entries&gt; PX 2160000
+ * </pre>
+ *
+ * <p>
+ * The value is only written if the stored session is still the version the session was
+ * loaded from. Otherwise, the changes of the session are applied to the latest version
+ * of the session, and the save is retried. The principal index and the expiration keys
+ * are maintained as described above.
+ * </p>
+ *
+ * <h3>Lazy Loading</h3>
+ *
+ * <p>
+ * By default {@link #findById(String)} loads all the fields of the session hash. Using
+ * {@link #setLazyAttributeLoading(boolean)} only the session metadata, the attributes
+ * used to resolve the principal name and the attributes configured using
+ * {@link #setPrefetchedAttributeNames(Collection)} are loaded:
+ * </p>
+ *
+ * <pre>
+ * HMGET spring:session:sessions:33fdd1b6-b496-4b33-9f7d-df96679d32fe creationTime maxInactiveInterval lastAccessedTime sessionAttr:org.springframework.session.FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME sessionAttr:SPRING_SECURITY_CONTEXT
+ * </pre>
+ *
+ * <p>
+ * Any other attribute is loaded using HGET the first time it is requested, and all the
+ * remaining attributes are loaded using HGETALL when the attribute names are requested.
+ * </p>
+ *
  * <h3>SessionCreatedEvent</h3>
  *
  * <p>
  * When a session is created an event is sent to Redis with the channel of
  * "spring:session:channel:created:33fdd1b6-b496-4b33-9f7d-df96679d32fe" such that
- * "33fdd1b6-b496-4b33-9f7d-df96679d32fe" is the sesion id. The body of the event will be
- * the session that was created.
+ * "33fdd1b6-b496-4b33-9f7d-df96679d32fe" is the sesion id. By default the body of the
+ * event holds the metadata of the session that was created. Using
+ * {@link #setCreatedEventPayload(RedisCreatedEventPayload)}, the body can instead be
+ * empty or hold the whole session that was created, or the event can be omitted.
  * </p>
  *
  * <p>
@@ -156,15 +216,15 @@ import org.springframework.util.Assert;
  * </p>
  *
  * <pre>
- * EXPIRE spring:session:sessions:33fdd1b6-b496-4b33-9f7d-df96679d32fe 2100
+ * EXPIRE spring:session:sessions:33fdd1b6-b496-4b33-9f7d-df96679d32fe 2160
  * </pre>
  *
  * <p>
- * You will note that the expiration that is set is 5 minutes after the session actually
- * expires. This is necessary so that the value of the session can be accessed when the
- * session expires. An expiration is set on the session itself five minutes after it
- * actually expires to ensure it is cleaned up, but only after we perform any necessary
- * processing.
+ * You will note that the expiration that is set is 6 minutes after the session actually
+ * expires, which is five minutes plus the expiration bucket interval. This is necessary
+ * so that the value of the session can be accessed when the session expires. An
+ * expiration is set on the session itself after it actually expires to ensure it is
+ * cleaned up, but only after we perform any necessary processing.
  * </p>
  *
  * <p>
@@ -215,14 +275,15 @@ import org.springframework.util.Assert;
  * </p>
  *
  * <p>
- * For this reason, each session expiration is also tracked to the nearest minute. This
- * allows a background task to access the potentially expired sessions to ensure that
+ * For this reason, each session expiration is also tracked to the next minute, or to the
+ * next bucket set using {@link #setExpirationBucketInterval(Duration)}. This allows a
+ * background task to access the potentially expired sessions to ensure that
  * Redis expired events are fired in a more deterministic fashion. For example:
  * </p>
  *
  * <pre>
  * SADD spring:session:expirations:1439245080000 expires:33fdd1b6-b496-4b33-9f7d-df96679d32fe
- * EXPIRE spring:session:expirations1439245080000 2100
+ * EXPIRE spring:session:expirations1439245080000 2160
  * </pre>
  *
  * <p>
@@ -238,6 +299,59 @@ import org.springframework.util.Assert;
  * the key is only removed if the TTL on that key is expired.
  * </p>
  *
+ * <p>
+ * Using {@link #setRedisExpirationMode(RedisExpirationMode)} with
+ * {@link RedisExpirationMode#SORTED_SET}, the expirations are instead tracked in a single
+ * sorted set scored by the expiration time of each session. For example:
+ * </p>
+ *
+ * <pre>
+ * ZADD spring:session:expirations 1439245068312 expires:33fdd1b6-b496-4b33-9f7d-df96679d32fe
+ * </pre>
+ *
+ * <p>
+ * The background task then removes the sessions with a score up to the current time from
+ * the sorted set in chunks, and accesses their expires keys.
+ * </p>
+ *
+ * <h3>Dispatching session events</h3>
+ *
+ * <p>
+ * By default, the messages received from Redis are handled by the thread of the
+ * {@link org.springframework.data.redis.listener.RedisMessageListenerContainer} that
+ * receives them, which loads the session and publishes its event before the next
+ * message is handled. Using {@link #setEventExecutor(Executor)}, the messages are
+ * instead queued and handled asynchronously in batches, loading the sessions of each
+ * batch in a single round trip. The messages of a session are always handled in the
+ * order they were received, and several notifications of the same destroyed session
+ * within a batch result in a single event. The size of the queue is bounded, and
+ * {@link #setEventOverflowPolicy(RedisEventOverflowPolicy)} determines what happens to
+ * a message that does not fit in the queue.
+ * </p>
+ *
+ * <h3>Using the session event log</h3>
+ *
+ * <p>
+ * Redis does not guarantee the delivery of keyspace notifications, and published
+ * messages are lost if no node is subscribed at the time. Using
+ * {@link #setRedisEventMode(RedisEventMode)} with {@link RedisEventMode#EVENT_LOG}, the
+ * events are instead appended to a log as compact records of the session id, event type,
+ * time and principal name. For example:
+ * </p>
+ *
+ * <pre>
+ * ZADD spring:session:event:log 42 42:CREATED:1439245068312:36:33fdd1b6-b496-4b33-9f7d-df96679d32fe:user
+ * </pre>
+ *
+ * <p>
+ * The deleted events are appended by {@link #deleteById(String)}, and the expired events
+ * by {@link #cleanupExpiredSessions()} for the sessions it finds expired. Each consumer
+ * group reads the log using {@link #pollEvents()}, publishes the events in order and
+ * acknowledges the records of each batch, so the events appended while no node of the
+ * group was running are published once it is restarted. The sessions of the events only
+ * hold their id, the principal name and the time of the event.
+ * </p>
+ *
  * @author Rob Winch
  * @author Vedran Pavic
  * @since 1.0
@@ -250,13 +364,54 @@ public class RedisOperationsSessionRepository implements
 
 	private static final String SPRING_SECURITY_CONTEXT = "SPRING_SECURITY_CONTEXT";
 
-	static PrincipalNameResolver PRINCIPAL_NAME_RESOLVER = new PrincipalNameResolver();
-
 	/**
 	 * The default namespace for each key and channel in Redis used by Spring Session.
 	 */
 	public static final String DEFAULT_NAMESPACE = "spring:session";
 
+	/**
+	 * The default number of sessions cleaned up at a time by
+	 * {@link #cleanupExpiredSessions()}.
+	 */
+	public static final int DEFAULT_CLEANUP_CHUNK_SIZE = 100;
+
+	/**
+	 * The default time after which the lease taken by {@link #cleanupExpiredSessions()}
+	 * expires.
+	 */
+	public static final Duration DEFAULT_CLEANUP_LEASE_TIME = Duration.ofSeconds(30);
+
+	/**
+	 * The default interval the expirations of the sessions are grouped by.
+	 */
+	public static final Duration DEFAULT_EXPIRATION_BUCKET_INTERVAL = Duration
+			.ofMinutes(1);
+
+	/**
+	 * The default number of queues the session events are dispatched from concurrently.
+	 */
+	public static final int DEFAULT_EVENT_CONCURRENCY = 4;
+
+	/**
+	 * The default maximum number of session events awaiting dispatch.
+	 */
+	public static final int DEFAULT_EVENT_QUEUE_CAPACITY = 10000;
+
+	/**
+	 * The default maximum number of session events handled in a single batch.
+	 */
+	public static final int DEFAULT_EVENT_BATCH_SIZE = 100;
+
+	/**
+	 * The default maximum number of records retained by the session event log.
+	 */
+	public static final long DEFAULT_EVENT_LOG_MAX_LENGTH = 100000;
+
+	/**
+	 * The default consumer group reading the session event log.
+	 */
+	public static final String DEFAULT_EVENT_LOG_CONSUMER_GROUP = "default";
+
 	/**
 	 * The key in the Hash representing
 	 * {@link org.springframework.session.Session#getCreationTime()}.
@@ -284,6 +439,10 @@ public class RedisOperationsSessionRepository implements
 	 */
 	static final String SESSION_ATTR_PREFIX = "sessionAttr:";
 
+	private static final String KEYSPACE_CHANNEL_PREFIX = "__keyspace@";
+
+	private static final String SESSION_ID_DIGITS = "0123456789abcdef";
+
 	/**
 	 * The namespace for every key used by Spring Session in Redis.
 	 */
@@ -293,6 +452,14 @@ public class RedisOperationsSessionRepository implements
 
 	private final RedisSessionExpirationPolicy expirationPolicy;
 
+	private final RedisSessionScripts scripts;
+
+	private final RedisSessionPipeline pipeline;
+
+	private final RedisSessionEventLog eventLog;
+
+	private final RedisSessionBlobStore blobStore;
+
 	private ApplicationEventPublisher eventPublisher = new ApplicationEventPublisher() {
 		@Override
 		public void publishEvent(ApplicationEvent event) {
@@ -313,6 +480,38 @@ public class RedisOperationsSessionRepository implements
 
 	private RedisFlushMode redisFlushMode = RedisFlushMode.ON_SAVE;
 
+	private RedisSaveMode redisSaveMode = RedisSaveMode.SEQUENTIAL;
+
+	private RedisExpirationMode redisExpirationMode = RedisExpirationMode.BUCKETS;
+
+	private RedisStorageMode redisStorageMode = RedisStorageMode.HASH;
+
+	private double lastAccessedTimeUpdateThreshold;
+
+	private PrincipalNameResolver principalNameResolver = new DefaultPrincipalNameResolver();
+
+	private boolean lazyAttributeLoading;
+
+	private Set<String> prefetchedAttributeNames = Collections.emptySet();
+
+	private Executor eventExecutor;
+
+	private int eventConcurrency = DEFAULT_EVENT_CONCURRENCY;
+
+	private int eventQueueCapacity = DEFAULT_EVENT_QUEUE_CAPACITY;
+
+	private int eventBatchSize = DEFAULT_EVENT_BATCH_SIZE;
+
+	private RedisEventOverflowPolicy eventOverflowPolicy = RedisEventOverflowPolicy.BLOCK;
+
+	private RedisSessionEventDispatcher eventDispatcher;
+
+	private RedisEventMode redisEventMode = RedisEventMode.PUBLISH_SUBSCRIBE;
+
+	private String eventLogConsumerGroup = DEFAULT_EVENT_LOG_CONSUMER_GROUP;
+
+	private RedisCreatedEventPayload createdEventPayload = RedisCreatedEventPayload.METADATA;
+
 	/**
 	 * Creates a new instance. For an example, refer to the class level javadoc.
 	 *
@@ -324,7 +523,14 @@ public class RedisOperationsSessionRepository implements
 		Assert.notNull(sessionRedisOperations, "sessionRedisOperations cannot be null");
 		this.sessionRedisOperations = sessionRedisOperations;
 		this.expirationPolicy = new RedisSessionExpirationPolicy(sessionRedisOperations,
-				this::getExpirationsKey, this::getSessionKey);
+				this::getExpirationsKey, this::getSessionKey, this::getCleanupKey,
+				this::getExpirationsIndexKey);
+		this.scripts = new RedisSessionScripts(sessionRedisOperations);
+		this.pipeline = new RedisSessionPipeline(sessionRedisOperations);
+		this.eventLog = new RedisSessionEventLog(sessionRedisOperations,
+				this::getEventKey);
+		this.blobStore = new RedisSessionBlobStore(sessionRedisOperations);
+		this.expirationPolicy.setExpiredSessionsHandler(this::handleExpiredSessions);
 	}
 
 	/**
@@ -375,6 +581,336 @@ public class RedisOperationsSessionRepository implements
 		this.redisFlushMode = redisFlushMode;
 	}
 
+	/**
+	 * Sets the redis save mode. Default save mode is {@link RedisSaveMode#SEQUENTIAL}.
+	 *
+	 * @param redisSaveMode the new redis save mode
+	 */
+	public void setRedisSaveMode(RedisSaveMode redisSaveMode) {
+		Assert.notNull(redisSaveMode, "redisSaveMode cannot be null");
+		this.redisSaveMode = redisSaveMode;
+	}
+
+	/**
+	 * Sets how the expirations of the sessions are tracked. The default is
+	 * {@link RedisExpirationMode#BUCKETS}. Changing the mode of an existing deployment
+	 * leaves the sessions tracked using the previous mode to expire without being
+	 * accessed by {@link #cleanupExpiredSessions()}.
+	 *
+	 * @param redisExpirationMode the redis expiration mode
+	 * @since 2.0.0
+	 */
+	public void setRedisExpirationMode(RedisExpirationMode redisExpirationMode) {
+		Assert.notNull(redisExpirationMode, "redisExpirationMode cannot be null");
+		this.redisExpirationMode = redisExpirationMode;
+		this.expirationPolicy.setExpirationMode(redisExpirationMode);
+	}
+
+	/**
+	 * Sets how the sessions are laid out in Redis. The default is
+	 * {@link RedisStorageMode#HASH}. Using {@link RedisStorageMode#BLOB}, attributes are
+	 * never loaded lazily, and each save is a script invocation followed by the commands
+	 * maintaining the principal index and the expirations, which are sent according to
+	 * the save mode, or individually using {@link RedisSaveMode#SCRIPTED}. Changing the
+	 * mode of an existing deployment makes the sessions stored using the previous mode
+	 * unreadable.
+	 *
+	 * @param redisStorageMode the redis storage mode
+	 * @since 2.0.0
+	 */
+	public void setRedisStorageMode(RedisStorageMode redisStorageMode) {
+		Assert.notNull(redisStorageMode, "redisStorageMode cannot be null");
+		this.redisStorageMode = redisStorageMode;
+		this.expirationPolicy
+				.setExpireSessionKey(redisStorageMode == RedisStorageMode.HASH);
+	}
+
+	/**
+	 * Sets the fraction of the session's maximum inactive interval that needs to elapse
+	 * since the persisted last accessed time before a change of only the last accessed
+	 * time is written to Redis. For example, with a value of {@code 0.1} and a maximum
+	 * inactive interval of 30 minutes, a session that is only accessed is written at most
+	 * once every 3 minutes. Any other change to the session is always written together
+	 * with the last accessed time.
+	 * <p>
+	 * Skipping these writes means a session can expire earlier by at most the configured
+	 * fraction of its maximum inactive interval. The default is {@code 0}, meaning that
+	 * every change of the last accessed time is written.
+	 *
+	 * @param lastAccessedTimeUpdateThreshold the fraction of the maximum inactive
+	 * interval, must be greater than or equal to {@code 0} and less than {@code 1}
+	 * @since 2.0.0
+	 */
+	public void setLastAccessedTimeUpdateThreshold(
+			double lastAccessedTimeUpdateThreshold) {
+		Assert.isTrue(lastAccessedTimeUpdateThreshold >= 0
+				&& lastAccessedTimeUpdateThreshold < 1,
+				"lastAccessedTimeUpdateThreshold must be in the range [0, 1)");
+		this.lastAccessedTimeUpdateThreshold = lastAccessedTimeUpdateThreshold;
+	}
+
+	/**
+	 * Sets the {@link PrincipalNameResolver} used to resolve the principal name of a
+	 * session when maintaining the principal name index. The default is
+	 * {@link DefaultPrincipalNameResolver}.
+	 *
+	 * @param principalNameResolver the principal name resolver
+	 * @since 2.0.0
+	 */
+	public void setPrincipalNameResolver(PrincipalNameResolver principalNameResolver) {
+		Assert.notNull(principalNameResolver, "principalNameResolver cannot be null");
+		this.principalNameResolver = principalNameResolver;
+	}
+
+	/**
+	 * Sets whether the attributes of the sessions returned by {@link #findById(String)}
+	 * should be loaded lazily. If enabled, each attribute is loaded and deserialized the
+	 * first time it is requested, which avoids the cost of loading large attributes that
+	 * are not used by the request. The default is {@code false}.
+	 *
+	 * @param lazyAttributeLoading whether attributes should be loaded lazily
+	 * @since 2.0.0
+	 * @see #setPrefetchedAttributeNames(Collection)
+	 */
+	public void setLazyAttributeLoading(boolean lazyAttributeLoading) {
+		this.lazyAttributeLoading = lazyAttributeLoading;
+	}
+
+	/**
+	 * Sets the names of the attributes that are loaded together with the session when
+	 * lazy attribute loading is used, because they are needed by most requests. The
+	 * attributes used to resolve the principal name are always loaded.
+	 *
+	 * @param prefetchedAttributeNames the names of the attributes to load eagerly
+	 * @since 2.0.0
+	 * @see #setLazyAttributeLoading(boolean)
+	 */
+	public void setPrefetchedAttributeNames(Collection<String> prefetchedAttributeNames) {
+		Assert.notNull(prefetchedAttributeNames,
+				"prefetchedAttributeNames cannot be null");
+		this.prefetchedAttributeNames = new LinkedHashSet<>(prefetchedAttributeNames);
+	}
+
+	/**
+	 * Sets the maximum number of sessions that {@link #cleanupExpiredSessions()} removes
+	 * from the expirations of a bucket using a single pipeline. The default is
+	 * {@link #DEFAULT_CLEANUP_CHUNK_SIZE}.
+	 *
+	 * @param cleanupChunkSize the number of sessions cleaned up at a time
+	 * @since 2.0.0
+	 */
+	public void setCleanupChunkSize(int cleanupChunkSize) {
+		Assert.isTrue(cleanupChunkSize > 0, "cleanupChunkSize must be positive");
+		this.expirationPolicy.setCleanupChunkSize(cleanupChunkSize);
+	}
+
+	/**
+	 * Sets the time after which the lease taken by {@link #cleanupExpiredSessions()}
+	 * expires. The lease is released once the cleanup completes, and prevents other
+	 * nodes from cleaning up expired sessions at the same time. Its expiration only
+	 * matters if the node holding it fails or the cleanup takes longer. The same time
+	 * applies to the lease taken by {@link #pollEvents()}. The default is
+	 * {@link #DEFAULT_CLEANUP_LEASE_TIME}.
+	 *
+	 * @param cleanupLeaseTime the lease time
+	 * @since 2.0.0
+	 */
+	public void setCleanupLeaseTime(Duration cleanupLeaseTime) {
+		Assert.notNull(cleanupLeaseTime, "cleanupLeaseTime cannot be null");
+		Assert.isTrue(!cleanupLeaseTime.isNegative() && !cleanupLeaseTime.isZero(),
+				"cleanupLeaseTime must be positive");
+		this.expirationPolicy.setCleanupLeaseTime(cleanupLeaseTime);
+		this.eventLog.setLeaseTime(cleanupLeaseTime);
+	}
+
+	/**
+	 * Sets the interval the expirations of the sessions are grouped by when using
+	 * {@link RedisExpirationMode#BUCKETS}. Each session is tracked in the bucket starting
+	 * after its expiration time, so a shorter interval lets {@link #cleanupExpiredSessions()}
+	 * access expired sessions sooner at the cost of creating more keys, while a longer
+	 * interval creates fewer keys but delays the expired session events. The buckets and
+	 * the session keys are retained for the interval plus five minutes after the sessions
+	 * expire, which is also the window the cleanup looks back over. The cleanup should be
+	 * scheduled at least once per interval. The default is
+	 * {@link #DEFAULT_EXPIRATION_BUCKET_INTERVAL}.
+	 *
+	 * @param expirationBucketInterval the expiration bucket interval, must be a whole
+	 * number of seconds
+	 * @since 2.0.0
+	 */
+	public void setExpirationBucketInterval(Duration expirationBucketInterval) {
+		Assert.notNull(expirationBucketInterval,
+				"expirationBucketInterval cannot be null");
+		Assert.isTrue(!expirationBucketInterval.isNegative()
+				&& !expirationBucketInterval.isZero()
+				&& expirationBucketInterval.getNano() == 0,
+				"expirationBucketInterval must be a positive number of seconds");
+		this.expirationPolicy.setBucketInterval(expirationBucketInterval);
+	}
+
+	/**
+	 * Sets the {@link Executor} used to dispatch the session events received from Redis
+	 * asynchronously. The default is {@code null}, meaning that each message is handled
+	 * by the thread receiving it. The event settings need to be configured before any
+	 * message is received.
+	 *
+	 * @param eventExecutor the executor
+	 * @since 2.0.0
+	 */
+	public void setEventExecutor(Executor eventExecutor) {
+		this.eventExecutor = eventExecutor;
+		updateEventDispatcher();
+	}
+
+	/**
+	 * Sets the number of queues the session events are dispatched from concurrently when
+	 * using {@link #setEventExecutor(Executor)}. The events of a session are always
+	 * queued on the same queue. The default is {@link #DEFAULT_EVENT_CONCURRENCY}.
+	 *
+	 * @param eventConcurrency the event concurrency
+	 * @since 2.0.0
+	 */
+	public void setEventConcurrency(int eventConcurrency) {
+		Assert.isTrue(eventConcurrency > 0, "eventConcurrency must be positive");
+		this.eventConcurrency = eventConcurrency;
+		updateEventDispatcher();
+	}
+
+	/**
+	 * Sets the maximum number of session events awaiting dispatch when using
+	 * {@link #setEventExecutor(Executor)}, which is shared equally between the queues.
+	 * The default is {@link #DEFAULT_EVENT_QUEUE_CAPACITY}.
+	 *
+	 * @param eventQueueCapacity the event queue capacity
+	 * @since 2.0.0
+	 */
+	public void setEventQueueCapacity(int eventQueueCapacity) {
+		Assert.isTrue(eventQueueCapacity > 0, "eventQueueCapacity must be positive");
+		this.eventQueueCapacity = eventQueueCapacity;
+		updateEventDispatcher();
+	}
+
+	/**
+	 * Sets the maximum number of session events handled in a single batch when using
+	 * {@link #setEventExecutor(Executor)}. The default is
+	 * {@link #DEFAULT_EVENT_BATCH_SIZE}.
+	 *
+	 * @param eventBatchSize the event batch size
+	 * @since 2.0.0
+	 */
+	public void setEventBatchSize(int eventBatchSize) {
+		Assert.isTrue(eventBatchSize > 0, "eventBatchSize must be positive");
+		this.eventBatchSize = eventBatchSize;
+		updateEventDispatcher();
+	}
+
+	/**
+	 * Sets what happens to a message received from Redis when the queue of session
+	 * events awaiting dispatch is full. The default is
+	 * {@link RedisEventOverflowPolicy#BLOCK}.
+	 *
+	 * @param eventOverflowPolicy the event overflow policy
+	 * @since 2.0.0
+	 */
+	public void setEventOverflowPolicy(RedisEventOverflowPolicy eventOverflowPolicy) {
+		Assert.notNull(eventOverflowPolicy, "eventOverflowPolicy cannot be null");
+		this.eventOverflowPolicy = eventOverflowPolicy;
+		updateEventDispatcher();
+	}
+
+	/**
+	 * Returns the number of session events awaiting dispatch when using
+	 * {@link #setEventExecutor(Executor)}.
+	 *
+	 * @return the number of pending events
+	 * @since 2.0.0
+	 */
+	public int getPendingEventCount() {
+		RedisSessionEventDispatcher dispatcher = this.eventDispatcher;
+		return (dispatcher != null) ? dispatcher.getPendingCount() : 0;
+	}
+
+	/**
+	 * Returns the number of messages received from Redis that were dropped according to
+	 * {@link RedisEventOverflowPolicy#DROP}.
+	 *
+	 * @return the number of dropped events
+	 * @since 2.0.0
+	 */
+	public long getDroppedEventCount() {
+		RedisSessionEventDispatcher dispatcher = this.eventDispatcher;
+		return (dispatcher != null) ? dispatcher.getDroppedCount() : 0;
+	}
+
+	/**
+	 * Sets how the session events are transported between the nodes using Redis. The
+	 * default is {@link RedisEventMode#PUBLISH_SUBSCRIBE}. Using
+	 * {@link RedisEventMode#EVENT_LOG}, {@link #pollEvents()} needs to be invoked
+	 * periodically to publish the events, and {@link #cleanupExpiredSessions()} to
+	 * append the expired events.
+	 *
+	 * @param redisEventMode the redis event mode
+	 * @since 2.0.0
+	 */
+	public void setRedisEventMode(RedisEventMode redisEventMode) {
+		Assert.notNull(redisEventMode, "redisEventMode cannot be null");
+		this.redisEventMode = redisEventMode;
+	}
+
+	/**
+	 * Sets the maximum number of records retained by the session event log. Older
+	 * records are removed as new records are appended, so a consumer group that does not
+	 * read the log for long enough misses them. A value of {@code 0} retains every
+	 * record. The default is {@link #DEFAULT_EVENT_LOG_MAX_LENGTH}.
+	 *
+	 * @param eventLogMaxLength the maximum number of records
+	 * @since 2.0.0
+	 */
+	public void setEventLogMaxLength(long eventLogMaxLength) {
+		Assert.isTrue(eventLogMaxLength >= 0, "eventLogMaxLength cannot be negative");
+		this.eventLog.setMaxLength(eventLogMaxLength);
+	}
+
+	/**
+	 * Sets the consumer group {@link #pollEvents()} reads the session event log as. Each
+	 * group publishes every event once, and only one node of a group reads the log at a
+	 * time. To publish the events on every node, each node needs a distinct group that
+	 * is retained across restarts. The default is
+	 * {@link #DEFAULT_EVENT_LOG_CONSUMER_GROUP}.
+	 *
+	 * @param eventLogConsumerGroup the consumer group
+	 * @since 2.0.0
+	 */
+	public void setEventLogConsumerGroup(String eventLogConsumerGroup) {
+		Assert.hasText(eventLogConsumerGroup, "eventLogConsumerGroup cannot be empty");
+		this.eventLogConsumerGroup = eventLogConsumerGroup;
+	}
+
+	/**
+	 * Sets what is published to the session created channel when a new session is saved
+	 * using {@link RedisEventMode#PUBLISH_SUBSCRIBE}. The default is
+	 * {@link RedisCreatedEventPayload#METADATA}, which can be read by nodes running
+	 * previous versions. {@link RedisCreatedEventPayload#ID} publishes an empty message
+	 * instead, which those nodes fail to handle, so it should only be used once every
+	 * node subscribed to the channel has been upgraded.
+	 *
+	 * @param createdEventPayload the created event payload
+	 * @since 2.0.0
+	 */
+	public void setCreatedEventPayload(RedisCreatedEventPayload createdEventPayload) {
+		Assert.notNull(createdEventPayload, "createdEventPayload cannot be null");
+		this.createdEventPayload = createdEventPayload;
+	}
+
+	private void updateEventDispatcher() {
+		this.eventDispatcher = (this.eventExecutor != null)
+				? new RedisSessionEventDispatcher(this.eventExecutor,
+						this.eventConcurrency, this.eventQueueCapacity,
+						this.eventBatchSize, this.eventOverflowPolicy,
+						this::handleNotifications)
+				: null;
+	}
+
 	public RedisOperations<Object, Object> getSessionRedisOperations() {
 		return this.sessionRedisOperations;
 	}
@@ -383,18 +919,109 @@ public class RedisOperationsSessionRepository implements
 	public void save(RedisSession session) {
 		session.saveDelta();
 		if (session.isNew()) {
-			String sessionCreatedKey = getSessionCreatedChannel(session.getId());
-			this.sessionRedisOperations.convertAndSend(sessionCreatedKey, session.delta);
+			if (this.redisEventMode == RedisEventMode.EVENT_LOG) {
+				appendEvent(SessionNotification.Type.CREATED, session,
+						session.getCreationTime().toEpochMilli());
+			}
+			else {
+				publishCreated(session);
+			}
 			session.setNew(false);
 		}
 	}
 
+	private void publishCreated(RedisSession session) {
+		if (this.createdEventPayload == RedisCreatedEventPayload.NONE) {
+			return;
+		}
+		String sessionCreatedKey = getSessionCreatedChannel(session.getId());
+		if (this.createdEventPayload == RedisCreatedEventPayload.ID) {
+			byte[] channel = sessionCreatedKey.getBytes(StandardCharsets.UTF_8);
+			this.sessionRedisOperations.execute((RedisCallback<Long>) connection -> connection
+					.publish(channel, new byte[0]));
+			return;
+		}
+		Map<String, Object> payload = new HashMap<>();
+		payload.put(CREATION_TIME_ATTR, session.getCreationTime().toEpochMilli());
+		payload.put(MAX_INACTIVE_ATTR, (int) session.getMaxInactiveInterval().getSeconds());
+		payload.put(LAST_ACCESSED_ATTR, session.getLastAccessedTime().toEpochMilli());
+		if (this.createdEventPayload == RedisCreatedEventPayload.FULL) {
+			for (String attributeName : session.getAttributeNames()) {
+				payload.put(getSessionAttrNameKey(attributeName),
+						session.getAttribute(attributeName));
+			}
+		}
+		this.sessionRedisOperations.convertAndSend(sessionCreatedKey, payload);
+	}
+
 	public void cleanupExpiredSessions() {
 		this.expirationPolicy.cleanExpiredSessions();
 	}
 
+	/**
+	 * Publishes the events of the session event log not yet published by the consumer
+	 * group, in batches of the configured event batch size. Each batch is acknowledged
+	 * once its events are published, so should the node fail before that, the batch is
+	 * published again by the next poll of the group. The poll is skipped if another node
+	 * is reading the log of the same group.
+	 *
+	 * @return the number of published events
+	 * @since 2.0.0
+	 * @see #setRedisEventMode(RedisEventMode)
+	 */
+	public int pollEvents() {
+		String group = this.eventLogConsumerGroup;
+		if (!this.eventLog.acquireLease(group)) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Skipping poll of session events, since the log of group "
+						+ group + " is being read by another node");
+			}
+			return 0;
+		}
+		try {
+			int count = 0;
+			List<RedisSessionEventLog.Record> records;
+			do {
+				records = this.eventLog.read(group, this.eventBatchSize);
+				if (records.isEmpty()) {
+					break;
+				}
+				for (RedisSessionEventLog.Record record : records) {
+					handleRecord(record);
+				}
+				this.eventLog.acknowledge(group,
+						records.get(records.size() - 1).getSequence());
+				count += records.size();
+			}
+			while (records.size() == this.eventBatchSize);
+			return count;
+		}
+		finally {
+			this.eventLog.releaseLease(group);
+		}
+	}
+
+	/**
+	 * Returns the number of sessions that expire within the provided duration from now.
+	 * Using {@link RedisExpirationMode#SORTED_SET} this is a single {@code ZCOUNT}
+	 * command, while using {@link RedisExpirationMode#BUCKETS} the sizes of the sets of
+	 * each bucket are summed, so the count is only accurate to the bucket interval.
+	 *
+	 * @param duration the duration from now
+	 * @return the number of sessions that expire within the duration
+	 * @since 2.0.0
+	 */
+	public long countExpiringSessions(Duration duration) {
+		Assert.notNull(duration, "duration cannot be null");
+		return this.expirationPolicy.countExpiringSessions(duration);
+	}
+
 	@Override
 	public RedisSession findById(String id) {
+		if (this.lazyAttributeLoading
+				&& this.redisStorageMode == RedisStorageMode.HASH) {
+			return getLazySession(id);
+		}
 		return getSession(id, false);
 	}
 
@@ -407,17 +1034,79 @@ public class RedisOperationsSessionRepository implements
 		String principalKey = getPrincipalKey(indexValue);
 		Set<Object> sessionIds = this.sessionRedisOperations.boundSetOps(principalKey)
 				.members();
-		Map<String, RedisSession> sessions = new HashMap<>(
-				sessionIds.size());
+		if (sessionIds.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		List<String> ids = new ArrayList<>(sessionIds.size());
 		for (Object id : sessionIds) {
-			RedisSession session = findById((String) id);
+			ids.add((String) id);
+		}
+		List<Map<Object, Object>> entries = getSessionEntries(ids);
+		Map<String, RedisSession> sessions = new HashMap<>(ids.size());
+		List<Object> staleIds = new ArrayList<>();
+		for (int i = 0; i < ids.size(); i++) {
+			String id = ids.get(i);
+			Map<Object, Object> sessionEntries = entries.get(i);
+			if (sessionEntries == null || sessionEntries.isEmpty()) {
+				staleIds.add(id);
+				continue;
+			}
+			RedisSession session = getSession(id, sessionEntries, false);
 			if (session != null) {
 				sessions.put(session.getId(), session);
 			}
 		}
+		if (!staleIds.isEmpty()) {
+			this.sessionRedisOperations.boundSetOps(principalKey)
+					.remove(staleIds.toArray());
+		}
 		return sessions;
 	}
 
+	/**
+	 * Loads the hash entries of multiple sessions in a single network round trip.
+	 * @param ids the session ids
+	 * @return the hash entries of each session, in the order of the provided ids
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Map<Object, Object>> getSessionEntries(List<String> ids) {
+		if (this.redisStorageMode == RedisStorageMode.BLOB) {
+			List<String> sessionKeys = new ArrayList<>(ids.size());
+			for (String id : ids) {
+				sessionKeys.add(getSessionKey(id));
+			}
+			return this.blobStore.find(sessionKeys);
+		}
+		if (this.redisSaveMode == RedisSaveMode.SCRIPTED) {
+			List<Object> sessionKeys = new ArrayList<>(ids.size());
+			for (String id : ids) {
+				sessionKeys.add(getSessionKey(id));
+			}
+			return this.scripts.findSessions(sessionKeys);
+		}
+		List<Object> results = this.pipeline.executeSession(new SessionCallback<Object>() {
+			@Override
+			public <K, V> Object execute(RedisOperations<K, V> operations)
+					throws DataAccessException {
+				for (String id : ids) {
+					getSessionBoundHashOperations(id).entries();
+				}
+				return null;
+			}
+		}, () -> {
+			List<Object> sessions = new ArrayList<>(ids.size());
+			for (String id : ids) {
+				sessions.add(getSessionBoundHashOperations(id).entries());
+			}
+			return sessions;
+		});
+		List<Map<Object, Object>> entries = new ArrayList<>(results.size());
+		for (Object result : results) {
+			entries.add((Map<Object, Object>) result);
+		}
+		return entries;
+	}
+
 	/**
 	 * Gets the session.
 	 * @param id the session id
@@ -426,7 +1115,48 @@ public class RedisOperationsSessionRepository implements
 	 * @return the Redis session
 	 */
 	private RedisSession getSession(String id, boolean allowExpired) {
-		Map<Object, Object> entries = getSessionBoundHashOperations(id).entries();
+		Map<Object, Object> entries = (this.redisStorageMode == RedisStorageMode.BLOB)
+				? this.blobStore.find(getSessionKey(id))
+				: getSessionBoundHashOperations(id).entries();
+		return getSession(id, entries, allowExpired);
+	}
+
+	/**
+	 * Gets the session, loading only the metadata and the prefetched attributes. The
+	 * principal name attributes are always prefetched, so resolving the principal name
+	 * while saving the session never requires an additional command.
+	 * @param id the session id
+	 * @return the Redis session or {@code null} if not found or expired
+	 */
+	private RedisSession getLazySession(String id) {
+		Set<String> attributeNames = new LinkedHashSet<>();
+		attributeNames.add(PRINCIPAL_NAME_INDEX_NAME);
+		attributeNames.add(SPRING_SECURITY_CONTEXT);
+		attributeNames.addAll(this.prefetchedAttributeNames);
+		List<Object> hashKeys = new ArrayList<>(3 + attributeNames.size());
+		hashKeys.add(CREATION_TIME_ATTR);
+		hashKeys.add(MAX_INACTIVE_ATTR);
+		hashKeys.add(LAST_ACCESSED_ATTR);
+		for (String attributeName : attributeNames) {
+			hashKeys.add(getSessionAttrNameKey(attributeName));
+		}
+		List<Object> values = getSessionBoundHashOperations(id).multiGet(hashKeys);
+		Map<Object, Object> entries = new HashMap<>(hashKeys.size());
+		for (int i = 0; i < hashKeys.size(); i++) {
+			Object value = values.get(i);
+			if (value != null) {
+				entries.put(hashKeys.get(i), value);
+			}
+		}
+		RedisSession session = getSession(id, entries, false);
+		if (session != null) {
+			session.resolvedAttributeNames = attributeNames;
+		}
+		return session;
+	}
+
+	private RedisSession getSession(String id, Map<Object, Object> entries,
+			boolean allowExpired) {
 		if (entries.isEmpty()) {
 			return null;
 		}
@@ -436,6 +1166,10 @@ public class RedisOperationsSessionRepository implements
 		}
 		RedisSession result = new RedisSession(loaded);
 		result.originalLastAccessTime = loaded.getLastAccessedTime();
+		Object version = entries.get(RedisSessionBlobStore.VERSION_KEY);
+		if (version != null) {
+			result.version = (long) version;
+		}
 		return result;
 	}
 
@@ -467,14 +1201,48 @@ public class RedisOperationsSessionRepository implements
 			return;
 		}
 
-		cleanupPrincipalIndex(session);
-		this.expirationPolicy.onDelete(session);
+		if (this.redisSaveMode == RedisSaveMode.SCRIPTED
+				&& this.redisStorageMode == RedisStorageMode.HASH) {
+			deleteWithScript(session);
+		}
+		else {
+			cleanupPrincipalIndex(session);
+			this.expirationPolicy.onDelete(session);
+
+			String expireKey = getExpiredKey(session.getId());
+			this.sessionRedisOperations.delete(expireKey);
 
-		String expireKey = getExpiredKey(session.getId());
-		this.sessionRedisOperations.delete(expireKey);
+			session.setMaxInactiveInterval(Duration.ZERO);
+			save(session);
+		}
 
-		session.setMaxInactiveInterval(Duration.ZERO);
-		save(session);
+		if (this.redisEventMode == RedisEventMode.EVENT_LOG) {
+			appendEvent(SessionNotification.Type.DELETED, session,
+					System.currentTimeMillis());
+		}
+	}
+
+	private void deleteWithScript(RedisSession session) {
+		String sessionId = session.getId();
+		String principal = this.principalNameResolver.resolvePrincipal(session);
+		boolean sortedSet = this.redisExpirationMode == RedisExpirationMode.SORTED_SET;
+		String expirationsKey = sortedSet ? getExpirationsIndexKey()
+				: getExpirationsKey(this.expirationPolicy.roundUpToNextBucket(
+						RedisSessionExpirationPolicy.expiresInMillis(session)));
+		List<Object> keys = new ArrayList<>(4);
+		keys.add(getSessionKey(sessionId));
+		keys.add(getExpiredKey(sessionId));
+		keys.add(expirationsKey);
+		keys.add(principal != null ? getPrincipalKey(principal) : "");
+		List<byte[]> args = new ArrayList<>(6);
+		args.add(this.scripts.serializeValue(sessionId));
+		args.add(this.scripts.serializeValue("expires:" + sessionId));
+		args.add(this.scripts.serializeHashKey(MAX_INACTIVE_ATTR));
+		args.add(this.scripts.serializeHashValue(0));
+		args.add(sortedSet ? RedisSessionScripts.serializeNumber(1) : new byte[0]);
+		args.add(RedisSessionScripts
+				.serializeNumber(this.expirationPolicy.getRetentionSeconds()));
+		this.scripts.execute(RedisSessionScripts.DELETE_SESSION, keys, args);
 	}
 
 	@Override
@@ -488,7 +1256,6 @@ public class RedisOperationsSessionRepository implements
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public void onMessage(Message message, byte[] pattern) {
 		byte[] messageChannel = message.getChannel();
 		byte[] messageBody = message.getBody();
@@ -496,23 +1263,43 @@ public class RedisOperationsSessionRepository implements
 		String channel = new String(messageChannel);
 
 		if (channel.startsWith(getSessionCreatedChannelPrefix())) {
-			// TODO: is this thread safe?
-			Map<Object, Object> loaded = (Map<Object, Object>) this.defaultSerializer
-					.deserialize(message.getBody());
-			handleCreated(loaded, channel);
+			String sessionId = channel.substring(channel.lastIndexOf(":") + 1);
+			if (this.eventDispatcher != null) {
+				this.eventDispatcher.dispatch(new SessionNotification(sessionId,
+						SessionNotification.Type.CREATED, messageBody));
+				return;
+			}
+			handleCreated(messageBody, sessionId);
 			return;
 		}
 
-		String body = new String(messageBody);
-		if (!body.startsWith(getExpiredKeyPrefix())) {
+		String key;
+		String event;
+		if (channel.startsWith(KEYSPACE_CHANNEL_PREFIX)) {
+			key = channel.substring(channel.indexOf("__:") + 3);
+			event = new String(messageBody);
+		}
+		else {
+			key = new String(messageBody);
+			event = channel.substring(channel.lastIndexOf(":") + 1);
+		}
+		if (!key.startsWith(getExpiredKeyPrefix())) {
 			return;
 		}
 
-		boolean isDeleted = channel.endsWith(":del");
-		if (isDeleted || channel.endsWith(":expired")) {
-			int beginIndex = body.lastIndexOf(":") + 1;
-			int endIndex = body.length();
-			String sessionId = body.substring(beginIndex, endIndex);
+		boolean isDeleted = "del".equals(event);
+		if (isDeleted || "expired".equals(event)) {
+			int beginIndex = key.lastIndexOf(":") + 1;
+			int endIndex = key.length();
+			String sessionId = key.substring(beginIndex, endIndex);
+
+			if (this.eventDispatcher != null) {
+				this.eventDispatcher.dispatch(new SessionNotification(sessionId,
+						isDeleted ? SessionNotification.Type.DELETED
+								: SessionNotification.Type.EXPIRED,
+						null));
+				return;
+			}
 
 			RedisSession session = getSession(sessionId, true);
 
@@ -539,16 +1326,176 @@ public class RedisOperationsSessionRepository implements
 
 	private void cleanupPrincipalIndex(RedisSession session) {
 		String sessionId = session.getId();
-		String principal = PRINCIPAL_NAME_RESOLVER.resolvePrincipal(session);
+		String principal = this.principalNameResolver.resolvePrincipal(session);
 		if (principal != null) {
 			this.sessionRedisOperations.boundSetOps(getPrincipalKey(principal))
 					.remove(sessionId);
 		}
 	}
 
-	private void handleCreated(Map<Object, Object> loaded, String channel) {
-		String id = channel.substring(channel.lastIndexOf(":") + 1);
-		Session session = loadSession(id, loaded);
+	/**
+	 * Handles a batch of notifications dispatched asynchronously. The sessions of the
+	 * destroyed notifications are loaded, and removed from the principal name index,
+	 * using a single round trip each, after which the events are published in the order
+	 * of the notifications.
+	 * @param notifications the notifications
+	 */
+	private void handleNotifications(List<SessionNotification> notifications) {
+		Set<String> destroyedIds = new LinkedHashSet<>();
+		for (SessionNotification notification : notifications) {
+			if (notification.getType() != SessionNotification.Type.CREATED) {
+				destroyedIds.add(notification.getSessionId());
+			}
+		}
+		Map<String, RedisSession> destroyed = new HashMap<>(destroyedIds.size());
+		if (!destroyedIds.isEmpty()) {
+			List<String> ids = new ArrayList<>(destroyedIds);
+			List<Map<Object, Object>> entries = getSessionEntries(ids);
+			for (int i = 0; i < ids.size(); i++) {
+				RedisSession session = getSession(ids.get(i), entries.get(i), true);
+				if (session != null) {
+					destroyed.put(session.getId(), session);
+				}
+			}
+			cleanupPrincipalIndex(destroyed.values());
+		}
+		for (SessionNotification notification : notifications) {
+			String sessionId = notification.getSessionId();
+			if (notification.getType() == SessionNotification.Type.CREATED) {
+				handleCreated(notification.getBody(), sessionId);
+				continue;
+			}
+			if (!destroyedIds.remove(sessionId)) {
+				continue;
+			}
+			RedisSession session = destroyed.get(sessionId);
+			if (session == null) {
+				logger.warn("Unable to publish SessionDestroyedEvent for session "
+						+ sessionId);
+				continue;
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Publishing SessionDestroyedEvent for session " + sessionId);
+			}
+			if (notification.getType() == SessionNotification.Type.DELETED) {
+				handleDeleted(session);
+			}
+			else {
+				handleExpired(session);
+			}
+		}
+	}
+
+	private void cleanupPrincipalIndex(Collection<RedisSession> sessions) {
+		Map<String, String> principals = new HashMap<>(sessions.size());
+		for (RedisSession session : sessions) {
+			String principal = this.principalNameResolver.resolvePrincipal(session);
+			if (principal != null) {
+				principals.put(session.getId(), principal);
+			}
+		}
+		if (principals.isEmpty()) {
+			return;
+		}
+		Runnable removals = () -> {
+			for (Map.Entry<String, String> principal : principals.entrySet()) {
+				this.sessionRedisOperations
+						.boundSetOps(getPrincipalKey(principal.getValue()))
+						.remove(principal.getKey());
+			}
+		};
+		this.pipeline.executeSession(new SessionCallback<Object>() {
+			@Override
+			public <K, V> Object execute(RedisOperations<K, V> operations)
+					throws DataAccessException {
+				removals.run();
+				return null;
+			}
+		}, () -> {
+			removals.run();
+			return Collections.emptyList();
+		});
+	}
+
+	private void appendEvent(SessionNotification.Type type, RedisSession session,
+			long timestamp) {
+		this.eventLog.append(Collections.singletonList(
+				new RedisSessionEventLog.Record(type, timestamp, session.getId(),
+						this.principalNameResolver.resolvePrincipal(session))));
+	}
+
+	/**
+	 * Appends the expired events of the sessions accessed by the cleanup when using
+	 * {@link RedisEventMode#EVENT_LOG}, and removes the sessions from the principal name
+	 * index. The sessions that were deleted, and hence have a maximum inactive interval
+	 * of zero, or that are no longer expired, are skipped.
+	 * @param sessionIds the ids of the sessions accessed by the cleanup
+	 */
+	private void handleExpiredSessions(List<String> sessionIds) {
+		if (this.redisEventMode != RedisEventMode.EVENT_LOG) {
+			return;
+		}
+		List<Map<Object, Object>> entries = getSessionEntries(sessionIds);
+		List<RedisSession> expired = new ArrayList<>(sessionIds.size());
+		List<RedisSessionEventLog.Record> records = new ArrayList<>(sessionIds.size());
+		for (int i = 0; i < sessionIds.size(); i++) {
+			Map<Object, Object> sessionEntries = entries.get(i);
+			if (sessionEntries == null) {
+				continue;
+			}
+			RedisSession session = getSession(sessionIds.get(i), sessionEntries, true);
+			if (session == null || session.getMaxInactiveInterval().isZero()
+					|| !session.isExpired()) {
+				continue;
+			}
+			expired.add(session);
+			records.add(new RedisSessionEventLog.Record(
+					SessionNotification.Type.EXPIRED,
+					RedisSessionExpirationPolicy.expiresInMillis(session),
+					session.getId(), this.principalNameResolver.resolvePrincipal(session)));
+		}
+		cleanupPrincipalIndex(expired);
+		this.eventLog.append(records);
+	}
+
+	private void handleRecord(RedisSessionEventLog.Record record) {
+		MapSession session = new MapSession(record.getSessionId());
+		Instant timestamp = Instant.ofEpochMilli(record.getTimestamp());
+		session.setLastAccessedTime(timestamp);
+		if (record.getPrincipalName() != null) {
+			session.setAttribute(PRINCIPAL_NAME_INDEX_NAME, record.getPrincipalName());
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Publishing " + record.getType() + " event for session "
+					+ record.getSessionId());
+		}
+		if (record.getType() == SessionNotification.Type.CREATED) {
+			session.setCreationTime(timestamp);
+			publishEvent(new SessionCreatedEvent(this, session));
+		}
+		else if (record.getType() == SessionNotification.Type.DELETED) {
+			publishEvent(new SessionDeletedEvent(this, session));
+		}
+		else {
+			publishEvent(new SessionExpiredEvent(this, session));
+		}
+	}
+
+	/**
+	 * Publishes the created event of a session from the message published by
+	 * {@link #save(RedisSession)}. An empty message, as published using
+	 * {@link RedisCreatedEventPayload#ID}, is deserialized to {@code null} by the default
+	 * serializer, and results in a session holding only its id.
+	 * @param body the message body
+	 * @param id the session id
+	 */
+	@SuppressWarnings("unchecked")
+	private void handleCreated(byte[] body, String id) {
+		// TODO: is this thread safe?
+		Map<Object, Object> loaded = (Map<Object, Object>) this.defaultSerializer
+				.deserialize(body);
+		Session session = loadSession(id,
+				(loaded != null) ? loaded : Collections.emptyMap());
 		publishEvent(new SessionCreatedEvent(this, session));
 	}
 
@@ -594,6 +1541,18 @@ public class RedisOperationsSessionRepository implements
 		return this.namespace + "expirations:" + expiration;
 	}
 
+	String getExpirationsIndexKey() {
+		return this.namespace + "expirations";
+	}
+
+	String getCleanupKey(String name) {
+		return this.namespace + "cleanup:" + name;
+	}
+
+	String getEventKey(String name) {
+		return this.namespace + "event:" + name;
+	}
+
 	private String getExpiredKey(String sessionId) {
 		return getExpiredKeyPrefix() + sessionId;
 	}
@@ -616,6 +1575,50 @@ public class RedisOperationsSessionRepository implements
 		return this.namespace + "event:created:";
 	}
 
+	/**
+	 * Gets the pattern of the keyspace notification channels of the keys that expire
+	 * when the sessions in the provided partitions expire. Subscribing to this pattern,
+	 * rather than to the {@code del} and {@code expired} keyevent notifications of every
+	 * key, lets Redis deliver only the notifications of these sessions. This requires
+	 * keyspace notifications ({@code K}) to be enabled in {@code notify-keyspace-events}.
+	 * <p>
+	 * Sessions are assigned to partitions by the first hexadecimal digit of their id, so
+	 * the number of partitions is at most 16, and the digits are distributed evenly only
+	 * if it divides 16. Note that the channels also receive the {@code expire}
+	 * notifications of the keys, which are issued whenever the expiration of a session is
+	 * updated, and which are ignored by {@link #onMessage(Message, byte[])}.
+	 *
+	 * @param partitions the partitions, each in the range [0, partitionCount)
+	 * @param partitionCount the number of partitions
+	 * @return the channel pattern
+	 * @since 2.0.0
+	 */
+	public String getSessionExpiresChannelPattern(Collection<Integer> partitions,
+			int partitionCount) {
+		Assert.notEmpty(partitions, "partitions cannot be empty");
+		Assert.isTrue(partitionCount > 0 && partitionCount <= SESSION_ID_DIGITS.length(),
+				"partitionCount must be in the range [1, 16]");
+		for (Integer partition : partitions) {
+			Assert.isTrue(partition >= 0 && partition < partitionCount,
+					"partitions must be in the range [0, partitionCount)");
+		}
+		StringBuilder digits = new StringBuilder();
+		for (int digit = 0; digit < SESSION_ID_DIGITS.length(); digit++) {
+			if (partitions.contains(digit % partitionCount)) {
+				digits.append(SESSION_ID_DIGITS.charAt(digit));
+			}
+		}
+		StringBuilder pattern = new StringBuilder(KEYSPACE_CHANNEL_PREFIX)
+				.append("*__:");
+		for (char c : getExpiredKeyPrefix().toCharArray()) {
+			if ("*?[]\\".indexOf(c) != -1) {
+				pattern.append('\\');
+			}
+			pattern.append(c);
+		}
+		return pattern.append('[').append(digits).append("]*").toString();
+	}
+
 	/**
 	 * Gets the {@link BoundHashOperations} to operate on a {@link Session}.
 	 * @param sessionId the id of the {@link Session} to work with
@@ -627,6 +1630,37 @@ public class RedisOperationsSessionRepository implements
 		return this.sessionRedisOperations.boundHashOps(key);
 	}
 
+	/**
+	 * Executes the provided commands according to the configured {@link RedisSaveMode}.
+	 * @param commands the commands to execute
+	 */
+	private void executeSaveCommands(Runnable commands) {
+		if (this.redisSaveMode == RedisSaveMode.PIPELINED) {
+			this.sessionRedisOperations.executePipelined(new SessionCallback<Object>() {
+				@Override
+				public <K, V> Object execute(RedisOperations<K, V> operations)
+						throws DataAccessException {
+					commands.run();
+					return null;
+				}
+			});
+		}
+		else if (this.redisSaveMode == RedisSaveMode.TRANSACTIONAL) {
+			this.sessionRedisOperations.execute(new SessionCallback<Object>() {
+				@Override
+				public <K, V> Object execute(RedisOperations<K, V> operations)
+						throws DataAccessException {
+					operations.multi();
+					commands.run();
+					return operations.exec();
+				}
+			});
+		}
+		else {
+			commands.run();
+		}
+	}
+
 	/**
 	 * Gets the key for the specified session attribute.
 	 *
@@ -654,6 +1688,18 @@ public class RedisOperationsSessionRepository implements
 		private String originalPrincipalName;
 		private String originalSessionId;
 
+		/**
+		 * The version of the session stored using {@link RedisStorageMode#BLOB}, or
+		 * {@code 0} if it has not been saved yet.
+		 */
+		private long version;
+
+		/**
+		 * The names of the attributes that have already been loaded, or {@code null} if
+		 * all the attributes have been loaded.
+		 */
+		private Set<String> resolvedAttributeNames;
+
 		/**
 		 * Creates a new instance ensuring to mark all of the new attributes to be
 		 * persisted in the next save operation.
@@ -676,7 +1722,7 @@ public class RedisOperationsSessionRepository implements
 		RedisSession(MapSession cached) {
 			Assert.notNull(cached, "MapSession cannot be null");
 			this.cached = cached;
-			this.originalPrincipalName = PRINCIPAL_NAME_RESOLVER.resolvePrincipal(this);
+			this.originalPrincipalName = RedisOperationsSessionRepository.this.principalNameResolver.resolvePrincipal(this);
 			this.originalSessionId = cached.getId();
 		}
 
@@ -732,26 +1778,61 @@ public class RedisOperationsSessionRepository implements
 
 		@Override
 		public <T> T getAttribute(String attributeName) {
+			if (this.resolvedAttributeNames != null
+					&& this.resolvedAttributeNames.add(attributeName)) {
+				Object attributeValue = getSessionBoundHashOperations(
+						this.originalSessionId).get(getSessionAttrNameKey(attributeName));
+				if (attributeValue != null) {
+					this.cached.setAttribute(attributeName, attributeValue);
+				}
+			}
 			return this.cached.getAttribute(attributeName);
 		}
 
 		@Override
 		public Set<String> getAttributeNames() {
+			loadAttributes();
 			return this.cached.getAttributeNames();
 		}
 
 		@Override
 		public void setAttribute(String attributeName, Object attributeValue) {
+			markAttributeResolved(attributeName);
 			this.cached.setAttribute(attributeName, attributeValue);
 			this.putAndFlush(getSessionAttrNameKey(attributeName), attributeValue);
 		}
 
 		@Override
 		public void removeAttribute(String attributeName) {
+			markAttributeResolved(attributeName);
 			this.cached.removeAttribute(attributeName);
 			this.putAndFlush(getSessionAttrNameKey(attributeName), null);
 		}
 
+		private void loadAttributes() {
+			if (this.resolvedAttributeNames == null) {
+				return;
+			}
+			Map<Object, Object> entries = getSessionBoundHashOperations(
+					this.originalSessionId).entries();
+			for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+				String key = (String) entry.getKey();
+				if (key.startsWith(SESSION_ATTR_PREFIX)) {
+					String attributeName = key.substring(SESSION_ATTR_PREFIX.length());
+					if (!this.resolvedAttributeNames.contains(attributeName)) {
+						this.cached.setAttribute(attributeName, entry.getValue());
+					}
+				}
+			}
+			this.resolvedAttributeNames = null;
+		}
+
+		private void markAttributeResolved(String attributeName) {
+			if (this.resolvedAttributeNames != null) {
+				this.resolvedAttributeNames.add(attributeName);
+			}
+		}
+
 		private void flushImmediateIfNecessary() {
 			if (RedisOperationsSessionRepository.this.redisFlushMode == RedisFlushMode.IMMEDIATE) {
 				saveDelta();
@@ -768,25 +1849,114 @@ public class RedisOperationsSessionRepository implements
 		 * session.
 		 */
 		private void saveDelta() {
+			if (this.delta.isEmpty() && !isSessionIdChanged()) {
+				return;
+			}
+			if (isLastAccessedTimeOnlyChanged() && !isLastAccessedTimeUpdateRequired()) {
+				return;
+			}
+			if (RedisOperationsSessionRepository.this.redisStorageMode == RedisStorageMode.BLOB) {
+				saveBlob();
+			}
+			else if (RedisOperationsSessionRepository.this.redisSaveMode == RedisSaveMode.SCRIPTED) {
+				saveDeltaWithScript();
+			}
+			else {
+				executeSaveCommands(this::doSaveDelta);
+			}
+		}
+
+		private void doSaveDelta() {
 			String sessionId = getId();
 			saveChangeSessionId(sessionId);
 			if (this.delta.isEmpty()) {
 				return;
 			}
 			getSessionBoundHashOperations(sessionId).putAll(this.delta);
-			String principalSessionKey = getSessionAttrNameKey(
-					FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME);
-			String securityPrincipalSessionKey = getSessionAttrNameKey(
-					SPRING_SECURITY_CONTEXT);
-			if (this.delta.containsKey(principalSessionKey)
-					|| this.delta.containsKey(securityPrincipalSessionKey)) {
+			saveIndexes(sessionId);
+		}
+
+		/**
+		 * Saves the whole session as a single value. Should the session have been saved
+		 * concurrently, the changes are merged into the latest version of the session and
+		 * the save is retried. The principal index and the expirations are then updated
+		 * according to the changes. Should the session have been deleted concurrently, it
+		 * is only recreated if it is new, otherwise the changes are discarded.
+		 */
+		private void saveBlob() {
+			RedisSessionBlobStore blobStore = RedisOperationsSessionRepository.this.blobStore;
+			String sessionId = getId();
+			String sessionKey = getSessionKey(sessionId);
+			String originalSessionKey = getSessionKey(
+					isSessionIdChanged() ? this.originalSessionId : sessionId);
+			long timeToLive = RedisOperationsSessionRepository.this.expirationPolicy
+					.sessionKeyTimeToLive(this);
+			Map<Object, Object> entries = getEntries();
+			while (!blobStore.save(sessionKey, originalSessionKey, this.version, entries,
+					timeToLive)) {
+				entries = blobStore.find(originalSessionKey);
+				Object version = entries.remove(RedisSessionBlobStore.VERSION_KEY);
+				if (version == null) {
+					if (!isNew()) {
+						this.delta = new HashMap<>(this.delta.size());
+						this.originalSessionId = sessionId;
+						return;
+					}
+					this.version = 0;
+					entries = getEntries();
+					continue;
+				}
+				this.version = (long) version;
+				entries.putAll(this.delta);
+				refresh(entries);
+			}
+			this.version++;
+			this.originalSessionId = sessionId;
+			if (!this.delta.isEmpty()) {
+				executeSaveCommands(() -> saveIndexes(sessionId));
+			}
+		}
+
+		private Map<Object, Object> getEntries() {
+			Map<Object, Object> entries = new HashMap<>();
+			entries.put(CREATION_TIME_ATTR, getCreationTime().toEpochMilli());
+			entries.put(MAX_INACTIVE_ATTR, (int) getMaxInactiveInterval().getSeconds());
+			entries.put(LAST_ACCESSED_ATTR, getLastAccessedTime().toEpochMilli());
+			for (String attributeName : this.cached.getAttributeNames()) {
+				entries.put(getSessionAttrNameKey(attributeName),
+						this.cached.getAttribute(attributeName));
+			}
+			return entries;
+		}
+
+		/**
+		 * Replaces the state of this session with the provided entries.
+		 * @param entries the entries of the session
+		 */
+		private void refresh(Map<Object, Object> entries) {
+			MapSession latest = loadSession(getId(), entries);
+			this.cached.setCreationTime(latest.getCreationTime());
+			this.cached.setMaxInactiveInterval(latest.getMaxInactiveInterval());
+			this.cached.setLastAccessedTime(latest.getLastAccessedTime());
+			for (String attributeName : new ArrayList<>(this.cached.getAttributeNames())) {
+				if (latest.getAttribute(attributeName) == null) {
+					this.cached.removeAttribute(attributeName);
+				}
+			}
+			for (String attributeName : latest.getAttributeNames()) {
+				this.cached.setAttribute(attributeName, latest.getAttribute(attributeName));
+			}
+		}
+
+		private void saveIndexes(String sessionId) {
+			if (isPrincipalChanged()) {
 				if (this.originalPrincipalName != null) {
 					String originalPrincipalRedisKey = getPrincipalKey(
 							this.originalPrincipalName);
 					RedisOperationsSessionRepository.this.sessionRedisOperations
 							.boundSetOps(originalPrincipalRedisKey).remove(sessionId);
 				}
-				String principal = PRINCIPAL_NAME_RESOLVER.resolvePrincipal(this);
+				String principal = RedisOperationsSessionRepository.this.principalNameResolver.resolvePrincipal(this);
 				this.originalPrincipalName = principal;
 				if (principal != null) {
 					String principalRedisKey = getPrincipalKey(principal);
@@ -798,40 +1968,121 @@ public class RedisOperationsSessionRepository implements
 			this.delta = new HashMap<>(this.delta.size());
 
 			Long originalExpiration = this.originalLastAccessTime == null ? null
-					: this.originalLastAccessTime.plus(getMaxInactiveInterval()).toEpochMilli();
+					: this.originalLastAccessTime.toEpochMilli()
+							+ getMaxInactiveInterval().toMillis();
 			RedisOperationsSessionRepository.this.expirationPolicy
 					.onExpirationUpdated(originalExpiration, this);
 		}
 
-		private void saveChangeSessionId(String sessionId) {
-			if (!isNew() && !sessionId.equals(this.originalSessionId)) {
-				String originalSessionIdKey = getSessionKey(this.originalSessionId);
-				String sessionIdKey = getSessionKey(sessionId);
-				RedisOperationsSessionRepository.this.sessionRedisOperations.rename(originalSessionIdKey, sessionIdKey);
-				this.originalSessionId = sessionId;
+		private void saveDeltaWithScript() {
+			RedisSessionScripts scripts = RedisOperationsSessionRepository.this.scripts;
+			String sessionId = getId();
+			String originalSessionId = isSessionIdChanged() ? this.originalSessionId
+					: sessionId;
+			String originalPrincipalKey = "";
+			String principalKey = "";
+			if (isPrincipalChanged()) {
+				if (this.originalPrincipalName != null) {
+					originalPrincipalKey = getPrincipalKey(this.originalPrincipalName);
+				}
+				String principal = RedisOperationsSessionRepository.this.principalNameResolver.resolvePrincipal(this);
+				this.originalPrincipalName = principal;
+				if (principal != null) {
+					principalKey = getPrincipalKey(principal);
+				}
 			}
+			long expiresInMillis = RedisSessionExpirationPolicy.expiresInMillis(this);
+			String originalExpirationKey = "";
+			String expirationKey;
+			byte[] expirationScore;
+			if (RedisOperationsSessionRepository.this.redisExpirationMode == RedisExpirationMode.SORTED_SET) {
+				expirationKey = getExpirationsIndexKey();
+				expirationScore = RedisSessionScripts.serializeNumber(expiresInMillis);
+			}
+			else {
+				RedisSessionExpirationPolicy expirationPolicy = RedisOperationsSessionRepository.this.expirationPolicy;
+				long expiration = expirationPolicy.roundUpToNextBucket(expiresInMillis);
+				if (this.originalLastAccessTime != null) {
+					long originalExpiration = expirationPolicy.roundUpToNextBucket(
+							this.originalLastAccessTime.toEpochMilli()
+									+ getMaxInactiveInterval().toMillis());
+					if (originalExpiration != expiration) {
+						originalExpirationKey = getExpirationsKey(originalExpiration);
+					}
+				}
+				expirationKey = getExpirationsKey(expiration);
+				expirationScore = new byte[0];
+			}
+
+			List<Object> keys = new ArrayList<>(7);
+			keys.add(getSessionKey(sessionId));
+			keys.add(getSessionKey(originalSessionId));
+			keys.add(getExpiredKey(sessionId));
+			keys.add(originalExpirationKey);
+			keys.add(expirationKey);
+			keys.add(originalPrincipalKey);
+			keys.add(principalKey);
+			List<byte[]> args = new ArrayList<>(5 + this.delta.size() * 2);
+			args.add(scripts.serializeValue(sessionId));
+			args.add(scripts.serializeValue("expires:" + sessionId));
+			args.add(RedisSessionScripts
+					.serializeNumber(getMaxInactiveInterval().getSeconds()));
+			args.add(expirationScore);
+			args.add(RedisSessionScripts.serializeNumber(
+					RedisOperationsSessionRepository.this.expirationPolicy
+							.getRetentionSeconds()));
+			for (Map.Entry<String, Object> entry : this.delta.entrySet()) {
+				args.add(scripts.serializeHashKey(entry.getKey()));
+				args.add(scripts.serializeHashValue(entry.getValue()));
+			}
+			scripts.execute(RedisSessionScripts.SAVE_SESSION, keys, args);
+
+			this.originalSessionId = sessionId;
+			this.delta = new HashMap<>(this.delta.size());
 		}
-	}
 
-	/**
-	 * Principal name resolver helper class.
-	 */
-	static class PrincipalNameResolver {
-		private SpelExpressionParser parser = new SpelExpressionParser();
+		private boolean isPrincipalChanged() {
+			return this.delta.containsKey(getSessionAttrNameKey(
+					FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME))
+					|| this.delta.containsKey(
+							getSessionAttrNameKey(SPRING_SECURITY_CONTEXT));
+		}
 
-		public String resolvePrincipal(Session session) {
-			String principalName = session.getAttribute(PRINCIPAL_NAME_INDEX_NAME);
-			if (principalName != null) {
-				return principalName;
-			}
-			Object authentication = session.getAttribute(SPRING_SECURITY_CONTEXT);
-			if (authentication != null) {
-				Expression expression = this.parser
-						.parseExpression("authentication?.name");
-				return expression.getValue(authentication, String.class);
+		private boolean isSessionIdChanged() {
+			return !isNew() && !getId().equals(this.originalSessionId);
+		}
+
+		private boolean isLastAccessedTimeOnlyChanged() {
+			return !isNew() && !isSessionIdChanged() && this.delta.size() == 1
+					&& this.delta.containsKey(LAST_ACCESSED_ATTR);
+		}
+
+		/**
+		 * Determines whether enough time has passed since the persisted last accessed
+		 * time for a change of only the last accessed time to be written. If the write is
+		 * skipped, the change is kept in the delta so it is written along with the next
+		 * change of this session.
+		 * @return {@code true} if the last accessed time needs to be written
+		 */
+		private boolean isLastAccessedTimeUpdateRequired() {
+			double threshold = RedisOperationsSessionRepository.this.lastAccessedTimeUpdateThreshold;
+			Duration maxInactiveInterval = getMaxInactiveInterval();
+			if (threshold <= 0 || this.originalLastAccessTime == null
+					|| maxInactiveInterval.isNegative() || maxInactiveInterval.isZero()) {
+				return true;
 			}
-			return null;
+			long elapsed = Duration.between(this.originalLastAccessTime,
+					getLastAccessedTime()).toMillis();
+			return elapsed >= (long) (maxInactiveInterval.toMillis() * threshold);
 		}
 
+		private void saveChangeSessionId(String sessionId) {
+			if (isSessionIdChanged()) {
+				String originalSessionIdKey = getSessionKey(this.originalSessionId);
+				String sessionIdKey = getSessionKey(sessionId);
+				RedisOperationsSessionRepository.this.sessionRedisOperations.rename(originalSessionIdKey, sessionIdKey);
+				this.originalSessionId = sessionId;
+			}
+		}
 	}
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+/**
+ * Specifies how the commands needed to save a session are sent to the backing Redis
+ * instance. Saving a session writes the changed attributes, maintains the principal
+ * index and updates the expiration keys.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+public enum RedisSaveMode {
+
+	/**
+	 * Each command is sent and acknowledged individually. This requires a network round
+	 * trip per command.
+	 */
+	SEQUENTIAL,
+
+	/**
+	 * All commands for a save are sent in a single
+	 * <a href="http://redis.io/topics/pipelining">pipeline</a>, requiring a single
+	 * network round trip.
+	 */
+	PIPELINED,
+
+	/**
+	 * All commands for a save are sent in a single
+	 * <a href="http://redis.io/topics/transactions">MULTI/EXEC transaction</a>, so that
+	 * they are applied atomically.
+	 */
+	TRANSACTIONAL,
+
+	/**
+	 * All commands for a save are executed by a server-side
+	 * <a href="http://redis.io/commands/eval">Lua script</a>, so that they are applied
+	 * atomically in a single network round trip. Deleting a session and looking up
+	 * sessions by principal name are also performed using scripts.
+	 * <p>
+	 * The scripts access several keys of a session, such as its hash, its expiration
+	 * keys and its principal index, which usually map to different hash slots. This mode
+	 * therefore does not work with Redis Cluster.
+	 */
+	SCRIPTED
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Stores sessions as single values when {@link RedisStorageMode#BLOB} is used.
+ *
+ * Each value starts with a header of a format byte followed by the version of the
+ * session, which is incremented by every save. The header is followed by the
+ * {@link Deflater deflated} entries of the session, which are the same as the fields of
+ * the session hash used by {@link RedisStorageMode#HASH}, with each value serialized
+ * using the hash value serializer of the {@link RedisOperations}. A session is saved
+ * using a script that compares the header of the stored value with the header of the
+ * version the session was loaded from, so a concurrent save is detected rather than
+ * overwritten.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+final class RedisSessionBlobStore {
+
+	/**
+	 * The key of the entry holding the version of a loaded session.
+	 */
+	static final String VERSION_KEY = "version";
+
+	private static final byte FORMAT = 1;
+
+	private static final int HEADER_LENGTH = 9;
+
+	private final RedisOperations<Object, Object> redis;
+
+	private final RedisSessionScripts scripts;
+
+	RedisSessionBlobStore(RedisOperations<Object, Object> sessionRedisOperations) {
+		this.redis = sessionRedisOperations;
+		this.scripts = new RedisSessionScripts(sessionRedisOperations);
+	}
+
+	/**
+	 * Loads the entries of a session using a single {@code GET} command.
+	 * @param sessionKey the session key
+	 * @return the entries of the session, including its version, or an empty map if the
+	 * session was not found
+	 */
+	Map<Object, Object> find(String sessionKey) {
+		byte[] key = serializeKey(sessionKey);
+		byte[] value = this.redis
+				.execute((RedisCallback<byte[]>) connection -> connection.get(key));
+		return decode(value);
+	}
+
+	/**
+	 * Loads the entries of multiple sessions using a single {@code MGET} command.
+	 * @param sessionKeys the session keys
+	 * @return the entries of each session, in the order of the provided keys
+	 */
+	List<Map<Object, Object>> find(List<String> sessionKeys) {
+		byte[][] keys = new byte[sessionKeys.size()][];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = serializeKey(sessionKeys.get(i));
+		}
+		List<byte[]> values = this.redis
+				.execute((RedisCallback<List<byte[]>>) connection -> connection.mGet(keys));
+		List<Map<Object, Object>> sessions = new ArrayList<>(keys.length);
+		for (int i = 0; i < keys.length; i++) {
+			sessions.add(decode((values != null) ? values.get(i) : null));
+		}
+		return sessions;
+	}
+
+	/**
+	 * Saves the entries of a session, if the stored session is still the version it was
+	 * loaded from.
+	 * @param sessionKey the session key
+	 * @param originalSessionKey the session key the session was loaded from
+	 * @param loadedVersion the version the session was loaded from, or {@code 0} if the
+	 * session is new
+	 * @param entries the entries of the session, entries with a {@code null} value are
+	 * omitted
+	 * @param timeToLive the time to live of the session key in milliseconds, or a
+	 * negative value if it does not expire
+	 * @return {@code true} if the session was saved as {@code loadedVersion + 1}, or
+	 * {@code false} if the stored session is of another version
+	 */
+	boolean save(String sessionKey, String originalSessionKey, long loadedVersion,
+			Map<?, ?> entries, long timeToLive) {
+		List<byte[]> args = new ArrayList<>(3);
+		args.add((loadedVersion != 0) ? encodeHeader(loadedVersion) : new byte[0]);
+		args.add(encode(loadedVersion + 1, entries));
+		args.add((timeToLive >= 0) ? RedisSessionScripts.serializeNumber(timeToLive)
+				: new byte[0]);
+		Long saved = this.scripts.execute(RedisSessionScripts.SAVE_SESSION_BLOB,
+				Arrays.asList(sessionKey, originalSessionKey), args);
+		return saved != null && saved == 1;
+	}
+
+	byte[] encode(long version, Map<?, ?> entries) {
+		RedisSerializer<?> valueSerializer = this.redis.getHashValueSerializer();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			bytes.write(encodeHeader(version));
+			try (DataOutputStream output = new DataOutputStream(
+					new DeflaterOutputStream(bytes, deflater))) {
+				List<Map.Entry<?, ?>> values = new ArrayList<>(entries.size());
+				for (Map.Entry<?, ?> entry : entries.entrySet()) {
+					if (entry.getValue() != null) {
+						values.add(entry);
+					}
+				}
+				output.writeInt(values.size());
+				for (Map.Entry<?, ?> entry : values) {
+					byte[] value = serialize(valueSerializer, entry.getValue());
+					output.writeUTF((String) entry.getKey());
+					output.writeInt(value.length);
+					output.write(value);
+				}
+			}
+		}
+		catch (IOException ex) {
+			throw new SerializationException("Unable to encode session", ex);
+		}
+		finally {
+			deflater.end();
+		}
+		return bytes.toByteArray();
+	}
+
+	Map<Object, Object> decode(byte[] bytes) {
+		if (bytes == null) {
+			return Collections.emptyMap();
+		}
+		if (bytes.length < HEADER_LENGTH || bytes[0] != FORMAT) {
+			throw new SerializationException("Unsupported session format");
+		}
+		RedisSerializer<?> valueSerializer = this.redis.getHashValueSerializer();
+		Inflater inflater = new Inflater();
+		try (DataInputStream input = new DataInputStream(new InflaterInputStream(
+				new ByteArrayInputStream(bytes, HEADER_LENGTH,
+						bytes.length - HEADER_LENGTH),
+				inflater))) {
+			int size = input.readInt();
+			Map<Object, Object> entries = new HashMap<>(size + 1);
+			for (int i = 0; i < size; i++) {
+				String key = input.readUTF();
+				byte[] value = new byte[input.readInt()];
+				input.readFully(value);
+				entries.put(key, valueSerializer.deserialize(value));
+			}
+			entries.put(VERSION_KEY, ByteBuffer.wrap(bytes, 1, 8).getLong());
+			return entries;
+		}
+		catch (IOException ex) {
+			throw new SerializationException("Unable to decode session", ex);
+		}
+		finally {
+			inflater.end();
+		}
+	}
+
+	private static byte[] encodeHeader(long version) {
+		return ByteBuffer.allocate(HEADER_LENGTH).put(FORMAT).putLong(version).array();
+	}
+
+	@SuppressWarnings("unchecked")
+	private byte[] serializeKey(String key) {
+		return ((RedisSerializer<Object>) this.redis.getKeySerializer()).serialize(key);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static byte[] serialize(RedisSerializer<?> serializer, Object value) {
+		return ((RedisSerializer<Object>) serializer).serialize(value);
+	}
+
+}
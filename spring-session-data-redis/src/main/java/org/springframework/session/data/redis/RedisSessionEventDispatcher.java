@@ -0,0 +1,218 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Dispatches the session notifications received from Redis to a handler using an
+ * {@link Executor}, in batches.
+ *
+ * The notifications are queued on one of a fixed number of stripes, chosen by the
+ * session id. Each stripe is drained by at most one task at a time, and every task
+ * handles a single batch before submitting the next one, so the notifications of a
+ * session are handled in the order they were received while the stripes are handled
+ * concurrently. Each stripe holds an equal share of the queue capacity, and the
+ * {@link RedisEventOverflowPolicy} determines what happens when a stripe is full. Should
+ * the {@link Executor} reject a task, the batch is handled by the calling thread.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+final class RedisSessionEventDispatcher {
+
+	private static final Log logger = LogFactory
+			.getLog(RedisSessionEventDispatcher.class);
+
+	private final Executor executor;
+
+	private final Stripe[] stripes;
+
+	private final int batchSize;
+
+	private final RedisEventOverflowPolicy overflowPolicy;
+
+	private final Consumer<List<SessionNotification>> handler;
+
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	RedisSessionEventDispatcher(Executor executor, int concurrency, int queueCapacity,
+			int batchSize, RedisEventOverflowPolicy overflowPolicy,
+			Consumer<List<SessionNotification>> handler) {
+		this.executor = executor;
+		this.stripes = new Stripe[concurrency];
+		int stripeCapacity = Math.max(1, queueCapacity / concurrency);
+		for (int i = 0; i < concurrency; i++) {
+			this.stripes[i] = new Stripe(stripeCapacity);
+		}
+		this.batchSize = batchSize;
+		this.overflowPolicy = overflowPolicy;
+		this.handler = handler;
+	}
+
+	void dispatch(SessionNotification notification) {
+		Stripe stripe = this.stripes[Math.floorMod(
+				notification.getSessionId().hashCode(), this.stripes.length)];
+		if (!enqueue(stripe, notification)) {
+			this.droppedCount.incrementAndGet();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Dropped " + notification.getType() + " notification for session "
+						+ notification.getSessionId());
+			}
+			return;
+		}
+		schedule(stripe);
+	}
+
+	/**
+	 * Returns the number of notifications waiting to be handled.
+	 *
+	 * @return the number of pending notifications
+	 */
+	int getPendingCount() {
+		int count = 0;
+		for (Stripe stripe : this.stripes) {
+			count += stripe.queue.size();
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of notifications dropped since the dispatcher was created.
+	 *
+	 * @return the number of dropped notifications
+	 */
+	long getDroppedCount() {
+		return this.droppedCount.get();
+	}
+
+	private boolean enqueue(Stripe stripe, SessionNotification notification) {
+		if (this.overflowPolicy == RedisEventOverflowPolicy.DROP) {
+			return stripe.queue.offer(notification);
+		}
+		try {
+			stripe.queue.put(notification);
+			return true;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void schedule(Stripe stripe) {
+		while (!stripe.queue.isEmpty() && stripe.scheduled.compareAndSet(false, true)) {
+			try {
+				this.executor.execute(() -> drain(stripe));
+				return;
+			}
+			catch (RejectedExecutionException ex) {
+				handleBatch(stripe);
+			}
+		}
+	}
+
+	private void drain(Stripe stripe) {
+		handleBatch(stripe);
+		schedule(stripe);
+	}
+
+	private void handleBatch(Stripe stripe) {
+		List<SessionNotification> batch = new ArrayList<>(this.batchSize);
+		try {
+			stripe.queue.drainTo(batch, this.batchSize);
+			if (!batch.isEmpty()) {
+				this.handler.accept(batch);
+			}
+		}
+		catch (RuntimeException ex) {
+			logger.error("Error handling " + batch.size() + " session notifications", ex);
+		}
+		finally {
+			stripe.scheduled.set(false);
+		}
+	}
+
+	private static final class Stripe {
+
+		private final BlockingQueue<SessionNotification> queue;
+
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		private Stripe(int capacity) {
+			this.queue = new ArrayBlockingQueue<>(capacity);
+		}
+
+	}
+
+	/**
+	 * A notification about a session received from Redis.
+	 */
+	static final class SessionNotification {
+
+		private final String sessionId;
+
+		private final Type type;
+
+		private final byte[] body;
+
+		SessionNotification(String sessionId, Type type, byte[] body) {
+			this.sessionId = sessionId;
+			this.type = type;
+			this.body = body;
+		}
+
+		String getSessionId() {
+			return this.sessionId;
+		}
+
+		Type getType() {
+			return this.type;
+		}
+
+		/**
+		 * Returns the serialized session of a {@link Type#CREATED} notification.
+		 *
+		 * @return the message body
+		 */
+		byte[] getBody() {
+			return this.body;
+		}
+
+		/**
+		 * The type of a notification.
+		 */
+		enum Type {
+
+			CREATED, DELETED, EXPIRED
+
+		}
+
+	}
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.session.data.redis.RedisSessionEventDispatcher.SessionNotification;
+
+/**
+ * The log of session events used by {@link RedisOperationsSessionRepository} when
+ * {@link RedisEventMode#EVENT_LOG} is used.
+ *
+ * The log is a sorted set of compact records scored by a sequence number, which is
+ * incremented for every appended record, and is trimmed to a maximum length. Each
+ * consumer group stores the sequence number of its last acknowledged record, and reads
+ * the records following it in order. Only one node reads the records of a consumer group
+ * at a time, which is coordinated using a lease key per group that expires on its own
+ * should the node holding it fail.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+final class RedisSessionEventLog {
+
+	private final RedisOperations<Object, Object> redis;
+
+	private final Function<String, String> lookupEventKey;
+
+	private final RedisSessionScripts scripts;
+
+	private final byte[] leaseOwner = UUID.randomUUID().toString()
+			.getBytes(StandardCharsets.UTF_8);
+
+	private long maxLength = RedisOperationsSessionRepository.DEFAULT_EVENT_LOG_MAX_LENGTH;
+
+	private Duration leaseTime = RedisOperationsSessionRepository.DEFAULT_CLEANUP_LEASE_TIME;
+
+	RedisSessionEventLog(RedisOperations<Object, Object> sessionRedisOperations,
+			Function<String, String> lookupEventKey) {
+		this.redis = sessionRedisOperations;
+		this.lookupEventKey = lookupEventKey;
+		this.scripts = new RedisSessionScripts(sessionRedisOperations);
+	}
+
+	void setMaxLength(long maxLength) {
+		this.maxLength = maxLength;
+	}
+
+	void setLeaseTime(Duration leaseTime) {
+		this.leaseTime = leaseTime;
+	}
+
+	/**
+	 * Appends the records to the log using a single script invocation.
+	 * @param records the records, whose sequence numbers are ignored
+	 */
+	void append(List<Record> records) {
+		if (records.isEmpty()) {
+			return;
+		}
+		List<byte[]> args = new ArrayList<>(records.size() + 1);
+		args.add(RedisSessionScripts.serializeNumber(this.maxLength));
+		for (Record record : records) {
+			args.add(record.encode());
+		}
+		this.scripts.execute(RedisSessionScripts.APPEND_EVENTS,
+				Arrays.asList(getSequenceKey(), getLogKey()), args);
+	}
+
+	/**
+	 * Reads the records following the last record acknowledged by the consumer group.
+	 * @param group the consumer group
+	 * @param count the maximum number of records to read
+	 * @return the records, in the order they were appended
+	 */
+	List<Record> read(String group, int count) {
+		List<?> result = this.scripts.execute(RedisSessionScripts.READ_EVENTS,
+				Arrays.asList(getSequenceKey(), getLogKey(), getGroupKey(group)),
+				Collections.singletonList(RedisSessionScripts.serializeNumber(count)));
+		List<Record> records = new ArrayList<>(result.size());
+		for (Object record : result) {
+			records.add(Record.decode((byte[]) record));
+		}
+		return records;
+	}
+
+	/**
+	 * Acknowledges the records of the consumer group up to the provided sequence number.
+	 * @param group the consumer group
+	 * @param sequence the sequence number of the last handled record
+	 */
+	void acknowledge(String group, long sequence) {
+		this.scripts.execute(RedisSessionScripts.ACKNOWLEDGE_EVENTS,
+				Collections.singletonList(getGroupKey(group)),
+				Collections.singletonList(RedisSessionScripts.serializeNumber(sequence)));
+	}
+
+	boolean acquireLease(String group) {
+		byte[] leaseKey = serializeKey(getLeaseKey(group));
+		Expiration expiration = Expiration.from(this.leaseTime);
+		Boolean acquired = this.redis
+				.execute((RedisCallback<Boolean>) connection -> connection.set(leaseKey,
+						this.leaseOwner, expiration, SetOption.ifAbsent()));
+		return Boolean.TRUE.equals(acquired);
+	}
+
+	void releaseLease(String group) {
+		this.scripts.execute(RedisSessionScripts.RELEASE_LEASE,
+				Collections.singletonList(getLeaseKey(group)),
+				Collections.singletonList(this.leaseOwner));
+	}
+
+	private String getSequenceKey() {
+		return this.lookupEventKey.apply("sequence");
+	}
+
+	private String getLogKey() {
+		return this.lookupEventKey.apply("log");
+	}
+
+	private String getGroupKey(String group) {
+		return this.lookupEventKey.apply("groups:" + group);
+	}
+
+	private String getLeaseKey(String group) {
+		return this.lookupEventKey.apply("groups:" + group + ":lease");
+	}
+
+	@SuppressWarnings("unchecked")
+	private byte[] serializeKey(String key) {
+		return ((RedisSerializer<Object>) this.redis.getKeySerializer()).serialize(key);
+	}
+
+	/**
+	 * A record of the session event log, encoded as
+	 * {@code sequence:type:timestamp:idLength:id[:principalName]}.
+	 */
+	static final class Record {
+
+		private final long sequence;
+
+		private final SessionNotification.Type type;
+
+		private final long timestamp;
+
+		private final String sessionId;
+
+		private final String principalName;
+
+		Record(long sequence, SessionNotification.Type type, long timestamp,
+				String sessionId, String principalName) {
+			this.sequence = sequence;
+			this.type = type;
+			this.timestamp = timestamp;
+			this.sessionId = sessionId;
+			this.principalName = principalName;
+		}
+
+		Record(SessionNotification.Type type, long timestamp, String sessionId,
+				String principalName) {
+			this(0, type, timestamp, sessionId, principalName);
+		}
+
+		long getSequence() {
+			return this.sequence;
+		}
+
+		SessionNotification.Type getType() {
+			return this.type;
+		}
+
+		long getTimestamp() {
+			return this.timestamp;
+		}
+
+		String getSessionId() {
+			return this.sessionId;
+		}
+
+		String getPrincipalName() {
+			return this.principalName;
+		}
+
+		/**
+		 * Encodes the record without its sequence number, which is prefixed when the
+		 * record is appended.
+		 * @return the encoded record
+		 */
+		byte[] encode() {
+			StringBuilder record = new StringBuilder().append(this.type).append(':')
+					.append(this.timestamp).append(':').append(this.sessionId.length())
+					.append(':').append(this.sessionId);
+			if (this.principalName != null) {
+				record.append(':').append(this.principalName);
+			}
+			return record.toString().getBytes(StandardCharsets.UTF_8);
+		}
+
+		static Record decode(byte[] bytes) {
+			String record = new String(bytes, StandardCharsets.UTF_8);
+			String[] fields = record.split(":", 5);
+			int idStart = fields[0].length() + fields[1].length() + fields[2].length()
+					+ fields[3].length() + 4;
+			int idEnd = idStart + Integer.parseInt(fields[3]);
+			String principalName = (idEnd < record.length())
+					? record.substring(idEnd + 1) : null;
+			return new Record(Long.parseLong(fields[0]),
+					SessionNotification.Type.valueOf(fields[1]),
+					Long.parseLong(fields[2]), record.substring(idStart, idEnd),
+					principalName);
+		}
+
+	}
+
+}
@@ -16,17 +16,30 @@
 
 package org.springframework.session.data.redis;
 
-import java.util.Calendar;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
-import java.util.Set;
+import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
 import org.springframework.data.redis.core.BoundSetOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.session.Session;
 import org.springframework.session.data.redis.RedisOperationsSessionRepository.RedisSession;
 
@@ -35,46 +48,139 @@ import org.springframework.session.data.redis.RedisOperationsSessionRepository.R
  *
  * Redis has no guarantees of when an expired session event will be fired. In order to
  * ensure expired session events are processed in a timely fashion the expiration (rounded
- * to the nearest minute) is mapped to all the sessions that expire at that time. Whenever
- * {@link #cleanExpiredSessions()} is invoked, the sessions for the previous minute are
- * then accessed to ensure they are deleted if expired.
+ * up to the next bucket, one minute by default) is mapped to all the sessions that expire
+ * at that time. Whenever {@link #cleanExpiredSessions()} is invoked, the sessions for the
+ * previous buckets are then accessed to ensure they are deleted if expired. The buckets
+ * are computed from the epoch milliseconds alone, so they do not depend on the time zone.
  *
  * In some instances the {@link #cleanExpiredSessions()} method may not be not invoked for
  * a specific time. For example, this may happen when a server is restarted. To account
  * for this, the expiration on the Redis session is also set.
  *
+ * Only one node performs the cleanup at a time, which is coordinated using a lease key
+ * that expires on its own should the node holding it fail. The last cleaned bucket is
+ * recorded, so a later cleanup catches up on the buckets that were missed, as long as
+ * their expirations are still retained. The sessions of each bucket are removed from
+ * Redis in chunks using pipelined {@code SPOP} commands that each pop a single member,
+ * as {@code SPOP} with a count requires Redis 3.2, and are then accessed using
+ * pipelined {@code EXISTS} commands. Should the connection not support pipelining, as
+ * is the case with the Jedis connection to Redis Cluster, the same commands are executed
+ * one after the other. Each command and script of the cleanup accesses a single key, so
+ * the cleanup works with Redis Cluster.
+ *
+ * Using {@link RedisExpirationMode#SORTED_SET}, the expirations are instead tracked in a
+ * single sorted set scored by the expiration time of each session. The cleanup then
+ * removes the expired sessions from the sorted set in chunks using a script, which
+ * covers any time the cleanup has not been running for.
+ *
  * @author Rob Winch
+ * @author Vedran Pavic
  * @since 1.0
  */
 final class RedisSessionExpirationPolicy {
 
+	/**
+	 * The number of minutes the expirations of a bucket are retained after that bucket,
+	 * or the session key after the session expires using
+	 * {@link RedisExpirationMode#SORTED_SET}.
+	 */
+	private static final long EXPIRATIONS_RETENTION_MINUTES = 5;
+
 	private static final Log logger = LogFactory
 			.getLog(RedisSessionExpirationPolicy.class);
 
 	private final RedisOperations<Object, Object> redis;
 	private final Function<Long, String> lookupExpirationKey;
 	private final Function<String, String> lookupSessionKey;
+	private final Function<String, String> lookupCleanupKey;
+	private final Supplier<String> lookupExpirationsIndexKey;
+	private final RedisSessionScripts scripts;
+	private final RedisSessionPipeline pipeline;
+	private final byte[] leaseOwner = UUID.randomUUID().toString()
+			.getBytes(StandardCharsets.UTF_8);
+
+	private int cleanupChunkSize = RedisOperationsSessionRepository.DEFAULT_CLEANUP_CHUNK_SIZE;
+	private Duration cleanupLeaseTime = RedisOperationsSessionRepository.DEFAULT_CLEANUP_LEASE_TIME;
+	private RedisExpirationMode expirationMode = RedisExpirationMode.BUCKETS;
+	private long bucketInterval = RedisOperationsSessionRepository.DEFAULT_EXPIRATION_BUCKET_INTERVAL
+			.toMillis();
+	private boolean expireSessionKey = true;
+	private Clock clock = Clock.systemUTC();
+	private Consumer<List<String>> expiredSessionsHandler = sessionIds -> {
+	};
 
 	RedisSessionExpirationPolicy(RedisOperations<Object, Object> sessionRedisOperations,
-			Function<Long, String> lookupExpirationKey, Function<String, String> lookupSessionKey) {
+			Function<Long, String> lookupExpirationKey, Function<String, String> lookupSessionKey,
+			Function<String, String> lookupCleanupKey,
+			Supplier<String> lookupExpirationsIndexKey) {
 		super();
 		this.redis = sessionRedisOperations;
 		this.lookupExpirationKey = lookupExpirationKey;
 		this.lookupSessionKey = lookupSessionKey;
+		this.lookupCleanupKey = lookupCleanupKey;
+		this.lookupExpirationsIndexKey = lookupExpirationsIndexKey;
+		this.scripts = new RedisSessionScripts(sessionRedisOperations);
+		this.pipeline = new RedisSessionPipeline(sessionRedisOperations);
+	}
+
+	void setCleanupChunkSize(int cleanupChunkSize) {
+		this.cleanupChunkSize = cleanupChunkSize;
+	}
+
+	void setCleanupLeaseTime(Duration cleanupLeaseTime) {
+		this.cleanupLeaseTime = cleanupLeaseTime;
+	}
+
+	void setExpirationMode(RedisExpirationMode expirationMode) {
+		this.expirationMode = expirationMode;
+	}
+
+	void setBucketInterval(Duration bucketInterval) {
+		this.bucketInterval = bucketInterval.toMillis();
+	}
+
+	/**
+	 * Sets whether the expiration of the session key is updated along with the
+	 * expiration of the session. This is not needed if the session key is written
+	 * together with its expiration, as is the case with {@link RedisStorageMode#BLOB}.
+	 * @param expireSessionKey whether to update the expiration of the session key
+	 */
+	void setExpireSessionKey(boolean expireSessionKey) {
+		this.expireSessionKey = expireSessionKey;
+	}
+
+	void setClock(Clock clock) {
+		this.clock = clock;
+	}
+
+	/**
+	 * Sets the handler of the ids of the sessions accessed by the cleanup, which is
+	 * invoked once per chunk.
+	 * @param expiredSessionsHandler the handler
+	 */
+	void setExpiredSessionsHandler(Consumer<List<String>> expiredSessionsHandler) {
+		this.expiredSessionsHandler = expiredSessionsHandler;
 	}
 
 	public void onDelete(Session session) {
-		long toExpire = roundUpToNextMinute(expiresInMillis(session));
+		if (this.expirationMode == RedisExpirationMode.SORTED_SET) {
+			this.redis.boundZSetOps(getExpirationsIndexKey())
+					.remove("expires:" + session.getId());
+			return;
+		}
+		long toExpire = roundUpToNextBucket(expiresInMillis(session));
 		String expireKey = getExpirationKey(toExpire);
 		this.redis.boundSetOps(expireKey).remove(session.getId());
 	}
 
 	public void onExpirationUpdated(Long originalExpirationTimeInMilli, Session session) {
 		String keyToExpire = "expires:" + session.getId();
-		long toExpire = roundUpToNextMinute(expiresInMillis(session));
+		long expiresInMillis = expiresInMillis(session);
+		long toExpire = roundUpToNextBucket(expiresInMillis);
+		boolean sortedSet = this.expirationMode == RedisExpirationMode.SORTED_SET;
 
-		if (originalExpirationTimeInMilli != null) {
-			long originalRoundedUp = roundUpToNextMinute(originalExpirationTimeInMilli);
+		if (originalExpirationTimeInMilli != null && !sortedSet) {
+			long originalRoundedUp = roundUpToNextBucket(originalExpirationTimeInMilli);
 			if (toExpire != originalRoundedUp) {
 				String expireKey = getExpirationKey(originalRoundedUp);
 				this.redis.boundSetOps(expireKey).remove(keyToExpire);
@@ -85,21 +191,30 @@ final class RedisSessionExpirationPolicy {
 		String sessionKey = getSessionKey(keyToExpire);
 
 		if (sessionExpireInSeconds < 0) {
+			if (sortedSet) {
+				this.redis.boundZSetOps(getExpirationsIndexKey()).remove(keyToExpire);
+			}
 			this.redis.boundValueOps(sessionKey).append("");
 			this.redis.boundValueOps(sessionKey).persist();
-			this.redis.boundHashOps(getSessionKey(session.getId())).persist();
+			if (this.expireSessionKey) {
+				this.redis.boundHashOps(getSessionKey(session.getId())).persist();
+			}
 			return;
 		}
 
-		String expireKey = getExpirationKey(toExpire);
-		BoundSetOperations<Object, Object> expireOperations = this.redis
-				.boundSetOps(expireKey);
-		expireOperations.add(keyToExpire);
+		long retainedAfterExpires = sessionExpireInSeconds + getRetentionSeconds();
 
-		long fiveMinutesAfterExpires = sessionExpireInSeconds
-				+ TimeUnit.MINUTES.toSeconds(5);
-
-		expireOperations.expire(fiveMinutesAfterExpires, TimeUnit.SECONDS);
+		if (sortedSet) {
+			this.redis.boundZSetOps(getExpirationsIndexKey()).add(keyToExpire,
+					expiresInMillis);
+		}
+		else {
+			String expireKey = getExpirationKey(toExpire);
+			BoundSetOperations<Object, Object> expireOperations = this.redis
+					.boundSetOps(expireKey);
+			expireOperations.add(keyToExpire);
+			expireOperations.expire(retainedAfterExpires, TimeUnit.SECONDS);
+		}
 		if (sessionExpireInSeconds == 0) {
 			this.redis.delete(sessionKey);
 		}
@@ -108,8 +223,10 @@ final class RedisSessionExpirationPolicy {
 			this.redis.boundValueOps(sessionKey).expire(sessionExpireInSeconds,
 					TimeUnit.SECONDS);
 		}
-		this.redis.boundHashOps(getSessionKey(session.getId()))
-				.expire(fiveMinutesAfterExpires, TimeUnit.SECONDS);
+		if (this.expireSessionKey) {
+			this.redis.boundHashOps(getSessionKey(session.getId()))
+					.expire(retainedAfterExpires, TimeUnit.SECONDS);
+		}
 	}
 
 	String getExpirationKey(long expires) {
@@ -120,21 +237,128 @@ final class RedisSessionExpirationPolicy {
 		return this.lookupSessionKey.apply(sessionId);
 	}
 
+	String getExpirationsIndexKey() {
+		return this.lookupExpirationsIndexKey.get();
+	}
+
 	public void cleanExpiredSessions() {
-		long now = System.currentTimeMillis();
-		long prevMin = roundDownMinute(now);
+		if (!acquireCleanupLease()) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Skipping cleanup of expired sessions, since it is being "
+						+ "performed by another node");
+			}
+			return;
+		}
+		try {
+			if (this.expirationMode == RedisExpirationMode.SORTED_SET) {
+				cleanExpiredSessionsIndex(this.clock.millis());
+				return;
+			}
+			long now = this.clock.millis();
+			long lastBucket = roundDownBucket(now);
+			long firstBucket = roundUpToNextBucket(
+					now - TimeUnit.SECONDS.toMillis(getRetentionSeconds()));
+			Long cleanedBucket = getCleanedBucket();
+			if (cleanedBucket != null) {
+				firstBucket = Math.max(firstBucket,
+						roundUpToNextBucket(cleanedBucket));
+			}
+			for (long bucket = firstBucket; bucket <= lastBucket; bucket += this.bucketInterval) {
+				cleanExpiredSessions(bucket);
+				setCleanedBucket(bucket);
+			}
+		}
+		finally {
+			releaseCleanupLease();
+		}
+	}
 
+	private void cleanExpiredSessions(long expires) {
 		if (logger.isDebugEnabled()) {
-			logger.debug("Cleaning up sessions expiring at " + new Date(prevMin));
+			logger.debug("Cleaning up sessions expiring at " + new Date(expires));
+		}
+		byte[] expirationKey = serializeKey(getExpirationKey(expires));
+		List<String> sessionKeys;
+		do {
+			List<Object> sessionsToExpire = this.pipeline
+					.execute(connection -> {
+						for (int i = 0; i < this.cleanupChunkSize; i++) {
+							connection.sPop(expirationKey);
+						}
+						return null;
+					}, () -> popExpirations(expirationKey));
+			List<String> sessionIds = new ArrayList<>(sessionsToExpire.size());
+			sessionKeys = new ArrayList<>(sessionsToExpire.size());
+			for (Object session : sessionsToExpire) {
+				if (session != null) {
+					sessionIds.add(getSessionId((String) session));
+					sessionKeys.add(getSessionKey((String) session));
+				}
+			}
+			touch(sessionKeys);
+			handleExpiredSessions(sessionIds);
 		}
+		while (sessionKeys.size() == this.cleanupChunkSize);
+	}
 
-		String expirationKey = getExpirationKey(prevMin);
-		Set<Object> sessionsToExpire = this.redis.boundSetOps(expirationKey).members();
-		this.redis.delete(expirationKey);
-		for (Object session : sessionsToExpire) {
-			String sessionKey = getSessionKey((String) session);
-			touch(sessionKey);
+	private void cleanExpiredSessionsIndex(long now) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Cleaning up sessions expired by " + new Date(now));
+		}
+		List<String> sessionKeys;
+		do {
+			List<Object> sessionsToExpire = this.scripts.popExpirations(
+					getExpirationsIndexKey(), now, this.cleanupChunkSize);
+			List<String> sessionIds = new ArrayList<>(sessionsToExpire.size());
+			sessionKeys = new ArrayList<>(sessionsToExpire.size());
+			for (Object session : sessionsToExpire) {
+				sessionIds.add(getSessionId((String) session));
+				sessionKeys.add(getSessionKey((String) session));
+			}
+			touch(sessionKeys);
+			handleExpiredSessions(sessionIds);
 		}
+		while (sessionKeys.size() == this.cleanupChunkSize);
+	}
+
+	/**
+	 * Returns the number of sessions that expire within the provided duration from now.
+	 * Using {@link RedisExpirationMode#BUCKETS}, the count is accurate to the bucket
+	 * interval.
+	 *
+	 * @param duration the duration
+	 * @return the number of sessions
+	 */
+	long countExpiringSessions(Duration duration) {
+		long now = this.clock.millis();
+		long until = now + duration.toMillis();
+		if (this.expirationMode == RedisExpirationMode.SORTED_SET) {
+			Long count = this.redis.boundZSetOps(getExpirationsIndexKey()).count(now + 1,
+					until);
+			return (count != null) ? count : 0;
+		}
+		long firstBucket = roundUpToNextBucket(now);
+		long lastBucket = roundUpToNextBucket(until);
+		List<Object> counts = this.pipeline
+				.execute(connection -> {
+					for (long bucket = firstBucket; bucket <= lastBucket; bucket += this.bucketInterval) {
+						connection.sCard(serializeKey(getExpirationKey(bucket)));
+					}
+					return null;
+				}, () -> {
+					List<Object> sizes = new ArrayList<>();
+					for (long bucket = firstBucket; bucket <= lastBucket; bucket += this.bucketInterval) {
+						sizes.add(this.redis.boundSetOps(getExpirationKey(bucket)).size());
+					}
+					return sizes;
+				});
+		long count = 0;
+		for (Object bucketCount : counts) {
+			if (bucketCount != null) {
+				count += (Long) bucketCount;
+			}
+		}
+		return count;
 	}
 
 	/**
@@ -142,10 +366,150 @@ final class RedisSessionExpirationPolicy {
 	 * expired. This is done to handle
 	 * https://github.com/spring-projects/spring-session/issues/93
 	 *
-	 * @param key the key
+	 * @param keys the keys
+	 */
+	private void touch(List<String> keys) {
+		if (keys.isEmpty()) {
+			return;
+		}
+		this.pipeline.execute(connection -> {
+			for (String key : keys) {
+				connection.exists(serializeKey(key));
+			}
+			return null;
+		}, () -> {
+			for (String key : keys) {
+				this.redis.hasKey(key);
+			}
+			return Collections.emptyList();
+		});
+	}
+
+	/**
+	 * Removes up to a chunk of sessions from the expirations set one after the other,
+	 * for connections that do not support pipelining.
+	 * @param expirationKey the serialized expirations set key
+	 * @return the removed sessions expires keys suffixes
+	 */
+	private List<Object> popExpirations(byte[] expirationKey) {
+		RedisSerializer<?> valueSerializer = this.redis.getValueSerializer();
+		return this.redis.execute((RedisCallback<List<Object>>) connection -> {
+			List<Object> sessions = new ArrayList<>(this.cleanupChunkSize);
+			for (int i = 0; i < this.cleanupChunkSize; i++) {
+				byte[] session = connection.sPop(expirationKey);
+				if (session == null) {
+					break;
+				}
+				sessions.add(valueSerializer.deserialize(session));
+			}
+			return sessions;
+		});
+	}
+
+	private void handleExpiredSessions(List<String> sessionIds) {
+		if (!sessionIds.isEmpty()) {
+			this.expiredSessionsHandler.accept(sessionIds);
+		}
+	}
+
+	private static String getSessionId(String keyToExpire) {
+		return keyToExpire.substring(keyToExpire.indexOf(':') + 1);
+	}
+
+	private boolean acquireCleanupLease() {
+		byte[] leaseKey = serializeKey(getCleanupKey("lease"));
+		Expiration expiration = Expiration.from(this.cleanupLeaseTime);
+		Boolean acquired = this.redis
+				.execute((RedisCallback<Boolean>) connection -> connection.set(leaseKey,
+						this.leaseOwner, expiration, SetOption.ifAbsent()));
+		return Boolean.TRUE.equals(acquired);
+	}
+
+	/**
+	 * Releases the lease using a compare-and-delete script on the lease key. Should the
+	 * connection not support scripting, as is the case with the Jedis connection to
+	 * Redis Cluster, the lease is compared and deleted using separate commands, which
+	 * leaves a lease acquired by another node in between the two only if this lease
+	 * expired meanwhile.
+	 */
+	private void releaseCleanupLease() {
+		try {
+			this.scripts.execute(RedisSessionScripts.RELEASE_LEASE,
+					Collections.singletonList(getCleanupKey("lease")),
+					Collections.singletonList(this.leaseOwner));
+		}
+		catch (InvalidDataAccessApiUsageException | UnsupportedOperationException ex) {
+			byte[] leaseKey = serializeKey(getCleanupKey("lease"));
+			this.redis.execute((RedisCallback<Void>) connection -> {
+				if (Arrays.equals(connection.get(leaseKey), this.leaseOwner)) {
+					connection.del(leaseKey);
+				}
+				return null;
+			});
+		}
+	}
+
+	private Long getCleanedBucket() {
+		byte[] cleanedKey = serializeKey(getCleanupKey("cleaned"));
+		byte[] cleanedBucket = this.redis
+				.execute((RedisCallback<byte[]>) connection -> connection.get(cleanedKey));
+		return (cleanedBucket != null)
+				? Long.valueOf(new String(cleanedBucket, StandardCharsets.UTF_8)) : null;
+	}
+
+	private void setCleanedBucket(long cleanedBucket) {
+		byte[] cleanedKey = serializeKey(getCleanupKey("cleaned"));
+		long retention = getRetentionSeconds();
+		this.redis.execute((RedisCallback<Void>) connection -> {
+			connection.setEx(cleanedKey, retention,
+					RedisSessionScripts.serializeNumber(cleanedBucket));
+			return null;
+		});
+	}
+
+	String getCleanupKey(String name) {
+		return this.lookupCleanupKey.apply(name);
+	}
+
+	@SuppressWarnings("unchecked")
+	private byte[] serializeKey(String key) {
+		return ((RedisSerializer<Object>) this.redis.getKeySerializer()).serialize(key);
+	}
+
+	/**
+	 * Returns the number of seconds the expirations and the session key are retained
+	 * after a session expires. Using {@link RedisExpirationMode#BUCKETS}, a session
+	 * expires up to one bucket interval before the bucket it is tracked in, so the
+	 * retention includes the bucket interval. This keeps each bucket for five minutes
+	 * after its time, which is the window {@link #cleanExpiredSessions()} looks back
+	 * over, and keeps the session key until the cleanup has accessed it.
+	 *
+	 * @return the retention in seconds
+	 */
+	long getRetentionSeconds() {
+		long retention = TimeUnit.MINUTES.toSeconds(EXPIRATIONS_RETENTION_MINUTES);
+		if (this.expirationMode == RedisExpirationMode.BUCKETS) {
+			retention += TimeUnit.MILLISECONDS.toSeconds(this.bucketInterval);
+		}
+		return retention;
+	}
+
+	/**
+	 * Returns the time to live of the session key, which is retained after the session
+	 * expires so that it can be accessed by the expired session event handling.
+	 *
+	 * @param session the session
+	 * @return the time to live in milliseconds, or {@code -1} if the session does not
+	 * expire
+	 * @see #getRetentionSeconds()
 	 */
-	private void touch(String key) {
-		this.redis.hasKey(key);
+	long sessionKeyTimeToLive(Session session) {
+		long sessionExpireInSeconds = session.getMaxInactiveInterval().getSeconds();
+		if (sessionExpireInSeconds < 0) {
+			return -1;
+		}
+		return TimeUnit.SECONDS
+				.toMillis(sessionExpireInSeconds + getRetentionSeconds());
 	}
 
 	static long expiresInMillis(Session session) {
@@ -154,21 +518,35 @@ final class RedisSessionExpirationPolicy {
 		return lastAccessedTimeInMillis + TimeUnit.SECONDS.toMillis(maxInactiveInSeconds);
 	}
 
-	static long roundUpToNextMinute(long timeInMs) {
+	long roundUpToNextBucket(long timeInMs) {
+		return roundUpToNextBucket(timeInMs, this.bucketInterval);
+	}
+
+	long roundDownBucket(long timeInMs) {
+		return roundDownBucket(timeInMs, this.bucketInterval);
+	}
 
-		Calendar date = Calendar.getInstance();
-		date.setTimeInMillis(timeInMs);
-		date.add(Calendar.MINUTE, 1);
-		date.clear(Calendar.SECOND);
-		date.clear(Calendar.MILLISECOND);
-		return date.getTimeInMillis();
+	/**
+	 * Rounds the provided time up to the start of the next bucket. A time at the start of
+	 * a bucket is also rounded up to the next bucket.
+	 *
+	 * @param timeInMs the time in milliseconds since the epoch
+	 * @param bucketInterval the bucket interval in milliseconds
+	 * @return the start of the next bucket
+	 */
+	static long roundUpToNextBucket(long timeInMs, long bucketInterval) {
+		return roundDownBucket(timeInMs, bucketInterval) + bucketInterval;
 	}
 
-	static long roundDownMinute(long timeInMs) {
-		Calendar date = Calendar.getInstance();
-		date.setTimeInMillis(timeInMs);
-		date.clear(Calendar.SECOND);
-		date.clear(Calendar.MILLISECOND);
-		return date.getTimeInMillis();
+	/**
+	 * Rounds the provided time down to the start of its bucket.
+	 *
+	 * @param timeInMs the time in milliseconds since the epoch
+	 * @param bucketInterval the bucket interval in milliseconds
+	 * @return the start of the bucket
+	 */
+	static long roundDownBucket(long timeInMs, long bucketInterval) {
+		return Math.floorDiv(timeInMs, bucketInterval) * bucketInterval;
 	}
+
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+
+/**
+ * Executes batches of Redis commands in a pipeline, falling back to executing them one
+ * after the other should the connection not support pipelining, as is the case with the
+ * Jedis connection to Redis Cluster. Once opening a pipeline has failed, the commands
+ * are executed one after the other from then on.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+final class RedisSessionPipeline {
+
+	private static final Log logger = LogFactory.getLog(RedisSessionPipeline.class);
+
+	private final RedisOperations<Object, Object> redis;
+
+	private volatile boolean pipeliningSupported = true;
+
+	RedisSessionPipeline(RedisOperations<Object, Object> sessionRedisOperations) {
+		this.redis = sessionRedisOperations;
+	}
+
+	/**
+	 * Executes the commands issued by the callback in a pipeline or, if pipelining is not
+	 * supported, using the provided sequential execution.
+	 * @param pipelined the callback issuing the commands, whose results are deserialized
+	 * as by {@link RedisOperations#executePipelined(RedisCallback)}
+	 * @param sequential executes the same commands one after the other and returns their
+	 * deserialized results
+	 * @return the results of the commands
+	 */
+	List<Object> execute(RedisCallback<?> pipelined, Supplier<List<Object>> sequential) {
+		return executeWithFallback(() -> this.redis.executePipelined(pipelined), sequential);
+	}
+
+	/**
+	 * Executes the commands issued by the callback in a pipeline or, if pipelining is not
+	 * supported, using the provided sequential execution.
+	 * @param pipelined the callback issuing the commands, whose results are deserialized
+	 * as by {@link RedisOperations#executePipelined(SessionCallback)}
+	 * @param sequential executes the same commands one after the other and returns their
+	 * deserialized results
+	 * @return the results of the commands
+	 */
+	List<Object> executeSession(SessionCallback<?> pipelined,
+			Supplier<List<Object>> sequential) {
+		return executeWithFallback(() -> this.redis.executePipelined(pipelined), sequential);
+	}
+
+	private List<Object> executeWithFallback(Supplier<List<Object>> pipelined,
+			Supplier<List<Object>> sequential) {
+		if (this.pipeliningSupported) {
+			try {
+				return pipelined.get();
+			}
+			catch (UnsupportedOperationException ex) {
+				this.pipeliningSupported = false;
+				if (logger.isDebugEnabled()) {
+					logger.debug("Pipelining is not supported by the Redis connection, "
+							+ "executing commands one after the other", ex);
+				}
+			}
+		}
+		return sequential.get();
+	}
+
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scripting.support.ResourceScriptSource;
+
+/**
+ * The Lua scripts used by {@link RedisOperationsSessionRepository} when
+ * {@link RedisSaveMode#SCRIPTED} is used, as well as the scripts used by
+ * {@link RedisSessionExpirationPolicy#cleanExpiredSessions()},
+ * {@link RedisSessionEventLog} and {@link RedisSessionBlobStore}.
+ *
+ * Each script is invoked using {@code EVALSHA}. The SHA1 digest of each script is computed
+ * once and if the script is not present in the Redis script cache (for example, after a
+ * restart or {@code SCRIPT FLUSH}) it is transparently loaded using {@code EVAL}.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+final class RedisSessionScripts {
+
+	static final RedisScript<Long> SAVE_SESSION = createScript("save-session.lua",
+			Long.class);
+
+	static final RedisScript<Long> DELETE_SESSION = createScript("delete-session.lua",
+			Long.class);
+
+	static final RedisScript<Long> SAVE_SESSION_BLOB = createScript(
+			"save-session-blob.lua", Long.class);
+
+	static final RedisScript<List<Object>> FIND_SESSIONS = createListScript(
+			"find-sessions.lua");
+
+	static final RedisScript<List<Object>> POP_EXPIRATIONS = createListScript(
+			"pop-expirations.lua");
+
+	static final RedisScript<Long> RELEASE_LEASE = createScript("release-lease.lua",
+			Long.class);
+
+	static final RedisScript<Long> APPEND_EVENTS = createScript("append-events.lua",
+			Long.class);
+
+	static final RedisScript<List<Object>> READ_EVENTS = createListScript(
+			"read-events.lua");
+
+	static final RedisScript<Long> ACKNOWLEDGE_EVENTS = createScript(
+			"acknowledge-events.lua", Long.class);
+
+	private static final RedisSerializer<Object> RAW_SERIALIZER = new RawRedisSerializer();
+
+	private final RedisOperations<Object, Object> redis;
+
+	RedisSessionScripts(RedisOperations<Object, Object> sessionRedisOperations) {
+		this.redis = sessionRedisOperations;
+	}
+
+	/**
+	 * Executes the script. The keys are serialized using the key serializer of the
+	 * {@link RedisOperations}, while the arguments must already be serialized.
+	 * @param script the script to execute
+	 * @param keys the keys
+	 * @param args the serialized arguments
+	 * @param <T> the type of the result
+	 * @return the result of the script, with any binary values left unconverted
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T execute(RedisScript<T> script, List<Object> keys, List<byte[]> args) {
+		return this.redis.execute(script, RAW_SERIALIZER,
+				(RedisSerializer<T>) RAW_SERIALIZER, keys, args.toArray());
+	}
+
+	/**
+	 * Loads the hash entries of multiple sessions using a single script invocation.
+	 * @param sessionKeys the session keys
+	 * @return the hash entries of each session, in the order of the provided keys
+	 */
+	List<Map<Object, Object>> findSessions(List<Object> sessionKeys) {
+		List<?> result = execute(FIND_SESSIONS, sessionKeys, new ArrayList<>());
+		List<Map<Object, Object>> sessions = new ArrayList<>(result.size());
+		for (Object entries : result) {
+			sessions.add(deserializeHash((List<?>) entries));
+		}
+		return sessions;
+	}
+
+	/**
+	 * Removes up to the provided number of sessions that have expired from the
+	 * expirations sorted set.
+	 * @param expirationsKey the expirations sorted set key
+	 * @param now the current time in milliseconds
+	 * @param count the maximum number of sessions to remove
+	 * @return the removed sessions expires keys suffixes
+	 */
+	List<Object> popExpirations(Object expirationsKey, long now, int count) {
+		List<?> result = execute(POP_EXPIRATIONS,
+				Collections.singletonList(expirationsKey),
+				Arrays.asList(serializeNumber(now), serializeNumber(count)));
+		RedisSerializer<?> valueSerializer = this.redis.getValueSerializer();
+		List<Object> expirations = new ArrayList<>(result.size());
+		for (Object expiration : result) {
+			expirations.add(valueSerializer.deserialize((byte[]) expiration));
+		}
+		return expirations;
+	}
+
+	byte[] serializeValue(Object value) {
+		return serialize(this.redis.getValueSerializer(), value);
+	}
+
+	byte[] serializeHashKey(Object hashKey) {
+		return serialize(this.redis.getHashKeySerializer(), hashKey);
+	}
+
+	byte[] serializeHashValue(Object hashValue) {
+		return serialize(this.redis.getHashValueSerializer(), hashValue);
+	}
+
+	static byte[] serializeNumber(long number) {
+		return String.valueOf(number).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private Map<Object, Object> deserializeHash(List<?> entries) {
+		RedisSerializer<?> hashKeySerializer = this.redis.getHashKeySerializer();
+		RedisSerializer<?> hashValueSerializer = this.redis.getHashValueSerializer();
+		Map<Object, Object> hash = new HashMap<>(entries.size() / 2);
+		for (int i = 0; i + 1 < entries.size(); i += 2) {
+			hash.put(hashKeySerializer.deserialize((byte[]) entries.get(i)),
+					hashValueSerializer.deserialize((byte[]) entries.get(i + 1)));
+		}
+		return hash;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static byte[] serialize(RedisSerializer<?> serializer, Object value) {
+		return ((RedisSerializer<Object>) serializer).serialize(value);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static RedisScript<List<Object>> createListScript(String name) {
+		return (RedisScript) createScript(name, List.class);
+	}
+
+	private static <T> RedisScript<T> createScript(String name, Class<T> resultType) {
+		ResourceScriptSource scriptSource = new ResourceScriptSource(
+				new ClassPathResource(name, RedisSessionScripts.class));
+		try {
+			return new DefaultRedisScript<>(scriptSource.getScriptAsString(),
+					resultType);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unable to load script " + name, ex);
+		}
+	}
+
+	/**
+	 * A {@link RedisSerializer} that passes through binary values unchanged.
+	 */
+	private static class RawRedisSerializer implements RedisSerializer<Object> {
+
+		@Override
+		public byte[] serialize(Object value) {
+			return (byte[]) value;
+		}
+
+		@Override
+		public Object deserialize(byte[] bytes) {
+			return bytes;
+		}
+
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+/**
+ * Specifies how {@link RedisOperationsSessionRepository} lays out a session in Redis.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+public enum RedisStorageMode {
+
+	/**
+	 * Each session is stored in a hash, with a field for each of its metadata and
+	 * attributes. Saving a session writes only the fields that changed, and attributes
+	 * can be loaded lazily.
+	 */
+	HASH,
+
+	/**
+	 * Each session is stored as a single compressed binary value holding its metadata
+	 * and all of its attributes, so a session is loaded using a single {@code GET} and
+	 * saved using a single {@code SET} command that also sets its expiration. Each save
+	 * writes the whole session, and is applied only if the session was not saved
+	 * concurrently since it was loaded. Otherwise, the changes are merged into the
+	 * latest version of the session and the save is retried. A session that was deleted
+	 * concurrently is not recreated, unless it is new.
+	 * <p>
+	 * The save is performed by a Lua script that accesses both the current and the
+	 * original key of a session whose id changed. These keys usually map to different
+	 * hash slots, so this mode does not work with Redis Cluster.
+	 */
+	BLOB
+
+}
@@ -32,6 +32,11 @@ import org.springframework.data.redis.connection.RedisConnection;
  * </pre>
  *
  * <p>
+ * If the notifications of destroyed sessions are received using keyspace notifications,
+ * Keyspace events ({@code K}) are enabled as well.
+ * </p>
+ *
+ * <p>
  * This strategy will not work if the Redis instance has been properly secured. Instead,
  * the Redis instance should be configured externally and a Bean of type
  * {@link ConfigureRedisAction#NO_OP} should be exposed.
@@ -45,6 +50,26 @@ public class ConfigureNotifyKeyspaceEventsAction implements ConfigureRedisAction
 
 	static final String CONFIG_NOTIFY_KEYSPACE_EVENTS = "notify-keyspace-events";
 
+	private final boolean keyspaceEvents;
+
+	/**
+	 * Create a new instance that enables Keyevent events.
+	 */
+	public ConfigureNotifyKeyspaceEventsAction() {
+		this(false);
+	}
+
+	/**
+	 * Create a new instance.
+	 * @param keyspaceEvents whether Keyspace events should be enabled as well
+	 * @since 2.0.0
+	 * @see org.springframework.session.data.redis.RedisOperationsSessionRepository#getSessionExpiresChannelPattern(java.util.Collection,
+	 * int)
+	 */
+	public ConfigureNotifyKeyspaceEventsAction(boolean keyspaceEvents) {
+		this.keyspaceEvents = keyspaceEvents;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 *
@@ -59,6 +84,9 @@ public class ConfigureNotifyKeyspaceEventsAction implements ConfigureRedisAction
 		if (!customizedNotifyOptions.contains("E")) {
 			customizedNotifyOptions += "E";
 		}
+		if (this.keyspaceEvents && !customizedNotifyOptions.contains("K")) {
+			customizedNotifyOptions += "K";
+		}
 		boolean A = customizedNotifyOptions.contains("A");
 		if (!(A || customizedNotifyOptions.contains("g"))) {
 			customizedNotifyOptions += "g";
@@ -29,8 +29,12 @@ import org.springframework.session.MapSession;
 import org.springframework.session.Session;
 import org.springframework.session.SessionRepository;
 import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.session.data.redis.RedisEventMode;
+import org.springframework.session.data.redis.RedisExpirationMode;
 import org.springframework.session.data.redis.RedisFlushMode;
 import org.springframework.session.data.redis.RedisOperationsSessionRepository;
+import org.springframework.session.data.redis.RedisSaveMode;
+import org.springframework.session.data.redis.RedisStorageMode;
 import org.springframework.session.web.http.SessionRepositoryFilter;
 
 /**
@@ -97,6 +101,76 @@ public @interface EnableRedisHttpSession {
 	 */
 	RedisFlushMode redisFlushMode() default RedisFlushMode.ON_SAVE;
 
+	/**
+	 * Save mode for the Redis sessions. The default is {@code SEQUENTIAL} which sends
+	 * each command required to save the session to Redis separately.
+	 * <p>
+	 * Setting the value to {@code PIPELINED} or {@code TRANSACTIONAL} will send all the
+	 * commands in a single network round trip, either as a pipeline or as a MULTI/EXEC
+	 * transaction.
+	 * @return the {@link RedisSaveMode} to use
+	 * @since 2.0.0
+	 */
+	RedisSaveMode redisSaveMode() default RedisSaveMode.SEQUENTIAL;
+
+	/**
+	 * Expiration mode for the Redis sessions. The default is {@code BUCKETS} which tracks
+	 * the sessions expiring in each minute in a separate set.
+	 * <p>
+	 * Setting the value to {@code SORTED_SET} will track all sessions in a single sorted
+	 * set scored by their expiration time.
+	 * @return the {@link RedisExpirationMode} to use
+	 * @since 2.0.0
+	 */
+	RedisExpirationMode redisExpirationMode() default RedisExpirationMode.BUCKETS;
+
+	/**
+	 * Event mode for the Redis sessions. The default is {@code PUBLISH_SUBSCRIBE} which
+	 * publishes the session created events to a channel and derives the session destroyed
+	 * events from the keyspace notifications of Redis.
+	 * <p>
+	 * Setting the value to {@code EVENT_LOG} will append compact records of the events to
+	 * a log in Redis, which is polled and acknowledged by each consumer group.
+	 * @return the {@link RedisEventMode} to use
+	 * @since 2.0.0
+	 */
+	RedisEventMode redisEventMode() default RedisEventMode.PUBLISH_SUBSCRIBE;
+
+	/**
+	 * Storage mode for the Redis sessions. The default is {@code HASH} which stores each
+	 * session in a hash with a field per attribute, so that only the changed attributes
+	 * are written.
+	 * <p>
+	 * Setting the value to {@code BLOB} will store each session as a single compressed
+	 * value, which is read using a single {@code GET} and written as a whole.
+	 * @return the {@link RedisStorageMode} to use
+	 * @since 2.0.0
+	 */
+	RedisStorageMode redisStorageMode() default RedisStorageMode.HASH;
+
+	/**
+	 * The fraction of the maximum inactive interval that needs to elapse since the last
+	 * accessed time was written to Redis before a request that only accesses the session
+	 * writes it again. The default is {@code 0} which writes the last accessed time on
+	 * every request.
+	 * @return the last accessed time update threshold
+	 * @since 2.0.0
+	 */
+	double lastAccessedTimeUpdateThreshold() default 0;
+
+	/**
+	 * Whether to encode the values of the session hash using
+	 * {@link org.springframework.session.data.redis.CompactRedisSerializer}. The default
+	 * is {@code false} which uses JDK serialization.
+	 * <p>
+	 * Nodes running previous versions cannot read the compact format, while every node
+	 * running this version reads both formats. When upgrading, first upgrade all nodes
+	 * sharing the Redis instance with this attribute disabled, and only then enable it.
+	 * @return whether to use the compact encoding of the session hash values
+	 * @since 2.0.0
+	 */
+	boolean compactHashValues() default false;
+
 	/**
 	 * The cron expression for expired session cleanup job. By default runs every minute.
 	 * @return the session cleanup cron expression
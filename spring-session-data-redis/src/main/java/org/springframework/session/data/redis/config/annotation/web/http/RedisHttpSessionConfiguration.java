@@ -16,7 +16,9 @@
 
 package org.springframework.session.data.redis.config.annotation.web.http;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.Executor;
@@ -45,12 +47,22 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.session.MapSession;
+import org.springframework.session.PrincipalNameResolver;
 import org.springframework.session.config.annotation.web.http.SpringHttpSessionConfiguration;
+import org.springframework.session.data.redis.CompactRedisSerializer;
+import org.springframework.session.data.redis.CompressingRedisSerializer;
+import org.springframework.session.data.redis.RedisCreatedEventPayload;
+import org.springframework.session.data.redis.RedisEventMode;
+import org.springframework.session.data.redis.RedisEventOverflowPolicy;
+import org.springframework.session.data.redis.RedisExpirationMode;
 import org.springframework.session.data.redis.RedisFlushMode;
 import org.springframework.session.data.redis.RedisOperationsSessionRepository;
+import org.springframework.session.data.redis.RedisSaveMode;
+import org.springframework.session.data.redis.RedisStorageMode;
 import org.springframework.session.data.redis.config.ConfigureNotifyKeyspaceEventsAction;
 import org.springframework.session.data.redis.config.ConfigureRedisAction;
 import org.springframework.session.data.redis.config.annotation.SpringSessionRedisConnectionFactory;
+import org.springframework.session.serializer.ValueCompressor;
 import org.springframework.session.web.http.SessionRepositoryFilter;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
@@ -74,32 +86,83 @@ public class RedisHttpSessionConfiguration extends SpringHttpSessionConfiguratio
 
 	static final String DEFAULT_CLEANUP_CRON = "0 * * * * *";
 
+	static final Duration DEFAULT_EVENT_LOG_POLL_INTERVAL = Duration.ofSeconds(1);
+
 	private Integer maxInactiveIntervalInSeconds = MapSession.DEFAULT_MAX_INACTIVE_INTERVAL_SECONDS;
 
 	private String redisNamespace = RedisOperationsSessionRepository.DEFAULT_NAMESPACE;
 
 	private RedisFlushMode redisFlushMode = RedisFlushMode.ON_SAVE;
 
+	private RedisSaveMode redisSaveMode = RedisSaveMode.SEQUENTIAL;
+
+	private RedisExpirationMode redisExpirationMode = RedisExpirationMode.BUCKETS;
+
+	private double lastAccessedTimeUpdateThreshold;
+
+	private boolean lazyAttributeLoading;
+
+	private Collection<String> prefetchedAttributeNames = Collections.emptySet();
+
 	private String cleanupCron = DEFAULT_CLEANUP_CRON;
 
+	private int cleanupChunkSize = RedisOperationsSessionRepository.DEFAULT_CLEANUP_CHUNK_SIZE;
+
+	private Duration cleanupLeaseTime = RedisOperationsSessionRepository.DEFAULT_CLEANUP_LEASE_TIME;
+
+	private Duration expirationBucketInterval = RedisOperationsSessionRepository.DEFAULT_EXPIRATION_BUCKET_INTERVAL;
+
+	private int eventConcurrency = RedisOperationsSessionRepository.DEFAULT_EVENT_CONCURRENCY;
+
+	private int eventQueueCapacity = RedisOperationsSessionRepository.DEFAULT_EVENT_QUEUE_CAPACITY;
+
+	private int eventBatchSize = RedisOperationsSessionRepository.DEFAULT_EVENT_BATCH_SIZE;
+
+	private RedisEventOverflowPolicy eventOverflowPolicy = RedisEventOverflowPolicy.BLOCK;
+
+	private int sessionDestroyedPartitionCount;
+
+	private Collection<Integer> sessionDestroyedPartitions = Collections.emptySet();
+
+	private RedisEventMode redisEventMode = RedisEventMode.PUBLISH_SUBSCRIBE;
+
+	private RedisStorageMode redisStorageMode = RedisStorageMode.HASH;
+
+	private boolean compactHashValues;
+
+	private long eventLogMaxLength = RedisOperationsSessionRepository.DEFAULT_EVENT_LOG_MAX_LENGTH;
+
+	private String eventLogConsumerGroup = RedisOperationsSessionRepository.DEFAULT_EVENT_LOG_CONSUMER_GROUP;
+
+	private Duration eventLogPollInterval = DEFAULT_EVENT_LOG_POLL_INTERVAL;
+
+	private RedisCreatedEventPayload createdEventPayload = RedisCreatedEventPayload.METADATA;
+
 	private ConfigureRedisAction configureRedisAction = new ConfigureNotifyKeyspaceEventsAction();
 
+	private PrincipalNameResolver principalNameResolver;
+
 	private RedisConnectionFactory redisConnectionFactory;
 
 	private RedisSerializer<Object> defaultRedisSerializer;
 
+	private ValueCompressor valueCompressor;
+
 	private ApplicationEventPublisher applicationEventPublisher;
 
 	private Executor redisTaskExecutor;
 
 	private Executor redisSubscriptionExecutor;
 
+	private Executor redisEventExecutor;
+
 	private StringValueResolver embeddedValueResolver;
 
 	@Bean
 	public RedisOperationsSessionRepository sessionRepository() {
 		RedisTemplate<Object, Object> redisTemplate = createRedisTemplate(
-				this.redisConnectionFactory, this.defaultRedisSerializer);
+				this.redisConnectionFactory, this.defaultRedisSerializer,
+				this.compactHashValues, this.valueCompressor);
 		RedisOperationsSessionRepository sessionRepository = new RedisOperationsSessionRepository(
 				redisTemplate);
 		sessionRepository.setApplicationEventPublisher(this.applicationEventPublisher);
@@ -112,6 +175,28 @@ public class RedisHttpSessionConfiguration extends SpringHttpSessionConfiguratio
 			sessionRepository.setRedisKeyNamespace(this.redisNamespace);
 		}
 		sessionRepository.setRedisFlushMode(this.redisFlushMode);
+		sessionRepository.setRedisSaveMode(this.redisSaveMode);
+		sessionRepository.setRedisExpirationMode(this.redisExpirationMode);
+		sessionRepository.setRedisStorageMode(this.redisStorageMode);
+		sessionRepository
+				.setLastAccessedTimeUpdateThreshold(this.lastAccessedTimeUpdateThreshold);
+		sessionRepository.setLazyAttributeLoading(this.lazyAttributeLoading);
+		sessionRepository.setPrefetchedAttributeNames(this.prefetchedAttributeNames);
+		sessionRepository.setCleanupChunkSize(this.cleanupChunkSize);
+		sessionRepository.setCleanupLeaseTime(this.cleanupLeaseTime);
+		sessionRepository.setExpirationBucketInterval(this.expirationBucketInterval);
+		sessionRepository.setEventConcurrency(this.eventConcurrency);
+		sessionRepository.setEventQueueCapacity(this.eventQueueCapacity);
+		sessionRepository.setEventBatchSize(this.eventBatchSize);
+		sessionRepository.setEventOverflowPolicy(this.eventOverflowPolicy);
+		sessionRepository.setRedisEventMode(this.redisEventMode);
+		sessionRepository.setEventLogMaxLength(this.eventLogMaxLength);
+		sessionRepository.setEventLogConsumerGroup(this.eventLogConsumerGroup);
+		sessionRepository.setCreatedEventPayload(this.createdEventPayload);
+		sessionRepository.setEventExecutor(this.redisEventExecutor);
+		if (this.principalNameResolver != null) {
+			sessionRepository.setPrincipalNameResolver(this.principalNameResolver);
+		}
 		return sessionRepository;
 	}
 
@@ -125,9 +210,20 @@ public class RedisHttpSessionConfiguration extends SpringHttpSessionConfiguratio
 		if (this.redisSubscriptionExecutor != null) {
 			container.setSubscriptionExecutor(this.redisSubscriptionExecutor);
 		}
-		container.addMessageListener(sessionRepository(),
-				Arrays.asList(new PatternTopic("__keyevent@*:del"),
-						new PatternTopic("__keyevent@*:expired")));
+		if (this.redisEventMode == RedisEventMode.EVENT_LOG) {
+			return container;
+		}
+		if (this.sessionDestroyedPartitionCount == 0) {
+			container.addMessageListener(sessionRepository(),
+					Arrays.asList(new PatternTopic("__keyevent@*:del"),
+							new PatternTopic("__keyevent@*:expired")));
+		}
+		else if (!this.sessionDestroyedPartitions.isEmpty()) {
+			container.addMessageListener(sessionRepository(),
+					new PatternTopic(sessionRepository().getSessionExpiresChannelPattern(
+							this.sessionDestroyedPartitions,
+							this.sessionDestroyedPartitionCount)));
+		}
 		container.addMessageListener(sessionRepository(),
 				Collections.singletonList(new PatternTopic(
 						sessionRepository().getSessionCreatedChannelPrefix() + "*")));
@@ -136,8 +232,16 @@ public class RedisHttpSessionConfiguration extends SpringHttpSessionConfiguratio
 
 	@Bean
 	public InitializingBean enableRedisKeyspaceNotificationsInitializer() {
+		ConfigureRedisAction configureRedisAction = this.configureRedisAction;
+		if (this.redisEventMode == RedisEventMode.EVENT_LOG) {
+			configureRedisAction = ConfigureRedisAction.NO_OP;
+		}
+		else if (this.sessionDestroyedPartitionCount > 0
+				&& configureRedisAction instanceof ConfigureNotifyKeyspaceEventsAction) {
+			configureRedisAction = new ConfigureNotifyKeyspaceEventsAction(true);
+		}
 		return new EnableRedisKeyspaceNotificationsInitializer(
-				this.redisConnectionFactory, this.configureRedisAction);
+				this.redisConnectionFactory, configureRedisAction);
 	}
 
 	public void setMaxInactiveIntervalInSeconds(int maxInactiveIntervalInSeconds) {
@@ -153,10 +257,146 @@ public class RedisHttpSessionConfiguration extends SpringHttpSessionConfiguratio
 		this.redisFlushMode = redisFlushMode;
 	}
 
+	public void setRedisSaveMode(RedisSaveMode redisSaveMode) {
+		Assert.notNull(redisSaveMode, "redisSaveMode cannot be null");
+		this.redisSaveMode = redisSaveMode;
+	}
+
+	public void setRedisExpirationMode(RedisExpirationMode redisExpirationMode) {
+		Assert.notNull(redisExpirationMode, "redisExpirationMode cannot be null");
+		this.redisExpirationMode = redisExpirationMode;
+	}
+
+	public void setLastAccessedTimeUpdateThreshold(
+			double lastAccessedTimeUpdateThreshold) {
+		this.lastAccessedTimeUpdateThreshold = lastAccessedTimeUpdateThreshold;
+	}
+
+	public void setLazyAttributeLoading(boolean lazyAttributeLoading) {
+		this.lazyAttributeLoading = lazyAttributeLoading;
+	}
+
+	public void setPrefetchedAttributeNames(
+			Collection<String> prefetchedAttributeNames) {
+		Assert.notNull(prefetchedAttributeNames,
+				"prefetchedAttributeNames cannot be null");
+		this.prefetchedAttributeNames = prefetchedAttributeNames;
+	}
+
 	public void setCleanupCron(String cleanupCron) {
 		this.cleanupCron = cleanupCron;
 	}
 
+	public void setCleanupChunkSize(int cleanupChunkSize) {
+		this.cleanupChunkSize = cleanupChunkSize;
+	}
+
+	public void setCleanupLeaseTime(Duration cleanupLeaseTime) {
+		this.cleanupLeaseTime = cleanupLeaseTime;
+	}
+
+	public void setExpirationBucketInterval(Duration expirationBucketInterval) {
+		this.expirationBucketInterval = expirationBucketInterval;
+	}
+
+	public void setEventConcurrency(int eventConcurrency) {
+		this.eventConcurrency = eventConcurrency;
+	}
+
+	public void setEventQueueCapacity(int eventQueueCapacity) {
+		this.eventQueueCapacity = eventQueueCapacity;
+	}
+
+	public void setEventBatchSize(int eventBatchSize) {
+		this.eventBatchSize = eventBatchSize;
+	}
+
+	public void setEventOverflowPolicy(RedisEventOverflowPolicy eventOverflowPolicy) {
+		this.eventOverflowPolicy = eventOverflowPolicy;
+	}
+
+	/**
+	 * Sets the number of partitions the notifications of destroyed sessions are split
+	 * into. The default is {@code 0}, meaning that every node subscribes to the
+	 * {@code del} and {@code expired} notifications of all keys. Otherwise, each node
+	 * subscribes only to the keyspace notifications of the sessions in the partitions set
+	 * using {@link #setSessionDestroyedPartitions(Collection)}, so that the notifications
+	 * are handled by a single node, which also publishes the session destroyed events.
+	 *
+	 * @param sessionDestroyedPartitionCount the number of partitions, at most 16
+	 * @see RedisOperationsSessionRepository#getSessionExpiresChannelPattern(Collection,
+	 * int)
+	 */
+	public void setSessionDestroyedPartitionCount(int sessionDestroyedPartitionCount) {
+		Assert.isTrue(
+				sessionDestroyedPartitionCount >= 0 && sessionDestroyedPartitionCount <= 16,
+				"sessionDestroyedPartitionCount must be in the range [0, 16]");
+		this.sessionDestroyedPartitionCount = sessionDestroyedPartitionCount;
+	}
+
+	/**
+	 * Sets the partitions of the notifications of destroyed sessions handled by this
+	 * node. The default is none, meaning that the node does not handle destroyed
+	 * sessions if {@link #setSessionDestroyedPartitionCount(int)} is used. For example,
+	 * to designate a single node for handling destroyed sessions, set the partition count
+	 * to {@code 1} on every node, and the partition {@code 0} on the designated node.
+	 *
+	 * @param sessionDestroyedPartitions the partitions handled by this node
+	 */
+	public void setSessionDestroyedPartitions(
+			Collection<Integer> sessionDestroyedPartitions) {
+		Assert.notNull(sessionDestroyedPartitions,
+				"sessionDestroyedPartitions cannot be null");
+		this.sessionDestroyedPartitions = sessionDestroyedPartitions;
+	}
+
+	public void setRedisEventMode(RedisEventMode redisEventMode) {
+		Assert.notNull(redisEventMode, "redisEventMode cannot be null");
+		this.redisEventMode = redisEventMode;
+	}
+
+	public void setRedisStorageMode(RedisStorageMode redisStorageMode) {
+		Assert.notNull(redisStorageMode, "redisStorageMode cannot be null");
+		this.redisStorageMode = redisStorageMode;
+	}
+
+	/**
+	 * Sets whether to encode the values of the session hash using
+	 * {@link CompactRedisSerializer}, which takes precedence over the serializer defined
+	 * by a {@code springSessionDefaultRedisSerializer} bean for those values. The default
+	 * is {@code false}. Nodes running previous versions cannot read the compact format,
+	 * so it should only be enabled once all nodes sharing the Redis instance have been
+	 * upgraded.
+	 *
+	 * @param compactHashValues whether to use the compact encoding
+	 */
+	public void setCompactHashValues(boolean compactHashValues) {
+		this.compactHashValues = compactHashValues;
+	}
+
+	public void setEventLogMaxLength(long eventLogMaxLength) {
+		this.eventLogMaxLength = eventLogMaxLength;
+	}
+
+	public void setEventLogConsumerGroup(String eventLogConsumerGroup) {
+		this.eventLogConsumerGroup = eventLogConsumerGroup;
+	}
+
+	/**
+	 * Sets the delay between the polls of the session event log when using
+	 * {@link RedisEventMode#EVENT_LOG}. The default is one second.
+	 *
+	 * @param eventLogPollInterval the poll interval
+	 */
+	public void setEventLogPollInterval(Duration eventLogPollInterval) {
+		Assert.notNull(eventLogPollInterval, "eventLogPollInterval cannot be null");
+		this.eventLogPollInterval = eventLogPollInterval;
+	}
+
+	public void setCreatedEventPayload(RedisCreatedEventPayload createdEventPayload) {
+		this.createdEventPayload = createdEventPayload;
+	}
+
 	/**
 	 * Sets the action to perform for configuring Redis.
 	 *
@@ -168,6 +408,11 @@ public class RedisHttpSessionConfiguration extends SpringHttpSessionConfiguratio
 		this.configureRedisAction = configureRedisAction;
 	}
 
+	@Autowired(required = false)
+	public void setPrincipalNameResolver(PrincipalNameResolver principalNameResolver) {
+		this.principalNameResolver = principalNameResolver;
+	}
+
 	@Autowired
 	public void setRedisConnectionFactory(
 			@SpringSessionRedisConnectionFactory ObjectProvider<RedisConnectionFactory> springSessionRedisConnectionFactory,
@@ -187,6 +432,12 @@ public class RedisHttpSessionConfiguration extends SpringHttpSessionConfiguratio
 		this.defaultRedisSerializer = defaultRedisSerializer;
 	}
 
+	@Autowired(required = false)
+	@Qualifier("springSessionValueCompressor")
+	public void setValueCompressor(ValueCompressor valueCompressor) {
+		this.valueCompressor = valueCompressor;
+	}
+
 	@Autowired
 	public void setApplicationEventPublisher(
 			ApplicationEventPublisher applicationEventPublisher) {
@@ -205,6 +456,12 @@ public class RedisHttpSessionConfiguration extends SpringHttpSessionConfiguratio
 		this.redisSubscriptionExecutor = redisSubscriptionExecutor;
 	}
 
+	@Autowired(required = false)
+	@Qualifier("springSessionRedisEventExecutor")
+	public void setRedisEventExecutor(Executor redisEventExecutor) {
+		this.redisEventExecutor = redisEventExecutor;
+	}
+
 	@Override
 	public void setEmbeddedValueResolver(StringValueResolver resolver) {
 		this.embeddedValueResolver = resolver;
@@ -223,6 +480,13 @@ public class RedisHttpSessionConfiguration extends SpringHttpSessionConfiguratio
 					.resolveStringValue(redisNamespaceValue);
 		}
 		this.redisFlushMode = attributes.getEnum("redisFlushMode");
+		this.redisSaveMode = attributes.getEnum("redisSaveMode");
+		this.redisExpirationMode = attributes.getEnum("redisExpirationMode");
+		this.redisEventMode = attributes.getEnum("redisEventMode");
+		this.redisStorageMode = attributes.getEnum("redisStorageMode");
+		this.compactHashValues = attributes.getBoolean("compactHashValues");
+		this.lastAccessedTimeUpdateThreshold = attributes
+				.getNumber("lastAccessedTimeUpdateThreshold").doubleValue();
 		String cleanupCron = attributes.getString("cleanupCron");
 		if (StringUtils.hasText(cleanupCron)) {
 			this.cleanupCron = cleanupCron;
@@ -233,19 +497,34 @@ public class RedisHttpSessionConfiguration extends SpringHttpSessionConfiguratio
 	public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
 		taskRegistrar.addCronTask(() -> sessionRepository().cleanupExpiredSessions(),
 				this.cleanupCron);
+		if (this.redisEventMode == RedisEventMode.EVENT_LOG) {
+			taskRegistrar.addFixedDelayTask(() -> sessionRepository().pollEvents(),
+					this.eventLogPollInterval.toMillis());
+		}
 	}
 
 	private static RedisTemplate<Object, Object> createRedisTemplate(
 			RedisConnectionFactory redisConnectionFactory,
-			RedisSerializer<Object> defaultRedisSerializer) {
+			RedisSerializer<Object> defaultRedisSerializer, boolean compactHashValues,
+			ValueCompressor valueCompressor) {
 		RedisTemplate<Object, Object> redisTemplate = new RedisTemplate<>();
 		redisTemplate.setKeySerializer(new StringRedisSerializer());
 		redisTemplate.setHashKeySerializer(new StringRedisSerializer());
 		if (defaultRedisSerializer != null) {
 			redisTemplate.setDefaultSerializer(defaultRedisSerializer);
 		}
+		if (compactHashValues) {
+			redisTemplate.setHashValueSerializer(new CompactRedisSerializer());
+		}
 		redisTemplate.setConnectionFactory(redisConnectionFactory);
 		redisTemplate.afterPropertiesSet();
+		if (valueCompressor != null) {
+			@SuppressWarnings("unchecked")
+			RedisSerializer<Object> hashValueSerializer = (RedisSerializer<Object>) redisTemplate
+					.getHashValueSerializer();
+			redisTemplate.setHashValueSerializer(
+					new CompressingRedisSerializer(hashValueSerializer, valueCompressor));
+		}
 		return redisTemplate;
 	}
 
@@ -0,0 +1,11 @@
+-- Acknowledges the records of the session event log up to the provided sequence number
+-- for the consumer group, unless later records have already been acknowledged.
+--
+-- KEYS[1] the consumer group key
+-- ARGV[1] the sequence number of the last handled record
+
+if tonumber(redis.call('GET', KEYS[1]) or '0') < tonumber(ARGV[1]) then
+	redis.call('SET', KEYS[1], ARGV[1])
+	return 1
+end
+return 0
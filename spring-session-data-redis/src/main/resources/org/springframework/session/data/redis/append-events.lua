@@ -0,0 +1,18 @@
+-- Appends records to the session event log, each prefixed by its sequence number, and
+-- trims the log to its maximum length.
+--
+-- KEYS[1] the sequence key
+-- KEYS[2] the event log sorted set key
+-- ARGV[1] the maximum length of the log, or 0 if the log is not trimmed
+-- ARGV[2..n] the records
+
+local sequence
+for i = 2, #ARGV do
+	sequence = redis.call('INCR', KEYS[1])
+	redis.call('ZADD', KEYS[2], sequence, sequence .. ':' .. ARGV[i])
+end
+local maxLength = tonumber(ARGV[1])
+if maxLength > 0 then
+	redis.call('ZREMRANGEBYRANK', KEYS[2], 0, -maxLength - 1)
+end
+return sequence
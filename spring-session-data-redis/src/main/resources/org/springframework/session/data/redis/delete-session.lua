@@ -0,0 +1,26 @@
+-- Deletes a session. The session data is kept for the expirations retention time so
+-- that it can be accessed by the session deleted event handling.
+--
+-- KEYS[1] the session key
+-- KEYS[2] the session expires key
+-- KEYS[3] the expirations key or the expirations sorted set the session is removed from
+-- KEYS[4] the principal index key the session is removed from, or empty
+-- ARGV[1] the session id, as stored in the principal index
+-- ARGV[2] the session expires key suffix, as stored in the expirations set
+-- ARGV[3] the max inactive interval hash field
+-- ARGV[4] the max inactive interval hash value of zero
+-- ARGV[5] non-empty if KEYS[3] is a sorted set
+-- ARGV[6] the number of seconds the session data is kept
+
+if KEYS[4] ~= '' then
+	redis.call('SREM', KEYS[4], ARGV[1])
+end
+if ARGV[5] ~= '' then
+	redis.call('ZREM', KEYS[3], ARGV[2])
+else
+	redis.call('SREM', KEYS[3], ARGV[2])
+end
+redis.call('DEL', KEYS[2])
+redis.call('HSET', KEYS[1], ARGV[3], ARGV[4])
+redis.call('EXPIRE', KEYS[1], tonumber(ARGV[6]))
+return 1
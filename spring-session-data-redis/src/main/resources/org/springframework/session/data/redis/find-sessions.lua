@@ -0,0 +1,11 @@
+-- Loads the hashes of multiple sessions.
+--
+-- KEYS[1..n] the session keys
+-- Returns a list containing the hash entries of each session, in the order of KEYS. The
+-- entries of a session that does not exist are empty.
+
+local sessions = {}
+for i, key in ipairs(KEYS) do
+	sessions[i] = redis.call('HGETALL', key)
+end
+return sessions
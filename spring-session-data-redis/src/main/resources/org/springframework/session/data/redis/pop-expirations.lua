@@ -0,0 +1,12 @@
+-- Removes the sessions that have expired from the expirations sorted set and returns
+-- them.
+--
+-- KEYS[1] the expirations sorted set key
+-- ARGV[1] the current time in milliseconds
+-- ARGV[2] the maximum number of sessions to remove
+
+local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+if #expired > 0 then
+	redis.call('ZREM', KEYS[1], unpack(expired))
+end
+return expired
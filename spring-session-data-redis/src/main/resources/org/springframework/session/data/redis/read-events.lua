@@ -0,0 +1,14 @@
+-- Returns the records of the session event log following the last record acknowledged
+-- by the consumer group. A new consumer group starts after the last appended record.
+--
+-- KEYS[1] the sequence key
+-- KEYS[2] the event log sorted set key
+-- KEYS[3] the consumer group key
+-- ARGV[1] the maximum number of records to return
+
+local acknowledged = redis.call('GET', KEYS[3])
+if not acknowledged then
+	acknowledged = redis.call('GET', KEYS[1]) or '0'
+	redis.call('SET', KEYS[3], acknowledged)
+end
+return redis.call('ZRANGEBYSCORE', KEYS[2], '(' .. acknowledged, '+inf', 'LIMIT', 0, ARGV[1])
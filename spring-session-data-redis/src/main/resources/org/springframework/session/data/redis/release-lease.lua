@@ -0,0 +1,9 @@
+-- Releases the expired sessions cleanup lease, if it is still held by the caller.
+--
+-- KEYS[1] the lease key
+-- ARGV[1] the lease owner
+
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+	return redis.call('DEL', KEYS[1])
+end
+return 0
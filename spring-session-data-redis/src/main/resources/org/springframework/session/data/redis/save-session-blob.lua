@@ -0,0 +1,27 @@
+-- Saves a session stored as a single value, if the stored value is still the version the
+-- session was loaded from.
+--
+-- KEYS[1] the session key
+-- KEYS[2] the original session key, differs from KEYS[1] if the session id changed
+-- ARGV[1] the header of the version the session was loaded from, or empty if new
+-- ARGV[2] the session value
+-- ARGV[3] the time to live of the session key in milliseconds, or empty if it does not
+--         expire
+
+local current = redis.call('GET', KEYS[2])
+if ARGV[1] == '' then
+	if current then
+		return 0
+	end
+elseif not current or string.sub(current, 1, #ARGV[1]) ~= ARGV[1] then
+	return 0
+end
+if KEYS[1] ~= KEYS[2] then
+	redis.call('DEL', KEYS[2])
+end
+if ARGV[3] == '' then
+	redis.call('SET', KEYS[1], ARGV[2])
+else
+	redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+end
+return 1
@@ -0,0 +1,60 @@
+-- Saves the changed attributes of a session and updates its principal index and
+-- expiration bookkeeping.
+--
+-- KEYS[1] the session key
+-- KEYS[2] the original session key, differs from KEYS[1] if the session id changed
+-- KEYS[3] the session expires key
+-- KEYS[4] the expirations key the session is removed from, or empty
+-- KEYS[5] the expirations key the session is added to, or the expirations sorted set
+-- KEYS[6] the principal index key the session is removed from, or empty
+-- KEYS[7] the principal index key the session is added to, or empty
+-- ARGV[1] the session id, as stored in the principal index
+-- ARGV[2] the session expires key suffix, as stored in the expirations set
+-- ARGV[3] the max inactive interval in seconds
+-- ARGV[4] the expiration time in milliseconds if KEYS[5] is a sorted set, otherwise empty
+-- ARGV[5] the number of seconds the expirations and the session key are retained after
+--         the session expires
+-- ARGV[6..n] the changed hash fields and their values
+
+if KEYS[1] ~= KEYS[2] then
+	redis.call('RENAME', KEYS[2], KEYS[1])
+end
+if #ARGV < 6 then
+	return 0
+end
+redis.call('HMSET', KEYS[1], unpack(ARGV, 6))
+if KEYS[6] ~= '' then
+	redis.call('SREM', KEYS[6], ARGV[1])
+end
+if KEYS[7] ~= '' then
+	redis.call('SADD', KEYS[7], ARGV[1])
+end
+if KEYS[4] ~= '' then
+	redis.call('SREM', KEYS[4], ARGV[2])
+end
+local sortedSet = ARGV[4] ~= ''
+local maxInactiveInterval = tonumber(ARGV[3])
+if maxInactiveInterval < 0 then
+	if sortedSet then
+		redis.call('ZREM', KEYS[5], ARGV[2])
+	end
+	redis.call('APPEND', KEYS[3], '')
+	redis.call('PERSIST', KEYS[3])
+	redis.call('PERSIST', KEYS[1])
+	return 1
+end
+local retainedAfterExpires = maxInactiveInterval + tonumber(ARGV[5])
+if sortedSet then
+	redis.call('ZADD', KEYS[5], ARGV[4], ARGV[2])
+else
+	redis.call('SADD', KEYS[5], ARGV[2])
+	redis.call('EXPIRE', KEYS[5], retainedAfterExpires)
+end
+if maxInactiveInterval == 0 then
+	redis.call('DEL', KEYS[3])
+else
+	redis.call('APPEND', KEYS[3], '')
+	redis.call('EXPIRE', KEYS[3], maxInactiveInterval)
+end
+redis.call('EXPIRE', KEYS[1], retainedAfterExpires)
+return 1
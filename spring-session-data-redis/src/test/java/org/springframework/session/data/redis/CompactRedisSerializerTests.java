@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CompactRedisSerializer}.
+ *
+ * @author Vedran Pavic
+ */
+public class CompactRedisSerializerTests {
+
+	@Rule
+	public final ExpectedException thrown = ExpectedException.none();
+
+	private final CompactRedisSerializer serializer = new CompactRedisSerializer();
+
+	@Test
+	public void serializeString() {
+		assertRoundTrip("attribute");
+		assertRoundTrip("");
+		assertRoundTrip("\u017eelja");
+	}
+
+	@Test
+	public void serializeLong() {
+		assertRoundTrip(0L);
+		assertRoundTrip(-1L);
+		assertRoundTrip(Long.MIN_VALUE);
+		assertRoundTrip(Long.MAX_VALUE);
+	}
+
+	@Test
+	public void serializeInteger() {
+		assertRoundTrip(1800);
+		assertRoundTrip(-1);
+		assertRoundTrip(Integer.MIN_VALUE);
+		assertRoundTrip(Integer.MAX_VALUE);
+	}
+
+	@Test
+	public void serializeBoolean() {
+		assertRoundTrip(Boolean.TRUE);
+		assertRoundTrip(Boolean.FALSE);
+	}
+
+	@Test
+	public void serializeBytes() {
+		byte[] value = new byte[] { 1, 2, 3 };
+
+		Object result = this.serializer.deserialize(this.serializer.serialize(value));
+
+		assertThat(result).isInstanceOf(byte[].class);
+		assertThat((byte[]) result).containsExactly(value);
+	}
+
+	@Test
+	public void serializeOtherType() {
+		List<String> value = new ArrayList<>(Arrays.asList("a", "b"));
+
+		byte[] bytes = this.serializer.serialize(value);
+
+		assertThat(bytes)
+				.containsExactly(new JdkSerializationRedisSerializer().serialize(value));
+		assertThat(this.serializer.deserialize(bytes)).isEqualTo(value);
+	}
+
+	@Test
+	public void serializeTimestampIsCompact() {
+		long timestamp = 1510000000000L;
+
+		assertThat(this.serializer.serialize(timestamp)).hasSize(7);
+		assertThat(new JdkSerializationRedisSerializer().serialize(timestamp).length)
+				.isGreaterThan(70);
+	}
+
+	@Test
+	public void serializeNull() {
+		assertThat(this.serializer.serialize(null)).isEmpty();
+		assertThat(this.serializer.deserialize(null)).isNull();
+		assertThat(this.serializer.deserialize(new byte[0])).isNull();
+	}
+
+	@Test
+	public void deserializeJdkSerialized() {
+		JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+
+		assertThat(this.serializer.deserialize(jdkSerializer.serialize(1510000000000L)))
+				.isEqualTo(1510000000000L);
+		assertThat(this.serializer.deserialize(jdkSerializer.serialize(1800)))
+				.isEqualTo(1800);
+		assertThat(this.serializer.deserialize(jdkSerializer.serialize("value")))
+				.isEqualTo("value");
+	}
+
+	@Test
+	public void deserializeTruncatedNumber() {
+		this.thrown.expect(SerializationException.class);
+		this.thrown.expectMessage("Truncated variable length integer");
+
+		this.serializer.deserialize(new byte[] { 2, (byte) 0x80 });
+	}
+
+	private void assertRoundTrip(Object value) {
+		assertThat(this.serializer.deserialize(this.serializer.serialize(value)))
+				.isEqualTo(value);
+	}
+
+}
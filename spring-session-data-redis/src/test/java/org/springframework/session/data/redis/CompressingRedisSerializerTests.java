@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.session.serializer.DeflateCompressionCodec;
+import org.springframework.session.serializer.ValueCompressor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link CompressingRedisSerializer}.
+ *
+ * @author Vedran Pavic
+ */
+public class CompressingRedisSerializerTests {
+
+	private static final String LARGE_VALUE = String.join("",
+			Collections.nCopies(1000, "value"));
+
+	@Rule
+	public final ExpectedException thrown = ExpectedException.none();
+
+	private final CompactRedisSerializer compactSerializer = new CompactRedisSerializer();
+
+	private final CompressingRedisSerializer serializer = new CompressingRedisSerializer(
+			this.compactSerializer, new ValueCompressor());
+
+	@Test
+	public void constructorNullDelegate() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("delegate cannot be null");
+
+		new CompressingRedisSerializer(null, new ValueCompressor());
+	}
+
+	@Test
+	public void serializeLargeValue() {
+		byte[] bytes = this.serializer.serialize(LARGE_VALUE);
+
+		assertThat(bytes[0]).isEqualTo(DeflateCompressionCodec.ID);
+		assertThat(bytes.length).isLessThan(LARGE_VALUE.length() / 10);
+		assertThat(this.serializer.deserialize(bytes)).isEqualTo(LARGE_VALUE);
+	}
+
+	@Test
+	public void serializeSmallValue() {
+		byte[] bytes = this.serializer.serialize(1500000000000L);
+
+		assertThat(bytes).isEqualTo(this.compactSerializer.serialize(1500000000000L));
+		assertThat(this.serializer.deserialize(bytes)).isEqualTo(1500000000000L);
+	}
+
+	@Test
+	public void serializeNull() {
+		assertThat(this.serializer.deserialize(this.serializer.serialize(null)))
+				.isNull();
+	}
+
+	@Test
+	public void deserializeUncompressedValue() {
+		assertThat(this.serializer
+				.deserialize(this.compactSerializer.serialize(LARGE_VALUE)))
+						.isEqualTo(LARGE_VALUE);
+	}
+
+	@Test
+	public void deserializeJdkSerializedValue() {
+		CompressingRedisSerializer serializer = new CompressingRedisSerializer(
+				new JdkSerializationRedisSerializer(), new ValueCompressor());
+		byte[] bytes = new JdkSerializationRedisSerializer().serialize(LARGE_VALUE);
+
+		assertThat(serializer.deserialize(bytes)).isEqualTo(LARGE_VALUE);
+		assertThat(serializer.deserialize(serializer.serialize(LARGE_VALUE)))
+				.isEqualTo(LARGE_VALUE);
+	}
+
+	@Test
+	public void deserializeCorruptedValue() {
+		this.thrown.expect(SerializationException.class);
+		this.thrown.expectMessage("Cannot decompress value");
+
+		this.serializer.deserialize(new byte[] { DeflateCompressionCodec.ID, 1, 2, 3 });
+	}
+
+}
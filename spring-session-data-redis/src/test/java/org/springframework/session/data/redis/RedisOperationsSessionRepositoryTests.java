@@ -16,16 +16,22 @@
 
 package org.springframework.session.data.redis;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -39,30 +45,45 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.connection.DefaultMessage;
 import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
 import org.springframework.data.redis.core.BoundHashOperations;
 import org.springframework.data.redis.core.BoundSetOperations;
 import org.springframework.data.redis.core.BoundValueOperations;
+import org.springframework.data.redis.core.BoundZSetOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.session.DefaultPrincipalNameResolver;
 import org.springframework.session.FindByIndexNameSessionRepository;
 import org.springframework.session.MapSession;
+import org.springframework.session.PrincipalNameResolver;
 import org.springframework.session.Session;
-import org.springframework.session.data.redis.RedisOperationsSessionRepository.PrincipalNameResolver;
 import org.springframework.session.data.redis.RedisOperationsSessionRepository.RedisSession;
 import org.springframework.session.events.AbstractSessionEvent;
+import org.springframework.session.events.SessionExpiredEvent;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willReturn;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
@@ -87,6 +108,8 @@ public class RedisOperationsSessionRepositoryTests {
 	@Mock
 	BoundSetOperations<Object, Object> boundSetOperations;
 	@Mock
+	BoundZSetOperations<Object, Object> boundZSetOperations;
+	@Mock
 	ApplicationEventPublisher publisher;
 	@Mock
 	RedisSerializer<Object> defaultSerializer;
@@ -94,6 +117,8 @@ public class RedisOperationsSessionRepositoryTests {
 	ArgumentCaptor<AbstractSessionEvent> event;
 	@Captor
 	ArgumentCaptor<Map<String, Object>> delta;
+	@Captor
+	ArgumentCaptor<List<Object>> keys;
 
 	private MapSession cached;
 
@@ -164,6 +189,117 @@ public class RedisOperationsSessionRepositoryTests {
 				.isEqualTo(session.getCreationTime().toEpochMilli());
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void saveNewSessionCreatedEventPayloadId() {
+		this.redisRepository.setCreatedEventPayload(RedisCreatedEventPayload.ID);
+		RedisSession session = this.redisRepository.createSession();
+		stubSaveOperations();
+		RedisConnection connection = mock(RedisConnection.class);
+		given(this.redisOperations.execute(any(RedisCallback.class)))
+				.willAnswer(invocation -> ((RedisCallback<Object>) invocation
+						.getArgument(0)).doInRedis(connection));
+
+		this.redisRepository.save(session);
+
+		verify(connection).publish(("spring:session:event:created:" + session.getId())
+				.getBytes(StandardCharsets.UTF_8), new byte[0]);
+		verify(this.redisOperations, never()).convertAndSend(anyString(), any());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void saveNewSessionCreatedEventPayloadNone() {
+		this.redisRepository.setCreatedEventPayload(RedisCreatedEventPayload.NONE);
+		RedisSession session = this.redisRepository.createSession();
+		stubSaveOperations();
+
+		this.redisRepository.save(session);
+
+		verify(this.redisOperations, never()).execute(any(RedisCallback.class));
+		verify(this.redisOperations, never()).convertAndSend(anyString(), any());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void saveNewSessionCreatedEventPayloadDefault() {
+		RedisSession session = this.redisRepository.createSession();
+		session.setAttribute("a", "b");
+		stubSaveOperations();
+
+		this.redisRepository.save(session);
+
+		ArgumentCaptor<Map<String, Object>> payload = ArgumentCaptor.forClass(Map.class);
+		verify(this.redisOperations).convertAndSend(
+				eq("spring:session:event:created:" + session.getId()), payload.capture());
+		assertThat(payload.getValue()).containsOnlyKeys(
+				RedisOperationsSessionRepository.CREATION_TIME_ATTR,
+				RedisOperationsSessionRepository.MAX_INACTIVE_ATTR,
+				RedisOperationsSessionRepository.LAST_ACCESSED_ATTR);
+		assertThat(payload.getValue().get(RedisOperationsSessionRepository.CREATION_TIME_ATTR))
+				.isEqualTo(session.getCreationTime().toEpochMilli());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void saveNewSessionCreatedEventPayloadFull() {
+		this.redisRepository.setCreatedEventPayload(RedisCreatedEventPayload.FULL);
+		RedisSession session = this.redisRepository.createSession();
+		session.setAttribute("a", "b");
+		stubSaveOperations();
+
+		this.redisRepository.save(session);
+
+		ArgumentCaptor<Map<String, Object>> payload = ArgumentCaptor.forClass(Map.class);
+		verify(this.redisOperations).convertAndSend(
+				eq("spring:session:event:created:" + session.getId()), payload.capture());
+		assertThat(payload.getValue()).hasSize(4).containsEntry(
+				RedisOperationsSessionRepository.getSessionAttrNameKey("a"), "b");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setCreatedEventPayloadNull() {
+		this.redisRepository.setCreatedEventPayload(null);
+	}
+
+	@Test
+	public void saveNewSessionEventLog() {
+		this.redisRepository.setRedisEventMode(RedisEventMode.EVENT_LOG);
+		RedisSession session = this.redisRepository.createSession();
+		session.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME,
+				"user");
+		given(this.redisOperations.boundHashOps(anyString()))
+				.willReturn(this.boundHashOperations);
+		given(this.redisOperations.boundSetOps(anyString()))
+				.willReturn(this.boundSetOperations);
+		given(this.redisOperations.boundValueOps(anyString()))
+				.willReturn(this.boundValueOperations);
+
+		this.redisRepository.save(session);
+
+		verify(this.redisOperations).execute(eq(RedisSessionScripts.APPEND_EVENTS),
+				any(RedisSerializer.class), any(RedisSerializer.class),
+				eq(Arrays.asList("spring:session:event:sequence",
+						"spring:session:event:log")),
+				any(), any());
+		verify(this.redisOperations, never()).convertAndSend(anyString(), any());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setRedisEventModeNull() {
+		this.redisRepository.setRedisEventMode(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setEventLogMaxLengthNegative() {
+		this.redisRepository.setEventLogMaxLength(-1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setEventLogConsumerGroupEmpty() {
+		this.redisRepository.setEventLogConsumerGroup(" ");
+	}
+
 	// gh-467
 	@Test
 	public void saveSessionNothingChanged() {
@@ -180,8 +316,7 @@ public class RedisOperationsSessionRepositoryTests {
 
 		String sessionKey = "spring:session:sessions:" + session.getId();
 		String backgroundExpireKey = "spring:session:expirations:"
-				+ RedisSessionExpirationPolicy.roundUpToNextMinute(
-						RedisSessionExpirationPolicy.expiresInMillis(session));
+				+ getExpirationBucket(session);
 		String destroyedTriggerKey = "spring:session:sessions:expires:" + session.getId();
 
 		given(this.redisOperations.boundHashOps(sessionKey))
@@ -193,15 +328,15 @@ public class RedisOperationsSessionRepositoryTests {
 
 		this.redisRepository.save(session);
 
-		// the actual data in the session expires 5 minutes after expiration so the data
-		// can be accessed in expiration events
+		// the actual data in the session expires 5 minutes plus the bucket interval after
+		// expiration so the data can be accessed in expiration events
 		// if the session is retrieved and expired it will not be returned since
 		// findById checks if it is expired
-		long fiveMinutesAfterExpires = session.getMaxInactiveInterval().plusMinutes(5)
+		long retainedAfterExpires = session.getMaxInactiveInterval().plusMinutes(6)
 				.getSeconds();
-		verify(this.boundHashOperations).expire(fiveMinutesAfterExpires,
+		verify(this.boundHashOperations).expire(retainedAfterExpires,
 				TimeUnit.SECONDS);
-		verify(this.boundSetOperations).expire(fiveMinutesAfterExpires, TimeUnit.SECONDS);
+		verify(this.boundSetOperations).expire(retainedAfterExpires, TimeUnit.SECONDS);
 		verify(this.boundSetOperations).add("expires:" + session.getId());
 		verify(this.boundValueOperations).expire(1800L, TimeUnit.SECONDS);
 		verify(this.boundValueOperations).append("");
@@ -223,12 +358,12 @@ public class RedisOperationsSessionRepositoryTests {
 
 		this.redisRepository.save(session);
 
-		// the actual data in the session expires 5 minutes after expiration so the data
-		// can be accessed in expiration events
+		// the actual data in the session expires 5 minutes plus the bucket interval after
+		// expiration so the data can be accessed in expiration events
 		// if the session is retrieved and expired it will not be returned since
 		// findById checks if it is expired
 		verify(this.boundHashOperations).expire(
-				session.getMaxInactiveInterval().plusMinutes(5).getSeconds(),
+				session.getMaxInactiveInterval().plusMinutes(6).getSeconds(),
 				TimeUnit.SECONDS);
 	}
 
@@ -424,10 +559,12 @@ public class RedisOperationsSessionRepositoryTests {
 				RedisOperationsSessionRepository.LAST_ACCESSED_ATTR,
 				Instant.now().minus(5, ChronoUnit.MINUTES).toEpochMilli());
 		given(this.boundHashOperations.entries()).willReturn(map);
+		givenPipelinedEntries();
 
 		assertThat(this.redisRepository.findByIndexNameAndIndexValue(
 				FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "principal"))
 						.isEmpty();
+		verify(this.boundSetOperations, never()).remove(any());
 	}
 
 	@Test
@@ -446,6 +583,7 @@ public class RedisOperationsSessionRepositoryTests {
 				RedisOperationsSessionRepository.MAX_INACTIVE_ATTR, (int) maxInactive.getSeconds(),
 				RedisOperationsSessionRepository.LAST_ACCESSED_ATTR, lastAccessed.toEpochMilli());
 		given(this.boundHashOperations.entries()).willReturn(map);
+		givenPipelinedEntries();
 
 		Map<String, RedisSession> sessionIdToSessions = this.redisRepository
 				.findByIndexNameAndIndexValue(
@@ -462,21 +600,113 @@ public class RedisOperationsSessionRepositoryTests {
 	}
 
 	@Test
-	public void cleanupExpiredSessions() {
-		String expiredId = "expired-id";
+	public void findByPrincipalNamePipeliningUnsupported() {
+		MapSession expected = new MapSession("some-id");
+		given(this.redisOperations.boundSetOps(anyString()))
+				.willReturn(this.boundSetOperations);
+		given(this.boundSetOperations.members())
+				.willReturn(Collections.singleton(expected.getId()));
+		given(this.redisOperations.boundHashOps(getKey(expected.getId())))
+				.willReturn(this.boundHashOperations);
+		Map map = map(RedisOperationsSessionRepository.CREATION_TIME_ATTR,
+				expected.getCreationTime().toEpochMilli(),
+				RedisOperationsSessionRepository.MAX_INACTIVE_ATTR,
+				(int) expected.getMaxInactiveInterval().getSeconds(),
+				RedisOperationsSessionRepository.LAST_ACCESSED_ATTR,
+				expected.getLastAccessedTime().toEpochMilli());
+		given(this.boundHashOperations.entries()).willReturn(map);
+		given(this.redisOperations.executePipelined(any(SessionCallback.class)))
+				.willThrow(new UnsupportedOperationException());
+
+		for (int i = 0; i < 2; i++) {
+			assertThat(this.redisRepository.findByIndexNameAndIndexValue(
+					FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME,
+					"principal")).containsOnlyKeys(expected.getId());
+		}
+		verify(this.redisOperations).executePipelined(any(SessionCallback.class));
+		verify(this.boundHashOperations, times(2)).entries();
+	}
+
+	@Test
+	public void findByPrincipalNameRemovesStaleSessions() {
+		String sessionId = "some-id";
+		String staleId = "stale-id";
+		MapSession expected = new MapSession(sessionId);
 		given(this.redisOperations.boundSetOps(anyString()))
 				.willReturn(this.boundSetOperations);
+		given(this.boundSetOperations.members())
+				.willReturn(new HashSet<>(Arrays.asList(sessionId, staleId)));
+		BoundHashOperations<Object, Object, Object> staleHashOperations = mock(
+				BoundHashOperations.class);
+		given(this.redisOperations.boundHashOps(getKey(sessionId)))
+				.willReturn(this.boundHashOperations);
+		given(this.redisOperations.boundHashOps(getKey(staleId)))
+				.willReturn(staleHashOperations);
+		Map map = map(RedisOperationsSessionRepository.CREATION_TIME_ATTR,
+				expected.getCreationTime().toEpochMilli(),
+				RedisOperationsSessionRepository.MAX_INACTIVE_ATTR,
+				(int) expected.getMaxInactiveInterval().getSeconds(),
+				RedisOperationsSessionRepository.LAST_ACCESSED_ATTR,
+				expected.getLastAccessedTime().toEpochMilli());
+		given(this.boundHashOperations.entries()).willReturn(map);
+		given(staleHashOperations.entries()).willReturn(Collections.emptyMap());
+		given(this.redisOperations.executePipelined(any(SessionCallback.class)))
+				.willAnswer(invocation -> {
+					SessionCallback callback = invocation.getArgument(0);
+					callback.execute(this.redisOperations);
+					return new HashSet<>(Arrays.asList(sessionId, staleId)).stream()
+							.map(id -> id.equals(sessionId) ? map
+									: Collections.emptyMap())
+							.collect(Collectors.toList());
+				});
+
+		Map<String, RedisSession> sessionIdToSessions = this.redisRepository
+				.findByIndexNameAndIndexValue(
+						FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME,
+						"principal");
+
+		assertThat(sessionIdToSessions).containsOnlyKeys(sessionId);
+		verify(this.redisOperations).executePipelined(any(SessionCallback.class));
+		verify(this.boundSetOperations).remove(staleId);
+	}
+
+	@Test
+	public void findByPrincipalNameNoSessions() {
+		given(this.redisOperations.boundSetOps(anyString()))
+				.willReturn(this.boundSetOperations);
+		given(this.boundSetOperations.members()).willReturn(Collections.emptySet());
+
+		assertThat(this.redisRepository.findByIndexNameAndIndexValue(
+				FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "principal"))
+						.isEmpty();
+		verify(this.redisOperations, never())
+				.executePipelined(any(SessionCallback.class));
+	}
 
-		Set<Object> expiredIds = new HashSet<>(
-				Arrays.asList("expired-key1", "expired-key2"));
-		given(this.boundSetOperations.members()).willReturn(expiredIds);
+	@Test
+	public void cleanupExpiredSessions() {
+		willReturn(new StringRedisSerializer()).given(this.redisOperations)
+				.getKeySerializer();
+		willAnswer(invocation -> invocation.<RedisCallback<?>>getArgument(0)
+				.doInRedis(this.connection)).given(this.redisOperations)
+						.execute(any(RedisCallback.class));
+		given(this.connection.set(any(), any(), any(Expiration.class),
+				any(SetOption.class))).willReturn(true);
+		List<String> expiredIds = Arrays.asList("expired-key1", "expired-key2");
+		Deque<List<Object>> results = new ArrayDeque<>();
+		results.add(new ArrayList<>(expiredIds));
+		results.add(Arrays.asList(true, true));
+		willAnswer(invocation -> {
+			invocation.<RedisCallback<?>>getArgument(0).doInRedis(this.connection);
+			return results.isEmpty() ? Collections.emptyList() : results.remove();
+		}).given(this.redisOperations).executePipelined(any(RedisCallback.class));
 
 		this.redisRepository.cleanupExpiredSessions();
 
-		for (Object id : expiredIds) {
+		for (String id : expiredIds) {
 			String expiredKey = "spring:session:sessions:" + id;
 			// https://github.com/spring-projects/spring-session/issues/93
-			verify(this.redisOperations).hasKey(expiredKey);
+			verify(this.connection).exists(expiredKey.getBytes(StandardCharsets.UTF_8));
 		}
 	}
 
@@ -498,6 +728,20 @@ public class RedisOperationsSessionRepositoryTests {
 		assertThat(this.event.getValue().getSessionId()).isEqualTo(session.getId());
 	}
 
+	@Test
+	public void onMessageCreatedEmptyBody() throws Exception {
+		String channel = "spring:session:event:created:" + this.cached.getId();
+		DefaultMessage message = new DefaultMessage(
+				channel.getBytes(StandardCharsets.UTF_8), new byte[0]);
+		this.redisRepository.setApplicationEventPublisher(this.publisher);
+
+		this.redisRepository.onMessage(message, null);
+
+		verify(this.publisher).publishEvent(this.event.capture());
+		assertThat(this.event.getValue().getSessionId()).isEqualTo(this.cached.getId());
+		assertThat(this.event.getValue().getSession().getAttributeNames()).isEmpty();
+	}
+
 	// gh-309
 	@Test
 	public void onMessageCreatedCustomSerializer() throws Exception {
@@ -517,9 +761,176 @@ public class RedisOperationsSessionRepositoryTests {
 		verify(this.defaultSerializer).deserialize(body);
 	}
 
+	@Test
+	public void onMessageEventExecutorCoalescesDestroyed() throws Exception {
+		Deque<Runnable> tasks = new ArrayDeque<>();
+		this.redisRepository.setEventExecutor(tasks::add);
+		this.redisRepository.setEventConcurrency(1);
+		this.redisRepository.setApplicationEventPublisher(this.publisher);
+		given(this.redisOperations.boundHashOps(anyString()))
+				.willReturn(this.boundHashOperations);
+		given(this.redisOperations.boundSetOps(anyString()))
+				.willReturn(this.boundSetOperations);
+		Map<Object, Object> entries = map(
+				RedisOperationsSessionRepository.CREATION_TIME_ATTR, 1404360000000L,
+				RedisOperationsSessionRepository.MAX_INACTIVE_ATTR, 1800,
+				RedisOperationsSessionRepository.LAST_ACCESSED_ATTR, 1404360000000L,
+				RedisOperationsSessionRepository.SESSION_ATTR_PREFIX
+						+ FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME,
+				"user");
+		Deque<List<Object>> results = new ArrayDeque<>();
+		results.add(Arrays.asList(entries, Collections.emptyMap()));
+		results.add(Collections.emptyList());
+		given(this.redisOperations.executePipelined(any(SessionCallback.class)))
+				.willAnswer(invocation -> {
+					SessionCallback callback = invocation.getArgument(0);
+					callback.execute(this.redisOperations);
+					return results.remove();
+				});
+
+		this.redisRepository.onMessage(keyspaceMessage("expired", "session-id"), null);
+		this.redisRepository.onMessage(keyspaceMessage("del", "session-id"), null);
+		this.redisRepository.onMessage(keyspaceMessage("expired", "missing-id"), null);
+
+		verifyZeroInteractions(this.publisher);
+		assertThat(this.redisRepository.getPendingEventCount()).isEqualTo(3);
+
+		while (!tasks.isEmpty()) {
+			tasks.remove().run();
+		}
+
+		verify(this.redisOperations).boundHashOps("spring:session:sessions:session-id");
+		verify(this.redisOperations).boundHashOps("spring:session:sessions:missing-id");
+		verify(this.redisOperations).boundSetOps(
+				"spring:session:index:" + FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME
+						+ ":user");
+		verify(this.boundSetOperations).remove("session-id");
+		verify(this.publisher).publishEvent(this.event.capture());
+		assertThat(this.event.getValue()).isInstanceOf(SessionExpiredEvent.class);
+		assertThat(this.event.getValue().getSessionId()).isEqualTo("session-id");
+		assertThat(this.redisRepository.getPendingEventCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void onMessageEventExecutorPipeliningUnsupported() throws Exception {
+		Deque<Runnable> tasks = new ArrayDeque<>();
+		this.redisRepository.setEventExecutor(tasks::add);
+		this.redisRepository.setEventConcurrency(1);
+		this.redisRepository.setApplicationEventPublisher(this.publisher);
+		given(this.redisOperations.boundHashOps(anyString()))
+				.willReturn(this.boundHashOperations);
+		given(this.redisOperations.boundSetOps(anyString()))
+				.willReturn(this.boundSetOperations);
+		Map<Object, Object> entries = map(
+				RedisOperationsSessionRepository.CREATION_TIME_ATTR, 1404360000000L,
+				RedisOperationsSessionRepository.MAX_INACTIVE_ATTR, 1800,
+				RedisOperationsSessionRepository.LAST_ACCESSED_ATTR, 1404360000000L,
+				RedisOperationsSessionRepository.SESSION_ATTR_PREFIX
+						+ FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME,
+				"user");
+		given(this.boundHashOperations.entries()).willReturn(entries);
+		given(this.redisOperations.executePipelined(any(SessionCallback.class)))
+				.willThrow(new UnsupportedOperationException());
+
+		this.redisRepository.onMessage(keyspaceMessage("expired", "session-id"), null);
+		while (!tasks.isEmpty()) {
+			tasks.remove().run();
+		}
+
+		verify(this.redisOperations).executePipelined(any(SessionCallback.class));
+		verify(this.boundSetOperations).remove("session-id");
+		verify(this.publisher).publishEvent(this.event.capture());
+		assertThat(this.event.getValue()).isInstanceOf(SessionExpiredEvent.class);
+	}
+
+	@Test
+	public void onMessageEventExecutorDropsOverflow() throws Exception {
+		this.redisRepository.setEventExecutor(task -> {
+		});
+		this.redisRepository.setEventConcurrency(1);
+		this.redisRepository.setEventQueueCapacity(1);
+		this.redisRepository.setEventOverflowPolicy(RedisEventOverflowPolicy.DROP);
+
+		this.redisRepository.onMessage(keyspaceMessage("expired", "first"), null);
+		this.redisRepository.onMessage(keyspaceMessage("expired", "second"), null);
+
+		assertThat(this.redisRepository.getPendingEventCount()).isEqualTo(1);
+		assertThat(this.redisRepository.getDroppedEventCount()).isEqualTo(1);
+		verifyZeroInteractions(this.redisOperations);
+	}
+
+	@Test
+	public void onMessageKeyspaceNotification() throws Exception {
+		this.redisRepository.setEventExecutor(task -> {
+		});
+		String channel = "__keyspace@0__:spring:session:sessions:expires:session-id";
+
+		this.redisRepository.onMessage(new DefaultMessage(
+				channel.getBytes(StandardCharsets.UTF_8),
+				"expire".getBytes(StandardCharsets.UTF_8)), null);
+
+		assertThat(this.redisRepository.getPendingEventCount()).isEqualTo(0);
+
+		this.redisRepository.onMessage(new DefaultMessage(
+				channel.getBytes(StandardCharsets.UTF_8),
+				"expired".getBytes(StandardCharsets.UTF_8)), null);
+
+		assertThat(this.redisRepository.getPendingEventCount()).isEqualTo(1);
+		verifyZeroInteractions(this.redisOperations);
+	}
+
+	@Test
+	public void getSessionExpiresChannelPattern() {
+		assertThat(this.redisRepository.getSessionExpiresChannelPattern(
+				Collections.singleton(1), 4)).isEqualTo(
+						"__keyspace@*__:spring:session:sessions:expires:[159d]*");
+		assertThat(this.redisRepository.getSessionExpiresChannelPattern(
+				Arrays.asList(0, 2), 3)).isEqualTo(
+						"__keyspace@*__:spring:session:sessions:expires:[0235689bcef]*");
+		assertThat(this.redisRepository.getSessionExpiresChannelPattern(
+				Collections.singleton(0), 1)).isEqualTo(
+						"__keyspace@*__:spring:session:sessions:expires:[0123456789abcdef]*");
+	}
+
+	@Test
+	public void getSessionExpiresChannelPatternEscapesNamespace() {
+		this.redisRepository.setRedisKeyNamespace("app[*]");
+
+		assertThat(this.redisRepository.getSessionExpiresChannelPattern(
+				Collections.singleton(0), 16)).isEqualTo(
+						"__keyspace@*__:app\\[\\*\\]:sessions:expires:[0]*");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void getSessionExpiresChannelPatternEmptyPartitions() {
+		this.redisRepository.getSessionExpiresChannelPattern(Collections.emptySet(), 4);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void getSessionExpiresChannelPatternInvalidPartitionCount() {
+		this.redisRepository.getSessionExpiresChannelPattern(Collections.singleton(0),
+				17);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void getSessionExpiresChannelPatternInvalidPartition() {
+		this.redisRepository.getSessionExpiresChannelPattern(Collections.singleton(4),
+				4);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setEventConcurrencyInvalid() {
+		this.redisRepository.setEventConcurrency(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setEventOverflowPolicyNull() {
+		this.redisRepository.setEventOverflowPolicy(null);
+	}
+
 	@Test
 	public void resolvePrincipalIndex() {
-		PrincipalNameResolver resolver = RedisOperationsSessionRepository.PRINCIPAL_NAME_RESOLVER;
+		PrincipalNameResolver resolver = new DefaultPrincipalNameResolver();
 		String username = "username";
 		RedisSession session = this.redisRepository.createSession();
 		session.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME,
@@ -536,7 +947,7 @@ public class RedisOperationsSessionRepositoryTests {
 		SecurityContext context = new SecurityContextImpl();
 		context.setAuthentication(authentication);
 
-		PrincipalNameResolver resolver = RedisOperationsSessionRepository.PRINCIPAL_NAME_RESOLVER;
+		PrincipalNameResolver resolver = new DefaultPrincipalNameResolver();
 
 		RedisSession session = this.redisRepository.createSession();
 		session.setAttribute(SPRING_SECURITY_CONTEXT_KEY, context);
@@ -693,6 +1104,370 @@ public class RedisOperationsSessionRepositoryTests {
 		this.redisRepository.setRedisFlushMode(null);
 	}
 
+	@Test(expected = IllegalArgumentException.class)
+	public void setRedisSaveModeNull() {
+		this.redisRepository.setRedisSaveMode(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setLastAccessedTimeUpdateThresholdInvalid() {
+		this.redisRepository.setLastAccessedTimeUpdateThreshold(1);
+	}
+
+	@Test
+	public void saveLastAccessChangedBelowUpdateThreshold() {
+		this.redisRepository.setLastAccessedTimeUpdateThreshold(0.5);
+		RedisSession session = givenSavedSession();
+		session.setLastAccessedTime(session.getLastAccessedTime().plusSeconds(60));
+
+		this.redisRepository.save(session);
+
+		verify(this.boundHashOperations, never()).putAll(any());
+		verify(this.redisOperations, never()).boundSetOps(anyString());
+		verify(this.redisOperations, never()).boundValueOps(anyString());
+	}
+
+	@Test
+	public void saveLastAccessChangedAboveUpdateThreshold() {
+		this.redisRepository.setLastAccessedTimeUpdateThreshold(0.5);
+		RedisSession session = givenSavedSession();
+		session.setLastAccessedTime(session.getLastAccessedTime().plusSeconds(901));
+		given(this.redisOperations.boundSetOps(anyString()))
+				.willReturn(this.boundSetOperations);
+		given(this.redisOperations.boundValueOps(anyString()))
+				.willReturn(this.boundValueOperations);
+
+		this.redisRepository.save(session);
+
+		assertThat(getDelta())
+				.isEqualTo(map(RedisOperationsSessionRepository.LAST_ACCESSED_ATTR,
+						session.getLastAccessedTime().toEpochMilli()));
+	}
+
+	@Test
+	public void saveAttributeChangedBelowUpdateThreshold() {
+		this.redisRepository.setLastAccessedTimeUpdateThreshold(0.5);
+		RedisSession session = givenSavedSession();
+		session.setLastAccessedTime(session.getLastAccessedTime().plusSeconds(60));
+		session.setAttribute("attrName", "attrValue");
+		given(this.redisOperations.boundSetOps(anyString()))
+				.willReturn(this.boundSetOperations);
+		given(this.redisOperations.boundValueOps(anyString()))
+				.willReturn(this.boundValueOperations);
+
+		this.redisRepository.save(session);
+
+		assertThat(getDelta()).isEqualTo(map(
+				RedisOperationsSessionRepository.LAST_ACCESSED_ATTR,
+				session.getLastAccessedTime().toEpochMilli(),
+				RedisOperationsSessionRepository.getSessionAttrNameKey("attrName"),
+				"attrValue"));
+	}
+
+	@Test
+	public void saveModePipelined() {
+		given(this.redisOperations.boundHashOps(anyString()))
+				.willReturn(this.boundHashOperations);
+		given(this.redisOperations.boundSetOps(anyString()))
+				.willReturn(this.boundSetOperations);
+		given(this.redisOperations.boundValueOps(anyString()))
+				.willReturn(this.boundValueOperations);
+		given(this.redisOperations.executePipelined(any(SessionCallback.class)))
+				.willAnswer(invocation -> {
+					SessionCallback callback = invocation.getArgument(0);
+					callback.execute(this.redisOperations);
+					return Collections.emptyList();
+				});
+
+		this.redisRepository.setRedisSaveMode(RedisSaveMode.PIPELINED);
+		RedisSession session = this.redisRepository.createSession();
+		this.redisRepository.save(session);
+
+		verify(this.redisOperations).executePipelined(any(SessionCallback.class));
+		assertThat(getDelta().size()).isEqualTo(3);
+		verify(this.boundSetOperations).add("expires:" + session.getId());
+		verify(this.boundValueOperations).append("");
+	}
+
+	@Test
+	public void saveModeTransactional() {
+		given(this.redisOperations.boundHashOps(anyString()))
+				.willReturn(this.boundHashOperations);
+		given(this.redisOperations.boundSetOps(anyString()))
+				.willReturn(this.boundSetOperations);
+		given(this.redisOperations.boundValueOps(anyString()))
+				.willReturn(this.boundValueOperations);
+		given(this.redisOperations.execute(any(SessionCallback.class)))
+				.willAnswer(invocation -> {
+					SessionCallback callback = invocation.getArgument(0);
+					return callback.execute(this.redisOperations);
+				});
+
+		this.redisRepository.setRedisSaveMode(RedisSaveMode.TRANSACTIONAL);
+		RedisSession session = this.redisRepository.createSession();
+		this.redisRepository.save(session);
+
+		verify(this.redisOperations).multi();
+		assertThat(getDelta().size()).isEqualTo(3);
+		verify(this.redisOperations).exec();
+	}
+
+	@Test
+	public void saveModeScripted() {
+		given(this.redisOperations.getValueSerializer())
+				.willReturn((RedisSerializer) new JdkSerializationRedisSerializer());
+		given(this.redisOperations.getHashKeySerializer())
+				.willReturn((RedisSerializer) new StringRedisSerializer());
+		given(this.redisOperations.getHashValueSerializer())
+				.willReturn((RedisSerializer) new JdkSerializationRedisSerializer());
+
+		this.redisRepository.setRedisSaveMode(RedisSaveMode.SCRIPTED);
+		RedisSession session = this.redisRepository.createSession();
+		this.redisRepository.save(session);
+
+		verify(this.redisOperations).execute(eq(RedisSessionScripts.SAVE_SESSION),
+				any(RedisSerializer.class), any(RedisSerializer.class),
+				this.keys.capture(), any());
+		String id = session.getId();
+		assertThat(this.keys.getValue()).containsExactly(getKey(id), getKey(id),
+				getKey("expires:" + id), "",
+				"spring:session:expirations:"
+						+ getExpirationBucket(session),
+				"", "");
+		verify(this.redisOperations, never()).boundHashOps(anyString());
+	}
+
+	@Test
+	public void saveModeScriptedSortedSet() {
+		given(this.redisOperations.getValueSerializer())
+				.willReturn((RedisSerializer) new JdkSerializationRedisSerializer());
+		given(this.redisOperations.getHashKeySerializer())
+				.willReturn((RedisSerializer) new StringRedisSerializer());
+		given(this.redisOperations.getHashValueSerializer())
+				.willReturn((RedisSerializer) new JdkSerializationRedisSerializer());
+
+		this.redisRepository.setRedisSaveMode(RedisSaveMode.SCRIPTED);
+		this.redisRepository.setRedisExpirationMode(RedisExpirationMode.SORTED_SET);
+		RedisSession session = this.redisRepository.createSession();
+		this.redisRepository.save(session);
+
+		verify(this.redisOperations).execute(eq(RedisSessionScripts.SAVE_SESSION),
+				any(RedisSerializer.class), any(RedisSerializer.class),
+				this.keys.capture(), any());
+		String id = session.getId();
+		assertThat(this.keys.getValue()).containsExactly(getKey(id), getKey(id),
+				getKey("expires:" + id), "", "spring:session:expirations", "", "");
+		verify(this.redisOperations, never()).boundZSetOps(anyString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setRedisStorageModeNull() {
+		this.redisRepository.setRedisStorageMode(null);
+	}
+
+	@Test
+	public void saveModeBlob() {
+		given(this.redisOperations.getHashValueSerializer())
+				.willReturn((RedisSerializer) new JdkSerializationRedisSerializer());
+		given(this.redisOperations.boundSetOps(anyString()))
+				.willReturn(this.boundSetOperations);
+		given(this.redisOperations.boundValueOps(anyString()))
+				.willReturn(this.boundValueOperations);
+		given(this.redisOperations.execute(eq(RedisSessionScripts.SAVE_SESSION_BLOB),
+				any(RedisSerializer.class), any(RedisSerializer.class), anyList(), any()))
+				.willReturn(1L);
+
+		this.redisRepository.setRedisStorageMode(RedisStorageMode.BLOB);
+		RedisSession session = this.redisRepository.createSession();
+		session.setAttribute("a", "b");
+		this.redisRepository.save(session);
+
+		verify(this.redisOperations).execute(eq(RedisSessionScripts.SAVE_SESSION_BLOB),
+				any(RedisSerializer.class), any(RedisSerializer.class),
+				this.keys.capture(), any());
+		String id = session.getId();
+		assertThat(this.keys.getValue()).containsExactly(getKey(id), getKey(id));
+		verify(this.boundSetOperations).add("expires:" + id);
+		verify(this.redisOperations, never()).boundHashOps(anyString());
+	}
+
+	@Test
+	public void findByIdModeBlob() {
+		given(this.redisOperations.getKeySerializer())
+				.willReturn((RedisSerializer) new StringRedisSerializer());
+		given(this.redisOperations.getHashValueSerializer())
+				.willReturn((RedisSerializer) new JdkSerializationRedisSerializer());
+		byte[] blob = encodeBlob(1, "a", "b");
+		given(this.redisOperations.execute(any(RedisCallback.class))).willReturn(blob);
+
+		this.redisRepository.setRedisStorageMode(RedisStorageMode.BLOB);
+		this.redisRepository.setLazyAttributeLoading(true);
+		RedisSession session = this.redisRepository.findById(this.cached.getId());
+
+		assertThat(session.getId()).isEqualTo(this.cached.getId());
+		assertThat(session.getCreationTime()).isEqualTo(this.cached.getCreationTime());
+		assertThat(session.getAttributeNames()).containsOnly("a");
+		assertThat(session.<String>getAttribute("a")).isEqualTo("b");
+		verify(this.redisOperations, never()).boundHashOps(anyString());
+	}
+
+	@Test
+	public void saveModeBlobMergesConcurrentSave() {
+		given(this.redisOperations.getKeySerializer())
+				.willReturn((RedisSerializer) new StringRedisSerializer());
+		given(this.redisOperations.getHashValueSerializer())
+				.willReturn((RedisSerializer) new JdkSerializationRedisSerializer());
+		given(this.redisOperations.boundSetOps(anyString()))
+				.willReturn(this.boundSetOperations);
+		given(this.redisOperations.boundValueOps(anyString()))
+				.willReturn(this.boundValueOperations);
+		byte[] loaded = encodeBlob(1, "a", "b");
+		byte[] latest = encodeBlob(2, "a", "b", "c", "d");
+		given(this.redisOperations.execute(any(RedisCallback.class)))
+				.willReturn(loaded, latest);
+		given(this.redisOperations.execute(eq(RedisSessionScripts.SAVE_SESSION_BLOB),
+				any(RedisSerializer.class), any(RedisSerializer.class), anyList(), any()))
+				.willReturn(0L, 1L);
+
+		this.redisRepository.setRedisStorageMode(RedisStorageMode.BLOB);
+		RedisSession session = this.redisRepository.findById(this.cached.getId());
+		session.removeAttribute("a");
+		session.setAttribute("e", "f");
+		this.redisRepository.save(session);
+
+		verify(this.redisOperations, times(2)).execute(
+				eq(RedisSessionScripts.SAVE_SESSION_BLOB), any(RedisSerializer.class),
+				any(RedisSerializer.class), anyList(), any());
+		assertThat(session.getAttributeNames()).containsOnly("c", "e");
+	}
+
+	@Test
+	public void saveModeBlobDeletedBetweenLoadAndSave() {
+		given(this.redisOperations.getKeySerializer())
+				.willReturn((RedisSerializer) new StringRedisSerializer());
+		given(this.redisOperations.getHashValueSerializer())
+				.willReturn((RedisSerializer) new JdkSerializationRedisSerializer());
+		byte[] loaded = encodeBlob(1, "a", "b");
+		given(this.redisOperations.execute(any(RedisCallback.class)))
+				.willReturn(loaded, null);
+		given(this.redisOperations.execute(eq(RedisSessionScripts.SAVE_SESSION_BLOB),
+				any(RedisSerializer.class), any(RedisSerializer.class), anyList(), any()))
+				.willReturn(0L);
+
+		this.redisRepository.setRedisStorageMode(RedisStorageMode.BLOB);
+		RedisSession session = this.redisRepository.findById(this.cached.getId());
+		session.setAttribute(
+				FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "user");
+		this.redisRepository.save(session);
+		this.redisRepository.save(session);
+
+		verify(this.redisOperations, times(1)).execute(
+				eq(RedisSessionScripts.SAVE_SESSION_BLOB), any(RedisSerializer.class),
+				any(RedisSerializer.class), anyList(), any());
+		verify(this.redisOperations, never()).boundSetOps(anyString());
+		verify(this.redisOperations, never()).boundValueOps(anyString());
+	}
+
+	@Test
+	public void deleteModeScripted() {
+		MapSession expected = new MapSession();
+		given(this.redisOperations.boundHashOps(anyString()))
+				.willReturn(this.boundHashOperations);
+		Map map = map(RedisOperationsSessionRepository.CREATION_TIME_ATTR,
+				expected.getCreationTime().toEpochMilli(),
+				RedisOperationsSessionRepository.MAX_INACTIVE_ATTR,
+				(int) expected.getMaxInactiveInterval().getSeconds(),
+				RedisOperationsSessionRepository.LAST_ACCESSED_ATTR,
+				expected.getLastAccessedTime().toEpochMilli());
+		given(this.boundHashOperations.entries()).willReturn(map);
+		given(this.redisOperations.getValueSerializer())
+				.willReturn((RedisSerializer) new JdkSerializationRedisSerializer());
+		given(this.redisOperations.getHashKeySerializer())
+				.willReturn((RedisSerializer) new StringRedisSerializer());
+		given(this.redisOperations.getHashValueSerializer())
+				.willReturn((RedisSerializer) new JdkSerializationRedisSerializer());
+
+		this.redisRepository.setRedisSaveMode(RedisSaveMode.SCRIPTED);
+		String id = expected.getId();
+		this.redisRepository.deleteById(id);
+
+		ArgumentCaptor<Object> args = ArgumentCaptor.forClass(Object.class);
+		verify(this.redisOperations).execute(eq(RedisSessionScripts.DELETE_SESSION),
+				any(RedisSerializer.class), any(RedisSerializer.class),
+				this.keys.capture(), args.capture());
+		assertThat(this.keys.getValue()).containsExactly(getKey(id),
+				getKey("expires:" + id),
+				"spring:session:expirations:"
+						+ getExpirationBucket(expected),
+				"");
+		assertThat(args.getAllValues()).hasSize(6);
+		assertThat((byte[]) args.getAllValues().get(5))
+				.isEqualTo(RedisSessionScripts.serializeNumber(360));
+		verify(this.boundHashOperations, never()).putAll(any());
+		verify(this.redisOperations, never()).delete(anyString());
+	}
+
+	@Test
+	public void findByPrincipalNameModeScripted() {
+		Instant lastAccessed = Instant.now().minusMillis(10);
+		Instant createdTime = lastAccessed.minusMillis(10);
+		Duration maxInactive = Duration.ofHours(1);
+		String sessionId = "some-id";
+		RedisSerializer<Object> hashValueSerializer = new JdkSerializationRedisSerializer();
+		RedisSerializer<String> hashKeySerializer = new StringRedisSerializer();
+		given(this.redisOperations.boundSetOps(anyString()))
+				.willReturn(this.boundSetOperations);
+		given(this.boundSetOperations.members())
+				.willReturn(new HashSet<>(Arrays.asList(sessionId, "missing-id")));
+		given(this.redisOperations.getHashKeySerializer())
+				.willReturn((RedisSerializer) hashKeySerializer);
+		given(this.redisOperations.getHashValueSerializer())
+				.willReturn((RedisSerializer) hashValueSerializer);
+		given(this.redisOperations.execute(eq(RedisSessionScripts.FIND_SESSIONS),
+				any(RedisSerializer.class), any(RedisSerializer.class), anyList(), any()))
+				.willAnswer(invocation -> {
+					List<Object> keys = invocation.getArgument(3);
+					return keys.stream().map(key -> !key.equals(getKey(sessionId))
+							? Collections.emptyList()
+							: Arrays.asList(
+									hashKeySerializer.serialize(
+											RedisOperationsSessionRepository.CREATION_TIME_ATTR),
+									hashValueSerializer.serialize(createdTime.toEpochMilli()),
+									hashKeySerializer.serialize(
+											RedisOperationsSessionRepository.MAX_INACTIVE_ATTR),
+									hashValueSerializer.serialize((int) maxInactive.getSeconds()),
+									hashKeySerializer.serialize(
+											RedisOperationsSessionRepository.LAST_ACCESSED_ATTR),
+									hashValueSerializer.serialize(lastAccessed.toEpochMilli())))
+							.collect(Collectors.toList());
+				});
+
+		this.redisRepository.setRedisSaveMode(RedisSaveMode.SCRIPTED);
+		Map<String, RedisSession> sessionIdToSessions = this.redisRepository
+				.findByIndexNameAndIndexValue(
+						FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME,
+						"principal");
+
+		assertThat(sessionIdToSessions).hasSize(1);
+		RedisSession session = sessionIdToSessions.get(sessionId);
+		assertThat(session).isNotNull();
+		assertThat(session.getMaxInactiveInterval()).isEqualTo(maxInactive);
+		assertThat(session.getCreationTime().toEpochMilli())
+				.isEqualTo(createdTime.toEpochMilli());
+		verify(this.redisOperations, never()).boundHashOps(anyString());
+		verify(this.boundSetOperations).remove("missing-id");
+	}
+
+	@Test
+	public void saveModePipelinedNothingChanged() {
+		this.redisRepository.setRedisSaveMode(RedisSaveMode.PIPELINED);
+		RedisSession session = this.redisRepository.new RedisSession(this.cached);
+
+		this.redisRepository.save(session);
+
+		verifyZeroInteractions(this.redisOperations);
+	}
+
 	@Test
 	public void changeRedisNamespace() {
 		String namespace = "foo:bar";
@@ -723,10 +1498,211 @@ public class RedisOperationsSessionRepositoryTests {
 		this.redisRepository.setRedisKeyNamespace(" ");
 	}
 
+	@Test(expected = IllegalArgumentException.class)
+	public void setPrefetchedAttributeNamesNull() {
+		this.redisRepository.setPrefetchedAttributeNames(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setPrincipalNameResolverNull() {
+		this.redisRepository.setPrincipalNameResolver(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setRedisExpirationModeNull() {
+		this.redisRepository.setRedisExpirationMode(null);
+	}
+
+	@Test
+	public void countExpiringSessionsSortedSet() {
+		given(this.redisOperations.boundZSetOps("spring:session:expirations"))
+				.willReturn(this.boundZSetOperations);
+		given(this.boundZSetOperations.count(anyDouble(), anyDouble())).willReturn(3L);
+		this.redisRepository.setRedisExpirationMode(RedisExpirationMode.SORTED_SET);
+
+		assertThat(this.redisRepository.countExpiringSessions(Duration.ofMinutes(10)))
+				.isEqualTo(3L);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setCleanupChunkSizeInvalid() {
+		this.redisRepository.setCleanupChunkSize(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setCleanupLeaseTimeNull() {
+		this.redisRepository.setCleanupLeaseTime(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setCleanupLeaseTimeZero() {
+		this.redisRepository.setCleanupLeaseTime(Duration.ZERO);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setExpirationBucketIntervalNull() {
+		this.redisRepository.setExpirationBucketInterval(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setExpirationBucketIntervalFractionalSeconds() {
+		this.redisRepository.setExpirationBucketInterval(Duration.ofMillis(1500));
+	}
+
+	@Test
+	public void saveModeScriptedExpirationBucketInterval() {
+		given(this.redisOperations.getValueSerializer())
+				.willReturn((RedisSerializer) new JdkSerializationRedisSerializer());
+		given(this.redisOperations.getHashKeySerializer())
+				.willReturn((RedisSerializer) new StringRedisSerializer());
+		given(this.redisOperations.getHashValueSerializer())
+				.willReturn((RedisSerializer) new JdkSerializationRedisSerializer());
+
+		this.redisRepository.setRedisSaveMode(RedisSaveMode.SCRIPTED);
+		this.redisRepository.setExpirationBucketInterval(Duration.ofSeconds(10));
+		RedisSession session = this.redisRepository.createSession();
+		session.setLastAccessedTime(Instant.ofEpochMilli(1500000012345L));
+		session.setMaxInactiveInterval(Duration.ofSeconds(60));
+		this.redisRepository.save(session);
+
+		verify(this.redisOperations).execute(eq(RedisSessionScripts.SAVE_SESSION),
+				any(RedisSerializer.class), any(RedisSerializer.class),
+				this.keys.capture(), any());
+		assertThat(this.keys.getValue())
+				.contains("spring:session:expirations:1500000080000");
+	}
+
+	@Test
+	public void findByIdLazyAttributeLoading() {
+		this.redisRepository.setLazyAttributeLoading(true);
+		this.redisRepository.setPrefetchedAttributeNames(Collections.singleton("hot"));
+		MapSession saved = new MapSession();
+		given(this.redisOperations.boundHashOps(getKey(saved.getId())))
+				.willReturn(this.boundHashOperations);
+		given(this.boundHashOperations.multiGet(anyCollection())).willReturn(
+				Arrays.asList(saved.getCreationTime().toEpochMilli(),
+						(int) saved.getMaxInactiveInterval().getSeconds(),
+						saved.getLastAccessedTime().toEpochMilli(), null, null,
+						"hotValue"));
+		given(this.boundHashOperations
+				.get(RedisOperationsSessionRepository.getSessionAttrNameKey("cold")))
+						.willReturn("coldValue");
+
+		RedisSession session = this.redisRepository.findById(saved.getId());
+
+		ArgumentCaptor<Collection<Object>> hashKeys = ArgumentCaptor
+				.forClass(Collection.class);
+		verify(this.boundHashOperations).multiGet(hashKeys.capture());
+		assertThat(hashKeys.getValue()).containsExactly(
+				RedisOperationsSessionRepository.CREATION_TIME_ATTR,
+				RedisOperationsSessionRepository.MAX_INACTIVE_ATTR,
+				RedisOperationsSessionRepository.LAST_ACCESSED_ATTR,
+				RedisOperationsSessionRepository.getSessionAttrNameKey(
+						FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME),
+				RedisOperationsSessionRepository.getSessionAttrNameKey(
+						SPRING_SECURITY_CONTEXT_KEY),
+				RedisOperationsSessionRepository.getSessionAttrNameKey("hot"));
+		assertThat(session.getLastAccessedTime().toEpochMilli())
+				.isEqualTo(saved.getLastAccessedTime().toEpochMilli());
+		assertThat(session.<String>getAttribute("hot")).isEqualTo("hotValue");
+		assertThat(session.<String>getAttribute("cold")).isEqualTo("coldValue");
+		assertThat(session.<String>getAttribute("cold")).isEqualTo("coldValue");
+		verify(this.boundHashOperations, times(1)).get(anyString());
+		verify(this.boundHashOperations, never()).entries();
+	}
+
+	@Test
+	public void findByIdLazyAttributeLoadingNotFound() {
+		this.redisRepository.setLazyAttributeLoading(true);
+		given(this.redisOperations.boundHashOps(anyString()))
+				.willReturn(this.boundHashOperations);
+		given(this.boundHashOperations.multiGet(anyCollection()))
+				.willReturn(Arrays.asList(null, null, null, null, null));
+
+		assertThat(this.redisRepository.findById("session-id")).isNull();
+	}
+
+	@Test
+	public void getAttributeNamesLazyAttributeLoading() {
+		this.redisRepository.setLazyAttributeLoading(true);
+		MapSession saved = new MapSession();
+		given(this.redisOperations.boundHashOps(getKey(saved.getId())))
+				.willReturn(this.boundHashOperations);
+		given(this.boundHashOperations.multiGet(anyCollection())).willReturn(
+				Arrays.asList(saved.getCreationTime().toEpochMilli(),
+						(int) saved.getMaxInactiveInterval().getSeconds(),
+						saved.getLastAccessedTime().toEpochMilli(), null, null));
+		given(this.boundHashOperations.entries()).willReturn(map(
+				RedisOperationsSessionRepository.LAST_ACCESSED_ATTR,
+				saved.getLastAccessedTime().toEpochMilli(),
+				RedisOperationsSessionRepository.getSessionAttrNameKey("a"), "stale",
+				RedisOperationsSessionRepository.getSessionAttrNameKey("b"), "b"));
+
+		RedisSession session = this.redisRepository.findById(saved.getId());
+		session.setAttribute("a", "a");
+
+		assertThat(session.getAttributeNames()).containsOnly("a", "b");
+		assertThat(session.<String>getAttribute("a")).isEqualTo("a");
+		assertThat(session.<String>getAttribute("b")).isEqualTo("b");
+		verify(this.boundHashOperations, never()).get(anyString());
+	}
+
+	private RedisSession givenSavedSession() {
+		MapSession saved = new MapSession();
+		saved.setLastAccessedTime(Instant.now().minusSeconds(60));
+		given(this.redisOperations.boundHashOps(anyString()))
+				.willReturn(this.boundHashOperations);
+		Map map = map(RedisOperationsSessionRepository.CREATION_TIME_ATTR,
+				saved.getCreationTime().toEpochMilli(),
+				RedisOperationsSessionRepository.MAX_INACTIVE_ATTR,
+				(int) saved.getMaxInactiveInterval().getSeconds(),
+				RedisOperationsSessionRepository.LAST_ACCESSED_ATTR,
+				saved.getLastAccessedTime().toEpochMilli());
+		given(this.boundHashOperations.entries()).willReturn(map);
+		return this.redisRepository.findById(saved.getId());
+	}
+
 	private String getKey(String id) {
 		return "spring:session:sessions:" + id;
 	}
 
+	private long getExpirationBucket(Session session) {
+		return RedisSessionExpirationPolicy.roundUpToNextBucket(
+				RedisSessionExpirationPolicy.expiresInMillis(session),
+				TimeUnit.MINUTES.toMillis(1));
+	}
+
+	private byte[] encodeBlob(long version, Object... attributes) {
+		Map<Object, Object> entries = new HashMap<>();
+		entries.put(RedisOperationsSessionRepository.CREATION_TIME_ATTR,
+				this.cached.getCreationTime().toEpochMilli());
+		entries.put(RedisOperationsSessionRepository.MAX_INACTIVE_ATTR,
+				(int) this.cached.getMaxInactiveInterval().getSeconds());
+		entries.put(RedisOperationsSessionRepository.LAST_ACCESSED_ATTR,
+				Instant.now().toEpochMilli());
+		for (int i = 0; i < attributes.length; i += 2) {
+			entries.put(RedisOperationsSessionRepository.getSessionAttrNameKey(
+					(String) attributes[i]), attributes[i + 1]);
+		}
+		return new RedisSessionBlobStore(this.redisOperations).encode(version, entries);
+	}
+
+	private void stubSaveOperations() {
+		given(this.redisOperations.boundHashOps(anyString()))
+				.willReturn(this.boundHashOperations);
+		given(this.redisOperations.boundSetOps(anyString()))
+				.willReturn(this.boundSetOperations);
+		given(this.redisOperations.boundValueOps(anyString()))
+				.willReturn(this.boundValueOperations);
+	}
+
+	private static DefaultMessage keyspaceMessage(String event, String sessionId) {
+		return new DefaultMessage(
+				("__keyevent@0__:" + event).getBytes(StandardCharsets.UTF_8),
+				("spring:session:sessions:expires:" + sessionId)
+						.getBytes(StandardCharsets.UTF_8));
+	}
+
 	private Map map(Object... objects) {
 		Map<String, Object> result = new HashMap<>();
 		if (objects == null) {
@@ -738,6 +1714,15 @@ public class RedisOperationsSessionRepositoryTests {
 		return result;
 	}
 
+	private void givenPipelinedEntries() {
+		given(this.redisOperations.executePipelined(any(SessionCallback.class)))
+				.willAnswer(invocation -> {
+					SessionCallback callback = invocation.getArgument(0);
+					callback.execute(this.redisOperations);
+					return Collections.singletonList(this.boundHashOperations.entries());
+				});
+	}
+
 	private Map<String, Object> getDelta() {
 		return getDelta(1);
 	}
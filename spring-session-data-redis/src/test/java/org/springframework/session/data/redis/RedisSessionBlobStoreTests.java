@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link RedisSessionBlobStore}.
+ *
+ * @author Vedran Pavic
+ */
+public class RedisSessionBlobStoreTests {
+
+	@Rule
+	public final ExpectedException thrown = ExpectedException.none();
+
+	private RedisSessionBlobStore blobStore;
+
+	@Before
+	public void setup() {
+		RedisTemplate<Object, Object> redisTemplate = new RedisTemplate<>();
+		redisTemplate.setHashValueSerializer(new CompactRedisSerializer());
+		this.blobStore = new RedisSessionBlobStore(redisTemplate);
+	}
+
+	@Test
+	public void encodeAndDecode() {
+		Map<Object, Object> entries = new HashMap<>();
+		entries.put(RedisOperationsSessionRepository.CREATION_TIME_ATTR, 1404360000000L);
+		entries.put(RedisOperationsSessionRepository.MAX_INACTIVE_ATTR, 1800);
+		entries.put(RedisOperationsSessionRepository.getSessionAttrNameKey("a"), "b");
+		entries.put(RedisOperationsSessionRepository.getSessionAttrNameKey("c"), null);
+
+		Map<Object, Object> decoded = this.blobStore
+				.decode(this.blobStore.encode(42, entries));
+
+		assertThat(decoded).hasSize(4)
+				.containsEntry(RedisOperationsSessionRepository.CREATION_TIME_ATTR,
+						1404360000000L)
+				.containsEntry(RedisOperationsSessionRepository.MAX_INACTIVE_ATTR, 1800)
+				.containsEntry(RedisOperationsSessionRepository.getSessionAttrNameKey("a"),
+						"b")
+				.containsEntry(RedisSessionBlobStore.VERSION_KEY, 42L);
+	}
+
+	@Test
+	public void encodeCompresses() {
+		Map<Object, Object> entries = new HashMap<>();
+		StringBuilder value = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			value.append("value");
+		}
+		entries.put(RedisOperationsSessionRepository.getSessionAttrNameKey("a"),
+				value.toString());
+
+		assertThat(this.blobStore.encode(1, entries).length).isLessThan(value.length() / 10);
+	}
+
+	@Test
+	public void decodeNull() {
+		assertThat(this.blobStore.decode(null)).isEmpty();
+	}
+
+	@Test
+	public void decodeUnsupportedFormat() {
+		this.thrown.expect(SerializationException.class);
+		this.thrown.expectMessage("Unsupported session format");
+
+		this.blobStore.decode(new byte[] { 2, 0, 0, 0, 0, 0, 0, 0, 1, 0 });
+	}
+
+}
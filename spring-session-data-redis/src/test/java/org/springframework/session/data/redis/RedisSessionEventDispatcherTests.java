@@ -0,0 +1,166 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.session.data.redis.RedisSessionEventDispatcher.SessionNotification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link RedisSessionEventDispatcher}.
+ *
+ * @author Vedran Pavic
+ */
+public class RedisSessionEventDispatcherTests {
+
+	private final Deque<Runnable> tasks = new ArrayDeque<>();
+
+	private final List<List<SessionNotification>> batches = new ArrayList<>();
+
+	@Test
+	public void dispatchInBatches() {
+		RedisSessionEventDispatcher dispatcher = new RedisSessionEventDispatcher(
+				this.tasks::add, 1, 10, 2, RedisEventOverflowPolicy.BLOCK,
+				this.batches::add);
+		for (int i = 0; i < 3; i++) {
+			dispatcher.dispatch(expired("session" + i));
+		}
+
+		assertThat(this.tasks).hasSize(1);
+		assertThat(dispatcher.getPendingCount()).isEqualTo(3);
+
+		runTasks();
+
+		assertThat(this.batches).hasSize(2);
+		assertThat(this.batches.get(0)).extracting(SessionNotification::getSessionId)
+				.containsExactly("session0", "session1");
+		assertThat(this.batches.get(1)).extracting(SessionNotification::getSessionId)
+				.containsExactly("session2");
+		assertThat(dispatcher.getPendingCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void dispatchDropsWhenFull() {
+		RedisSessionEventDispatcher dispatcher = new RedisSessionEventDispatcher(
+				this.tasks::add, 1, 2, 10, RedisEventOverflowPolicy.DROP,
+				this.batches::add);
+		for (int i = 0; i < 3; i++) {
+			dispatcher.dispatch(expired("session" + i));
+		}
+
+		assertThat(dispatcher.getPendingCount()).isEqualTo(2);
+		assertThat(dispatcher.getDroppedCount()).isEqualTo(1);
+
+		runTasks();
+
+		assertThat(this.batches).hasSize(1);
+		assertThat(this.batches.get(0)).extracting(SessionNotification::getSessionId)
+				.containsExactly("session0", "session1");
+	}
+
+	@Test
+	public void dispatchRejectedHandledByCaller() {
+		RedisSessionEventDispatcher dispatcher = new RedisSessionEventDispatcher(
+				task -> {
+					throw new RejectedExecutionException();
+				}, 1, 10, 10, RedisEventOverflowPolicy.BLOCK, this.batches::add);
+
+		dispatcher.dispatch(expired("session"));
+
+		assertThat(this.batches).hasSize(1);
+		assertThat(dispatcher.getPendingCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void dispatchContinuesAfterHandlerFailure() {
+		RedisSessionEventDispatcher dispatcher = new RedisSessionEventDispatcher(
+				this.tasks::add, 1, 10, 1, RedisEventOverflowPolicy.BLOCK, batch -> {
+					this.batches.add(batch);
+					throw new IllegalStateException("Test");
+				});
+		dispatcher.dispatch(expired("first"));
+		dispatcher.dispatch(expired("second"));
+
+		runTasks();
+
+		assertThat(this.batches).hasSize(2);
+	}
+
+	@Test
+	public void dispatchKeepsOrderOfSession() throws Exception {
+		Map<String, List<Integer>> handled = new ConcurrentHashMap<>();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		RedisSessionEventDispatcher dispatcher = new RedisSessionEventDispatcher(
+				executor, 4, 1000, 3, RedisEventOverflowPolicy.BLOCK, batch -> {
+					for (SessionNotification notification : batch) {
+						handled.computeIfAbsent(notification.getSessionId(),
+								key -> Collections.synchronizedList(new ArrayList<>()))
+								.add(Integer.valueOf(new String(notification.getBody(),
+										StandardCharsets.UTF_8)));
+					}
+				});
+		try {
+			for (int i = 0; i < 100; i++) {
+				for (int session = 0; session < 10; session++) {
+					dispatcher.dispatch(new SessionNotification("session" + session,
+							SessionNotification.Type.CREATED,
+							String.valueOf(i).getBytes(StandardCharsets.UTF_8)));
+				}
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(handled).hasSize(10);
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			expected.add(i);
+		}
+		for (List<Integer> order : handled.values()) {
+			assertThat(order).isEqualTo(expected);
+		}
+	}
+
+	private void runTasks() {
+		while (!this.tasks.isEmpty()) {
+			this.tasks.remove().run();
+		}
+	}
+
+	private static SessionNotification expired(String sessionId) {
+		return new SessionNotification(sessionId, SessionNotification.Type.EXPIRED,
+				null);
+	}
+
+}
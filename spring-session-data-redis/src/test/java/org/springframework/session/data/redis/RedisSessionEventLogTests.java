@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.data.redis;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import org.springframework.session.data.redis.RedisSessionEventDispatcher.SessionNotification;
+import org.springframework.session.data.redis.RedisSessionEventLog.Record;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link RedisSessionEventLog}.
+ *
+ * @author Vedran Pavic
+ */
+public class RedisSessionEventLogTests {
+
+	@Test
+	public void encodeRecord() {
+		Record record = new Record(SessionNotification.Type.CREATED, 1404360000000L,
+				"session-id", "user");
+
+		assertThat(new String(record.encode(), StandardCharsets.UTF_8))
+				.isEqualTo("CREATED:1404360000000:10:session-id:user");
+	}
+
+	@Test
+	public void decodeRecord() {
+		Record record = Record
+				.decode("42:EXPIRED:1404360000000:10:session-id:domain:user"
+						.getBytes(StandardCharsets.UTF_8));
+
+		assertThat(record.getSequence()).isEqualTo(42);
+		assertThat(record.getType()).isEqualTo(SessionNotification.Type.EXPIRED);
+		assertThat(record.getTimestamp()).isEqualTo(1404360000000L);
+		assertThat(record.getSessionId()).isEqualTo("session-id");
+		assertThat(record.getPrincipalName()).isEqualTo("domain:user");
+	}
+
+	@Test
+	public void decodeRecordWithoutPrincipalName() {
+		Record record = Record.decode("7:DELETED:1404360000000:12:session:id:1"
+				.getBytes(StandardCharsets.UTF_8));
+
+		assertThat(record.getSequence()).isEqualTo(7);
+		assertThat(record.getType()).isEqualTo(SessionNotification.Type.DELETED);
+		assertThat(record.getSessionId()).isEqualTo("session:id:1");
+		assertThat(record.getPrincipalName()).isNull();
+	}
+
+}
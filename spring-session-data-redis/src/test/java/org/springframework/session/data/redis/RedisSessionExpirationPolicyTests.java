@@ -16,8 +16,16 @@
 
 package org.springframework.session.data.redis;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
@@ -26,15 +34,33 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
 import org.springframework.data.redis.core.BoundHashOperations;
 import org.springframework.data.redis.core.BoundSetOperations;
 import org.springframework.data.redis.core.BoundValueOperations;
+import org.springframework.data.redis.core.BoundZSetOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.session.MapSession;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -56,6 +82,10 @@ public class RedisSessionExpirationPolicyTests {
 	BoundHashOperations<Object, Object, Object> hashOperations;
 	@Mock
 	BoundValueOperations<Object, Object> valueOperations;
+	@Mock
+	BoundZSetOperations<Object, Object> zSetOperations;
+	@Mock
+	RedisConnection connection;
 
 	RedisSessionExpirationPolicy policy;
 
@@ -66,11 +96,16 @@ public class RedisSessionExpirationPolicyTests {
 		RedisOperationsSessionRepository repository = new RedisOperationsSessionRepository(
 				this.sessionRedisOperations);
 		this.policy = new RedisSessionExpirationPolicy(this.sessionRedisOperations,
-				repository::getExpirationsKey, repository::getSessionKey);
+				repository::getExpirationsKey, repository::getSessionKey,
+				repository::getCleanupKey,
+				repository::getExpirationsIndexKey);
 		this.session = new MapSession();
 		this.session.setLastAccessedTime(Instant.ofEpochMilli(1429116694675L));
 		this.session.setId("12345");
 
+	}
+
+	private void givenBoundOperations() {
 		given(this.sessionRedisOperations.boundSetOps(anyString()))
 				.willReturn(this.setOperations);
 		given(this.sessionRedisOperations.boundHashOps(anyString()))
@@ -83,9 +118,9 @@ public class RedisSessionExpirationPolicyTests {
 	@Test
 	public void onExpirationUpdatedRemovesOriginalExpirationTimeRoundedUp()
 			throws Exception {
+		givenBoundOperations();
 		long originalExpirationTimeInMs = ONE_MINUTE_AGO;
-		long originalRoundedToNextMinInMs = RedisSessionExpirationPolicy
-				.roundUpToNextMinute(originalExpirationTimeInMs);
+		long originalRoundedToNextMinInMs = this.policy.roundUpToNextBucket(originalExpirationTimeInMs);
 		String originalExpireKey = this.policy
 				.getExpirationKey(originalRoundedToNextMinInMs);
 
@@ -99,10 +134,10 @@ public class RedisSessionExpirationPolicyTests {
 	@Test
 	public void onExpirationUpdatedDoNotSendDeleteWhenExpirationTimeDoesNotChange()
 			throws Exception {
+		givenBoundOperations();
 		long originalExpirationTimeInMs = RedisSessionExpirationPolicy
 				.expiresInMillis(this.session) - 10;
-		long originalRoundedToNextMinInMs = RedisSessionExpirationPolicy
-				.roundUpToNextMinute(originalExpirationTimeInMs);
+		long originalRoundedToNextMinInMs = this.policy.roundUpToNextBucket(originalExpirationTimeInMs);
 		String originalExpireKey = this.policy
 				.getExpirationKey(originalRoundedToNextMinInMs);
 
@@ -115,10 +150,10 @@ public class RedisSessionExpirationPolicyTests {
 
 	@Test
 	public void onExpirationUpdatedAddsExpirationTimeRoundedUp() throws Exception {
+		givenBoundOperations();
 		long expirationTimeInMs = RedisSessionExpirationPolicy
 				.expiresInMillis(this.session);
-		long expirationRoundedUpInMs = RedisSessionExpirationPolicy
-				.roundUpToNextMinute(expirationTimeInMs);
+		long expirationRoundedUpInMs = this.policy.roundUpToNextBucket(expirationTimeInMs);
 		String expectedExpireKey = this.policy.getExpirationKey(expirationRoundedUpInMs);
 
 		this.policy.onExpirationUpdated(null, this.session);
@@ -126,24 +161,26 @@ public class RedisSessionExpirationPolicyTests {
 		verify(this.sessionRedisOperations).boundSetOps(expectedExpireKey);
 		verify(this.setOperations).add("expires:" + this.session.getId());
 		verify(this.setOperations).expire(
-				this.session.getMaxInactiveInterval().plusMinutes(5).getSeconds(),
+				this.session.getMaxInactiveInterval().plusMinutes(6).getSeconds(),
 				TimeUnit.SECONDS);
 	}
 
 	@Test
 	public void onExpirationUpdatedSetExpireSession() throws Exception {
+		givenBoundOperations();
 		String sessionKey = this.policy.getSessionKey(this.session.getId());
 
 		this.policy.onExpirationUpdated(null, this.session);
 
 		verify(this.sessionRedisOperations).boundHashOps(sessionKey);
 		verify(this.hashOperations).expire(
-				this.session.getMaxInactiveInterval().plusMinutes(5).getSeconds(),
+				this.session.getMaxInactiveInterval().plusMinutes(6).getSeconds(),
 				TimeUnit.SECONDS);
 	}
 
 	@Test
 	public void onExpirationUpdatedDeleteOnZero() throws Exception {
+		givenBoundOperations();
 		String sessionKey = this.policy.getSessionKey("expires:" + this.session.getId());
 
 		long originalExpirationTimeInMs = ONE_MINUTE_AGO;
@@ -157,12 +194,13 @@ public class RedisSessionExpirationPolicyTests {
 		verify(this.setOperations).add("expires:" + this.session.getId());
 		verify(this.sessionRedisOperations).delete(sessionKey);
 		verify(this.setOperations).expire(
-				this.session.getMaxInactiveInterval().plusMinutes(5).getSeconds(),
+				this.session.getMaxInactiveInterval().plusMinutes(6).getSeconds(),
 				TimeUnit.SECONDS);
 	}
 
 	@Test
 	public void onExpirationUpdatedPersistOnNegativeExpiration() throws Exception {
+		givenBoundOperations();
 		long originalExpirationTimeInMs = ONE_MINUTE_AGO;
 
 		this.session.setMaxInactiveInterval(Duration.ofSeconds(-1));
@@ -174,4 +212,381 @@ public class RedisSessionExpirationPolicyTests {
 		verify(this.valueOperations).persist();
 		verify(this.hashOperations).persist();
 	}
+
+	@Test
+	public void cleanExpiredSessionsLeaseNotAcquired() {
+		givenCleanup(false, null);
+
+		this.policy.cleanExpiredSessions();
+
+		verify(this.sessionRedisOperations, never())
+				.executePipelined(any(RedisCallback.class));
+		verify(this.connection, never()).get(any());
+	}
+
+	@Test
+	public void cleanExpiredSessionsAlreadyCleaned() {
+		givenCleanup(true, this.policy.roundDownBucket(NOW));
+
+		this.policy.cleanExpiredSessions();
+
+		verify(this.sessionRedisOperations, never())
+				.executePipelined(any(RedisCallback.class));
+		verifyLeaseReleased();
+	}
+
+	@Test
+	public void cleanExpiredSessionsInChunks() {
+		long lastMin = this.policy.roundDownBucket(NOW);
+		givenCleanup(true, lastMin - TimeUnit.MINUTES.toMillis(1));
+		this.policy.setCleanupChunkSize(2);
+		Deque<List<Object>> results = new ArrayDeque<>();
+		results.add(Arrays.asList("expires:1", "expires:2"));
+		results.add(Arrays.asList(true, true));
+		results.add(Arrays.asList("expires:3", null));
+		results.add(Collections.singletonList(true));
+		givenPipelinedResults(results);
+
+		this.policy.cleanExpiredSessions();
+
+		verify(this.connection, times(4)).sPop(key(this.policy.getExpirationKey(lastMin)));
+		verify(this.connection).exists(key(this.policy.getSessionKey("expires:1")));
+		verify(this.connection).exists(key(this.policy.getSessionKey("expires:2")));
+		verify(this.connection).exists(key(this.policy.getSessionKey("expires:3")));
+		verify(this.connection).setEx(key(this.policy.getCleanupKey("cleaned")), 360,
+				key(String.valueOf(lastMin)));
+		verifyLeaseReleased();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void cleanExpiredSessionsPipeliningUnsupported() {
+		long lastMin = this.policy.roundDownBucket(NOW);
+		givenCleanup(true, lastMin - TimeUnit.MINUTES.toMillis(1));
+		willReturn(new StringRedisSerializer()).given(this.sessionRedisOperations)
+				.getValueSerializer();
+		willThrow(new UnsupportedOperationException()).given(this.sessionRedisOperations)
+				.executePipelined(any(RedisCallback.class));
+		this.policy.setCleanupChunkSize(2);
+		byte[] expirationKey = key(this.policy.getExpirationKey(lastMin));
+		given(this.connection.sPop(expirationKey)).willReturn(key("expires:1"), null,
+				null);
+
+		this.policy.cleanExpiredSessions();
+		this.policy.cleanExpiredSessions();
+
+		verify(this.sessionRedisOperations).executePipelined(any(RedisCallback.class));
+		verify(this.connection, times(3)).sPop(expirationKey);
+		verify(this.sessionRedisOperations)
+				.hasKey(this.policy.getSessionKey("expires:1"));
+		verify(this.sessionRedisOperations, times(2)).execute(
+				eq(RedisSessionScripts.RELEASE_LEASE), any(RedisSerializer.class),
+				any(RedisSerializer.class), anyList(), any(byte[].class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void cleanExpiredSessionsScriptingUnsupported() {
+		givenCleanup(true, this.policy.roundDownBucket(NOW));
+		willThrow(new InvalidDataAccessApiUsageException("Not supported"))
+				.given(this.sessionRedisOperations)
+				.execute(eq(RedisSessionScripts.RELEASE_LEASE), any(RedisSerializer.class),
+						any(RedisSerializer.class), anyList(), any(byte[].class));
+		byte[] leaseKey = key(this.policy.getCleanupKey("lease"));
+		byte[] leaseOwner = (byte[]) ReflectionTestUtils.getField(this.policy,
+				"leaseOwner");
+		given(this.connection.get(leaseKey)).willReturn(leaseOwner);
+
+		this.policy.cleanExpiredSessions();
+
+		verify(this.connection).del(leaseKey);
+	}
+
+	@Test
+	public void cleanExpiredSessionsCatchesUpMissedMinutes() {
+		long lastMin = this.policy.roundDownBucket(NOW);
+		givenCleanup(true, lastMin - TimeUnit.MINUTES.toMillis(3));
+		this.policy.setCleanupChunkSize(1);
+		Deque<List<Object>> results = new ArrayDeque<>();
+		for (int i = 0; i < 3; i++) {
+			results.add(Collections.singletonList(null));
+		}
+		givenPipelinedResults(results);
+
+		this.policy.cleanExpiredSessions();
+
+		for (int i = 0; i < 3; i++) {
+			long min = lastMin - TimeUnit.MINUTES.toMillis(i);
+			verify(this.connection).sPop(key(this.policy.getExpirationKey(min)));
+			verify(this.connection).setEx(key(this.policy.getCleanupKey("cleaned")), 360,
+					key(String.valueOf(min)));
+		}
+		verify(this.connection, never()).exists(any(byte[].class));
+	}
+
+	@Test
+	public void cleanExpiredSessionsCatchesUpRetainedMinutes() {
+		givenCleanup(true, null);
+		this.policy.setCleanupChunkSize(1);
+		Deque<List<Object>> results = new ArrayDeque<>();
+		for (int i = 0; i < 6; i++) {
+			results.add(Collections.singletonList(null));
+		}
+		givenPipelinedResults(results);
+
+		this.policy.cleanExpiredSessions();
+
+		verify(this.connection, times(6)).sPop(any(byte[].class));
+		verify(this.connection).sPop(key(this.policy.getExpirationKey(
+				this.policy.roundDownBucket(NOW)
+						- TimeUnit.MINUTES.toMillis(5))));
+	}
+
+	@Test
+	public void cleanExpiredSessionsBucketInterval() {
+		this.policy.setBucketInterval(Duration.ofSeconds(10));
+		long lastBucket = NOW - NOW % 10000;
+		givenCleanup(true, lastBucket - TimeUnit.SECONDS.toMillis(20));
+		this.policy.setCleanupChunkSize(1);
+		Deque<List<Object>> results = new ArrayDeque<>();
+		for (int i = 0; i < 2; i++) {
+			results.add(Collections.singletonList(null));
+		}
+		givenPipelinedResults(results);
+
+		this.policy.cleanExpiredSessions();
+
+		verify(this.connection, times(2)).sPop(any(byte[].class));
+		verify(this.connection).sPop(key(this.policy.getExpirationKey(lastBucket)));
+		verify(this.connection).sPop(
+				key(this.policy.getExpirationKey(lastBucket - 10000)));
+	}
+
+	@Test
+	public void onExpirationUpdatedRetainsLongBucketInterval() {
+		givenBoundOperations();
+		this.policy.setBucketInterval(Duration.ofMinutes(10));
+
+		this.policy.onExpirationUpdated(null, this.session);
+
+		long retainedAfterExpires = this.session.getMaxInactiveInterval()
+				.plusMinutes(15).getSeconds();
+		verify(this.setOperations).expire(retainedAfterExpires, TimeUnit.SECONDS);
+		verify(this.hashOperations).expire(retainedAfterExpires, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void cleanExpiredSessionsLooksBackOverLongBucketInterval() {
+		this.policy.setBucketInterval(Duration.ofMinutes(10));
+		long lastBucket = NOW - NOW % TimeUnit.MINUTES.toMillis(10);
+		givenCleanup(true, null);
+		this.policy.setClock(Clock.fixed(
+				Instant.ofEpochMilli(lastBucket + TimeUnit.MINUTES.toMillis(2)),
+				ZoneOffset.UTC));
+		this.policy.setCleanupChunkSize(1);
+		Deque<List<Object>> results = new ArrayDeque<>();
+		for (int i = 0; i < 2; i++) {
+			results.add(Collections.singletonList(null));
+		}
+		givenPipelinedResults(results);
+
+		this.policy.cleanExpiredSessions();
+
+		verify(this.connection, times(2)).sPop(any(byte[].class));
+		verify(this.connection).sPop(key(this.policy.getExpirationKey(lastBucket)));
+		verify(this.connection).sPop(key(this.policy
+				.getExpirationKey(lastBucket - TimeUnit.MINUTES.toMillis(10))));
+		verify(this.connection).setEx(key(this.policy.getCleanupKey("cleaned")), 900,
+				key(String.valueOf(lastBucket)));
+	}
+
+	@Test
+	public void onExpirationUpdatedBucketInterval() {
+		givenBoundOperations();
+		this.policy.setBucketInterval(Duration.ofSeconds(10));
+		this.session.setLastAccessedTime(Instant.ofEpochMilli(1429116694675L));
+		this.session.setMaxInactiveInterval(Duration.ofSeconds(60));
+
+		this.policy.onExpirationUpdated(null, this.session);
+
+		verify(this.sessionRedisOperations)
+				.boundSetOps(this.policy.getExpirationKey(1429116760000L));
+	}
+
+	@Test
+	public void roundUpToNextBucket() {
+		assertThat(RedisSessionExpirationPolicy.roundUpToNextBucket(NOW, 60000))
+				.isEqualTo(1429111740000L);
+		assertThat(RedisSessionExpirationPolicy.roundUpToNextBucket(1429111740000L,
+				60000)).isEqualTo(1429111800000L);
+		assertThat(RedisSessionExpirationPolicy.roundUpToNextBucket(NOW, 10000))
+				.isEqualTo(1429111720000L);
+		assertThat(RedisSessionExpirationPolicy.roundUpToNextBucket(-1, 60000))
+				.isEqualTo(0);
+	}
+
+	@Test
+	public void roundDownBucket() {
+		assertThat(RedisSessionExpirationPolicy.roundDownBucket(NOW, 60000))
+				.isEqualTo(1429111680000L);
+		assertThat(RedisSessionExpirationPolicy.roundDownBucket(1429111680000L, 60000))
+				.isEqualTo(1429111680000L);
+		assertThat(RedisSessionExpirationPolicy.roundDownBucket(NOW, 300000))
+				.isEqualTo(1429111500000L);
+		assertThat(RedisSessionExpirationPolicy.roundDownBucket(-1, 60000))
+				.isEqualTo(-60000);
+	}
+
+	@Test
+	public void onExpirationUpdatedSortedSet() {
+		givenSortedSet();
+
+		this.policy.onExpirationUpdated(ONE_MINUTE_AGO, this.session);
+
+		verify(this.zSetOperations).add("expires:" + this.session.getId(),
+				RedisSessionExpirationPolicy.expiresInMillis(this.session));
+		verify(this.sessionRedisOperations, never()).boundSetOps(anyString());
+		verify(this.valueOperations).expire(
+				this.session.getMaxInactiveInterval().getSeconds(), TimeUnit.SECONDS);
+		verify(this.hashOperations).expire(
+				this.session.getMaxInactiveInterval().plusMinutes(5).getSeconds(),
+				TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void onExpirationUpdatedSortedSetNegativeExpiration() {
+		givenSortedSet();
+		this.session.setMaxInactiveInterval(Duration.ofSeconds(-1));
+
+		this.policy.onExpirationUpdated(ONE_MINUTE_AGO, this.session);
+
+		verify(this.zSetOperations).remove("expires:" + this.session.getId());
+		verify(this.valueOperations).persist();
+		verify(this.hashOperations).persist();
+	}
+
+	@Test
+	public void onDeleteSortedSet() {
+		this.policy.setExpirationMode(RedisExpirationMode.SORTED_SET);
+		given(this.sessionRedisOperations
+				.boundZSetOps(this.policy.getExpirationsIndexKey()))
+						.willReturn(this.zSetOperations);
+
+		this.policy.onDelete(this.session);
+
+		verify(this.zSetOperations).remove("expires:" + this.session.getId());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void cleanExpiredSessionsSortedSet() {
+		givenCleanup(true, null);
+		this.policy.setExpirationMode(RedisExpirationMode.SORTED_SET);
+		this.policy.setCleanupChunkSize(2);
+		willReturn(new StringRedisSerializer()).given(this.sessionRedisOperations)
+				.getValueSerializer();
+		given(this.sessionRedisOperations.execute(
+				eq(RedisSessionScripts.POP_EXPIRATIONS), any(RedisSerializer.class),
+				any(RedisSerializer.class),
+				eq(Collections.singletonList(this.policy.getExpirationsIndexKey())),
+				any(byte[].class), any(byte[].class))).willReturn(
+						Arrays.asList(key("expires:1"), key("expires:2")),
+						Collections.singletonList(key("expires:3")));
+		Deque<List<Object>> results = new ArrayDeque<>();
+		results.add(Arrays.asList(true, true));
+		results.add(Collections.singletonList(true));
+		givenPipelinedResults(results);
+
+		this.policy.cleanExpiredSessions();
+
+		verify(this.connection).exists(key(this.policy.getSessionKey("expires:1")));
+		verify(this.connection).exists(key(this.policy.getSessionKey("expires:2")));
+		verify(this.connection).exists(key(this.policy.getSessionKey("expires:3")));
+		verify(this.connection, never()).sPop(any(byte[].class));
+		verify(this.connection, never()).setEx(any(byte[].class), anyLong(),
+				any(byte[].class));
+		verifyLeaseReleased();
+	}
+
+	@Test
+	public void countExpiringSessionsSortedSet() {
+		this.policy.setExpirationMode(RedisExpirationMode.SORTED_SET);
+		this.policy.setClock(Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+		given(this.sessionRedisOperations
+				.boundZSetOps(this.policy.getExpirationsIndexKey()))
+						.willReturn(this.zSetOperations);
+		given(this.zSetOperations.count(NOW + 1, NOW + TimeUnit.MINUTES.toMillis(10)))
+				.willReturn(5L);
+
+		assertThat(this.policy.countExpiringSessions(Duration.ofMinutes(10)))
+				.isEqualTo(5L);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void countExpiringSessionsBuckets() {
+		this.policy.setClock(Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+		willReturn(new StringRedisSerializer()).given(this.sessionRedisOperations)
+				.getKeySerializer();
+		Deque<List<Object>> results = new ArrayDeque<>();
+		results.add(Arrays.asList(2L, null, 3L));
+		givenPipelinedResults(results);
+
+		assertThat(this.policy.countExpiringSessions(Duration.ofMinutes(2)))
+				.isEqualTo(5L);
+		verify(this.connection, times(3)).sCard(any(byte[].class));
+		verify(this.connection).sCard(key(this.policy.getExpirationKey(
+				this.policy.roundUpToNextBucket(NOW))));
+	}
+
+	private void givenSortedSet() {
+		this.policy.setExpirationMode(RedisExpirationMode.SORTED_SET);
+		given(this.sessionRedisOperations
+				.boundZSetOps(this.policy.getExpirationsIndexKey()))
+						.willReturn(this.zSetOperations);
+		given(this.sessionRedisOperations.boundHashOps(anyString()))
+				.willReturn(this.hashOperations);
+		given(this.sessionRedisOperations.boundValueOps(anyString()))
+				.willReturn(this.valueOperations);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void givenCleanup(boolean leaseAcquired, Long cleanedMin) {
+		this.policy.setClock(Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+		willReturn(new StringRedisSerializer()).given(this.sessionRedisOperations)
+				.getKeySerializer();
+		willAnswer(invocation -> invocation.<RedisCallback<?>>getArgument(0)
+				.doInRedis(this.connection)).given(this.sessionRedisOperations)
+						.execute(any(RedisCallback.class));
+		given(this.connection.set(eq(key(this.policy.getCleanupKey("lease"))), any(),
+				any(Expiration.class), eq(SetOption.ifAbsent())))
+						.willReturn(leaseAcquired);
+		if (leaseAcquired) {
+			given(this.connection.get(key(this.policy.getCleanupKey("cleaned"))))
+					.willReturn((cleanedMin != null) ? key(String.valueOf(cleanedMin))
+							: null);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void givenPipelinedResults(Deque<List<Object>> results) {
+		willAnswer(invocation -> {
+			invocation.<RedisCallback<?>>getArgument(0).doInRedis(this.connection);
+			return results.remove();
+		}).given(this.sessionRedisOperations).executePipelined(any(RedisCallback.class));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void verifyLeaseReleased() {
+		verify(this.sessionRedisOperations).execute(eq(RedisSessionScripts.RELEASE_LEASE),
+				any(RedisSerializer.class), any(RedisSerializer.class),
+				eq(Collections.singletonList(
+						this.policy.getCleanupKey("lease"))),
+				any(byte[].class));
+	}
+
+	private static byte[] key(String key) {
+		return key.getBytes(StandardCharsets.UTF_8);
+	}
+
 }
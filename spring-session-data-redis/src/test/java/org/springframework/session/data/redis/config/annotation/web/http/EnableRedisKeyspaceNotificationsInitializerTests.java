@@ -157,6 +157,28 @@ public class EnableRedisKeyspaceNotificationsInitializerTests {
 		verify(this.connection, never()).setConfig(anyString(), anyString());
 	}
 
+	@Test
+	public void afterPropertiesSetKeyspaceEventsUnset() throws Exception {
+		this.initializer = new RedisHttpSessionConfiguration.EnableRedisKeyspaceNotificationsInitializer(
+				this.connectionFactory, new ConfigureNotifyKeyspaceEventsAction(true));
+		setConfigNotification("");
+
+		this.initializer.afterPropertiesSet();
+
+		assertOptionsContains("E", "K", "g", "x");
+	}
+
+	@Test
+	public void afterPropertiesSetKeyspaceEventsAE() throws Exception {
+		this.initializer = new RedisHttpSessionConfiguration.EnableRedisKeyspaceNotificationsInitializer(
+				this.connectionFactory, new ConfigureNotifyKeyspaceEventsAction(true));
+		setConfigNotification("AE");
+
+		this.initializer.afterPropertiesSet();
+
+		assertOptionsContains("A", "E", "K");
+	}
+
 	private void assertOptionsContains(String... expectedValues) {
 		verify(this.connection).setConfig(eq(CONFIG_NOTIFY_KEYSPACE_EVENTS),
 				this.options.capture());
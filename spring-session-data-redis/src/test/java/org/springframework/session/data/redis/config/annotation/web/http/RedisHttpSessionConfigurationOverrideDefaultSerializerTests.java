@@ -58,6 +58,8 @@ public class RedisHttpSessionConfigurationOverrideDefaultSerializerTests {
 	public void overrideDefaultRedisTemplate() {
 		assertThat(this.template.getDefaultSerializer())
 				.isSameAs(this.defaultRedisSerializer);
+		assertThat(this.template.getHashValueSerializer())
+				.isSameAs(this.defaultRedisSerializer);
 	}
 
 	@EnableRedisHttpSession
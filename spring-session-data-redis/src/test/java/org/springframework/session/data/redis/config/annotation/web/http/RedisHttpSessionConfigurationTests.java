@@ -33,9 +33,18 @@ import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
 import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.mock.env.MockEnvironment;
+import org.springframework.session.data.redis.CompactRedisSerializer;
+import org.springframework.session.data.redis.CompressingRedisSerializer;
+import org.springframework.session.data.redis.RedisEventMode;
+import org.springframework.session.data.redis.RedisExpirationMode;
 import org.springframework.session.data.redis.RedisOperationsSessionRepository;
+import org.springframework.session.data.redis.RedisSaveMode;
+import org.springframework.session.data.redis.RedisStorageMode;
 import org.springframework.session.data.redis.config.annotation.SpringSessionRedisConnectionFactory;
+import org.springframework.session.serializer.ValueCompressor;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -116,6 +125,99 @@ public class RedisHttpSessionConfigurationTests {
 				.isEqualTo(CLEANUP_CRON_EXPRESSION);
 	}
 
+	@Test
+	public void customSaveModeAnnotation() {
+		registerAndRefresh(RedisConfig.class, CustomSaveModeAnnotationConfiguration.class);
+
+		RedisOperationsSessionRepository repository = this.context
+				.getBean(RedisOperationsSessionRepository.class);
+		assertThat(repository).isNotNull();
+		assertThat(ReflectionTestUtils.getField(repository, "redisSaveMode"))
+				.isEqualTo(RedisSaveMode.PIPELINED);
+	}
+
+	@Test
+	public void customExpirationModeAnnotation() {
+		registerAndRefresh(RedisConfig.class,
+				CustomExpirationModeAnnotationConfiguration.class);
+
+		RedisOperationsSessionRepository repository = this.context
+				.getBean(RedisOperationsSessionRepository.class);
+		assertThat(repository).isNotNull();
+		assertThat(ReflectionTestUtils.getField(repository, "redisExpirationMode"))
+				.isEqualTo(RedisExpirationMode.SORTED_SET);
+	}
+
+	@Test
+	public void customEventModeAnnotation() {
+		registerAndRefresh(RedisConfig.class, CustomEventModeAnnotationConfiguration.class);
+
+		RedisOperationsSessionRepository repository = this.context
+				.getBean(RedisOperationsSessionRepository.class);
+		assertThat(repository).isNotNull();
+		assertThat(ReflectionTestUtils.getField(repository, "redisEventMode"))
+				.isEqualTo(RedisEventMode.EVENT_LOG);
+	}
+
+	@Test
+	public void customStorageModeAnnotation() {
+		registerAndRefresh(RedisConfig.class,
+				CustomStorageModeAnnotationConfiguration.class);
+
+		RedisOperationsSessionRepository repository = this.context
+				.getBean(RedisOperationsSessionRepository.class);
+		assertThat(repository).isNotNull();
+		assertThat(ReflectionTestUtils.getField(repository, "redisStorageMode"))
+				.isEqualTo(RedisStorageMode.BLOB);
+	}
+
+	@Test
+	public void defaultHashValueSerializer() {
+		registerAndRefresh(RedisConfig.class,
+				QualifiedConnectionFactoryRedisConfig.class);
+
+		RedisOperationsSessionRepository repository = this.context
+				.getBean(RedisOperationsSessionRepository.class);
+		RedisTemplate<?, ?> redisTemplate = (RedisTemplate<?, ?>) repository
+				.getSessionRedisOperations();
+		assertThat(redisTemplate.getHashValueSerializer())
+				.isInstanceOf(JdkSerializationRedisSerializer.class);
+		assertThat(redisTemplate.getDefaultSerializer())
+				.isInstanceOf(JdkSerializationRedisSerializer.class);
+	}
+
+	@Test
+	public void compactHashValuesAnnotation() {
+		registerAndRefresh(RedisConfig.class,
+				CompactHashValuesAnnotationConfiguration.class);
+
+		RedisOperationsSessionRepository repository = this.context
+				.getBean(RedisOperationsSessionRepository.class);
+		RedisTemplate<?, ?> redisTemplate = (RedisTemplate<?, ?>) repository
+				.getSessionRedisOperations();
+		assertThat(redisTemplate.getHashValueSerializer())
+				.isInstanceOf(CompactRedisSerializer.class);
+		assertThat(redisTemplate.getDefaultSerializer())
+				.isInstanceOf(JdkSerializationRedisSerializer.class);
+	}
+
+	@Test
+	public void customValueCompressor() {
+		registerAndRefresh(RedisConfig.class, CustomValueCompressorConfig.class);
+
+		RedisOperationsSessionRepository repository = this.context
+				.getBean(RedisOperationsSessionRepository.class);
+		RedisTemplate<?, ?> redisTemplate = (RedisTemplate<?, ?>) repository
+				.getSessionRedisOperations();
+		assertThat(redisTemplate.getHashValueSerializer())
+				.isInstanceOf(CompressingRedisSerializer.class);
+		assertThat(ReflectionTestUtils.getField(redisTemplate.getHashValueSerializer(),
+				"delegate")).isInstanceOf(JdkSerializationRedisSerializer.class);
+		assertThat(ReflectionTestUtils.getField(redisTemplate.getHashValueSerializer(),
+				"valueCompressor"))
+						.isSameAs(this.context.getBean(ValueCompressor.class));
+	}
+
 	@Test
 	public void qualifiedConnectionFactoryRedisConfig() {
 		registerAndRefresh(RedisConfig.class,
@@ -242,6 +344,31 @@ public class RedisHttpSessionConfigurationTests {
 
 	}
 
+	@EnableRedisHttpSession(redisSaveMode = RedisSaveMode.PIPELINED)
+	static class CustomSaveModeAnnotationConfiguration {
+
+	}
+
+	@EnableRedisHttpSession(redisExpirationMode = RedisExpirationMode.SORTED_SET)
+	static class CustomExpirationModeAnnotationConfiguration {
+
+	}
+
+	@EnableRedisHttpSession(redisEventMode = RedisEventMode.EVENT_LOG)
+	static class CustomEventModeAnnotationConfiguration {
+
+	}
+
+	@EnableRedisHttpSession(redisStorageMode = RedisStorageMode.BLOB)
+	static class CustomStorageModeAnnotationConfiguration {
+
+	}
+
+	@EnableRedisHttpSession(compactHashValues = true)
+	static class CompactHashValuesAnnotationConfiguration {
+
+	}
+
 	@Configuration
 	@EnableRedisHttpSession
 	static class QualifiedConnectionFactoryRedisConfig {
@@ -254,6 +381,17 @@ public class RedisHttpSessionConfigurationTests {
 
 	}
 
+	@Configuration
+	@EnableRedisHttpSession
+	static class CustomValueCompressorConfig {
+
+		@Bean
+		public ValueCompressor springSessionValueCompressor() {
+			return new ValueCompressor();
+		}
+
+	}
+
 	@Configuration
 	@EnableRedisHttpSession
 	static class PrimaryConnectionFactoryRedisConfig {
@@ -18,6 +18,7 @@ package org.springframework.session.hazelcast;
 
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
+import com.hazelcast.core.Offloadable;
 import org.junit.Test;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -60,6 +61,34 @@ public abstract class AbstractHazelcastRepositoryITests {
 		assertThat(hazelcastMap.size()).isEqualTo(0);
 	}
 
+	@Test
+	public void updateSession() {
+		HazelcastSession session = this.repository.createSession();
+		session.setAttribute("removed", "value");
+		this.repository.save(session);
+
+		HazelcastSession toUpdate = this.repository.findById(session.getId());
+		toUpdate.setAttribute("added", "value");
+		toUpdate.removeAttribute("removed");
+		this.repository.save(toUpdate);
+
+		HazelcastSession updated = this.repository.findById(session.getId());
+		assertThat(updated.getAttributeNames()).containsOnly("added");
+
+		this.repository.deleteById(session.getId());
+	}
+
+	@Test
+	public void updateSessionOffloaded() {
+		this.repository.setUpdateExecutorName(Offloadable.OFFLOADABLE_EXECUTOR);
+		try {
+			updateSession();
+		}
+		finally {
+			this.repository.setUpdateExecutorName(Offloadable.NO_OFFLOADING);
+		}
+	}
+
 	@Test
 	public void changeSessionIdWhenOnlyChangeId() throws Exception {
 		String attrName = "changeSessionId";
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.hazelcast;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.session.MapSession;
+import org.springframework.session.hazelcast.HazelcastSessionRepository.HazelcastSession;
+import org.springframework.session.hazelcast.config.annotation.web.http.EnableHazelcastHttpSession;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.util.SocketUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests that check the underlying data source - in this case Hazelcast
+ * Client with a near cache.
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration
+@WebAppConfiguration
+public class HazelcastClientNearCacheRepositoryITests
+		extends AbstractHazelcastRepositoryITests {
+
+	private static final int PORT = SocketUtils.findAvailableTcpPort();
+
+	private static HazelcastInstance hazelcastInstance;
+
+	@BeforeClass
+	public static void setup() {
+		hazelcastInstance = HazelcastITestUtils.embeddedHazelcastServer(PORT);
+	}
+
+	@Autowired
+	private HazelcastInstance hazelcastClient;
+
+	@Autowired
+	private HazelcastSessionRepository repository;
+
+	@Test
+	public void findByIdUsesNearCache() {
+		HazelcastSession session = this.repository.createSession();
+		session.setAttribute("attribute", "value");
+		this.repository.save(session);
+
+		this.repository.findById(session.getId());
+		this.repository.findById(session.getId());
+
+		IMap<String, MapSession> sessions = this.hazelcastClient
+				.getMap(HazelcastSessionRepository.DEFAULT_SESSION_MAP_NAME);
+		assertThat(sessions.getLocalMapStats().getNearCacheStats().getHits())
+				.isGreaterThanOrEqualTo(1);
+
+		session.setAttribute("attribute", "updated");
+		this.repository.save(session);
+
+		assertThat(this.repository.findById(session.getId())
+				.<String>getAttribute("attribute")).isEqualTo("updated");
+
+		this.repository.deleteById(session.getId());
+
+		assertThat(this.repository.findById(session.getId())).isNull();
+	}
+
+	@AfterClass
+	public static void teardown() {
+		if (hazelcastInstance != null) {
+			hazelcastInstance.shutdown();
+		}
+	}
+
+	@Configuration
+	@EnableHazelcastHttpSession(nearCacheEnabled = true)
+	static class HazelcastSessionConfig {
+
+		@Bean
+		public HazelcastInstance embeddedHazelcastClient() {
+			ClientConfig clientConfig = new ClientConfig();
+			clientConfig.getNetworkConfig().addAddress("127.0.0.1:" + PORT);
+			return HazelcastClient.newHazelcastClient(clientConfig);
+		}
+
+	}
+
+}
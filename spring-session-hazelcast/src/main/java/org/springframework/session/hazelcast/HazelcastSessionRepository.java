@@ -28,11 +28,16 @@ import java.util.concurrent.TimeUnit;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 
+import com.hazelcast.client.impl.HazelcastClientProxy;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.ConfigurationException;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.core.EntryEvent;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
-import com.hazelcast.map.AbstractEntryProcessor;
-import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.core.Offloadable;
 import com.hazelcast.map.listener.EntryAddedListener;
 import com.hazelcast.map.listener.EntryEvictedListener;
 import com.hazelcast.map.listener.EntryRemovedListener;
@@ -42,14 +47,17 @@ import org.apache.commons.logging.LogFactory;
 
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.session.DefaultPrincipalNameResolver;
 import org.springframework.session.FindByIndexNameSessionRepository;
 import org.springframework.session.MapSession;
+import org.springframework.session.PrincipalNameResolver;
 import org.springframework.session.Session;
 import org.springframework.session.events.AbstractSessionEvent;
 import org.springframework.session.events.SessionCreatedEvent;
 import org.springframework.session.events.SessionDeletedEvent;
 import org.springframework.session.events.SessionExpiredEvent;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
 /**
  * A {@link org.springframework.session.SessionRepository} implementation that stores
@@ -91,6 +99,16 @@ import org.springframework.util.Assert;
  * Hazelcast.newHazelcastInstance(config);
  * </pre>
  *
+ * A near cache can be enabled for the sessions map using
+ * {@link #setNearCacheConfig(NearCacheConfig)}, which allows repeated lookups of the same
+ * session, especially from Hazelcast clients, to be served without a network hop.
+ *
+ * Whenever the Spring Security context stored in a session changes, the name of its
+ * principal is stored in the
+ * {@link FindByIndexNameSessionRepository#PRINCIPAL_NAME_INDEX_NAME} session attribute,
+ * which allows {@link PrincipalNameExtractor} to read it without evaluating the security
+ * context on every index update.
+ *
  * This implementation listens for events on the Hazelcast-backed SessionRepository and
  * translates those events into the corresponding Spring Session events. Publish the
  * Spring Session events with the given {@link ApplicationEventPublisher}.
@@ -124,6 +142,12 @@ public class HazelcastSessionRepository implements
 
 	private static final Log logger = LogFactory.getLog(HazelcastSessionRepository.class);
 
+	private static final String SPRING_SECURITY_CONTEXT = "SPRING_SECURITY_CONTEXT";
+
+	private static final boolean hazelcastClientPresent = ClassUtils.isPresent(
+			"com.hazelcast.client.impl.HazelcastClientProxy",
+			HazelcastSessionRepository.class.getClassLoader());
+
 	private final HazelcastInstance hazelcastInstance;
 
 	private ApplicationEventPublisher eventPublisher = new ApplicationEventPublisher() {
@@ -148,6 +172,14 @@ public class HazelcastSessionRepository implements
 
 	private HazelcastFlushMode hazelcastFlushMode = HazelcastFlushMode.ON_SAVE;
 
+	private double lastAccessedTimeUpdateThreshold;
+
+	private String updateExecutorName = Offloadable.NO_OFFLOADING;
+
+	private NearCacheConfig nearCacheConfig;
+
+	private PrincipalNameResolver principalNameResolver = new DefaultPrincipalNameResolver();
+
 	private IMap<String, MapSession> sessions;
 
 	private String sessionListenerId;
@@ -159,6 +191,9 @@ public class HazelcastSessionRepository implements
 
 	@PostConstruct
 	public void init() {
+		if (this.nearCacheConfig != null) {
+			configureNearCache();
+		}
 		this.sessions = this.hazelcastInstance.getMap(this.sessionMapName);
 		this.sessionListenerId = this.sessions.addEntryListener(this, true);
 	}
@@ -212,6 +247,80 @@ public class HazelcastSessionRepository implements
 		this.hazelcastFlushMode = hazelcastFlushMode;
 	}
 
+	/**
+	 * Set the fraction of the maximum inactive interval that needs to elapse since the
+	 * stored last accessed time before a session that was only accessed is updated in the
+	 * map. As the update also resets the time-to-live of the map entry, a session can
+	 * expire earlier by at most this fraction of its maximum inactive interval. The
+	 * default is {@code 0} which updates the session on every access.
+	 * @param lastAccessedTimeUpdateThreshold the fraction of the maximum inactive
+	 * interval, in the range from {@code 0} (inclusive) to {@code 1} (exclusive)
+	 * @since 2.0.0
+	 */
+	public void setLastAccessedTimeUpdateThreshold(
+			double lastAccessedTimeUpdateThreshold) {
+		Assert.isTrue(lastAccessedTimeUpdateThreshold >= 0
+				&& lastAccessedTimeUpdateThreshold < 1,
+				"lastAccessedTimeUpdateThreshold must be in the range [0, 1)");
+		this.lastAccessedTimeUpdateThreshold = lastAccessedTimeUpdateThreshold;
+	}
+
+	/**
+	 * Set the name of the executor used to run the {@link SessionUpdateEntryProcessor}
+	 * outside of the partition thread. Use {@link Offloadable#OFFLOADABLE_EXECUTOR} for
+	 * Hazelcast's default offloadable executor. The default is
+	 * {@link Offloadable#NO_OFFLOADING} which runs session updates on the partition
+	 * thread.
+	 * @param updateExecutorName the executor name
+	 * @since 2.0.0
+	 */
+	public void setUpdateExecutorName(String updateExecutorName) {
+		Assert.hasText(updateExecutorName, "updateExecutorName must not be empty");
+		this.updateExecutorName = updateExecutorName;
+	}
+
+	/**
+	 * Set the near cache configuration to apply to the sessions map. The name of the
+	 * provided configuration is ignored.
+	 * <p>
+	 * For a Hazelcast client, the configuration is added to the client's configuration.
+	 * For a Hazelcast member, it is added to the configuration of the sessions map,
+	 * unless that configuration already defines a near cache. In both cases the
+	 * configuration only takes effect if the sessions map has not been accessed through
+	 * the {@link HazelcastInstance} before {@link #init()} is invoked.
+	 * <p>
+	 * Entries of the near cache are invalidated by the invalidation events Hazelcast
+	 * publishes when a session is updated, deleted or evicted, therefore the provided
+	 * configuration should keep {@link NearCacheConfig#isInvalidateOnChange()} enabled.
+	 * <p>
+	 * The {@link InMemoryFormat#OBJECT} format is not supported, since the near cache
+	 * would then return the instance it holds, and the changes made to a loaded session
+	 * would be visible to other requests before the session is saved.
+	 * The default is {@code null} which does not use a near cache.
+	 * @param nearCacheConfig the near cache configuration
+	 * @since 2.0.0
+	 */
+	public void setNearCacheConfig(NearCacheConfig nearCacheConfig) {
+		Assert.isTrue(nearCacheConfig == null
+				|| nearCacheConfig.getInMemoryFormat() != InMemoryFormat.OBJECT,
+				"nearCacheConfig must not use the OBJECT in-memory format");
+		this.nearCacheConfig = nearCacheConfig;
+	}
+
+	/**
+	 * Set the {@link PrincipalNameResolver} used to resolve the principal name whenever
+	 * the Spring Security context of a session changes. The resolved name is stored as
+	 * the {@link #PRINCIPAL_NAME_INDEX_NAME} session attribute, which is then read by
+	 * {@link PrincipalNameExtractor}, unless the application has set that attribute
+	 * explicitly. The default is {@link DefaultPrincipalNameResolver}.
+	 * @param principalNameResolver the principal name resolver
+	 * @since 2.0.0
+	 */
+	public void setPrincipalNameResolver(PrincipalNameResolver principalNameResolver) {
+		Assert.notNull(principalNameResolver, "principalNameResolver cannot be null");
+		this.principalNameResolver = principalNameResolver;
+	}
+
 	@Override
 	public HazelcastSession createSession() {
 		HazelcastSession result = new HazelcastSession();
@@ -232,14 +341,30 @@ public class HazelcastSessionRepository implements
 			this.sessions.set(session.getId(), session.getDelegate(),
 					session.getMaxInactiveInterval().getSeconds(), TimeUnit.SECONDS);
 		}
-		else if (session.changed) {
+		else if (session.changed || session.lastAccessedTimeChanged) {
+			if (!session.changed && !isLastAccessedTimeUpdateRequired(session)) {
+				return;
+			}
 			this.sessions.executeOnKey(session.getId(),
 					new SessionUpdateEntryProcessor(session.getLastAccessedTime(),
-							session.getMaxInactiveInterval(), session.delta));
+							session.getMaxInactiveInterval(), session.delta,
+							this.updateExecutorName));
 		}
 		session.clearFlags();
 	}
 
+	private boolean isLastAccessedTimeUpdateRequired(HazelcastSession session) {
+		Duration maxInactiveInterval = session.getMaxInactiveInterval();
+		if (this.lastAccessedTimeUpdateThreshold <= 0
+				|| maxInactiveInterval.isNegative() || maxInactiveInterval.isZero()) {
+			return true;
+		}
+		long elapsed = Duration.between(session.originalLastAccessedTime,
+				session.getLastAccessedTime()).toMillis();
+		return elapsed >= (long) (maxInactiveInterval.toMillis()
+				* this.lastAccessedTimeUpdateThreshold);
+	}
+
 	@Override
 	public HazelcastSession findById(String id) {
 		MapSession saved = this.sessions.get(id);
@@ -273,6 +398,35 @@ public class HazelcastSessionRepository implements
 		return sessionMap;
 	}
 
+	private void configureNearCache() {
+		NearCacheConfig nearCacheConfig = new NearCacheConfig(this.nearCacheConfig)
+				.setName(this.sessionMapName);
+		if (hazelcastClientPresent && ClientNearCacheConfigurer
+				.configure(this.hazelcastInstance, nearCacheConfig)) {
+			return;
+		}
+		Config config = this.hazelcastInstance.getConfig();
+		MapConfig mapConfig = config.getMapConfigOrNull(this.sessionMapName);
+		if (mapConfig != null && mapConfig.getNearCacheConfig() != null) {
+			return;
+		}
+		if (mapConfig != null && this.sessionMapName.equals(mapConfig.getName())) {
+			mapConfig.setNearCacheConfig(nearCacheConfig);
+			return;
+		}
+		MapConfig sessionMapConfig = new MapConfig(
+				config.findMapConfig(this.sessionMapName)).setName(this.sessionMapName)
+						.setNearCacheConfig(nearCacheConfig);
+		try {
+			config.addMapConfig(sessionMapConfig);
+		}
+		catch (ConfigurationException ex) {
+			logger.warn("Unable to configure near cache for map '" + this.sessionMapName
+					+ "', configure it as part of the Hazelcast configuration instead",
+					ex);
+		}
+	}
+
 	@Override
 	public void entryAdded(EntryEvent<String, MapSession> event) {
 		if (logger.isDebugEnabled()) {
@@ -299,6 +453,25 @@ public class HazelcastSessionRepository implements
 				.publishEvent(new SessionDeletedEvent(this, event.getOldValue()));
 	}
 
+	/**
+	 * Applies the near cache configuration to Hazelcast clients, isolated to avoid a
+	 * hard dependency on {@code hazelcast-client}.
+	 */
+	private static final class ClientNearCacheConfigurer {
+
+		static boolean configure(HazelcastInstance hazelcastInstance,
+				NearCacheConfig nearCacheConfig) {
+			if (!(hazelcastInstance instanceof HazelcastClientProxy)) {
+				return false;
+			}
+			Map<String, NearCacheConfig> nearCacheConfigs = ((HazelcastClientProxy) hazelcastInstance)
+					.getClientConfig().getNearCacheConfigMap();
+			nearCacheConfigs.putIfAbsent(nearCacheConfig.getName(), nearCacheConfig);
+			return true;
+		}
+
+	}
+
 	/**
 	 * A custom implementation of {@link Session} that uses a {@link MapSession} as the
 	 * basis for its mapping. It keeps track if changes have been made since last save.
@@ -313,6 +486,10 @@ public class HazelcastSessionRepository implements
 
 		private boolean changed;
 
+		private boolean lastAccessedTimeChanged;
+
+		private Instant originalLastAccessedTime;
+
 		private String originalId;
 
 		private Map<String, Object> delta = new HashMap<>();
@@ -336,12 +513,13 @@ public class HazelcastSessionRepository implements
 			Assert.notNull(cached, "MapSession cannot be null");
 			this.delegate = cached;
 			this.originalId = cached.getId();
+			this.originalLastAccessedTime = cached.getLastAccessedTime();
 		}
 
 		@Override
 		public void setLastAccessedTime(Instant lastAccessedTime) {
 			this.delegate.setLastAccessedTime(lastAccessedTime);
-			this.changed = true;
+			this.lastAccessedTimeChanged = true;
 			flushImmediateIfNecessary();
 		}
 
@@ -395,18 +573,22 @@ public class HazelcastSessionRepository implements
 
 		@Override
 		public void setAttribute(String attributeName, Object attributeValue) {
+			boolean principalNameResolved = SPRING_SECURITY_CONTEXT.equals(attributeName)
+					&& isPrincipalNameResolved();
 			this.delegate.setAttribute(attributeName, attributeValue);
 			this.delta.put(attributeName, attributeValue);
+			if (principalNameResolved) {
+				String principalName = resolveSecurityContextPrincipal();
+				this.delegate.setAttribute(PRINCIPAL_NAME_INDEX_NAME, principalName);
+				this.delta.put(PRINCIPAL_NAME_INDEX_NAME, principalName);
+			}
 			this.changed = true;
 			flushImmediateIfNecessary();
 		}
 
 		@Override
 		public void removeAttribute(String attributeName) {
-			this.delegate.removeAttribute(attributeName);
-			this.delta.put(attributeName, null);
-			this.changed = true;
-			flushImmediateIfNecessary();
+			setAttribute(attributeName, null);
 		}
 
 		MapSession getDelegate() {
@@ -416,54 +598,41 @@ public class HazelcastSessionRepository implements
 		void clearFlags() {
 			this.isNew = false;
 			this.changed = false;
+			this.lastAccessedTimeChanged = false;
+			this.originalLastAccessedTime = this.delegate.getLastAccessedTime();
 			this.delta.clear();
 		}
 
-		private void flushImmediateIfNecessary() {
-			if (HazelcastSessionRepository.this.hazelcastFlushMode == HazelcastFlushMode.IMMEDIATE) {
-				HazelcastSessionRepository.this.save(this);
+		/**
+		 * Determines whether the {@link #PRINCIPAL_NAME_INDEX_NAME} attribute is either
+		 * not set or holds the name resolved from the current Spring Security context, as
+		 * opposed to a name set explicitly by the application, which must be retained.
+		 * @return {@code true} if the principal name is maintained by the repository
+		 */
+		private boolean isPrincipalNameResolved() {
+			Object principalName = this.delegate.getAttribute(PRINCIPAL_NAME_INDEX_NAME);
+			return principalName == null
+					|| principalName.equals(resolveSecurityContextPrincipal());
+		}
+
+		private String resolveSecurityContextPrincipal() {
+			Object principalName = this.delegate.getAttribute(PRINCIPAL_NAME_INDEX_NAME);
+			this.delegate.removeAttribute(PRINCIPAL_NAME_INDEX_NAME);
+			try {
+				return HazelcastSessionRepository.this.principalNameResolver
+						.resolvePrincipal(this.delegate);
+			}
+			finally {
+				if (principalName != null) {
+					this.delegate.setAttribute(PRINCIPAL_NAME_INDEX_NAME, principalName);
+				}
 			}
 		}
 
-	}
-
-	/**
-	 * Hazelcast {@link EntryProcessor} responsible for handling updates to session.
-	 *
-	 * @since 2.0.0
-	 * @see #save(HazelcastSession)
-	 */
-	private static final class SessionUpdateEntryProcessor
-			extends AbstractEntryProcessor<String, MapSession> {
-
-		private final Instant lastAccessedTime;
-
-		private final Duration maxInactiveInterval;
-
-		private final Map<String, Object> delta;
-
-		SessionUpdateEntryProcessor(Instant lastAccessedTime,
-				Duration maxInactiveInterval, Map<String, Object> delta) {
-			this.lastAccessedTime = lastAccessedTime;
-			this.maxInactiveInterval = maxInactiveInterval;
-			this.delta = delta;
-		}
-
-		@Override
-		public Object process(Map.Entry<String, MapSession> entry) {
-			MapSession value = entry.getValue();
-			value.setLastAccessedTime(this.lastAccessedTime);
-			value.setMaxInactiveInterval(this.maxInactiveInterval);
-			for (final Map.Entry<String, Object> attribute : this.delta.entrySet()) {
-				if (attribute.getValue() != null) {
-					value.setAttribute(attribute.getKey(), attribute.getValue());
-				}
-				else {
-					value.removeAttribute(attribute.getKey());
-				}
+		private void flushImmediateIfNecessary() {
+			if (HazelcastSessionRepository.this.hazelcastFlushMode == HazelcastFlushMode.IMMEDIATE) {
+				HazelcastSessionRepository.this.save(this);
 			}
-			entry.setValue(value);
-			return value;
 		}
 
 	}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.hazelcast;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.StreamSerializer;
+
+import org.springframework.session.MapSession;
+import org.springframework.session.serializer.CompressingSerializer;
+import org.springframework.util.Assert;
+
+/**
+ * A Hazelcast {@link StreamSerializer} of {@link MapSession}, which stores the session
+ * attribute values compressed using a {@link CompressingSerializer}.
+ *
+ * <p>
+ * Without a serializer of its own, a {@link MapSession} is stored using Java
+ * serialization of the whole session. This serializer writes the session metadata in
+ * Hazelcast's binary format, and each attribute value as the bytes of the
+ * {@link CompressingSerializer}, so values at or above its threshold are stored
+ * compressed. The serializer must be registered with every member and client, for
+ * instance:
+ * </p>
+ *
+ * <pre class="code">
+ * config.getSerializationConfig().addSerializerConfig(new SerializerConfig()
+ *         .setImplementation(new HazelcastSessionSerializer())
+ *         .setTypeClass(MapSession.class));
+ * </pre>
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ */
+public class HazelcastSessionSerializer implements StreamSerializer<MapSession> {
+
+	/**
+	 * The Hazelcast type id of the serializer.
+	 */
+	public static final int TYPE_ID = 1453;
+
+	private final CompressingSerializer attributeSerializer;
+
+	/**
+	 * Create a new instance using a {@link CompressingSerializer} with the default
+	 * settings.
+	 */
+	public HazelcastSessionSerializer() {
+		this(new CompressingSerializer());
+	}
+
+	/**
+	 * Create a new instance.
+	 * @param attributeSerializer the serializer of the attribute values
+	 */
+	public HazelcastSessionSerializer(CompressingSerializer attributeSerializer) {
+		Assert.notNull(attributeSerializer, "attributeSerializer cannot be null");
+		this.attributeSerializer = attributeSerializer;
+	}
+
+	@Override
+	public int getTypeId() {
+		return TYPE_ID;
+	}
+
+	@Override
+	public void write(ObjectDataOutput out, MapSession session) throws IOException {
+		out.writeUTF(session.getId());
+		out.writeLong(session.getCreationTime().getEpochSecond());
+		out.writeInt(session.getCreationTime().getNano());
+		out.writeLong(session.getLastAccessedTime().getEpochSecond());
+		out.writeInt(session.getLastAccessedTime().getNano());
+		out.writeLong(session.getMaxInactiveInterval().getSeconds());
+		out.writeInt(session.getMaxInactiveInterval().getNano());
+		Set<String> attributeNames = session.getAttributeNames();
+		out.writeInt(attributeNames.size());
+		for (String attributeName : attributeNames) {
+			ByteArrayOutputStream value = new ByteArrayOutputStream(256);
+			this.attributeSerializer.serialize(session.getAttribute(attributeName),
+					value);
+			out.writeUTF(attributeName);
+			out.writeByteArray(value.toByteArray());
+		}
+	}
+
+	@Override
+	public MapSession read(ObjectDataInput in) throws IOException {
+		MapSession session = new MapSession(in.readUTF());
+		session.setCreationTime(Instant.ofEpochSecond(in.readLong(), in.readInt()));
+		session.setLastAccessedTime(Instant.ofEpochSecond(in.readLong(), in.readInt()));
+		session.setMaxInactiveInterval(Duration.ofSeconds(in.readLong(), in.readInt()));
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			String attributeName = in.readUTF();
+			session.setAttribute(attributeName, this.attributeSerializer
+					.deserialize(new ByteArrayInputStream(in.readByteArray())));
+		}
+		return session;
+	}
+
+	@Override
+	public void destroy() {
+	}
+
+}
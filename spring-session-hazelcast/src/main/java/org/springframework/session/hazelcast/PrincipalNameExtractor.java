@@ -19,15 +19,18 @@ package org.springframework.session.hazelcast;
 import com.hazelcast.query.extractor.ValueCollector;
 import com.hazelcast.query.extractor.ValueExtractor;
 
-import org.springframework.expression.Expression;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.DefaultPrincipalNameResolver;
 import org.springframework.session.MapSession;
-import org.springframework.session.Session;
+import org.springframework.session.PrincipalNameResolver;
 
 /**
  * Hazelcast {@link ValueExtractor} responsible for extracting principal name from the
  * {@link MapSession}.
+ * <p>
+ * {@link HazelcastSessionRepository} stores the principal name of the Spring Security
+ * context as a session attribute whenever the context changes, so the principal name is
+ * usually read directly. Only sessions stored without it fall back to evaluating the
+ * Spring Security context using {@link DefaultPrincipalNameResolver}.
  *
  * @author Vedran Pavic
  * @since 1.3.0
@@ -35,7 +38,7 @@ import org.springframework.session.Session;
 public class PrincipalNameExtractor extends ValueExtractor<MapSession, String> {
 
 	private static final PrincipalNameResolver PRINCIPAL_NAME_RESOLVER =
-			new PrincipalNameResolver();
+			new DefaultPrincipalNameResolver();
 
 	@Override
 	@SuppressWarnings("unchecked")
@@ -47,30 +50,4 @@ public class PrincipalNameExtractor extends ValueExtractor<MapSession, String> {
 		}
 	}
 
-	/**
-	 * Resolves the Spring Security principal name.
-	 */
-	static class PrincipalNameResolver {
-
-		private static final String SPRING_SECURITY_CONTEXT = "SPRING_SECURITY_CONTEXT";
-
-		private SpelExpressionParser parser = new SpelExpressionParser();
-
-		public String resolvePrincipal(Session session) {
-			String principalName = session.getAttribute(
-					FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME);
-			if (principalName != null) {
-				return principalName;
-			}
-			Object authentication = session.getAttribute(SPRING_SECURITY_CONTEXT);
-			if (authentication != null) {
-				Expression expression = this.parser
-						.parseExpression("authentication?.name");
-				return expression.getValue(authentication, String.class);
-			}
-			return null;
-		}
-
-	}
-
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.hazelcast;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.hazelcast.core.Offloadable;
+import com.hazelcast.map.EntryBackupProcessor;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+
+import org.springframework.session.MapSession;
+
+/**
+ * Hazelcast {@link EntryProcessor} responsible for handling updates to session.
+ *
+ * <p>
+ * The processor only carries the changes made to the session, which are written using
+ * Hazelcast's {@link DataSerializable} format rather than Java serialization. Only the
+ * values of changed attributes are serialized as objects. Since the caller does not need
+ * the updated session, {@link #process(Map.Entry)} returns {@code null}, so nothing is
+ * sent back to the caller.
+ * </p>
+ *
+ * <p>
+ * The processor acts as its own {@link EntryBackupProcessor}, so backup replicas receive
+ * the same compact payload and apply the same changes. This avoids the Java
+ * serialization of the processor that the backup processor of
+ * {@link com.hazelcast.map.AbstractEntryProcessor} incurs. The processor can be
+ * offloaded from the partition thread by providing the name of the executor to run it
+ * on, in which case Hazelcast locks the key while the processor is running.
+ * </p>
+ *
+ * @author Vedran Pavic
+ * @since 2.0.0
+ * @see HazelcastSessionRepository#save(HazelcastSessionRepository.HazelcastSession)
+ */
+public class SessionUpdateEntryProcessor
+		implements EntryProcessor<String, MapSession>,
+		EntryBackupProcessor<String, MapSession>, Offloadable, DataSerializable {
+
+	private String executorName = NO_OFFLOADING;
+
+	private Instant lastAccessedTime;
+
+	private Duration maxInactiveInterval;
+
+	private Map<String, Object> delta;
+
+	/**
+	 * Create a new instance. Used by Hazelcast when deserializing the processor.
+	 */
+	public SessionUpdateEntryProcessor() {
+	}
+
+	SessionUpdateEntryProcessor(Instant lastAccessedTime, Duration maxInactiveInterval,
+			Map<String, Object> delta) {
+		this.lastAccessedTime = lastAccessedTime;
+		this.maxInactiveInterval = maxInactiveInterval;
+		this.delta = delta;
+	}
+
+	SessionUpdateEntryProcessor(Instant lastAccessedTime, Duration maxInactiveInterval,
+			Map<String, Object> delta, String executorName) {
+		this(lastAccessedTime, maxInactiveInterval, delta);
+		this.executorName = executorName;
+	}
+
+	@Override
+	public Object process(Map.Entry<String, MapSession> entry) {
+		update(entry);
+		return null;
+	}
+
+	@Override
+	public EntryBackupProcessor<String, MapSession> getBackupProcessor() {
+		return this;
+	}
+
+	@Override
+	public void processBackup(Map.Entry<String, MapSession> entry) {
+		update(entry);
+	}
+
+	@Override
+	public String getExecutorName() {
+		return this.executorName;
+	}
+
+	private void update(Map.Entry<String, MapSession> entry) {
+		MapSession value = entry.getValue();
+		if (value == null) {
+			return;
+		}
+		value.setLastAccessedTime(this.lastAccessedTime);
+		value.setMaxInactiveInterval(this.maxInactiveInterval);
+		for (final Map.Entry<String, Object> attribute : this.delta.entrySet()) {
+			if (attribute.getValue() != null) {
+				value.setAttribute(attribute.getKey(), attribute.getValue());
+			}
+			else {
+				value.removeAttribute(attribute.getKey());
+			}
+		}
+		entry.setValue(value);
+	}
+
+	@Override
+	public void writeData(ObjectDataOutput out) throws IOException {
+		out.writeUTF(this.executorName);
+		out.writeLong(this.lastAccessedTime.getEpochSecond());
+		out.writeInt(this.lastAccessedTime.getNano());
+		out.writeLong(this.maxInactiveInterval.getSeconds());
+		out.writeInt(this.maxInactiveInterval.getNano());
+		out.writeInt(this.delta.size());
+		for (Map.Entry<String, Object> attribute : this.delta.entrySet()) {
+			out.writeUTF(attribute.getKey());
+			out.writeObject(attribute.getValue());
+		}
+	}
+
+	@Override
+	public void readData(ObjectDataInput in) throws IOException {
+		this.executorName = in.readUTF();
+		this.lastAccessedTime = Instant.ofEpochSecond(in.readLong(), in.readInt());
+		this.maxInactiveInterval = Duration.ofSeconds(in.readLong(), in.readInt());
+		int size = in.readInt();
+		this.delta = new HashMap<>(size);
+		for (int i = 0; i < size; i++) {
+			this.delta.put(in.readUTF(), in.readObject());
+		}
+	}
+
+}
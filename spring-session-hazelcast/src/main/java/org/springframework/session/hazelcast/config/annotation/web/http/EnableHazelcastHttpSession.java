@@ -22,6 +22,8 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.core.HazelcastInstance;
 
 import org.springframework.context.annotation.Configuration;
@@ -98,4 +100,41 @@ public @interface EnableHazelcastHttpSession {
 	 */
 	HazelcastFlushMode hazelcastFlushMode() default HazelcastFlushMode.ON_SAVE;
 
+	/**
+	 * The fraction of the maximum inactive interval that needs to elapse since the last
+	 * accessed time was stored before a session that was only accessed is updated in
+	 * Hazelcast. The default is {@code 0} which updates the session on every access.
+	 * @return the last accessed time update threshold
+	 * @since 2.0.0
+	 */
+	double lastAccessedTimeUpdateThreshold() default 0;
+
+	/**
+	 * Whether to enable a near cache for the sessions map. Entries of the near cache are
+	 * invalidated when the session is updated, deleted or evicted. The default is
+	 * {@code false}.
+	 * @return whether to enable a near cache for the sessions map
+	 * @since 2.0.0
+	 * @see HazelcastSessionRepository#setNearCacheConfig(com.hazelcast.config.NearCacheConfig)
+	 */
+	boolean nearCacheEnabled() default false;
+
+	/**
+	 * The in-memory format of the near cache. {@link InMemoryFormat#OBJECT} is not
+	 * supported, since the near cache would then share the session instances it holds
+	 * with the requests loading them. The default is {@link InMemoryFormat#BINARY}.
+	 * @return the in-memory format of the near cache
+	 * @since 2.0.0
+	 */
+	InMemoryFormat nearCacheInMemoryFormat() default InMemoryFormat.BINARY;
+
+	/**
+	 * The maximum number of sessions kept in the near cache, after which the least
+	 * recently used ones are evicted. The default is
+	 * {@link EvictionConfig#DEFAULT_MAX_ENTRY_COUNT}.
+	 * @return the maximum number of sessions kept in the near cache
+	 * @since 2.0.0
+	 */
+	int nearCacheMaxSize() default EvictionConfig.DEFAULT_MAX_ENTRY_COUNT;
+
 }
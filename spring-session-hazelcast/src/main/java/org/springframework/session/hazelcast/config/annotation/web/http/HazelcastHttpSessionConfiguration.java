@@ -18,7 +18,10 @@ package org.springframework.session.hazelcast.config.annotation.web.http;
 
 import java.util.Map;
 
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.Offloadable;
 
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +32,7 @@ import org.springframework.context.annotation.ImportAware;
 import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.session.MapSession;
+import org.springframework.session.PrincipalNameResolver;
 import org.springframework.session.config.annotation.web.http.SpringHttpSessionConfiguration;
 import org.springframework.session.hazelcast.HazelcastFlushMode;
 import org.springframework.session.hazelcast.HazelcastSessionRepository;
@@ -56,6 +60,14 @@ public class HazelcastHttpSessionConfiguration extends SpringHttpSessionConfigur
 
 	private HazelcastFlushMode hazelcastFlushMode = HazelcastFlushMode.ON_SAVE;
 
+	private double lastAccessedTimeUpdateThreshold;
+
+	private String updateExecutorName = Offloadable.NO_OFFLOADING;
+
+	private NearCacheConfig nearCacheConfig;
+
+	private PrincipalNameResolver principalNameResolver;
+
 	private HazelcastInstance hazelcastInstance;
 
 	private ApplicationEventPublisher applicationEventPublisher;
@@ -71,6 +83,13 @@ public class HazelcastHttpSessionConfiguration extends SpringHttpSessionConfigur
 		sessionRepository
 				.setDefaultMaxInactiveInterval(this.maxInactiveIntervalInSeconds);
 		sessionRepository.setHazelcastFlushMode(this.hazelcastFlushMode);
+		sessionRepository
+				.setLastAccessedTimeUpdateThreshold(this.lastAccessedTimeUpdateThreshold);
+		sessionRepository.setUpdateExecutorName(this.updateExecutorName);
+		sessionRepository.setNearCacheConfig(this.nearCacheConfig);
+		if (this.principalNameResolver != null) {
+			sessionRepository.setPrincipalNameResolver(this.principalNameResolver);
+		}
 		return sessionRepository;
 	}
 
@@ -86,6 +105,19 @@ public class HazelcastHttpSessionConfiguration extends SpringHttpSessionConfigur
 		this.hazelcastFlushMode = hazelcastFlushMode;
 	}
 
+	public void setLastAccessedTimeUpdateThreshold(
+			double lastAccessedTimeUpdateThreshold) {
+		this.lastAccessedTimeUpdateThreshold = lastAccessedTimeUpdateThreshold;
+	}
+
+	public void setUpdateExecutorName(String updateExecutorName) {
+		this.updateExecutorName = updateExecutorName;
+	}
+
+	public void setNearCacheConfig(NearCacheConfig nearCacheConfig) {
+		this.nearCacheConfig = nearCacheConfig;
+	}
+
 	@Autowired
 	public void setHazelcastInstance(
 			@SpringSessionHazelcastInstance ObjectProvider<HazelcastInstance> springSessionHazelcastInstance,
@@ -98,6 +130,11 @@ public class HazelcastHttpSessionConfiguration extends SpringHttpSessionConfigur
 		this.hazelcastInstance = hazelcastInstanceToUse;
 	}
 
+	@Autowired(required = false)
+	public void setPrincipalNameResolver(PrincipalNameResolver principalNameResolver) {
+		this.principalNameResolver = principalNameResolver;
+	}
+
 	@Autowired
 	public void setApplicationEventPublisher(
 			ApplicationEventPublisher applicationEventPublisher) {
@@ -116,6 +153,15 @@ public class HazelcastHttpSessionConfiguration extends SpringHttpSessionConfigur
 			this.sessionMapName = sessionMapNameValue;
 		}
 		this.hazelcastFlushMode = attributes.getEnum("hazelcastFlushMode");
+		this.lastAccessedTimeUpdateThreshold = attributes
+				.getNumber("lastAccessedTimeUpdateThreshold").doubleValue();
+		if (attributes.getBoolean("nearCacheEnabled")) {
+			EvictionConfig evictionConfig = new EvictionConfig()
+					.setSize(attributes.getNumber("nearCacheMaxSize"));
+			this.nearCacheConfig = new NearCacheConfig()
+					.setInMemoryFormat(attributes.getEnum("nearCacheInMemoryFormat"))
+					.setEvictionConfig(evictionConfig);
+		}
 	}
 
 }
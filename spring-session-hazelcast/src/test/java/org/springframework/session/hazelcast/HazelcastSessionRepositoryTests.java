@@ -23,8 +23,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapIndexConfig;
+import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
+import com.hazelcast.core.Offloadable;
 import com.hazelcast.map.EntryProcessor;
 import com.hazelcast.map.listener.MapListener;
 import com.hazelcast.query.impl.predicates.EqualPredicate;
@@ -33,12 +39,14 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
 import org.springframework.session.FindByIndexNameSessionRepository;
 import org.springframework.session.MapSession;
 import org.springframework.session.hazelcast.HazelcastSessionRepository.HazelcastSession;
@@ -92,6 +100,70 @@ public class HazelcastSessionRepositoryTests {
 		new HazelcastSessionRepository(null);
 	}
 
+	@Test
+	public void initNearCache() {
+		Config config = new Config();
+		given(this.hazelcastInstance.getConfig()).willReturn(config);
+		HazelcastSessionRepository repository = new HazelcastSessionRepository(
+				this.hazelcastInstance);
+		repository.setNearCacheConfig(new NearCacheConfig("ignored"));
+		repository.init();
+
+		NearCacheConfig nearCacheConfig = config
+				.getMapConfig(HazelcastSessionRepository.DEFAULT_SESSION_MAP_NAME)
+				.getNearCacheConfig();
+		assertThat(nearCacheConfig.getName())
+				.isEqualTo(HazelcastSessionRepository.DEFAULT_SESSION_MAP_NAME);
+		assertThat(nearCacheConfig.getInMemoryFormat()).isEqualTo(InMemoryFormat.BINARY);
+	}
+
+	@Test
+	public void initNearCacheExistingMapConfig() {
+		Config config = new Config();
+		MapConfig mapConfig = new MapConfig(
+				HazelcastSessionRepository.DEFAULT_SESSION_MAP_NAME)
+						.addMapIndexConfig(new MapIndexConfig(
+								HazelcastSessionRepository.PRINCIPAL_NAME_ATTRIBUTE,
+								false));
+		config.addMapConfig(mapConfig);
+		given(this.hazelcastInstance.getConfig()).willReturn(config);
+		HazelcastSessionRepository repository = new HazelcastSessionRepository(
+				this.hazelcastInstance);
+		repository.setNearCacheConfig(new NearCacheConfig());
+		repository.init();
+
+		assertThat(mapConfig.getNearCacheConfig()).isNotNull();
+		assertThat(mapConfig.getMapIndexConfigs()).hasSize(1);
+	}
+
+	@Test
+	public void initNearCacheExistingNearCacheConfig() {
+		Config config = new Config();
+		NearCacheConfig existing = new NearCacheConfig().setCacheLocalEntries(true);
+		config.addMapConfig(new MapConfig(
+				HazelcastSessionRepository.DEFAULT_SESSION_MAP_NAME)
+						.setNearCacheConfig(existing));
+		given(this.hazelcastInstance.getConfig()).willReturn(config);
+		HazelcastSessionRepository repository = new HazelcastSessionRepository(
+				this.hazelcastInstance);
+		repository.setNearCacheConfig(new NearCacheConfig());
+		repository.init();
+
+		assertThat(config
+				.getMapConfig(HazelcastSessionRepository.DEFAULT_SESSION_MAP_NAME)
+				.getNearCacheConfig()).isSameAs(existing);
+	}
+
+	@Test
+	public void setNearCacheConfigObjectInMemoryFormat() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage(
+				"nearCacheConfig must not use the OBJECT in-memory format");
+
+		this.repository.setNearCacheConfig(
+				new NearCacheConfig().setInMemoryFormat(InMemoryFormat.OBJECT));
+	}
+
 	@Test
 	public void createSessionDefaultMaxInactiveInterval() throws Exception {
 		verify(this.sessions, times(1)).addEntryListener(any(MapListener.class),
@@ -245,6 +317,81 @@ public class HazelcastSessionRepositoryTests {
 		verifyZeroInteractions(this.sessions);
 	}
 
+	@Test
+	public void saveUpdatedLastAccessedTimeBelowUpdateThreshold() {
+		verify(this.sessions, times(1)).addEntryListener(any(MapListener.class),
+				anyBoolean());
+
+		this.repository.setLastAccessedTimeUpdateThreshold(0.5);
+		MapSession saved = new MapSession();
+		HazelcastSession session = this.repository.new HazelcastSession(saved);
+		session.setLastAccessedTime(saved.getLastAccessedTime().plusSeconds(60));
+
+		this.repository.save(session);
+		verifyZeroInteractions(this.sessions);
+	}
+
+	@Test
+	public void saveUpdatedLastAccessedTimeAboveUpdateThreshold() {
+		verify(this.sessions, times(1)).addEntryListener(any(MapListener.class),
+				anyBoolean());
+
+		this.repository.setLastAccessedTimeUpdateThreshold(0.5);
+		MapSession saved = new MapSession();
+		HazelcastSession session = this.repository.new HazelcastSession(saved);
+		session.setLastAccessedTime(saved.getLastAccessedTime().plusSeconds(901));
+
+		this.repository.save(session);
+		verify(this.sessions, times(1)).executeOnKey(eq(session.getId()),
+				any(EntryProcessor.class));
+		verifyZeroInteractions(this.sessions);
+	}
+
+	@Test
+	public void saveUpdatedAttributeOffloaded() {
+		verify(this.sessions, times(1)).addEntryListener(any(MapListener.class),
+				anyBoolean());
+
+		this.repository.setUpdateExecutorName(Offloadable.OFFLOADABLE_EXECUTOR);
+		HazelcastSession session = this.repository.new HazelcastSession(
+				new MapSession());
+		session.setAttribute("testName", "testValue");
+
+		this.repository.save(session);
+		ArgumentCaptor<SessionUpdateEntryProcessor> processor = ArgumentCaptor
+				.forClass(SessionUpdateEntryProcessor.class);
+		verify(this.sessions, times(1)).executeOnKey(eq(session.getId()),
+				processor.capture());
+		assertThat(processor.getValue().getExecutorName())
+				.isEqualTo(Offloadable.OFFLOADABLE_EXECUTOR);
+		verifyZeroInteractions(this.sessions);
+	}
+
+	@Test
+	public void setUpdateExecutorNameEmpty() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("updateExecutorName must not be empty");
+
+		this.repository.setUpdateExecutorName(" ");
+	}
+
+	@Test
+	public void setLastAccessedTimeUpdateThresholdInvalid() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage(
+				"lastAccessedTimeUpdateThreshold must be in the range [0, 1)");
+
+		this.repository.setLastAccessedTimeUpdateThreshold(-1);
+	}
+
+	@Test
+	public void setPrincipalNameResolverNull() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("principalNameResolver cannot be null");
+
+		this.repository.setPrincipalNameResolver(null);
+	}
+
 	@Test
 	public void saveUpdatedMaxInactiveIntervalInSecondsFlushModeOnSave() {
 		verify(this.sessions, times(1)).addEntryListener(any(MapListener.class),
@@ -400,6 +547,75 @@ public class HazelcastSessionRepositoryTests {
 		verifyZeroInteractions(this.sessions);
 	}
 
+	@Test
+	public void setSecurityContextStoresPrincipalName() {
+		Authentication authentication = new UsernamePasswordAuthenticationToken(
+				"username", "notused", AuthorityUtils.createAuthorityList("ROLE_USER"));
+		HazelcastSession session = this.repository.createSession();
+
+		session.setAttribute(SPRING_SECURITY_CONTEXT,
+				new SecurityContextImpl(authentication));
+
+		assertThat(session.<String>getAttribute(
+				FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME))
+						.isEqualTo("username");
+
+		session.removeAttribute(SPRING_SECURITY_CONTEXT);
+
+		assertThat(session.<String>getAttribute(
+				FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME)).isNull();
+	}
+
+	@Test
+	public void setSecurityContextRetainsExplicitPrincipalName() {
+		Authentication authentication = new UsernamePasswordAuthenticationToken(
+				"username", "notused", AuthorityUtils.createAuthorityList("ROLE_USER"));
+		HazelcastSession session = this.repository.createSession();
+		session.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME,
+				"explicit");
+
+		session.setAttribute(SPRING_SECURITY_CONTEXT,
+				new SecurityContextImpl(authentication));
+
+		assertThat(session.<String>getAttribute(
+				FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME))
+						.isEqualTo("explicit");
+
+		session.removeAttribute(SPRING_SECURITY_CONTEXT);
+
+		assertThat(session.<String>getAttribute(
+				FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME))
+						.isEqualTo("explicit");
+	}
+
+	@Test
+	public void setSecurityContextReplacesResolvedPrincipalName() {
+		HazelcastSession session = this.repository.createSession();
+		session.setAttribute(SPRING_SECURITY_CONTEXT, new SecurityContextImpl(
+				new UsernamePasswordAuthenticationToken("first", "notused",
+						AuthorityUtils.createAuthorityList("ROLE_USER"))));
+
+		session.setAttribute(SPRING_SECURITY_CONTEXT, new SecurityContextImpl(
+				new UsernamePasswordAuthenticationToken("second", "notused",
+						AuthorityUtils.createAuthorityList("ROLE_USER"))));
+
+		assertThat(session.<String>getAttribute(
+				FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME))
+						.isEqualTo("second");
+	}
+
+	@Test
+	public void setSecurityContextCustomPrincipalNameResolver() {
+		this.repository.setPrincipalNameResolver(session -> "custom");
+		HazelcastSession session = this.repository.createSession();
+
+		session.setAttribute(SPRING_SECURITY_CONTEXT, new SecurityContextImpl());
+
+		assertThat(session.<String>getAttribute(
+				FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME))
+						.isEqualTo("custom");
+	}
+
 	@Test
 	public void findByIndexNameAndIndexValuePrincipalIndexNameFound() {
 		verify(this.sessions, times(1)).addEntryListener(any(MapListener.class),
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.hazelcast;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.config.SerializerConfig;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import org.junit.Test;
+
+import org.springframework.session.MapSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link HazelcastSessionSerializer}.
+ *
+ * @author Vedran Pavic
+ */
+public class HazelcastSessionSerializerTests {
+
+	private static final String LARGE_VALUE = String.join("",
+			Collections.nCopies(1000, "value"));
+
+	@Test
+	public void serializationRoundTrip() {
+		InternalSerializationService serializationService = createSerializationService();
+		MapSession session = new MapSession();
+		session.setCreationTime(Instant.ofEpochSecond(1500000000L, 123));
+		session.setLastAccessedTime(Instant.ofEpochSecond(1500000060L, 456));
+		session.setMaxInactiveInterval(Duration.ofMinutes(45));
+		session.setAttribute("small", "value");
+		session.setAttribute("large", LARGE_VALUE);
+
+		Data data = serializationService.toData(session);
+		MapSession deserialized = serializationService.toObject(data);
+
+		assertThat(data.getType()).isEqualTo(HazelcastSessionSerializer.TYPE_ID);
+		assertThat(deserialized.getId()).isEqualTo(session.getId());
+		assertThat(deserialized.getCreationTime()).isEqualTo(session.getCreationTime());
+		assertThat(deserialized.getLastAccessedTime())
+				.isEqualTo(session.getLastAccessedTime());
+		assertThat(deserialized.getMaxInactiveInterval())
+				.isEqualTo(session.getMaxInactiveInterval());
+		assertThat(deserialized.getAttributeNames()).containsOnly("small", "large");
+		assertThat(deserialized.<String>getAttribute("small")).isEqualTo("value");
+		assertThat(deserialized.<String>getAttribute("large")).isEqualTo(LARGE_VALUE);
+	}
+
+	@Test
+	public void serializeCompressesLargeValues() {
+		InternalSerializationService serializationService = createSerializationService();
+		MapSession session = new MapSession();
+		session.setAttribute("large", LARGE_VALUE);
+
+		Data data = serializationService.toData(session);
+
+		assertThat(data.dataSize()).isLessThan(LARGE_VALUE.length() / 10);
+	}
+
+	private static InternalSerializationService createSerializationService() {
+		SerializationConfig config = new SerializationConfig();
+		config.addSerializerConfig(new SerializerConfig()
+				.setImplementation(new HazelcastSessionSerializer())
+				.setTypeClass(MapSession.class));
+		return new DefaultSerializationServiceBuilder().setConfig(config).build();
+	}
+
+}
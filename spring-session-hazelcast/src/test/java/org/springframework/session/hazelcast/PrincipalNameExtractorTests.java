@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.hazelcast;
+
+import com.hazelcast.query.extractor.ValueCollector;
+import org.junit.Test;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+/**
+ * Tests for {@link PrincipalNameExtractor}.
+ *
+ * @author Vedran Pavic
+ */
+public class PrincipalNameExtractorTests {
+
+	private static final String SPRING_SECURITY_CONTEXT = "SPRING_SECURITY_CONTEXT";
+
+	private PrincipalNameExtractor extractor = new PrincipalNameExtractor();
+
+	private ValueCollector collector = mock(ValueCollector.class);
+
+	@Test
+	public void extractPrincipalNameAttribute() {
+		MapSession session = new MapSession();
+		session.setAttribute(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME,
+				"username");
+
+		this.extractor.extract(session, null, this.collector);
+
+		verify(this.collector).addObject("username");
+	}
+
+	@Test
+	public void extractSecurityContextFallback() {
+		Authentication authentication = new UsernamePasswordAuthenticationToken(
+				"username", "notused", AuthorityUtils.createAuthorityList("ROLE_USER"));
+		MapSession session = new MapSession();
+		session.setAttribute(SPRING_SECURITY_CONTEXT,
+				new SecurityContextImpl(authentication));
+
+		this.extractor.extract(session, null, this.collector);
+
+		verify(this.collector).addObject("username");
+	}
+
+	@Test
+	public void extractNoPrincipal() {
+		this.extractor.extract(new MapSession(), null, this.collector);
+
+		verifyZeroInteractions(this.collector);
+	}
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.session.hazelcast;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.hazelcast.core.Offloadable;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import org.junit.Test;
+
+import org.springframework.session.MapSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link SessionUpdateEntryProcessor}.
+ *
+ * @author Vedran Pavic
+ */
+public class SessionUpdateEntryProcessorTests {
+
+	private final Instant lastAccessedTime = Instant.ofEpochSecond(1500000000L, 123);
+
+	private final Duration maxInactiveInterval = Duration.ofMinutes(45);
+
+	@Test
+	public void processAppliesDeltaAndReturnsNull() {
+		MapSession session = new MapSession();
+		session.setAttribute("removed", "value");
+		Map.Entry<String, MapSession> entry = new AbstractMap.SimpleEntry<>(
+				session.getId(), session);
+		Map<String, Object> delta = new HashMap<>();
+		delta.put("added", "value");
+		delta.put("removed", null);
+		SessionUpdateEntryProcessor processor = new SessionUpdateEntryProcessor(
+				this.lastAccessedTime, this.maxInactiveInterval, delta);
+
+		assertThat(processor.process(entry)).isNull();
+		assertThat(session.getLastAccessedTime()).isEqualTo(this.lastAccessedTime);
+		assertThat(session.getMaxInactiveInterval()).isEqualTo(this.maxInactiveInterval);
+		assertThat(session.getAttributeNames()).containsOnly("added");
+	}
+
+	@Test
+	public void processBackupAppliesDelta() {
+		MapSession session = new MapSession();
+		Map.Entry<String, MapSession> entry = new AbstractMap.SimpleEntry<>(
+				session.getId(), session);
+		SessionUpdateEntryProcessor processor = new SessionUpdateEntryProcessor(
+				this.lastAccessedTime, this.maxInactiveInterval,
+				Collections.singletonMap("added", "value"));
+
+		processor.getBackupProcessor().processBackup(entry);
+
+		assertThat(session.getLastAccessedTime()).isEqualTo(this.lastAccessedTime);
+		assertThat(session.getMaxInactiveInterval()).isEqualTo(this.maxInactiveInterval);
+		assertThat(session.<String>getAttribute("added")).isEqualTo("value");
+	}
+
+	@Test
+	public void executorNameDefault() {
+		SessionUpdateEntryProcessor processor = new SessionUpdateEntryProcessor(
+				this.lastAccessedTime, this.maxInactiveInterval, new HashMap<>());
+
+		assertThat(processor.getExecutorName()).isEqualTo(Offloadable.NO_OFFLOADING);
+	}
+
+	@Test
+	public void processMissingEntry() {
+		Map.Entry<String, MapSession> entry = new AbstractMap.SimpleEntry<>("id", null);
+		SessionUpdateEntryProcessor processor = new SessionUpdateEntryProcessor(
+				this.lastAccessedTime, this.maxInactiveInterval, new HashMap<>());
+
+		assertThat(processor.process(entry)).isNull();
+		assertThat(entry.getValue()).isNull();
+	}
+
+	@Test
+	public void serializationRoundTrip() {
+		InternalSerializationService serializationService = new DefaultSerializationServiceBuilder()
+				.build();
+		Map<String, Object> delta = new HashMap<>();
+		delta.put("added", "value");
+		delta.put("removed", null);
+		SessionUpdateEntryProcessor processor = new SessionUpdateEntryProcessor(
+				this.lastAccessedTime, this.maxInactiveInterval, delta,
+				Offloadable.OFFLOADABLE_EXECUTOR);
+
+		Data data = serializationService.toData(processor);
+		SessionUpdateEntryProcessor deserialized = serializationService.toObject(data);
+
+		assertThat(deserialized.getExecutorName())
+				.isEqualTo(Offloadable.OFFLOADABLE_EXECUTOR);
+
+		MapSession session = new MapSession();
+		session.setAttribute("removed", "value");
+		deserialized.process(new AbstractMap.SimpleEntry<>(session.getId(), session));
+		assertThat(session.getLastAccessedTime()).isEqualTo(this.lastAccessedTime);
+		assertThat(session.getMaxInactiveInterval()).isEqualTo(this.maxInactiveInterval);
+		assertThat(session.<String>getAttribute("added")).isEqualTo("value");
+		assertThat(session.getAttributeNames()).containsOnly("added");
+	}
+
+}
@@ -16,6 +16,9 @@
 
 package org.springframework.session.hazelcast.config.annotation.web.http;
 
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
 import org.junit.After;
@@ -152,6 +155,29 @@ public class HazelcastHttpSessionConfigurationTests {
 				.isEqualTo(HazelcastFlushMode.IMMEDIATE);
 	}
 
+	@Test
+	public void defaultNearCache() {
+		registerAndRefresh(DefaultConfiguration.class);
+
+		HazelcastSessionRepository repository = this.context
+				.getBean(HazelcastSessionRepository.class);
+		assertThat(ReflectionTestUtils.getField(repository, "nearCacheConfig")).isNull();
+	}
+
+	@Test
+	public void customNearCache() {
+		registerAndRefresh(CustomNearCacheConfiguration.class);
+
+		HazelcastInstance hazelcastInstance = this.context
+				.getBean(HazelcastInstance.class);
+		NearCacheConfig nearCacheConfig = hazelcastInstance.getConfig()
+				.getMapConfig(HazelcastSessionRepository.DEFAULT_SESSION_MAP_NAME)
+				.getNearCacheConfig();
+		assertThat(nearCacheConfig).isNotNull();
+		assertThat(nearCacheConfig.getInMemoryFormat()).isEqualTo(InMemoryFormat.NATIVE);
+		assertThat(nearCacheConfig.getEvictionConfig().getSize()).isEqualTo(100);
+	}
+
 	@Test
 	public void qualifiedHazelcastInstanceConfiguration() {
 		registerAndRefresh(QualifiedHazelcastInstanceConfiguration.class);
@@ -236,6 +262,7 @@ public class HazelcastHttpSessionConfigurationTests {
 			HazelcastInstance hazelcastInstance = mock(HazelcastInstance.class);
 			given(hazelcastInstance.getMap(anyString()))
 					.willReturn(defaultHazelcastInstanceSessions);
+			given(hazelcastInstance.getConfig()).willReturn(new Config());
 			return hazelcastInstance;
 		}
 
@@ -246,6 +273,11 @@ public class HazelcastHttpSessionConfigurationTests {
 	static class DefaultConfiguration extends BaseConfiguration {
 	}
 
+	@Configuration
+	@EnableHazelcastHttpSession(nearCacheEnabled = true, nearCacheInMemoryFormat = InMemoryFormat.NATIVE, nearCacheMaxSize = 100)
+	static class CustomNearCacheConfiguration extends BaseConfiguration {
+	}
+
 	@Configuration
 	@EnableHazelcastHttpSession(sessionMapName = MAP_NAME)
 	static class CustomSessionMapNameConfiguration extends BaseConfiguration {
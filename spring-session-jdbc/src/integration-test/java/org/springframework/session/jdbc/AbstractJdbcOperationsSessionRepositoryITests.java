@@ -19,6 +19,8 @@ package org.springframework.session.jdbc;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -563,6 +565,39 @@ public abstract class AbstractJdbcOperationsSessionRepositoryITests {
 		assertThat(this.repository.findById(session.getId())).isNull();
 	}
 
+	@Test
+	public void cleanupInactiveSessionsInBatches() {
+		Instant now = Instant.now();
+		List<String> expiredSessionIds = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			JdbcOperationsSessionRepository.JdbcSession session = this.repository
+					.createSession();
+			session.setAttribute("attribute", "value");
+			session.setLastAccessedTime(now.minus(31, ChronoUnit.MINUTES));
+			this.repository.save(session);
+			expiredSessionIds.add(session.getId());
+		}
+		JdbcOperationsSessionRepository.JdbcSession activeSession = this.repository
+				.createSession();
+		this.repository.save(activeSession);
+
+		this.repository.setCleanupBatchSize(2);
+		try {
+			JdbcOperationsSessionRepository.CleanupResult result = this.repository
+					.cleanUpExpiredSessionsWithResult();
+
+			assertThat(result.getDeletedCount()).isGreaterThanOrEqualTo(5);
+			assertThat(result.getBatchCount()).isGreaterThanOrEqualTo(3);
+		}
+		finally {
+			this.repository.setCleanupBatchSize(0);
+		}
+		for (String id : expiredSessionIds) {
+			assertThat(this.repository.findById(id)).isNull();
+		}
+		assertThat(this.repository.findById(activeSession.getId())).isNotNull();
+	}
+
 	@Test
 	public void changeSessionIdWhenOnlyChangeId() throws Exception {
 		String attrName = "changeSessionId";
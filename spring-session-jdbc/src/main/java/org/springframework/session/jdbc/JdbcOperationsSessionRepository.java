@@ -19,6 +19,7 @@ package org.springframework.session.jdbc;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -28,6 +29,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -38,16 +40,17 @@ import org.springframework.core.convert.support.GenericConversionService;
 import org.springframework.core.serializer.support.DeserializingConverter;
 import org.springframework.core.serializer.support.SerializingConverter;
 import org.springframework.dao.DataAccessException;
-import org.springframework.expression.Expression;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcOperations;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.support.lob.DefaultLobHandler;
 import org.springframework.jdbc.support.lob.LobHandler;
+import org.springframework.session.DefaultPrincipalNameResolver;
 import org.springframework.session.FindByIndexNameSessionRepository;
 import org.springframework.session.MapSession;
+import org.springframework.session.PrincipalNameResolver;
 import org.springframework.session.Session;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
@@ -179,11 +182,19 @@ public class JdbcOperationsSessionRepository implements
 			"DELETE FROM %TABLE_NAME% " +
 					"WHERE EXPIRY_TIME < ?";
 
+	private static final String LIST_EXPIRED_SESSION_IDS_QUERY =
+			"SELECT PRIMARY_ID " +
+					"FROM %TABLE_NAME% " +
+					"WHERE EXPIRY_TIME < ?";
+
+	private static final String DELETE_EXPIRED_SESSION_QUERY =
+			"DELETE FROM %TABLE_NAME% " +
+					"WHERE PRIMARY_ID = ? " +
+					"AND EXPIRY_TIME < ?";
+
 	private static final Log logger = LogFactory
 			.getLog(JdbcOperationsSessionRepository.class);
 
-	private static final PrincipalNameResolver PRINCIPAL_NAME_RESOLVER = new PrincipalNameResolver();
-
 	private final JdbcOperations jdbcOperations;
 
 	private final TransactionOperations transactionOperations;
@@ -207,12 +218,20 @@ public class JdbcOperationsSessionRepository implements
 
 	private String deleteSessionAttributeQuery;
 
+	private String upsertSessionAttributeQuery;
+
+	private boolean customSessionAttributeQueries;
+
 	private String deleteSessionQuery;
 
 	private String listSessionsByPrincipalNameQuery;
 
 	private String deleteSessionsByExpiryTimeQuery;
 
+	private String listExpiredSessionIdsQuery;
+
+	private String deleteExpiredSessionQuery;
+
 	/**
 	 * If non-null, this value is used to override the default value for
 	 * {@link JdbcSession#setMaxInactiveInterval(Duration)}.
@@ -223,6 +242,16 @@ public class JdbcOperationsSessionRepository implements
 
 	private LobHandler lobHandler = new DefaultLobHandler();
 
+	private double lastAccessedTimeUpdateThreshold;
+
+	private PrincipalNameResolver principalNameResolver = new DefaultPrincipalNameResolver();
+
+	private int cleanupBatchSize;
+
+	private Duration cleanupBatchPause = Duration.ZERO;
+
+	private Duration cleanupTimeBudget = Duration.ZERO;
+
 	/**
 	 * Create a new {@link JdbcOperationsSessionRepository} instance which uses the
 	 * provided {@link JdbcOperations} to manage sessions.
@@ -264,6 +293,7 @@ public class JdbcOperationsSessionRepository implements
 	public void setCreateSessionAttributeQuery(String createSessionAttributeQuery) {
 		Assert.hasText(createSessionAttributeQuery, "Query must not be empty");
 		this.createSessionAttributeQuery = createSessionAttributeQuery;
+		this.customSessionAttributeQueries = true;
 	}
 
 	/**
@@ -291,6 +321,7 @@ public class JdbcOperationsSessionRepository implements
 	public void setUpdateSessionAttributeQuery(String updateSessionAttributeQuery) {
 		Assert.hasText(updateSessionAttributeQuery, "Query must not be empty");
 		this.updateSessionAttributeQuery = updateSessionAttributeQuery;
+		this.customSessionAttributeQueries = true;
 	}
 
 	/**
@@ -302,6 +333,22 @@ public class JdbcOperationsSessionRepository implements
 		this.deleteSessionAttributeQuery = deleteSessionAttributeQuery;
 	}
 
+	/**
+	 * Set the SQL query used to insert or update a session attribute in a single
+	 * statement, using the upsert syntax supported by the database. The parameters are
+	 * bound in the same order as for the query used to create the session attribute. If
+	 * set, the query is used for all the attributes of an existing session that were added
+	 * or changed, which also prevents failures when the same attribute is added
+	 * concurrently. The query is ignored if the query used to create or update the
+	 * session attribute is customized. By default no upsert query is used.
+	 * @param upsertSessionAttributeQuery the SQL query string
+	 * @since 2.0.0
+	 */
+	public void setUpsertSessionAttributeQuery(String upsertSessionAttributeQuery) {
+		Assert.hasText(upsertSessionAttributeQuery, "Query must not be empty");
+		this.upsertSessionAttributeQuery = upsertSessionAttributeQuery;
+	}
+
 	/**
 	 * Set the custom SQL query used to delete the session.
 	 * @param deleteSessionQuery the SQL query string
@@ -329,6 +376,30 @@ public class JdbcOperationsSessionRepository implements
 		this.deleteSessionsByExpiryTimeQuery = deleteSessionsByExpiryTimeQuery;
 	}
 
+	/**
+	 * Set the custom SQL query used to list the primary ids of expired sessions when
+	 * cleaning up in batches. The query receives the current time as its only parameter
+	 * and must return the {@code PRIMARY_ID} column. The number of returned rows is
+	 * limited to the batch size using {@link PreparedStatement#setMaxRows(int)}.
+	 * @param listExpiredSessionIdsQuery the SQL query string
+	 * @since 2.0.0
+	 */
+	public void setListExpiredSessionIdsQuery(String listExpiredSessionIdsQuery) {
+		Assert.hasText(listExpiredSessionIdsQuery, "Query must not be empty");
+		this.listExpiredSessionIdsQuery = listExpiredSessionIdsQuery;
+	}
+
+	/**
+	 * Set the custom SQL query used to delete a single expired session by its primary id
+	 * when cleaning up in batches.
+	 * @param deleteExpiredSessionQuery the SQL query string
+	 * @since 2.0.0
+	 */
+	public void setDeleteExpiredSessionQuery(String deleteExpiredSessionQuery) {
+		Assert.hasText(deleteExpiredSessionQuery, "Query must not be empty");
+		this.deleteExpiredSessionQuery = deleteExpiredSessionQuery;
+	}
+
 	/**
 	 * Set the maximum inactive interval in seconds between requests before newly created
 	 * sessions will be invalidated. A negative time indicates that the session will never
@@ -353,6 +424,81 @@ public class JdbcOperationsSessionRepository implements
 		this.conversionService = conversionService;
 	}
 
+	/**
+	 * Sets the fraction of the maximum inactive interval that needs to elapse since the
+	 * stored last access time before a session whose last accessed time is the only
+	 * change is updated. For example, with a value of {@code 0.1} and a maximum inactive
+	 * interval of 30 minutes, the session row of a session that is only accessed is
+	 * updated at most once every 3 minutes. Since the stored expiry time is updated less
+	 * often, a session can expire earlier by at most this fraction of its maximum
+	 * inactive interval. The default is {@code 0} which updates the session row whenever
+	 * the last accessed time changes.
+	 * @param lastAccessedTimeUpdateThreshold the fraction of the maximum inactive
+	 * interval, in the range from {@code 0} (inclusive) to {@code 1} (exclusive)
+	 * @since 2.0.0
+	 */
+	public void setLastAccessedTimeUpdateThreshold(
+			double lastAccessedTimeUpdateThreshold) {
+		Assert.isTrue(lastAccessedTimeUpdateThreshold >= 0
+				&& lastAccessedTimeUpdateThreshold < 1,
+				"lastAccessedTimeUpdateThreshold must be in the range [0, 1)");
+		this.lastAccessedTimeUpdateThreshold = lastAccessedTimeUpdateThreshold;
+	}
+
+	/**
+	 * Sets the {@link PrincipalNameResolver} used to resolve the principal name that is
+	 * stored with each session. The default is {@link DefaultPrincipalNameResolver}.
+	 * @param principalNameResolver the principal name resolver
+	 * @since 2.0.0
+	 */
+	public void setPrincipalNameResolver(PrincipalNameResolver principalNameResolver) {
+		Assert.notNull(principalNameResolver, "principalNameResolver cannot be null");
+		this.principalNameResolver = principalNameResolver;
+	}
+
+	/**
+	 * Sets the maximum number of expired sessions deleted in a single transaction by
+	 * {@link #cleanUpExpiredSessions()}. When positive, the expired sessions are deleted
+	 * by primary id in batches of the given size, each using its own transaction, which
+	 * keeps lock hold times and transaction log usage bounded. The default is {@code 0}
+	 * which deletes all the expired sessions using a single statement.
+	 * @param cleanupBatchSize the batch size, or {@code 0} to disable batching
+	 * @since 2.0.0
+	 */
+	public void setCleanupBatchSize(int cleanupBatchSize) {
+		Assert.isTrue(cleanupBatchSize >= 0, "cleanupBatchSize must not be negative");
+		this.cleanupBatchSize = cleanupBatchSize;
+	}
+
+	/**
+	 * Sets the pause between two consecutive cleanup batches, giving concurrent
+	 * transactions and replicas a chance to catch up. Only used if the cleanup batch size
+	 * is positive. The default is {@link Duration#ZERO}.
+	 * @param cleanupBatchPause the pause between batches
+	 * @since 2.0.0
+	 */
+	public void setCleanupBatchPause(Duration cleanupBatchPause) {
+		Assert.notNull(cleanupBatchPause, "cleanupBatchPause must not be null");
+		Assert.isTrue(!cleanupBatchPause.isNegative(),
+				"cleanupBatchPause must not be negative");
+		this.cleanupBatchPause = cleanupBatchPause;
+	}
+
+	/**
+	 * Sets the time a single {@link #cleanUpExpiredSessions()} run may take before it
+	 * stops starting new batches. Any remaining expired sessions are deleted by the next
+	 * run. Only used if the cleanup batch size is positive. The default is
+	 * {@link Duration#ZERO} which does not limit the run time.
+	 * @param cleanupTimeBudget the time budget of a cleanup run
+	 * @since 2.0.0
+	 */
+	public void setCleanupTimeBudget(Duration cleanupTimeBudget) {
+		Assert.notNull(cleanupTimeBudget, "cleanupTimeBudget must not be null");
+		Assert.isTrue(!cleanupTimeBudget.isNegative(),
+				"cleanupTimeBudget must not be negative");
+		this.cleanupTimeBudget = cleanupTimeBudget;
+	}
+
 	@Override
 	public JdbcSession createSession() {
 		JdbcSession session = new JdbcSession();
@@ -380,32 +526,18 @@ public class JdbcOperationsSessionRepository implements
 								ps.setLong(6, session.getExpiryTime().toEpochMilli());
 								ps.setString(7, session.getPrincipalName());
 							});
-					if (!session.getAttributeNames().isEmpty()) {
-						final List<String> attributeNames = new ArrayList<>(session.getAttributeNames());
-						JdbcOperationsSessionRepository.this.jdbcOperations.batchUpdate(
-								JdbcOperationsSessionRepository.this.createSessionAttributeQuery,
-								new BatchPreparedStatementSetter() {
-
-									@Override
-									public void setValues(PreparedStatement ps, int i) throws SQLException {
-										String attributeName = attributeNames.get(i);
-										ps.setString(1, session.primaryKey);
-										ps.setString(2, attributeName);
-										serialize(ps, 3, session.getAttribute(attributeName));
-									}
-
-									@Override
-									public int getBatchSize() {
-										return attributeNames.size();
-									}
-
-								});
-					}
+					List<String> attributeNames = new ArrayList<>(session.getAttributeNames());
+					insertSessionAttributes(session, attributeNames,
+							JdbcOperationsSessionRepository.this.createSessionAttributeQuery);
 				}
 
 			});
 		}
 		else {
+			if (session.isLastAccessedTimeOnlyChanged()
+					&& !isLastAccessedTimeUpdateRequired(session)) {
+				return;
+			}
 			this.transactionOperations.execute(new TransactionCallbackWithoutResult() {
 
 				@Override
@@ -422,37 +554,35 @@ public class JdbcOperationsSessionRepository implements
 									ps.setString(6, session.primaryKey);
 								});
 					}
-					Map<String, Object> delta = session.getDelta();
-					if (!delta.isEmpty()) {
-						for (final Map.Entry<String, Object> entry : delta.entrySet()) {
-							if (entry.getValue() == null) {
-								JdbcOperationsSessionRepository.this.jdbcOperations.update(
-										JdbcOperationsSessionRepository.this.deleteSessionAttributeQuery,
-										ps -> {
-											ps.setString(1, session.primaryKey);
-											ps.setString(2, entry.getKey());
-										});
-							}
-							else {
-								int updatedCount = JdbcOperationsSessionRepository.this.jdbcOperations.update(
-										JdbcOperationsSessionRepository.this.updateSessionAttributeQuery,
-										ps -> {
-											serialize(ps, 1, entry.getValue());
-											ps.setString(2, session.primaryKey);
-											ps.setString(3, entry.getKey());
-										});
-								if (updatedCount == 0) {
-									JdbcOperationsSessionRepository.this.jdbcOperations.update(
-											JdbcOperationsSessionRepository.this.createSessionAttributeQuery,
-											ps -> {
-												ps.setString(1, session.primaryKey);
-												ps.setString(2, entry.getKey());
-												serialize(ps, 3, entry.getValue());
-											});
-								}
-							}
+					Map<String, DeltaValue> delta = session.getDelta();
+					List<String> addedAttributeNames = new ArrayList<>();
+					List<String> updatedAttributeNames = new ArrayList<>();
+					List<String> removedAttributeNames = new ArrayList<>();
+					for (Map.Entry<String, DeltaValue> entry : delta.entrySet()) {
+						if (entry.getValue() == DeltaValue.ADDED) {
+							addedAttributeNames.add(entry.getKey());
+						}
+						else if (entry.getValue() == DeltaValue.UPDATED) {
+							updatedAttributeNames.add(entry.getKey());
 						}
+						else {
+							removedAttributeNames.add(entry.getKey());
+						}
+					}
+					String upsertQuery = JdbcOperationsSessionRepository.this.customSessionAttributeQueries
+							? null
+							: JdbcOperationsSessionRepository.this.upsertSessionAttributeQuery;
+					if (upsertQuery != null) {
+						addedAttributeNames.addAll(updatedAttributeNames);
+						insertSessionAttributes(session, addedAttributeNames, upsertQuery);
+					}
+					else {
+						addedAttributeNames.addAll(
+								updateSessionAttributes(session, updatedAttributeNames));
+						insertSessionAttributes(session, addedAttributeNames,
+								JdbcOperationsSessionRepository.this.createSessionAttributeQuery);
 					}
+					deleteSessionAttributes(session, removedAttributeNames);
 				}
 
 			});
@@ -521,15 +651,205 @@ public class JdbcOperationsSessionRepository implements
 		return sessionMap;
 	}
 
+	/**
+	 * Deletes the expired sessions. Depending on the configured cleanup batch size, the
+	 * sessions are either deleted using a single statement or in batches.
+	 * @see #setCleanupBatchSize(int)
+	 * @see #cleanUpExpiredSessionsWithResult()
+	 */
 	public void cleanUpExpiredSessions() {
-		Integer deletedCount = this.transactionOperations.execute(transactionStatus ->
-				JdbcOperationsSessionRepository.this.jdbcOperations.update(
-						JdbcOperationsSessionRepository.this.deleteSessionsByExpiryTimeQuery,
-						System.currentTimeMillis()));
+		cleanUpExpiredSessionsWithResult();
+	}
+
+	/**
+	 * Deletes the expired sessions like {@link #cleanUpExpiredSessions()} and returns the
+	 * outcome of the cleanup.
+	 * @return the outcome of the cleanup
+	 * @since 2.0.0
+	 */
+	public CleanupResult cleanUpExpiredSessionsWithResult() {
+		long start = System.nanoTime();
+		long now = System.currentTimeMillis();
+		CleanupResult result;
+		if (this.cleanupBatchSize > 0) {
+			result = cleanUpExpiredSessionsInBatches(now, start);
+		}
+		else {
+			Integer deletedCount = this.transactionOperations.execute(transactionStatus ->
+					JdbcOperationsSessionRepository.this.jdbcOperations.update(
+							JdbcOperationsSessionRepository.this.deleteSessionsByExpiryTimeQuery,
+							now));
+			result = new CleanupResult(deletedCount, 1,
+					Duration.ofNanos(System.nanoTime() - start));
+		}
 
 		if (logger.isDebugEnabled()) {
-			logger.debug("Cleaned up " + deletedCount + " expired sessions");
+			logger.debug("Cleaned up " + result.getDeletedCount()
+					+ " expired sessions in " + result.getBatchCount() + " batch(es) and "
+					+ result.getDuration().toMillis() + " ms");
+		}
+		return result;
+	}
+
+	private CleanupResult cleanUpExpiredSessionsInBatches(long now, long start) {
+		long deadline = start + this.cleanupTimeBudget.toNanos();
+		boolean budgeted = !this.cleanupTimeBudget.isZero();
+		int deletedCount = 0;
+		int batchCount = 0;
+		while (true) {
+			int[] updateCounts = this.transactionOperations.execute(
+					transactionStatus -> deleteExpiredSessionsBatch(now));
+			if (updateCounts.length == 0) {
+				break;
+			}
+			batchCount++;
+			for (int updateCount : updateCounts) {
+				// some drivers do not report the number of affected rows
+				if (updateCount > 0 || updateCount == Statement.SUCCESS_NO_INFO) {
+					deletedCount++;
+				}
+			}
+			if (updateCounts.length < this.cleanupBatchSize
+					|| (budgeted && System.nanoTime() - deadline >= 0)) {
+				break;
+			}
+			if (!this.cleanupBatchPause.isZero()) {
+				try {
+					Thread.sleep(this.cleanupBatchPause.toMillis());
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
 		}
+		return new CleanupResult(deletedCount, batchCount,
+				Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	private int[] deleteExpiredSessionsBatch(long now) {
+		PreparedStatementCreator listExpiredSessionIds = connection -> {
+			PreparedStatement ps = connection
+					.prepareStatement(this.listExpiredSessionIdsQuery);
+			ps.setMaxRows(this.cleanupBatchSize);
+			ps.setLong(1, now);
+			return ps;
+		};
+		List<String> primaryIds = this.jdbcOperations.query(listExpiredSessionIds,
+				(rs, rowNum) -> rs.getString("PRIMARY_ID"));
+		if (primaryIds.isEmpty()) {
+			return new int[0];
+		}
+		return this.jdbcOperations.batchUpdate(this.deleteExpiredSessionQuery,
+				new BatchPreparedStatementSetter() {
+
+					@Override
+					public void setValues(PreparedStatement ps, int i)
+							throws SQLException {
+						ps.setString(1, primaryIds.get(i));
+						ps.setLong(2, now);
+					}
+
+					@Override
+					public int getBatchSize() {
+						return primaryIds.size();
+					}
+
+				});
+	}
+
+	private void insertSessionAttributes(JdbcSession session, List<String> attributeNames,
+			String query) {
+		if (attributeNames.isEmpty()) {
+			return;
+		}
+		this.jdbcOperations.batchUpdate(query, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				String attributeName = attributeNames.get(i);
+				ps.setString(1, session.primaryKey);
+				ps.setString(2, attributeName);
+				serialize(ps, 3, session.getAttribute(attributeName));
+			}
+
+			@Override
+			public int getBatchSize() {
+				return attributeNames.size();
+			}
+
+		});
+	}
+
+	/**
+	 * Updates the provided attributes of the session.
+	 * @param session the session
+	 * @param attributeNames the names of the attributes to update
+	 * @return the names of the attributes whose row was not found, for example because it
+	 * was removed concurrently, and therefore needs to be inserted
+	 */
+	private List<String> updateSessionAttributes(JdbcSession session,
+			List<String> attributeNames) {
+		if (attributeNames.isEmpty()) {
+			return Collections.emptyList();
+		}
+		int[] updatedCounts = this.jdbcOperations.batchUpdate(this.updateSessionAttributeQuery,
+				new BatchPreparedStatementSetter() {
+
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						String attributeName = attributeNames.get(i);
+						serialize(ps, 1, session.getAttribute(attributeName));
+						ps.setString(2, session.primaryKey);
+						ps.setString(3, attributeName);
+					}
+
+					@Override
+					public int getBatchSize() {
+						return attributeNames.size();
+					}
+
+				});
+		List<String> missingAttributeNames = new ArrayList<>();
+		for (int i = 0; i < updatedCounts.length; i++) {
+			if (updatedCounts[i] == 0) {
+				missingAttributeNames.add(attributeNames.get(i));
+			}
+		}
+		return missingAttributeNames;
+	}
+
+	private void deleteSessionAttributes(JdbcSession session, List<String> attributeNames) {
+		if (attributeNames.isEmpty()) {
+			return;
+		}
+		this.jdbcOperations.batchUpdate(this.deleteSessionAttributeQuery,
+				new BatchPreparedStatementSetter() {
+
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						ps.setString(1, session.primaryKey);
+						ps.setString(2, attributeNames.get(i));
+					}
+
+					@Override
+					public int getBatchSize() {
+						return attributeNames.size();
+					}
+
+				});
+	}
+
+	private boolean isLastAccessedTimeUpdateRequired(JdbcSession session) {
+		Duration maxInactiveInterval = session.getMaxInactiveInterval();
+		if (this.lastAccessedTimeUpdateThreshold <= 0
+				|| maxInactiveInterval.isNegative() || maxInactiveInterval.isZero()) {
+			return true;
+		}
+		long elapsed = Duration.between(session.originalLastAccessedTime,
+				session.getLastAccessedTime()).toMillis();
+		return elapsed >= (long) (maxInactiveInterval.toMillis()
+				* this.lastAccessedTimeUpdateThreshold);
 	}
 
 	private static TransactionTemplate createTransactionTemplate(
@@ -567,6 +887,8 @@ public class JdbcOperationsSessionRepository implements
 				getQuery(LIST_SESSIONS_BY_PRINCIPAL_NAME_QUERY);
 		this.deleteSessionsByExpiryTimeQuery =
 				getQuery(DELETE_SESSIONS_BY_EXPIRY_TIME_QUERY);
+		this.listExpiredSessionIdsQuery = getQuery(LIST_EXPIRED_SESSION_IDS_QUERY);
+		this.deleteExpiredSessionQuery = getQuery(DELETE_EXPIRED_SESSION_QUERY);
 	}
 
 	private void serialize(PreparedStatement ps, int paramIndex, Object attributeValue)
@@ -577,16 +899,46 @@ public class JdbcOperationsSessionRepository implements
 						TypeDescriptor.valueOf(byte[].class)));
 	}
 
-	private Object deserialize(ResultSet rs, String columnName)
-			throws SQLException {
-		return this.conversionService.convert(
-				this.lobHandler.getBlobAsBytes(rs, columnName),
+	private Object deserialize(byte[] bytes) {
+		return this.conversionService.convert(bytes,
 				TypeDescriptor.valueOf(byte[].class),
 				TypeDescriptor.valueOf(Object.class));
 	}
 
+	private static <T> Supplier<T> value(T value) {
+		return (value != null) ? () -> value : null;
+	}
+
+	/**
+	 * Creates a {@link Supplier} that invokes the provided {@link Supplier} the first time
+	 * the value is requested and then keeps the result.
+	 * @param supplier the supplier of the value
+	 * @param <T> the type of the value
+	 * @return the memoizing supplier
+	 */
+	private static <T> Supplier<T> lazily(Supplier<T> supplier) {
+		return new Supplier<T>() {
+
+			private boolean loaded;
+
+			private T value;
+
+			@Override
+			public T get() {
+				if (!this.loaded) {
+					this.value = supplier.get();
+					this.loaded = true;
+				}
+				return this.value;
+			}
+
+		};
+	}
+
 	/**
-	 * The {@link Session} to use for {@link JdbcOperationsSessionRepository}.
+	 * The {@link Session} to use for {@link JdbcOperationsSessionRepository}. The
+	 * attributes of a session loaded from the database are kept in their serialized form
+	 * and are only deserialized the first time they are requested.
 	 *
 	 * @author Vedran Pavic
 	 */
@@ -600,7 +952,11 @@ public class JdbcOperationsSessionRepository implements
 
 		private boolean changed;
 
-		private Map<String, Object> delta = new HashMap<>();
+		private boolean lastAccessedTimeChanged;
+
+		private Instant originalLastAccessedTime;
+
+		private Map<String, DeltaValue> delta = new HashMap<>();
 
 		JdbcSession() {
 			this.delegate = new MapSession();
@@ -613,6 +969,7 @@ public class JdbcOperationsSessionRepository implements
 			Assert.notNull(delegate, "Session cannot be null");
 			this.primaryKey = primaryKey;
 			this.delegate = delegate;
+			this.originalLastAccessedTime = delegate.getLastAccessedTime();
 		}
 
 		boolean isNew() {
@@ -620,21 +977,28 @@ public class JdbcOperationsSessionRepository implements
 		}
 
 		boolean isChanged() {
-			return this.changed;
+			return this.changed || this.lastAccessedTimeChanged;
 		}
 
-		Map<String, Object> getDelta() {
+		boolean isLastAccessedTimeOnlyChanged() {
+			return this.lastAccessedTimeChanged && !this.changed && this.delta.isEmpty();
+		}
+
+		Map<String, DeltaValue> getDelta() {
 			return this.delta;
 		}
 
 		void clearChangeFlags() {
 			this.isNew = false;
 			this.changed = false;
+			this.lastAccessedTimeChanged = false;
+			this.originalLastAccessedTime = getLastAccessedTime();
 			this.delta.clear();
 		}
 
 		String getPrincipalName() {
-			return PRINCIPAL_NAME_RESOLVER.resolvePrincipal(this);
+			return JdbcOperationsSessionRepository.this.principalNameResolver
+					.resolvePrincipal(this);
 		}
 
 		Instant getExpiryTime() {
@@ -654,7 +1018,8 @@ public class JdbcOperationsSessionRepository implements
 
 		@Override
 		public <T> T getAttribute(String attributeName) {
-			return this.delegate.getAttribute(attributeName);
+			Supplier<T> supplier = this.delegate.getAttribute(attributeName);
+			return (supplier != null) ? supplier.get() : null;
 		}
 
 		@Override
@@ -664,8 +1029,29 @@ public class JdbcOperationsSessionRepository implements
 
 		@Override
 		public void setAttribute(String attributeName, Object attributeValue) {
-			this.delegate.setAttribute(attributeName, attributeValue);
-			this.delta.put(attributeName, attributeValue);
+			boolean attributeExists = (this.delegate.getAttribute(attributeName) != null);
+			boolean attributeRemoved = (attributeValue == null);
+			if (!attributeExists && attributeRemoved) {
+				return;
+			}
+			if (attributeExists) {
+				if (attributeRemoved) {
+					this.delta.merge(attributeName, DeltaValue.REMOVED,
+							(oldDeltaValue, deltaValue) -> (oldDeltaValue == DeltaValue.ADDED)
+									? null : deltaValue);
+				}
+				else {
+					this.delta.merge(attributeName, DeltaValue.UPDATED,
+							(oldDeltaValue, deltaValue) -> (oldDeltaValue == DeltaValue.ADDED)
+									? oldDeltaValue : deltaValue);
+				}
+			}
+			else {
+				this.delta.merge(attributeName, DeltaValue.ADDED,
+						(oldDeltaValue, deltaValue) -> (oldDeltaValue == DeltaValue.REMOVED)
+								? DeltaValue.UPDATED : deltaValue);
+			}
+			this.delegate.setAttribute(attributeName, value(attributeValue));
 			if (PRINCIPAL_NAME_INDEX_NAME.equals(attributeName) ||
 					SPRING_SECURITY_CONTEXT.equals(attributeName)) {
 				this.changed = true;
@@ -674,8 +1060,7 @@ public class JdbcOperationsSessionRepository implements
 
 		@Override
 		public void removeAttribute(String attributeName) {
-			this.delegate.removeAttribute(attributeName);
-			this.delta.put(attributeName, null);
+			setAttribute(attributeName, null);
 		}
 
 		@Override
@@ -686,7 +1071,7 @@ public class JdbcOperationsSessionRepository implements
 		@Override
 		public void setLastAccessedTime(Instant lastAccessedTime) {
 			this.delegate.setLastAccessedTime(lastAccessedTime);
-			this.changed = true;
+			this.lastAccessedTimeChanged = true;
 		}
 
 		@Override
@@ -713,28 +1098,67 @@ public class JdbcOperationsSessionRepository implements
 	}
 
 	/**
-	 * Resolves the Spring Security principal name.
+	 * The outcome of a {@link #cleanUpExpiredSessionsWithResult()} run.
 	 *
-	 * @author Vedran Pavic
+	 * @since 2.0.0
 	 */
-	static class PrincipalNameResolver {
+	public static final class CleanupResult {
 
-		private SpelExpressionParser parser = new SpelExpressionParser();
+		private final int deletedCount;
 
-		public String resolvePrincipal(Session session) {
-			String principalName = session.getAttribute(PRINCIPAL_NAME_INDEX_NAME);
-			if (principalName != null) {
-				return principalName;
-			}
-			Object authentication = session.getAttribute(SPRING_SECURITY_CONTEXT);
-			if (authentication != null) {
-				Expression expression = this.parser
-						.parseExpression("authentication?.name");
-				return expression.getValue(authentication, String.class);
-			}
-			return null;
+		private final int batchCount;
+
+		private final Duration duration;
+
+		CleanupResult(int deletedCount, int batchCount, Duration duration) {
+			this.deletedCount = deletedCount;
+			this.batchCount = batchCount;
+			this.duration = duration;
+		}
+
+		/**
+		 * Returns the number of deleted sessions. When the sessions are deleted in
+		 * batches and the JDBC driver reports {@link Statement#SUCCESS_NO_INFO} instead
+		 * of the number of affected rows, each such statement is counted as a deleted
+		 * session, so the count is an upper bound.
+		 * @return the number of deleted sessions
+		 */
+		public int getDeletedCount() {
+			return this.deletedCount;
+		}
+
+		/**
+		 * Returns the number of executed batches.
+		 * @return the number of executed batches
+		 */
+		public int getBatchCount() {
+			return this.batchCount;
+		}
+
+		/**
+		 * Returns the time the cleanup took.
+		 * @return the duration of the cleanup
+		 */
+		public Duration getDuration() {
+			return this.duration;
 		}
 
+		@Override
+		public String toString() {
+			return "CleanupResult [deletedCount=" + this.deletedCount + ", batchCount="
+					+ this.batchCount + ", duration=" + this.duration + "]";
+		}
+
+	}
+
+	/**
+	 * The kind of change made to a session attribute, used to determine the statement
+	 * needed to persist it.
+	 */
+	enum DeltaValue {
+
+		ADDED, UPDATED, REMOVED
+
 	}
 
 	private class SessionResultSetExtractor implements ResultSetExtractor<List<JdbcSession>> {
@@ -758,7 +1182,10 @@ public class JdbcOperationsSessionRepository implements
 				}
 				String attributeName = rs.getString("ATTRIBUTE_NAME");
 				if (attributeName != null) {
-					session.setAttribute(attributeName, deserialize(rs, "ATTRIBUTE_BYTES"));
+					byte[] bytes = JdbcOperationsSessionRepository.this.lobHandler
+							.getBlobAsBytes(rs, "ATTRIBUTE_BYTES");
+					session.delegate.setAttribute(attributeName,
+							lazily(() -> deserialize(bytes)));
 				}
 				sessions.add(session);
 			}
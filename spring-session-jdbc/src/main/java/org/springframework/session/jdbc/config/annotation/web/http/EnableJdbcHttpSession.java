@@ -96,4 +96,24 @@ public @interface EnableJdbcHttpSession {
 	 */
 	String cleanupCron() default JdbcHttpSessionConfiguration.DEFAULT_CLEANUP_CRON;
 
+	/**
+	 * The fraction of the maximum inactive interval that needs to elapse since the stored
+	 * last access time before a request that only accesses the session updates it. By
+	 * default, the session is updated on every request.
+	 * @return the last accessed time update threshold
+	 * @since 2.0.0
+	 */
+	double lastAccessedTimeUpdateThreshold() default 0;
+
+	/**
+	 * Whether the session attributes should be inserted or updated using the upsert
+	 * syntax of the database. It is only used for H2, MySQL, MariaDB, PostgreSQL 9.5 or
+	 * later, Oracle and SQL Server 2008 or later, and not if the queries used to create
+	 * or update the session attributes were customized. By default, the session
+	 * attributes are updated and then inserted if they do not exist yet.
+	 * @return whether to upsert the session attributes
+	 * @since 2.0.0
+	 */
+	boolean upsertSessionAttributes() default false;
+
 }
@@ -16,10 +16,18 @@
 
 package org.springframework.session.jdbc.config.annotation.web.http;
 
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 import javax.sql.DataSource;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,14 +43,19 @@ import org.springframework.core.serializer.support.DeserializingConverter;
 import org.springframework.core.serializer.support.SerializingConverter;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
 import org.springframework.jdbc.support.lob.LobHandler;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.session.MapSession;
+import org.springframework.session.PrincipalNameResolver;
 import org.springframework.session.config.annotation.web.http.SpringHttpSessionConfiguration;
 import org.springframework.session.jdbc.JdbcOperationsSessionRepository;
 import org.springframework.session.jdbc.config.annotation.SpringSessionDataSource;
+import org.springframework.session.serializer.CompressingSerializer;
+import org.springframework.session.serializer.ValueCompressor;
 import org.springframework.session.web.http.SessionRepositoryFilter;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.util.StringUtils;
@@ -69,12 +82,56 @@ public class JdbcHttpSessionConfiguration extends SpringHttpSessionConfiguration
 
 	static final String DEFAULT_CLEANUP_CRON = "0 * * * * *";
 
+	private static final Log logger = LogFactory
+			.getLog(JdbcHttpSessionConfiguration.class);
+
+	private static final Map<String, String> UPSERT_SESSION_ATTRIBUTE_QUERIES;
+
+	static {
+		Map<String, String> queries = new HashMap<>();
+		queries.put("H2", "MERGE INTO %TABLE_NAME%_ATTRIBUTES(SESSION_PRIMARY_ID, ATTRIBUTE_NAME, ATTRIBUTE_BYTES) " +
+				"KEY (SESSION_PRIMARY_ID, ATTRIBUTE_NAME) " +
+				"VALUES (?, ?, ?)");
+		String onDuplicateKeyQuery = "INSERT INTO %TABLE_NAME%_ATTRIBUTES(SESSION_PRIMARY_ID, ATTRIBUTE_NAME, ATTRIBUTE_BYTES) " +
+				"VALUES (?, ?, ?) " +
+				"ON DUPLICATE KEY UPDATE ATTRIBUTE_BYTES = VALUES(ATTRIBUTE_BYTES)";
+		queries.put("MySQL", onDuplicateKeyQuery);
+		queries.put("MariaDB", onDuplicateKeyQuery);
+		queries.put("PostgreSQL", "INSERT INTO %TABLE_NAME%_ATTRIBUTES(SESSION_PRIMARY_ID, ATTRIBUTE_NAME, ATTRIBUTE_BYTES) " +
+				"VALUES (?, ?, ?) " +
+				"ON CONFLICT (SESSION_PRIMARY_ID, ATTRIBUTE_NAME) " +
+				"DO UPDATE SET ATTRIBUTE_BYTES = EXCLUDED.ATTRIBUTE_BYTES");
+		queries.put("Oracle", "MERGE INTO %TABLE_NAME%_ATTRIBUTES SA " +
+				"USING (SELECT ? AS SESSION_PRIMARY_ID, ? AS ATTRIBUTE_NAME, ? AS ATTRIBUTE_BYTES FROM DUAL) A " +
+				"ON (SA.SESSION_PRIMARY_ID = A.SESSION_PRIMARY_ID AND SA.ATTRIBUTE_NAME = A.ATTRIBUTE_NAME) " +
+				"WHEN MATCHED THEN UPDATE SET ATTRIBUTE_BYTES = A.ATTRIBUTE_BYTES " +
+				"WHEN NOT MATCHED THEN INSERT (SESSION_PRIMARY_ID, ATTRIBUTE_NAME, ATTRIBUTE_BYTES) " +
+				"VALUES (A.SESSION_PRIMARY_ID, A.ATTRIBUTE_NAME, A.ATTRIBUTE_BYTES)");
+		queries.put("Microsoft SQL Server", "MERGE INTO %TABLE_NAME%_ATTRIBUTES SA " +
+				"USING (VALUES (?, ?, ?)) A (SESSION_PRIMARY_ID, ATTRIBUTE_NAME, ATTRIBUTE_BYTES) " +
+				"ON (SA.SESSION_PRIMARY_ID = A.SESSION_PRIMARY_ID AND SA.ATTRIBUTE_NAME = A.ATTRIBUTE_NAME) " +
+				"WHEN MATCHED THEN UPDATE SET ATTRIBUTE_BYTES = A.ATTRIBUTE_BYTES " +
+				"WHEN NOT MATCHED THEN INSERT (SESSION_PRIMARY_ID, ATTRIBUTE_NAME, ATTRIBUTE_BYTES) " +
+				"VALUES (A.SESSION_PRIMARY_ID, A.ATTRIBUTE_NAME, A.ATTRIBUTE_BYTES);");
+		UPSERT_SESSION_ATTRIBUTE_QUERIES = Collections.unmodifiableMap(queries);
+	}
+
 	private Integer maxInactiveIntervalInSeconds = MapSession.DEFAULT_MAX_INACTIVE_INTERVAL_SECONDS;
 
 	private String tableName = JdbcOperationsSessionRepository.DEFAULT_TABLE_NAME;
 
 	private String cleanupCron = DEFAULT_CLEANUP_CRON;
 
+	private double lastAccessedTimeUpdateThreshold;
+
+	private int cleanupBatchSize;
+
+	private Duration cleanupBatchPause = Duration.ZERO;
+
+	private Duration cleanupTimeBudget = Duration.ZERO;
+
+	private boolean upsertSessionAttributes;
+
 	private DataSource dataSource;
 
 	private PlatformTransactionManager transactionManager;
@@ -85,6 +142,10 @@ public class JdbcHttpSessionConfiguration extends SpringHttpSessionConfiguration
 
 	private ConversionService conversionService;
 
+	private ValueCompressor valueCompressor;
+
+	private PrincipalNameResolver principalNameResolver;
+
 	private ClassLoader classLoader;
 
 	private StringValueResolver embeddedValueResolver;
@@ -99,6 +160,18 @@ public class JdbcHttpSessionConfiguration extends SpringHttpSessionConfiguration
 		}
 		sessionRepository
 				.setDefaultMaxInactiveInterval(this.maxInactiveIntervalInSeconds);
+		sessionRepository
+				.setLastAccessedTimeUpdateThreshold(this.lastAccessedTimeUpdateThreshold);
+		sessionRepository.setCleanupBatchSize(this.cleanupBatchSize);
+		sessionRepository.setCleanupBatchPause(this.cleanupBatchPause);
+		sessionRepository.setCleanupTimeBudget(this.cleanupTimeBudget);
+		if (this.upsertSessionAttributes) {
+			String upsertSessionAttributeQuery = getUpsertSessionAttributeQuery();
+			if (upsertSessionAttributeQuery != null) {
+				sessionRepository
+						.setUpsertSessionAttributeQuery(upsertSessionAttributeQuery);
+			}
+		}
 		if (this.lobHandler != null) {
 			sessionRepository.setLobHandler(this.lobHandler);
 		}
@@ -112,6 +185,9 @@ public class JdbcHttpSessionConfiguration extends SpringHttpSessionConfiguration
 			sessionRepository
 					.setConversionService(createConversionServiceWithBeanClassLoader());
 		}
+		if (this.principalNameResolver != null) {
+			sessionRepository.setPrincipalNameResolver(this.principalNameResolver);
+		}
 		return sessionRepository;
 	}
 
@@ -127,6 +203,34 @@ public class JdbcHttpSessionConfiguration extends SpringHttpSessionConfiguration
 		this.cleanupCron = cleanupCron;
 	}
 
+	public void setLastAccessedTimeUpdateThreshold(
+			double lastAccessedTimeUpdateThreshold) {
+		this.lastAccessedTimeUpdateThreshold = lastAccessedTimeUpdateThreshold;
+	}
+
+	public void setCleanupBatchSize(int cleanupBatchSize) {
+		this.cleanupBatchSize = cleanupBatchSize;
+	}
+
+	public void setCleanupBatchPause(Duration cleanupBatchPause) {
+		this.cleanupBatchPause = cleanupBatchPause;
+	}
+
+	public void setCleanupTimeBudget(Duration cleanupTimeBudget) {
+		this.cleanupTimeBudget = cleanupTimeBudget;
+	}
+
+	/**
+	 * Sets whether the session attributes should be inserted or updated using the upsert
+	 * syntax of the database, if it is known and supported by the database version.
+	 * Otherwise the queries used to create and update the session attributes are used.
+	 * The default is {@code false}.
+	 * @param upsertSessionAttributes whether to upsert the session attributes
+	 */
+	public void setUpsertSessionAttributes(boolean upsertSessionAttributes) {
+		this.upsertSessionAttributes = upsertSessionAttributes;
+	}
+
 	@Autowired
 	public void setDataSource(
 			@SpringSessionDataSource ObjectProvider<DataSource> springSessionDataSource,
@@ -161,6 +265,17 @@ public class JdbcHttpSessionConfiguration extends SpringHttpSessionConfiguration
 		this.conversionService = conversionService;
 	}
 
+	@Autowired(required = false)
+	@Qualifier("springSessionValueCompressor")
+	public void setValueCompressor(ValueCompressor valueCompressor) {
+		this.valueCompressor = valueCompressor;
+	}
+
+	@Autowired(required = false)
+	public void setPrincipalNameResolver(PrincipalNameResolver principalNameResolver) {
+		this.principalNameResolver = principalNameResolver;
+	}
+
 	@Override
 	public void setBeanClassLoader(ClassLoader classLoader) {
 		this.classLoader = classLoader;
@@ -187,6 +302,9 @@ public class JdbcHttpSessionConfiguration extends SpringHttpSessionConfiguration
 		if (StringUtils.hasText(cleanupCron)) {
 			this.cleanupCron = cleanupCron;
 		}
+		this.lastAccessedTimeUpdateThreshold = attributes
+				.getNumber("lastAccessedTimeUpdateThreshold").doubleValue();
+		this.upsertSessionAttributes = attributes.getBoolean("upsertSessionAttributes");
 	}
 
 	@Override
@@ -195,6 +313,68 @@ public class JdbcHttpSessionConfiguration extends SpringHttpSessionConfiguration
 				this.cleanupCron);
 	}
 
+	/**
+	 * Returns the query used to insert or update a session attribute in a single
+	 * statement, if the upsert syntax of the database is known and supported by its
+	 * version.
+	 * @return the upsert query or {@code null} if not supported
+	 */
+	private String getUpsertSessionAttributeQuery() {
+		String query;
+		try {
+			query = (String) JdbcUtils.extractDatabaseMetaData(this.dataSource,
+					JdbcHttpSessionConfiguration::getUpsertSessionAttributeQuery);
+		}
+		catch (MetaDataAccessException ex) {
+			logger.warn("Unable to determine the database, using the queries to create "
+					+ "and update session attributes", ex);
+			return null;
+		}
+		if (query == null) {
+			return null;
+		}
+		String tableName = StringUtils.hasText(this.tableName) ? this.tableName.trim()
+				: JdbcOperationsSessionRepository.DEFAULT_TABLE_NAME;
+		return query.replace("%TABLE_NAME%", tableName);
+	}
+
+	private static String getUpsertSessionAttributeQuery(DatabaseMetaData metaData)
+			throws SQLException {
+		String databaseName = JdbcUtils
+				.commonDatabaseName(metaData.getDatabaseProductName());
+		int majorVersion = metaData.getDatabaseMajorVersion();
+		int minorVersion = metaData.getDatabaseMinorVersion();
+		String databaseVersion = databaseName + " " + majorVersion + "." + minorVersion;
+		String query = UPSERT_SESSION_ATTRIBUTE_QUERIES.get(databaseName);
+		if (query != null
+				&& !isUpsertSupported(databaseName, majorVersion, minorVersion)) {
+			query = null;
+		}
+		if (query == null) {
+			logger.info("Upsert of session attributes is not supported by "
+					+ databaseVersion + ", using the queries to create and update "
+					+ "session attributes");
+		}
+		else {
+			logger.info("Using the " + databaseVersion
+					+ " upsert query for session attributes");
+		}
+		return query;
+	}
+
+	private static boolean isUpsertSupported(String databaseName, int majorVersion,
+			int minorVersion) {
+		if ("PostgreSQL".equals(databaseName)) {
+			// ON CONFLICT was added in PostgreSQL 9.5
+			return majorVersion > 9 || (majorVersion == 9 && minorVersion >= 5);
+		}
+		if ("Microsoft SQL Server".equals(databaseName)) {
+			// MERGE was added in SQL Server 2008
+			return majorVersion >= 10;
+		}
+		return true;
+	}
+
 	private static JdbcTemplate createJdbcTemplate(DataSource dataSource) {
 		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
 		jdbcTemplate.afterPropertiesSet();
@@ -203,6 +383,15 @@ public class JdbcHttpSessionConfiguration extends SpringHttpSessionConfiguration
 
 	private GenericConversionService createConversionServiceWithBeanClassLoader() {
 		GenericConversionService conversionService = new GenericConversionService();
+		if (this.valueCompressor != null) {
+			CompressingSerializer serializer = new CompressingSerializer(this.classLoader);
+			serializer.setValueCompressor(this.valueCompressor);
+			conversionService.addConverter(Object.class, byte[].class,
+					new SerializingConverter(serializer));
+			conversionService.addConverter(byte[].class, Object.class,
+					new DeserializingConverter(serializer));
+			return conversionService;
+		}
 		conversionService.addConverter(Object.class, byte[].class,
 				new SerializingConverter());
 		conversionService.addConverter(byte[].class, Object.class,
@@ -16,9 +16,12 @@
 
 package org.springframework.session.jdbc;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -32,10 +35,14 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.PreparedStatementSetter;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.AuthorityUtils;
@@ -54,6 +61,7 @@ import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -215,6 +223,14 @@ public class JdbcOperationsSessionRepositoryTests {
 		this.repository.setDeleteSessionAttributeQuery(" ");
 	}
 
+	@Test
+	public void setUpsertSessionAttributeQueryEmpty() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("Query must not be empty");
+
+		this.repository.setUpsertSessionAttributeQuery(" ");
+	}
+
 	@Test
 	public void setDeleteSessionQueryNull() {
 		this.thrown.expect(IllegalArgumentException.class);
@@ -271,6 +287,23 @@ public class JdbcOperationsSessionRepositoryTests {
 		this.repository.setLobHandler(null);
 	}
 
+	@Test
+	public void setLastAccessedTimeUpdateThresholdInvalid() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage(
+				"lastAccessedTimeUpdateThreshold must be in the range [0, 1)");
+
+		this.repository.setLastAccessedTimeUpdateThreshold(1.5);
+	}
+
+	@Test
+	public void setPrincipalNameResolverNull() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("principalNameResolver cannot be null");
+
+		this.repository.setPrincipalNameResolver(null);
+	}
+
 	@Test
 	public void setConversionServiceNull() {
 		this.thrown.expect(IllegalArgumentException.class);
@@ -344,9 +377,163 @@ public class JdbcOperationsSessionRepositoryTests {
 
 		assertThat(session.isNew()).isFalse();
 		assertPropagationRequiresNew();
-		verify(this.jdbcOperations, times(1)).update(
+		verify(this.jdbcOperations, times(1)).batchUpdate(
+				and(startsWith("INSERT"), contains("ATTRIBUTE_BYTES")),
+				isA(BatchPreparedStatementSetter.class));
+		verifyNoMoreInteractions(this.jdbcOperations);
+	}
+
+	@Test
+	public void saveUpdatedExistingAttributes() {
+		JdbcOperationsSessionRepository.JdbcSession session = this.repository.new JdbcSession("primaryKey",
+				new MapSession());
+		session.setAttribute("testName1", "testValue1");
+		session.setAttribute("testName2", "testValue2");
+		session.clearChangeFlags();
+		session.setAttribute("testName1", "updatedValue1");
+		session.setAttribute("testName2", "updatedValue2");
+		given(this.jdbcOperations.batchUpdate(
 				and(startsWith("UPDATE"), contains("ATTRIBUTE_BYTES")),
-				isA(PreparedStatementSetter.class));
+				isA(BatchPreparedStatementSetter.class))).willReturn(new int[] { 1, 1 });
+
+		this.repository.save(session);
+
+		assertPropagationRequiresNew();
+		ArgumentCaptor<BatchPreparedStatementSetter> setter = ArgumentCaptor
+				.forClass(BatchPreparedStatementSetter.class);
+		verify(this.jdbcOperations, times(1)).batchUpdate(
+				and(startsWith("UPDATE"), contains("ATTRIBUTE_BYTES")),
+				setter.capture());
+		assertThat(setter.getValue().getBatchSize()).isEqualTo(2);
+		verifyNoMoreInteractions(this.jdbcOperations);
+	}
+
+	@Test
+	public void saveUpdatedAttributesConcurrentlyRemoved() throws Exception {
+		JdbcOperationsSessionRepository.JdbcSession session = this.repository.new JdbcSession("primaryKey",
+				new MapSession());
+		session.setAttribute("testName1", "testValue1");
+		session.setAttribute("testName2", "testValue2");
+		session.clearChangeFlags();
+		session.setAttribute("testName1", "updatedValue1");
+		session.setAttribute("testName2", "updatedValue2");
+		given(this.jdbcOperations.batchUpdate(
+				and(startsWith("UPDATE"), contains("ATTRIBUTE_BYTES")),
+				isA(BatchPreparedStatementSetter.class))).willAnswer(invocation -> {
+					BatchPreparedStatementSetter setter = invocation.getArgument(1);
+					int[] updatedCounts = new int[setter.getBatchSize()];
+					for (int i = 0; i < updatedCounts.length; i++) {
+						PreparedStatement ps = mock(PreparedStatement.class);
+						setter.setValues(ps, i);
+						ArgumentCaptor<String> name = ArgumentCaptor.forClass(String.class);
+						verify(ps).setString(eq(3), name.capture());
+						updatedCounts[i] = "testName1".equals(name.getValue()) ? 0 : 1;
+					}
+					return updatedCounts;
+				});
+
+		this.repository.save(session);
+
+		assertPropagationRequiresNew();
+		ArgumentCaptor<BatchPreparedStatementSetter> setter = ArgumentCaptor
+				.forClass(BatchPreparedStatementSetter.class);
+		verify(this.jdbcOperations, times(1)).batchUpdate(
+				and(startsWith("INSERT"), contains("ATTRIBUTE_BYTES")),
+				setter.capture());
+		assertThat(setter.getValue().getBatchSize()).isEqualTo(1);
+		PreparedStatement ps = mock(PreparedStatement.class);
+		setter.getValue().setValues(ps, 0);
+		verify(ps).setString(2, "testName1");
+	}
+
+	@Test
+	public void saveRemovedAttributes() {
+		JdbcOperationsSessionRepository.JdbcSession session = this.repository.new JdbcSession("primaryKey",
+				new MapSession());
+		session.setAttribute("testName", "testValue");
+		session.clearChangeFlags();
+		session.removeAttribute("testName");
+
+		this.repository.save(session);
+
+		assertPropagationRequiresNew();
+		verify(this.jdbcOperations, times(1)).batchUpdate(startsWith("DELETE"),
+				isA(BatchPreparedStatementSetter.class));
+		verifyNoMoreInteractions(this.jdbcOperations);
+	}
+
+	@Test
+	public void saveAddedAndRemovedAttribute() {
+		JdbcOperationsSessionRepository.JdbcSession session = this.repository.new JdbcSession("primaryKey",
+				new MapSession());
+		session.setAttribute("testName", "testValue");
+		session.removeAttribute("testName");
+
+		this.repository.save(session);
+
+		verifyZeroInteractions(this.jdbcOperations);
+	}
+
+	@Test
+	public void saveRemovedAndAddedAttribute() {
+		JdbcOperationsSessionRepository.JdbcSession session = this.repository.new JdbcSession("primaryKey",
+				new MapSession());
+		session.setAttribute("testName", "testValue");
+		session.clearChangeFlags();
+		session.removeAttribute("testName");
+		session.setAttribute("testName", "testValue2");
+		given(this.jdbcOperations.batchUpdate(
+				and(startsWith("UPDATE"), contains("ATTRIBUTE_BYTES")),
+				isA(BatchPreparedStatementSetter.class))).willReturn(new int[] { 1 });
+
+		this.repository.save(session);
+
+		verify(this.jdbcOperations, times(1)).batchUpdate(
+				and(startsWith("UPDATE"), contains("ATTRIBUTE_BYTES")),
+				isA(BatchPreparedStatementSetter.class));
+		verifyNoMoreInteractions(this.jdbcOperations);
+	}
+
+	@Test
+	public void saveUpdatedAttributesUpsert() {
+		String upsertQuery = "MERGE INTO SPRING_SESSION_ATTRIBUTES";
+		this.repository.setUpsertSessionAttributeQuery(upsertQuery);
+		JdbcOperationsSessionRepository.JdbcSession session = this.repository.new JdbcSession("primaryKey",
+				new MapSession());
+		session.setAttribute("testName1", "testValue1");
+		session.clearChangeFlags();
+		session.setAttribute("testName1", "updatedValue1");
+		session.setAttribute("testName2", "testValue2");
+
+		this.repository.save(session);
+
+		ArgumentCaptor<BatchPreparedStatementSetter> setter = ArgumentCaptor
+				.forClass(BatchPreparedStatementSetter.class);
+		verify(this.jdbcOperations, times(1)).batchUpdate(eq(upsertQuery),
+				setter.capture());
+		assertThat(setter.getValue().getBatchSize()).isEqualTo(2);
+		verifyNoMoreInteractions(this.jdbcOperations);
+	}
+
+	@Test
+	public void saveUpdatedAttributeUpsertWithCustomUpdateQuery() {
+		String upsertQuery = "MERGE INTO SPRING_SESSION_ATTRIBUTES";
+		String updateQuery = "UPDATE CUSTOM_SESSION_ATTRIBUTES SET ATTRIBUTE_BYTES = ?";
+		this.repository.setUpsertSessionAttributeQuery(upsertQuery);
+		this.repository.setUpdateSessionAttributeQuery(updateQuery);
+		JdbcOperationsSessionRepository.JdbcSession session = this.repository.new JdbcSession("primaryKey",
+				new MapSession());
+		session.setAttribute("testName", "testValue");
+		session.clearChangeFlags();
+		session.setAttribute("testName", "updatedValue");
+		given(this.jdbcOperations.batchUpdate(eq(updateQuery),
+				isA(BatchPreparedStatementSetter.class))).willReturn(new int[] { 1 });
+
+		this.repository.save(session);
+
+		verify(this.jdbcOperations, times(1)).batchUpdate(eq(updateQuery),
+				isA(BatchPreparedStatementSetter.class));
+		verifyNoMoreInteractions(this.jdbcOperations);
 	}
 
 	@Test
@@ -364,6 +551,55 @@ public class JdbcOperationsSessionRepositoryTests {
 				isA(PreparedStatementSetter.class));
 	}
 
+	@Test
+	public void saveUpdatedLastAccessedTimeBelowUpdateThreshold() {
+		this.repository.setLastAccessedTimeUpdateThreshold(0.5);
+		MapSession saved = new MapSession();
+		JdbcOperationsSessionRepository.JdbcSession session = this.repository.new JdbcSession("primaryKey",
+				saved);
+		session.setLastAccessedTime(saved.getLastAccessedTime().plusSeconds(60));
+
+		this.repository.save(session);
+
+		verifyZeroInteractions(this.jdbcOperations);
+	}
+
+	@Test
+	public void saveUpdatedLastAccessedTimeAboveUpdateThreshold() {
+		this.repository.setLastAccessedTimeUpdateThreshold(0.5);
+		MapSession saved = new MapSession();
+		JdbcOperationsSessionRepository.JdbcSession session = this.repository.new JdbcSession("primaryKey",
+				saved);
+		session.setLastAccessedTime(saved.getLastAccessedTime().plusSeconds(901));
+
+		this.repository.save(session);
+
+		assertPropagationRequiresNew();
+		verify(this.jdbcOperations, times(1)).update(
+				and(startsWith("UPDATE"), contains("LAST_ACCESS_TIME")),
+				isA(PreparedStatementSetter.class));
+	}
+
+	@Test
+	public void saveUpdatedAttributesBelowUpdateThreshold() {
+		this.repository.setLastAccessedTimeUpdateThreshold(0.5);
+		MapSession saved = new MapSession();
+		JdbcOperationsSessionRepository.JdbcSession session = this.repository.new JdbcSession("primaryKey",
+				saved);
+		session.setLastAccessedTime(saved.getLastAccessedTime().plusSeconds(60));
+		session.setAttribute("testName", "testValue");
+
+		this.repository.save(session);
+
+		assertPropagationRequiresNew();
+		verify(this.jdbcOperations, times(1)).update(
+				and(startsWith("UPDATE"), contains("LAST_ACCESS_TIME")),
+				isA(PreparedStatementSetter.class));
+		verify(this.jdbcOperations, times(1)).batchUpdate(
+				and(startsWith("INSERT"), contains("ATTRIBUTE_BYTES")),
+				isA(BatchPreparedStatementSetter.class));
+	}
+
 	@Test
 	public void saveUnchanged() {
 		JdbcOperationsSessionRepository.JdbcSession session = this.repository.new JdbcSession("primaryKey",
@@ -433,6 +669,73 @@ public class JdbcOperationsSessionRepositoryTests {
 				isA(PreparedStatementSetter.class), isA(ResultSetExtractor.class));
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void getSessionAttributesDeserializedLazily() throws Exception {
+		ConversionService conversionService = mock(ConversionService.class);
+		this.repository.setConversionService(conversionService);
+		byte[] bytes = new byte[] { 1, 2, 3 };
+		Instant now = Instant.now();
+		ResultSet rs = mock(ResultSet.class);
+		given(rs.next()).willReturn(true, false);
+		given(rs.getString("SESSION_ID")).willReturn("testSessionId");
+		given(rs.getString("PRIMARY_ID")).willReturn("primaryKey");
+		given(rs.getLong("CREATION_TIME")).willReturn(now.toEpochMilli());
+		given(rs.getLong("LAST_ACCESS_TIME")).willReturn(now.toEpochMilli());
+		given(rs.getInt("MAX_INACTIVE_INTERVAL")).willReturn(1800);
+		given(rs.getString("ATTRIBUTE_NAME")).willReturn("testName");
+		given(rs.findColumn("ATTRIBUTE_BYTES")).willReturn(1);
+		given(rs.getBytes(1)).willReturn(bytes);
+		given(this.jdbcOperations.query(isA(String.class),
+				isA(PreparedStatementSetter.class), isA(ResultSetExtractor.class)))
+				.willAnswer(invocation -> invocation.<ResultSetExtractor<?>>getArgument(2)
+						.extractData(rs));
+		given(conversionService.convert(eq(bytes), isA(TypeDescriptor.class),
+				isA(TypeDescriptor.class))).willReturn("testValue");
+
+		JdbcOperationsSessionRepository.JdbcSession session = this.repository
+				.findById("testSessionId");
+
+		verifyZeroInteractions(conversionService);
+		assertThat(session.<String>getAttribute("testName")).isEqualTo("testValue");
+		assertThat(session.<String>getAttribute("testName")).isEqualTo("testValue");
+		verify(conversionService, times(1)).convert(eq(bytes),
+				isA(TypeDescriptor.class), isA(TypeDescriptor.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void getSessionAttributesDeserializedToNullOnce() throws Exception {
+		ConversionService conversionService = mock(ConversionService.class);
+		this.repository.setConversionService(conversionService);
+		byte[] bytes = new byte[] { 1, 2, 3 };
+		Instant now = Instant.now();
+		ResultSet rs = mock(ResultSet.class);
+		given(rs.next()).willReturn(true, false);
+		given(rs.getString("SESSION_ID")).willReturn("testSessionId");
+		given(rs.getString("PRIMARY_ID")).willReturn("primaryKey");
+		given(rs.getLong("CREATION_TIME")).willReturn(now.toEpochMilli());
+		given(rs.getLong("LAST_ACCESS_TIME")).willReturn(now.toEpochMilli());
+		given(rs.getInt("MAX_INACTIVE_INTERVAL")).willReturn(1800);
+		given(rs.getString("ATTRIBUTE_NAME")).willReturn("testName");
+		given(rs.findColumn("ATTRIBUTE_BYTES")).willReturn(1);
+		given(rs.getBytes(1)).willReturn(bytes);
+		given(this.jdbcOperations.query(isA(String.class),
+				isA(PreparedStatementSetter.class), isA(ResultSetExtractor.class)))
+				.willAnswer(invocation -> invocation.<ResultSetExtractor<?>>getArgument(2)
+						.extractData(rs));
+		given(conversionService.convert(eq(bytes), isA(TypeDescriptor.class),
+				isA(TypeDescriptor.class))).willReturn(null);
+
+		JdbcOperationsSessionRepository.JdbcSession session = this.repository
+				.findById("testSessionId");
+
+		assertThat(session.<String>getAttribute("testName")).isNull();
+		assertThat(session.<String>getAttribute("testName")).isNull();
+		verify(conversionService, times(1)).convert(eq(bytes),
+				isA(TypeDescriptor.class), isA(TypeDescriptor.class));
+	}
+
 	@Test
 	public void delete() {
 		String sessionId = "testSessionId";
@@ -509,6 +812,90 @@ public class JdbcOperationsSessionRepositoryTests {
 		verify(this.jdbcOperations, times(1)).update(startsWith("DELETE"), anyLong());
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void cleanUpExpiredSessionsInBatches() {
+		this.repository.setCleanupBatchSize(2);
+		given(this.jdbcOperations.query(isA(PreparedStatementCreator.class),
+				isA(RowMapper.class))).willReturn(Arrays.asList("1", "2"),
+						Collections.singletonList("3"));
+		given(this.jdbcOperations.batchUpdate(startsWith("DELETE"),
+				isA(BatchPreparedStatementSetter.class))).willReturn(new int[] { 1, 1 },
+						new int[] { 1 });
+
+		JdbcOperationsSessionRepository.CleanupResult result = this.repository
+				.cleanUpExpiredSessionsWithResult();
+
+		assertThat(result.getDeletedCount()).isEqualTo(3);
+		assertThat(result.getBatchCount()).isEqualTo(2);
+		assertPropagationRequiresNew();
+		verify(this.jdbcOperations, times(2)).query(isA(PreparedStatementCreator.class),
+				isA(RowMapper.class));
+		verify(this.jdbcOperations, times(2)).batchUpdate(startsWith("DELETE"),
+				isA(BatchPreparedStatementSetter.class));
+		verifyNoMoreInteractions(this.jdbcOperations);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void cleanUpExpiredSessionsInBatchesNoExpiredSessions() {
+		this.repository.setCleanupBatchSize(2);
+		given(this.jdbcOperations.query(isA(PreparedStatementCreator.class),
+				isA(RowMapper.class))).willReturn(Collections.emptyList());
+
+		JdbcOperationsSessionRepository.CleanupResult result = this.repository
+				.cleanUpExpiredSessionsWithResult();
+
+		assertThat(result.getDeletedCount()).isEqualTo(0);
+		assertThat(result.getBatchCount()).isEqualTo(0);
+		verify(this.jdbcOperations, times(1)).query(isA(PreparedStatementCreator.class),
+				isA(RowMapper.class));
+		verifyNoMoreInteractions(this.jdbcOperations);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void cleanUpExpiredSessionsInBatchesTimeBudgetExceeded() {
+		this.repository.setCleanupBatchSize(2);
+		this.repository.setCleanupTimeBudget(Duration.ofNanos(1));
+		given(this.jdbcOperations.query(isA(PreparedStatementCreator.class),
+				isA(RowMapper.class))).willReturn(Arrays.asList("1", "2"));
+		given(this.jdbcOperations.batchUpdate(startsWith("DELETE"),
+				isA(BatchPreparedStatementSetter.class))).willReturn(new int[] { 1, 1 });
+
+		JdbcOperationsSessionRepository.CleanupResult result = this.repository
+				.cleanUpExpiredSessionsWithResult();
+
+		assertThat(result.getDeletedCount()).isEqualTo(2);
+		assertThat(result.getBatchCount()).isEqualTo(1);
+		verify(this.jdbcOperations, times(1)).batchUpdate(startsWith("DELETE"),
+				isA(BatchPreparedStatementSetter.class));
+	}
+
+	@Test
+	public void setCleanupBatchSizeNegative() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("cleanupBatchSize must not be negative");
+
+		this.repository.setCleanupBatchSize(-1);
+	}
+
+	@Test
+	public void setCleanupBatchPauseNull() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("cleanupBatchPause must not be null");
+
+		this.repository.setCleanupBatchPause(null);
+	}
+
+	@Test
+	public void setCleanupTimeBudgetNegative() {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("cleanupTimeBudget must not be negative");
+
+		this.repository.setCleanupTimeBudget(Duration.ofSeconds(-1));
+	}
+
 	private void assertPropagationRequiresNew() {
 		ArgumentCaptor<TransactionDefinition> argument =
 				ArgumentCaptor.forClass(TransactionDefinition.class);
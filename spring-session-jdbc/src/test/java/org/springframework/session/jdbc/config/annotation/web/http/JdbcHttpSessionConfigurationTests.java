@@ -16,6 +16,11 @@
 
 package org.springframework.session.jdbc.config.annotation.web.http;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Collections;
+
 import javax.sql.DataSource;
 
 import org.junit.After;
@@ -35,10 +40,13 @@ import org.springframework.jdbc.support.lob.LobHandler;
 import org.springframework.mock.env.MockEnvironment;
 import org.springframework.session.jdbc.JdbcOperationsSessionRepository;
 import org.springframework.session.jdbc.config.annotation.SpringSessionDataSource;
+import org.springframework.session.serializer.DeflateCompressionCodec;
+import org.springframework.session.serializer.ValueCompressor;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 
 /**
@@ -267,6 +275,21 @@ public class JdbcHttpSessionConfigurationTests {
 		assertThat(repositoryConversionService).isEqualTo(conversionService);
 	}
 
+	@Test
+	public void customValueCompressorConfiguration() {
+		registerAndRefresh(DataSourceConfiguration.class,
+				CustomValueCompressorConfiguration.class);
+
+		JdbcOperationsSessionRepository repository = this.context
+				.getBean(JdbcOperationsSessionRepository.class);
+		ConversionService conversionService = (ConversionService) ReflectionTestUtils
+				.getField(repository, "conversionService");
+		String value = String.join("", Collections.nCopies(100, "value"));
+		byte[] bytes = conversionService.convert(value, byte[].class);
+		assertThat(bytes[0]).isEqualTo(DeflateCompressionCodec.ID);
+		assertThat(conversionService.convert(bytes, Object.class)).isEqualTo(value);
+	}
+
 	@Test
 	public void resolveTableNameByPropertyPlaceholder() {
 		this.context.setEnvironment(new MockEnvironment()
@@ -279,11 +302,69 @@ public class JdbcHttpSessionConfigurationTests {
 				.isEqualTo("custom_session_table");
 	}
 
+	@Test
+	public void defaultUpsertSessionAttributes() {
+		registerAndRefresh(DataSourceConfiguration.class, DefaultConfiguration.class);
+
+		JdbcOperationsSessionRepository repository = this.context
+				.getBean(JdbcOperationsSessionRepository.class);
+		assertThat(ReflectionTestUtils.getField(repository,
+				"upsertSessionAttributeQuery")).isNull();
+	}
+
+	@Test
+	public void upsertSessionAttributesAnnotation() {
+		registerAndRefresh(UpsertSessionAttributesAnnotationConfiguration.class);
+
+		JdbcOperationsSessionRepository repository = this.context
+				.getBean(JdbcOperationsSessionRepository.class);
+		assertThat(ReflectionTestUtils.getField(repository,
+				"upsertSessionAttributeQuery")).isEqualTo(
+						"INSERT INTO SPRING_SESSION_ATTRIBUTES(SESSION_PRIMARY_ID, "
+								+ "ATTRIBUTE_NAME, ATTRIBUTE_BYTES) VALUES (?, ?, ?) "
+								+ "ON CONFLICT (SESSION_PRIMARY_ID, ATTRIBUTE_NAME) "
+								+ "DO UPDATE SET ATTRIBUTE_BYTES = EXCLUDED.ATTRIBUTE_BYTES");
+	}
+
+	@Test
+	public void upsertSessionAttributesUnsupportedVersion() {
+		registerAndRefresh(UpsertSessionAttributesUnsupportedVersionConfiguration.class);
+
+		JdbcOperationsSessionRepository repository = this.context
+				.getBean(JdbcOperationsSessionRepository.class);
+		assertThat(ReflectionTestUtils.getField(repository,
+				"upsertSessionAttributeQuery")).isNull();
+	}
+
+	@Test
+	public void upsertSessionAttributesUnknownDatabase() {
+		registerAndRefresh(DataSourceConfiguration.class,
+				UpsertSessionAttributesSetterConfiguration.class);
+
+		JdbcOperationsSessionRepository repository = this.context
+				.getBean(JdbcOperationsSessionRepository.class);
+		assertThat(ReflectionTestUtils.getField(repository,
+				"upsertSessionAttributeQuery")).isNull();
+	}
+
 	private void registerAndRefresh(Class<?>... annotatedClasses) {
 		this.context.register(annotatedClasses);
 		this.context.refresh();
 	}
 
+	private static DataSource createDataSource(String databaseProductName,
+			int majorVersion, int minorVersion) throws SQLException {
+		DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+		given(metaData.getDatabaseProductName()).willReturn(databaseProductName);
+		given(metaData.getDatabaseMajorVersion()).willReturn(majorVersion);
+		given(metaData.getDatabaseMinorVersion()).willReturn(minorVersion);
+		Connection connection = mock(Connection.class);
+		given(connection.getMetaData()).willReturn(metaData);
+		DataSource dataSource = mock(DataSource.class);
+		given(dataSource.getConnection()).willReturn(connection);
+		return dataSource;
+	}
+
 	@EnableJdbcHttpSession
 	static class NoDataSourceConfiguration {
 
@@ -432,6 +513,58 @@ public class JdbcHttpSessionConfigurationTests {
 
 	}
 
+	@EnableJdbcHttpSession
+	static class CustomValueCompressorConfiguration {
+
+		@Bean
+		public ValueCompressor springSessionValueCompressor() {
+			ValueCompressor valueCompressor = new ValueCompressor();
+			valueCompressor.setThreshold(0);
+			return valueCompressor;
+		}
+
+	}
+
+	@EnableJdbcHttpSession(upsertSessionAttributes = true)
+	static class UpsertSessionAttributesAnnotationConfiguration {
+
+		@Bean
+		public DataSource dataSource() throws SQLException {
+			return createDataSource("PostgreSQL", 9, 6);
+		}
+
+		@Bean
+		public PlatformTransactionManager transactionManager() {
+			return mock(PlatformTransactionManager.class);
+		}
+
+	}
+
+	@EnableJdbcHttpSession(upsertSessionAttributes = true)
+	static class UpsertSessionAttributesUnsupportedVersionConfiguration {
+
+		@Bean
+		public DataSource dataSource() throws SQLException {
+			return createDataSource("PostgreSQL", 9, 4);
+		}
+
+		@Bean
+		public PlatformTransactionManager transactionManager() {
+			return mock(PlatformTransactionManager.class);
+		}
+
+	}
+
+	@Configuration
+	static class UpsertSessionAttributesSetterConfiguration
+			extends JdbcHttpSessionConfiguration {
+
+		UpsertSessionAttributesSetterConfiguration() {
+			setUpsertSessionAttributes(true);
+		}
+
+	}
+
 	@EnableJdbcHttpSession(tableName = "${session.jdbc.tableName}")
 	static class CustomJdbcHttpSessionConfiguration {
 